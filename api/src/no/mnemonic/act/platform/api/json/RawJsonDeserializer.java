@@ -0,0 +1,30 @@
+package no.mnemonic.act.platform.api.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+
+/**
+ * {@link JsonDeserializer} which reads a JSON object or array and returns its JSON representation as a String.
+ * A String value is returned as it is, i.e. the JSON may be provided either embedded or as an escaped String.
+ */
+public class RawJsonDeserializer extends JsonDeserializer<String> {
+
+  @Override
+  public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+    JsonNode node = p.readValueAsTree();
+    if (node.isTextual()) {
+      return node.asText();
+    }
+    if (node.isContainerNode()) {
+      return node.toString();
+    }
+
+    // Cannot handle input, throw a MismatchedInputException.
+    return (String) ctxt.handleUnexpectedToken(String.class, p);
+  }
+
+}
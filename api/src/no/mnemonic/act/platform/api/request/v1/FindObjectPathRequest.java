@@ -0,0 +1,83 @@
+package no.mnemonic.act.platform.api.request.v1;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import no.mnemonic.act.platform.api.request.ValidatingRequest;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.Set;
+import java.util.UUID;
+
+@ApiModel(description = "Find the shortest path of Facts connecting two Objects.")
+public class FindObjectPathRequest implements ValidatingRequest {
+
+  @ApiModelProperty(value = "Object where the path starts", example = "123e4567-e89b-12d3-a456-426655440000", required = true)
+  @NotNull
+  private UUID source;
+  @ApiModelProperty(value = "Object where the path ends", example = "123e4567-e89b-12d3-a456-426655440000", required = true)
+  @NotNull
+  private UUID destination;
+  @ApiModelProperty(value = "Only follow Facts with a specific FactType")
+  private Set<String> factType;
+  @ApiModelProperty(value = "Maximum number of Facts in the path (default 4)", example = "4")
+  @Min(1)
+  @Max(8)
+  private Integer depth;
+  @ApiModelProperty(value = "Limit the number of Facts followed per hop (default and maximum 1000, 0 means all which requires the unlimitedTraversal permission)", example = "1000")
+  @Min(0)
+  private Integer limit;
+
+  public UUID getSource() {
+    return source;
+  }
+
+  public FindObjectPathRequest setSource(UUID source) {
+    this.source = source;
+    return this;
+  }
+
+  public UUID getDestination() {
+    return destination;
+  }
+
+  public FindObjectPathRequest setDestination(UUID destination) {
+    this.destination = destination;
+    return this;
+  }
+
+  public Set<String> getFactType() {
+    return factType;
+  }
+
+  public FindObjectPathRequest setFactType(Set<String> factType) {
+    this.factType = factType;
+    return this;
+  }
+
+  public FindObjectPathRequest addFactType(String factType) {
+    this.factType = SetUtils.addToSet(this.factType, factType);
+    return this;
+  }
+
+  public Integer getDepth() {
+    return depth;
+  }
+
+  public FindObjectPathRequest setDepth(Integer depth) {
+    this.depth = depth;
+    return this;
+  }
+
+  public Integer getLimit() {
+    return limit;
+  }
+
+  public FindObjectPathRequest setLimit(Integer limit) {
+    this.limit = limit;
+    return this;
+  }
+
+}
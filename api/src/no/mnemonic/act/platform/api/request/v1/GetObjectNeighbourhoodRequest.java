@@ -0,0 +1,71 @@
+package no.mnemonic.act.platform.api.request.v1;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import no.mnemonic.act.platform.api.request.ValidatingRequest;
+import no.mnemonic.act.platform.api.validation.constraints.ServiceNotNull;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.util.Set;
+import java.util.UUID;
+
+@ApiModel(description = "Fetch the Facts within a number of hops around an Object identified by its ID.")
+public class GetObjectNeighbourhoodRequest implements ValidatingRequest {
+
+  @ApiModelProperty(hidden = true)
+  @ServiceNotNull
+  private UUID id;
+  @ApiModelProperty(value = "Only follow Facts with a specific FactType")
+  private Set<String> factType;
+  @ApiModelProperty(value = "Number of hops to follow from the Object (default 1)", example = "2")
+  @Min(1)
+  @Max(5)
+  private Integer depth;
+  @ApiModelProperty(value = "Limit the number of Facts followed per hop (default and maximum 1000, 0 means all which requires the unlimitedTraversal permission)", example = "1000")
+  @Min(0)
+  private Integer limit;
+
+  public UUID getId() {
+    return id;
+  }
+
+  public GetObjectNeighbourhoodRequest setId(UUID id) {
+    this.id = id;
+    return this;
+  }
+
+  public Set<String> getFactType() {
+    return factType;
+  }
+
+  public GetObjectNeighbourhoodRequest setFactType(Set<String> factType) {
+    this.factType = factType;
+    return this;
+  }
+
+  public GetObjectNeighbourhoodRequest addFactType(String factType) {
+    this.factType = SetUtils.addToSet(this.factType, factType);
+    return this;
+  }
+
+  public Integer getDepth() {
+    return depth;
+  }
+
+  public GetObjectNeighbourhoodRequest setDepth(Integer depth) {
+    this.depth = depth;
+    return this;
+  }
+
+  public Integer getLimit() {
+    return limit;
+  }
+
+  public GetObjectNeighbourhoodRequest setLimit(Integer limit) {
+    this.limit = limit;
+    return this;
+  }
+
+}
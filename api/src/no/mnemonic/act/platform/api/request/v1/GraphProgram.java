@@ -0,0 +1,5 @@
+package no.mnemonic.act.platform.api.request.v1;
+
+public enum GraphProgram {
+  pageRank, connectedComponent, peerPressure
+}
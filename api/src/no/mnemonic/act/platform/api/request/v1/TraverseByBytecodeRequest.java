@@ -0,0 +1,91 @@
+package no.mnemonic.act.platform.api.request.v1;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import no.mnemonic.act.platform.api.json.RawJsonDeserializer;
+import no.mnemonic.act.platform.api.request.ValidatingRequest;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import java.util.Set;
+import java.util.UUID;
+
+@ApiModel(description = "Traverse the Object/Fact graph starting at Objects identified by their IDs using Gremlin bytecode.")
+public class TraverseByBytecodeRequest implements ValidatingRequest {
+
+  @ApiModelProperty(value = "Start the traversal at the Objects identified by their UUID", required = true)
+  @NotEmpty
+  private Set<UUID> objectID;
+  @ApiModelProperty(value = "Gremlin bytecode to execute, serialized as GraphSON 3.0 (either as JSON object or as String)",
+          example = "{\"@type\":\"g:Bytecode\",\"@value\":{\"step\":[[\"outE\"]]}}", required = true)
+  @JsonDeserialize(using = RawJsonDeserializer.class)
+  @NotBlank
+  private String bytecode;
+  @ApiModelProperty(value = "Execute the traversal independently on partitions of the starting Objects in parallel " +
+          "(default false). Objects and Facts returned from multiple partitions are only included once. " +
+          "Note that steps operating on the whole traversal such as count(), limit() or order() are evaluated per partition.",
+          example = "false")
+  private Boolean parallel;
+  @ApiModelProperty(value = "Return the profile of the traversal instead of its result (default false). The profile " +
+          "contains TinkerPop's metrics of every step annotated with the number of Cassandra reads and access checks " +
+          "performed by the step.", example = "false")
+  private Boolean profile;
+  @ApiModelProperty(value = "Allow serving the result from a short-lived cache (default false). A cached result is " +
+          "returned if the same traversal was executed recently by the same user. Cached results are dropped when Facts " +
+          "bound to any Object touched by the traversal are added or retracted, thus, only this instance's own changes " +
+          "are reflected immediately. Profiled traversals are never cached.", example = "false")
+  private Boolean cache;
+
+  public Set<UUID> getObjectID() {
+    return objectID;
+  }
+
+  public TraverseByBytecodeRequest setObjectID(Set<UUID> objectID) {
+    this.objectID = objectID;
+    return this;
+  }
+
+  public TraverseByBytecodeRequest addObjectID(UUID objectID) {
+    this.objectID = SetUtils.addToSet(this.objectID, objectID);
+    return this;
+  }
+
+  public String getBytecode() {
+    return bytecode;
+  }
+
+  public TraverseByBytecodeRequest setBytecode(String bytecode) {
+    this.bytecode = bytecode;
+    return this;
+  }
+
+  public Boolean getParallel() {
+    return parallel;
+  }
+
+  public TraverseByBytecodeRequest setParallel(Boolean parallel) {
+    this.parallel = parallel;
+    return this;
+  }
+
+  public Boolean getProfile() {
+    return profile;
+  }
+
+  public TraverseByBytecodeRequest setProfile(Boolean profile) {
+    this.profile = profile;
+    return this;
+  }
+
+  public Boolean getCache() {
+    return cache;
+  }
+
+  public TraverseByBytecodeRequest setCache(Boolean cache) {
+    this.cache = cache;
+    return this;
+  }
+
+}
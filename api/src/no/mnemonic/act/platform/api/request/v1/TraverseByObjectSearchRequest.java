@@ -3,6 +3,8 @@ package no.mnemonic.act.platform.api.request.v1;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 
 @ApiModel(description = "Traverse the Object/Fact graph starting at the Objects returned from an Object search.")
@@ -11,6 +13,30 @@ public class TraverseByObjectSearchRequest extends SearchObjectRequest {
   @ApiModelProperty(value = "Gremlin query to execute.", example = "g.out()", required = true)
   @NotBlank
   private String query;
+  @ApiModelProperty(value = "Execute the traversal independently on partitions of the Objects returned from the search " +
+          "in parallel (default false). Objects and Facts returned from multiple partitions are only included once. " +
+          "Note that steps operating on the whole traversal such as count(), limit() or order() are evaluated per partition.",
+          example = "false")
+  private Boolean parallel;
+  @ApiModelProperty(value = "Execute a graph analytics program on the subgraph around the Objects returned from the search " +
+          "before executing the query. The computed value of each Object is available as property 'pageRank' (pageRank), " +
+          "'component' (connectedComponent) or 'cluster' (peerPressure). In this case the query starts at all Objects of " +
+          "the subgraph and 'parallel' is ignored.", example = "pageRank")
+  private GraphProgram program;
+  @ApiModelProperty(value = "Number of Facts followed from the Objects returned from the search in order to build the " +
+          "subgraph for 'program' (default 1)", example = "1")
+  @Min(0)
+  @Max(3)
+  private Integer hops;
+  @ApiModelProperty(value = "Return the profile of the traversal instead of its result (default false). The profile " +
+          "contains TinkerPop's metrics of every step annotated with the number of Cassandra reads and access checks " +
+          "performed by the step. The query must return a traversal which hasn't been iterated yet.", example = "false")
+  private Boolean profile;
+  @ApiModelProperty(value = "Allow serving the result from a short-lived cache (default false). A cached result is " +
+          "returned if the same traversal was executed recently by the same user. Cached results are dropped when Facts " +
+          "bound to any Object touched by the traversal are added or retracted, thus, only this instance's own changes " +
+          "are reflected immediately. Profiled traversals are never cached.", example = "false")
+  private Boolean cache;
 
   public String getQuery() {
     return query;
@@ -21,4 +47,49 @@ public class TraverseByObjectSearchRequest extends SearchObjectRequest {
     return this;
   }
 
+  public Boolean getParallel() {
+    return parallel;
+  }
+
+  public TraverseByObjectSearchRequest setParallel(Boolean parallel) {
+    this.parallel = parallel;
+    return this;
+  }
+
+  public GraphProgram getProgram() {
+    return program;
+  }
+
+  public TraverseByObjectSearchRequest setProgram(GraphProgram program) {
+    this.program = program;
+    return this;
+  }
+
+  public Integer getHops() {
+    return hops;
+  }
+
+  public TraverseByObjectSearchRequest setHops(Integer hops) {
+    this.hops = hops;
+    return this;
+  }
+
+  public Boolean getProfile() {
+    return profile;
+  }
+
+  public TraverseByObjectSearchRequest setProfile(Boolean profile) {
+    this.profile = profile;
+    return this;
+  }
+
+  public Boolean getCache() {
+    return cache;
+  }
+
+  public TraverseByObjectSearchRequest setCache(Boolean cache) {
+    this.cache = cache;
+    return this;
+  }
+
 }
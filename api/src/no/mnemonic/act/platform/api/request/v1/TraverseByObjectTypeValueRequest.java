@@ -21,6 +21,15 @@ public class TraverseByObjectTypeValueRequest implements ValidatingRequest {
   @ApiModelProperty(value = "Gremlin query to execute.", example = "g.out()", required = true)
   @NotBlank
   private String query;
+  @ApiModelProperty(value = "Return the profile of the traversal instead of its result (default false). The profile " +
+          "contains TinkerPop's metrics of every step annotated with the number of Cassandra reads and access checks " +
+          "performed by the step. The query must return a traversal which hasn't been iterated yet.", example = "false")
+  private Boolean profile;
+  @ApiModelProperty(value = "Allow serving the result from a short-lived cache (default false). A cached result is " +
+          "returned if the same traversal was executed recently by the same user. Cached results are dropped when Facts " +
+          "bound to any Object touched by the traversal are added or retracted, thus, only this instance's own changes " +
+          "are reflected immediately. Profiled traversals are never cached.", example = "false")
+  private Boolean cache;
 
   public String getType() {
     return type;
@@ -49,4 +58,22 @@ public class TraverseByObjectTypeValueRequest implements ValidatingRequest {
     return this;
   }
 
+  public Boolean getProfile() {
+    return profile;
+  }
+
+  public TraverseByObjectTypeValueRequest setProfile(Boolean profile) {
+    this.profile = profile;
+    return this;
+  }
+
+  public Boolean getCache() {
+    return cache;
+  }
+
+  public TraverseByObjectTypeValueRequest setCache(Boolean cache) {
+    this.cache = cache;
+    return this;
+  }
+
 }
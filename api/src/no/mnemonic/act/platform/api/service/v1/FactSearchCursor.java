@@ -0,0 +1,110 @@
+package no.mnemonic.act.platform.api.service.v1;
+
+import no.mnemonic.commons.utilities.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Position inside a search result of Facts sorted by timestamp and id. A cursor allows paging through a search result
+ * without keeping any state on the server. The position is transported as an opaque string, see {@link #encode()}.
+ */
+public class FactSearchCursor {
+
+  /**
+   * Encoded cursor indicating the start of a new cursor-based search.
+   */
+  public static final String START = "*";
+
+  private static final String SEPARATOR = ":";
+
+  private final Long timestamp;
+  private final UUID id;
+
+  private FactSearchCursor(Long timestamp, UUID id) {
+    this.timestamp = timestamp;
+    this.id = id;
+  }
+
+  /**
+   * Creates a cursor pointing to the start of a search result.
+   *
+   * @return Start cursor
+   */
+  public static FactSearchCursor start() {
+    return new FactSearchCursor(null, null);
+  }
+
+  /**
+   * Creates a cursor pointing directly after the Fact identified by the given timestamp and id.
+   *
+   * @param timestamp Timestamp of last returned Fact
+   * @param id        UUID of last returned Fact
+   * @return Cursor continuing after the given Fact
+   */
+  public static FactSearchCursor after(long timestamp, UUID id) {
+    return new FactSearchCursor(timestamp, Objects.requireNonNull(id, "'id' cannot be null!"));
+  }
+
+  /**
+   * Decodes a cursor previously created with {@link #encode()}.
+   *
+   * @param cursor Encoded cursor
+   * @return Decoded cursor
+   * @throws IllegalArgumentException If the cursor cannot be decoded
+   */
+  public static FactSearchCursor decode(String cursor) {
+    if (StringUtils.isBlank(cursor)) throw new IllegalArgumentException("Cursor cannot be empty.");
+    if (START.equals(cursor)) return start();
+
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = decoded.split(SEPARATOR, 2);
+      if (parts.length != 2) throw new IllegalArgumentException("Malformed cursor.");
+      return after(Long.parseLong(parts[0]), UUID.fromString(parts[1]));
+    } catch (IllegalArgumentException ex) {
+      // NumberFormatException is a subclass of IllegalArgumentException.
+      throw new IllegalArgumentException(String.format("Cursor '%s' is malformed.", cursor), ex);
+    }
+  }
+
+  /**
+   * Encodes this cursor as an opaque string which can be handed out to clients.
+   *
+   * @return Encoded cursor
+   */
+  public String encode() {
+    if (isStart()) return START;
+    String plain = timestamp + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Returns true if this cursor points to the start of a search result.
+   *
+   * @return True if this is a start cursor
+   */
+  public boolean isStart() {
+    return timestamp == null;
+  }
+
+  /**
+   * Timestamp of the last returned Fact. Null for a start cursor.
+   *
+   * @return Timestamp of last returned Fact
+   */
+  public Long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * UUID of the last returned Fact. Null for a start cursor.
+   *
+   * @return UUID of last returned Fact
+   */
+  public UUID getId() {
+    return id;
+  }
+}
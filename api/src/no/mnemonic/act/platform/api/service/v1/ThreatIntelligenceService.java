@@ -402,6 +402,52 @@ public interface ThreatIntelligenceService extends Service {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Traverse the graph of Objects and Facts starting at Objects identified by their IDs using Gremlin bytecode.
+   *
+   * @param rh      Contains meta data about the request.
+   * @param request Request containing graph traversal bytecode.
+   * @return Result of the graph traversal.
+   * @throws AccessDeniedException         If the user is not allowed to perform this operation.
+   * @throws AuthenticationFailedException If the user could not be authenticated.
+   * @throws InvalidArgumentException      If the request contains invalid parameters.
+   * @throws OperationTimeoutException     If the graph traversal timed out.
+   */
+  default ResultSet<?> traverseGraph(RequestHeader rh, TraverseByBytecodeRequest request)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException, OperationTimeoutException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Fetch the Facts within a number of hops around an Object identified by its ID.
+   *
+   * @param rh      Contains meta data about the request.
+   * @param request Request identifying the Object and limiting the followed Facts.
+   * @return Facts in the neighbourhood of the Object.
+   * @throws AccessDeniedException         If the user is not allowed to perform this operation.
+   * @throws AuthenticationFailedException If the user could not be authenticated.
+   * @throws InvalidArgumentException      If the request contains invalid parameters.
+   */
+  default ResultSet<Fact> getObjectNeighbourhood(RequestHeader rh, GetObjectNeighbourhoodRequest request)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Find the shortest path of Facts connecting two Objects.
+   *
+   * @param rh      Contains meta data about the request.
+   * @param request Request identifying the two Objects and limiting the followed Facts.
+   * @return Facts of the path in order from source to destination (empty if no path exists).
+   * @throws AccessDeniedException         If the user is not allowed to perform this operation.
+   * @throws AuthenticationFailedException If the user could not be authenticated.
+   * @throws InvalidArgumentException      If the request contains invalid parameters.
+   */
+  default ResultSet<Fact> findObjectPath(RequestHeader rh, FindObjectPathRequest request)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Fetch an Origin by its id.
    *
@@ -0,0 +1,45 @@
+package no.mnemonic.act.platform.api.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class RawJsonDeserializerTest {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @Test
+  public void testDeserializeObject() throws IOException {
+    assertEquals("{\"a\":[1,\"b\"]}", mapper.readValue("{\"value\":{\"a\":[1,\"b\"]}}", Holder.class).value);
+  }
+
+  @Test
+  public void testDeserializeArray() throws IOException {
+    assertEquals("[{\"a\":1}]", mapper.readValue("{\"value\":[{\"a\":1}]}", Holder.class).value);
+  }
+
+  @Test
+  public void testDeserializeString() throws IOException {
+    assertEquals("{\"a\":1}", mapper.readValue("{\"value\":\"{\\\"a\\\":1}\"}", Holder.class).value);
+  }
+
+  @Test(expected = MismatchedInputException.class)
+  public void testDeserializeInvalidToken() throws IOException {
+    mapper.readValue("{\"value\":42}", Holder.class);
+  }
+
+  private static class Holder {
+    @JsonDeserialize(using = RawJsonDeserializer.class)
+    private String value;
+
+    public void setValue(String value) {
+      this.value = value;
+    }
+  }
+
+}
@@ -0,0 +1,66 @@
+package no.mnemonic.act.platform.api.request.v1;
+
+import org.junit.Test;
+
+import javax.validation.ConstraintViolation;
+import java.util.Set;
+import java.util.UUID;
+
+import static no.mnemonic.commons.utilities.collections.SetUtils.set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FindObjectPathRequestTest extends AbstractRequestTest {
+
+  @Test
+  public void testDecodeRequest() throws Exception {
+    UUID source = UUID.randomUUID();
+    UUID destination = UUID.randomUUID();
+    String json = String.format("{ source : '%s', destination : '%s', factType : ['factType'], depth : 3, limit : 10 }", source, destination);
+
+    FindObjectPathRequest request = getMapper().readValue(json, FindObjectPathRequest.class);
+    assertEquals(source, request.getSource());
+    assertEquals(destination, request.getDestination());
+    assertEquals(set("factType"), request.getFactType());
+    assertEquals(3, request.getDepth().intValue());
+    assertEquals(10, request.getLimit().intValue());
+  }
+
+  @Test
+  public void testRequestValidationFailsOnNull() {
+    Set<ConstraintViolation<FindObjectPathRequest>> violations = getValidator().validate(new FindObjectPathRequest());
+    assertEquals(2, violations.size());
+    assertPropertyInvalid(violations, "source");
+    assertPropertyInvalid(violations, "destination");
+  }
+
+  @Test
+  public void testRequestValidationFailsOnMin() {
+    Set<ConstraintViolation<FindObjectPathRequest>> violations = getValidator().validate(createRequest()
+            .setDepth(0)
+            .setLimit(-1)
+    );
+    assertEquals(2, violations.size());
+    assertPropertyInvalid(violations, "depth");
+    assertPropertyInvalid(violations, "limit");
+  }
+
+  @Test
+  public void testRequestValidationFailsOnMax() {
+    Set<ConstraintViolation<FindObjectPathRequest>> violations = getValidator().validate(createRequest().setDepth(9));
+    assertEquals(1, violations.size());
+    assertPropertyInvalid(violations, "depth");
+  }
+
+  @Test
+  public void testRequestValidationSucceeds() {
+    assertTrue(getValidator().validate(createRequest()).isEmpty());
+  }
+
+  private FindObjectPathRequest createRequest() {
+    return new FindObjectPathRequest()
+            .setSource(UUID.randomUUID())
+            .setDestination(UUID.randomUUID());
+  }
+
+}
@@ -0,0 +1,61 @@
+package no.mnemonic.act.platform.api.request.v1;
+
+import org.junit.Test;
+
+import javax.validation.ConstraintViolation;
+import java.util.Set;
+import java.util.UUID;
+
+import static no.mnemonic.commons.utilities.collections.SetUtils.set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GetObjectNeighbourhoodRequestTest extends AbstractRequestTest {
+
+  @Test
+  public void testDecodeRequest() throws Exception {
+    UUID id = UUID.randomUUID();
+    String json = String.format("{ id : '%s', factType : ['factType'], depth : 2, limit : 10 }", id);
+
+    GetObjectNeighbourhoodRequest request = getMapper().readValue(json, GetObjectNeighbourhoodRequest.class);
+    assertEquals(id, request.getId());
+    assertEquals(set("factType"), request.getFactType());
+    assertEquals(2, request.getDepth().intValue());
+    assertEquals(10, request.getLimit().intValue());
+  }
+
+  @Test
+  public void testRequestValidationFailsOnNull() {
+    Set<ConstraintViolation<GetObjectNeighbourhoodRequest>> violations = getValidator().validate(new GetObjectNeighbourhoodRequest());
+    assertEquals(1, violations.size());
+    assertPropertyInvalid(violations, "id");
+  }
+
+  @Test
+  public void testRequestValidationFailsOnMin() {
+    Set<ConstraintViolation<GetObjectNeighbourhoodRequest>> violations = getValidator().validate(new GetObjectNeighbourhoodRequest()
+            .setId(UUID.randomUUID())
+            .setDepth(0)
+            .setLimit(-1)
+    );
+    assertEquals(2, violations.size());
+    assertPropertyInvalid(violations, "depth");
+    assertPropertyInvalid(violations, "limit");
+  }
+
+  @Test
+  public void testRequestValidationFailsOnMax() {
+    Set<ConstraintViolation<GetObjectNeighbourhoodRequest>> violations = getValidator().validate(new GetObjectNeighbourhoodRequest()
+            .setId(UUID.randomUUID())
+            .setDepth(6)
+    );
+    assertEquals(1, violations.size());
+    assertPropertyInvalid(violations, "depth");
+  }
+
+  @Test
+  public void testRequestValidationSucceeds() {
+    assertTrue(getValidator().validate(new GetObjectNeighbourhoodRequest().setId(UUID.randomUUID())).isEmpty());
+  }
+
+}
@@ -0,0 +1,64 @@
+package no.mnemonic.act.platform.api.request.v1;
+
+import org.junit.Test;
+
+import javax.validation.ConstraintViolation;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+
+import static no.mnemonic.commons.utilities.collections.SetUtils.set;
+import static org.junit.Assert.*;
+
+public class TraverseByBytecodeRequestTest extends AbstractRequestTest {
+
+  @Test
+  public void testDecodeRequest() throws Exception {
+    UUID id = UUID.randomUUID();
+    String json = String.format("{ objectID : ['%s'], bytecode : { '@type' : 'g:Bytecode', '@value' : { step : [['outE']] } }, parallel : true, profile : true, cache : true }", id);
+
+    TraverseByBytecodeRequest request = getMapper().readValue(json, TraverseByBytecodeRequest.class);
+    assertEquals(set(id), request.getObjectID());
+    assertEquals("{\"@type\":\"g:Bytecode\",\"@value\":{\"step\":[[\"outE\"]]}}", request.getBytecode());
+    assertTrue(request.getParallel());
+    assertTrue(request.getProfile());
+    assertTrue(request.getCache());
+  }
+
+  @Test
+  public void testDecodeRequestWithBytecodeAsString() throws Exception {
+    String json = "{ bytecode : '{\"@type\":\"g:Bytecode\"}' }";
+
+    TraverseByBytecodeRequest request = getMapper().readValue(json, TraverseByBytecodeRequest.class);
+    assertEquals("{\"@type\":\"g:Bytecode\"}", request.getBytecode());
+    assertNull(request.getParallel());
+  }
+
+  @Test
+  public void testRequestValidationFailsOnNull() {
+    Set<ConstraintViolation<TraverseByBytecodeRequest>> violations = getValidator().validate(new TraverseByBytecodeRequest());
+    assertEquals(2, violations.size());
+    assertPropertyInvalid(violations, "objectID");
+    assertPropertyInvalid(violations, "bytecode");
+  }
+
+  @Test
+  public void testRequestValidationFailsOnEmpty() {
+    Set<ConstraintViolation<TraverseByBytecodeRequest>> violations = getValidator().validate(new TraverseByBytecodeRequest()
+            .setObjectID(Collections.emptySet())
+            .setBytecode("")
+    );
+    assertEquals(2, violations.size());
+    assertPropertyInvalid(violations, "objectID");
+    assertPropertyInvalid(violations, "bytecode");
+  }
+
+  @Test
+  public void testRequestValidationSucceeds() {
+    assertTrue(getValidator().validate(new TraverseByBytecodeRequest()
+            .addObjectID(UUID.randomUUID())
+            .setBytecode("{}")
+    ).isEmpty());
+  }
+
+}
@@ -14,11 +14,13 @@ public class TraverseByObjectIdRequestTest extends AbstractRequestTest {
   @Test
   public void testDecodeRequest() throws Exception {
     UUID id = UUID.randomUUID();
-    String json = String.format("{ id : '%s', query : 'g.out()' }", id);
+    String json = String.format("{ id : '%s', query : 'g.out()', profile : true, cache : true }", id);
 
     TraverseByObjectIdRequest request = getMapper().readValue(json, TraverseByObjectIdRequest.class);
     assertEquals(id, request.getId());
     assertEquals("g.out()", request.getQuery());
+    assertTrue(request.getProfile());
+    assertTrue(request.getCache());
   }
 
   @Test
@@ -25,7 +25,12 @@ public class TraverseByObjectSearchRequestTest extends AbstractRequestTest {
             "before : '2016-11-30T15:47:00Z'," +
             "after : '2016-11-30T15:47:01Z'," +
             "limit : 25," +
-            "query : 'g.out()'" +
+            "query : 'g.out()'," +
+            "parallel : true," +
+            "program : 'pageRank'," +
+            "hops : 2," +
+            "profile : true," +
+            "cache : true" +
             "}";
 
     TraverseByObjectSearchRequest request = getMapper().readValue(json, TraverseByObjectSearchRequest.class);
@@ -41,6 +46,11 @@ public class TraverseByObjectSearchRequestTest extends AbstractRequestTest {
     assertEquals(1480520821000L, request.getAfter().longValue());
     assertEquals(25, request.getLimit().intValue());
     assertEquals("g.out()", request.getQuery());
+    assertTrue(request.getParallel());
+    assertEquals(GraphProgram.pageRank, request.getProgram());
+    assertEquals(2, request.getHops().intValue());
+    assertTrue(request.getProfile());
+    assertTrue(request.getCache());
   }
 
   @Test
@@ -68,6 +78,26 @@ public class TraverseByObjectSearchRequestTest extends AbstractRequestTest {
     assertPropertyInvalid(violations, "query");
   }
 
+  @Test
+  public void testRequestValidationFailsOnMin() {
+    Set<ConstraintViolation<TraverseByObjectSearchRequest>> violations = getValidator().validate(new TraverseByObjectSearchRequest()
+            .setQuery("g.out()")
+            .setHops(-1)
+    );
+    assertEquals(1, violations.size());
+    assertPropertyInvalid(violations, "hops");
+  }
+
+  @Test
+  public void testRequestValidationFailsOnMax() {
+    Set<ConstraintViolation<TraverseByObjectSearchRequest>> violations = getValidator().validate(new TraverseByObjectSearchRequest()
+            .setQuery("g.out()")
+            .setHops(4)
+    );
+    assertEquals(1, violations.size());
+    assertPropertyInvalid(violations, "hops");
+  }
+
   @Test
   public void testRequestValidationSucceeds() {
     assertTrue(getValidator().validate(new TraverseByObjectSearchRequest().setQuery("g.out()")).isEmpty());
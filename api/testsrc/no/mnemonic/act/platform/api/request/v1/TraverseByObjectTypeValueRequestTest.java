@@ -12,12 +12,14 @@ public class TraverseByObjectTypeValueRequestTest extends AbstractRequestTest {
 
   @Test
   public void testDecodeRequest() throws Exception {
-    String json = "{ type : 'type', value : 'value', query : 'g.out()' }";
+    String json = "{ type : 'type', value : 'value', query : 'g.out()', profile : true, cache : true }";
 
     TraverseByObjectTypeValueRequest request = getMapper().readValue(json, TraverseByObjectTypeValueRequest.class);
     assertEquals("type", request.getType());
     assertEquals("value", request.getValue());
     assertEquals("g.out()", request.getQuery());
+    assertTrue(request.getProfile());
+    assertTrue(request.getCache());
   }
 
   @Test
@@ -0,0 +1,45 @@
+package no.mnemonic.act.platform.api.service.v1;
+
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class FactSearchCursorTest {
+
+  @Test
+  public void testEncodeDecodeStartCursor() {
+    FactSearchCursor cursor = FactSearchCursor.decode(FactSearchCursor.start().encode());
+    assertTrue(cursor.isStart());
+    assertNull(cursor.getTimestamp());
+    assertNull(cursor.getId());
+  }
+
+  @Test
+  public void testEncodeDecodeCursor() {
+    UUID id = UUID.randomUUID();
+    String encoded = FactSearchCursor.after(123456789L, id).encode();
+    assertFalse(encoded.contains(id.toString()));
+
+    FactSearchCursor cursor = FactSearchCursor.decode(encoded);
+    assertFalse(cursor.isStart());
+    assertEquals(123456789L, cursor.getTimestamp().longValue());
+    assertEquals(id, cursor.getId());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDecodeEmptyCursor() {
+    FactSearchCursor.decode(" ");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDecodeCursorWithInvalidEncoding() {
+    FactSearchCursor.decode("not-base64!");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDecodeCursorWithInvalidContent() {
+    FactSearchCursor.decode("aW52YWxpZA");
+  }
+}
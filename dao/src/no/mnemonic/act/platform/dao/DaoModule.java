@@ -7,6 +7,7 @@ import no.mnemonic.act.platform.dao.cassandra.*;
 import no.mnemonic.act.platform.dao.elastic.ClientFactory;
 import no.mnemonic.act.platform.dao.elastic.ClientFactoryProvider;
 import no.mnemonic.act.platform.dao.elastic.FactSearchManager;
+import no.mnemonic.act.platform.dao.facade.FactIndexingWorker;
 import no.mnemonic.act.platform.dao.facade.ObjectFactDaoFacade;
 
 public class DaoModule extends AbstractModule {
@@ -16,7 +17,7 @@ public class DaoModule extends AbstractModule {
     // Cassandra
     bind(ClusterManager.class).toProvider(ClusterManagerProvider.class).in(Scopes.SINGLETON);
     bind(FactManager.class);
-    bind(ObjectManager.class);
+    bind(ObjectManager.class).toProvider(ObjectManagerProvider.class).in(Scopes.SINGLETON);
     bind(OriginManager.class);
 
     // ElasticSearch
@@ -24,6 +25,7 @@ public class DaoModule extends AbstractModule {
     bind(FactSearchManager.class);
 
     // Facade wrapping Cassandra + ElasticSearch
+    bind(FactIndexingWorker.class);
     bind(ObjectFactDao.class).to(ObjectFactDaoFacade.class);
   }
 
@@ -9,6 +9,8 @@ import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
 import no.mnemonic.act.platform.dao.api.result.ObjectStatisticsContainer;
 import no.mnemonic.act.platform.dao.api.result.ResultContainer;
 
+import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -39,6 +41,16 @@ public interface ObjectFactDao {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Fetch multiple Objects by their UUIDs. Objects which cannot be found are skipped.
+   *
+   * @param id UUIDs of Objects
+   * @return Objects identified by their UUIDs
+   */
+  default Iterator<ObjectRecord> getObjects(List<UUID> id) {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Store a new Object. The caller must ensure that the same Object (by UUID and type/value) is not stored twice.
    *
@@ -79,6 +91,16 @@ public interface ObjectFactDao {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Fetch multiple Facts by their UUIDs. Facts which cannot be found are skipped.
+   *
+   * @param id UUIDs of Facts
+   * @return Facts identified by their UUIDs
+   */
+  default Iterator<FactRecord> getFacts(List<UUID> id) {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Store a new Fact. The caller must ensure that the same Fact (by UUID and logically) is not stored twice. Use
    * {@link #retrieveExistingFacts(FactRecord)} to check if a Fact already exists and {@link #refreshFact(FactRecord)}
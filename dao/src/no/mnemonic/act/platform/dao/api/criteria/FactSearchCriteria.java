@@ -108,6 +108,11 @@ public class FactSearchCriteria {
   // Additional search options.
   private final int limit;
 
+  // Cursor-based search.
+  private final boolean cursorBased;
+  private final Long cursorTimestamp;
+  private final UUID cursorID;
+
   // Fields required for access control.
   private final UUID currentUserID;
   private final Set<UUID> availableOrganizationID;
@@ -133,11 +138,16 @@ public class FactSearchCriteria {
                              Set<NumberFieldStrategy> numberFieldStrategy,
                              MatchStrategy numberMatchStrategy,
                              int limit,
+                             boolean cursorBased,
+                             Long cursorTimestamp,
+                             UUID cursorID,
                              UUID currentUserID,
                              Set<UUID> availableOrganizationID) {
     if (currentUserID == null) throw new IllegalArgumentException("Missing required field 'currentUserID'.");
     if (CollectionUtils.isEmpty(availableOrganizationID))
       throw new IllegalArgumentException("Missing required field 'availableOrganizationID'.");
+    if ((cursorTimestamp == null) != (cursorID == null))
+      throw new IllegalArgumentException("Either both or none of 'cursorTimestamp' and 'cursorID' must be set.");
 
     this.factID = factID;
     this.factTypeID = factTypeID;
@@ -154,6 +164,9 @@ public class FactSearchCriteria {
     this.minNumber = minNumber;
     this.maxNumber = maxNumber;
     this.limit = limit;
+    this.cursorBased = cursorBased;
+    this.cursorTimestamp = cursorTimestamp;
+    this.cursorID = cursorID;
     this.currentUserID = currentUserID;
     this.availableOrganizationID = availableOrganizationID;
 
@@ -367,6 +380,35 @@ public class FactSearchCriteria {
     return limit;
   }
 
+  /**
+   * Specify whether a cursor-based search should be performed. In this case Facts are sorted by timestamp and id
+   * (both descending) and the search continues directly after the position given by 'cursorTimestamp' and 'cursorID'.
+   * If neither is set the search starts from the beginning.
+   *
+   * @return True if a cursor-based search should be performed
+   */
+  public boolean isCursorBased() {
+    return cursorBased;
+  }
+
+  /**
+   * Timestamp of the last Fact returned from a previous cursor-based search. Only used if 'cursorBased' is set.
+   *
+   * @return Timestamp of last returned Fact
+   */
+  public Long getCursorTimestamp() {
+    return cursorTimestamp;
+  }
+
+  /**
+   * UUID of the last Fact returned from a previous cursor-based search. Only used if 'cursorBased' is set.
+   *
+   * @return UUID of last returned Fact
+   */
+  public UUID getCursorID() {
+    return cursorID;
+  }
+
   /**
    * Specify the UUID of the calling user. This field is required.
    *
@@ -421,6 +463,11 @@ public class FactSearchCriteria {
     // Additional search options.
     private int limit;
 
+    // Cursor-based search.
+    private boolean cursorBased;
+    private Long cursorTimestamp;
+    private UUID cursorID;
+
     // Fields required for access control.
     private UUID currentUserID;
     private Set<UUID> availableOrganizationID;
@@ -431,7 +478,8 @@ public class FactSearchCriteria {
     public FactSearchCriteria build() {
       return new FactSearchCriteria(factID, factTypeID, factValue, inReferenceTo, organizationID, originID, objectID, objectTypeID,
               objectValue, keywords, keywordFieldStrategy, keywordMatchStrategy, startTimestamp, endTimestamp, timeFieldStrategy,
-              timeMatchStrategy, minNumber, maxNumber, numberFieldStrategy, numberMatchStrategy, limit, currentUserID, availableOrganizationID);
+              timeMatchStrategy, minNumber, maxNumber, numberFieldStrategy, numberMatchStrategy, limit, cursorBased, cursorTimestamp,
+              cursorID, currentUserID, availableOrganizationID);
     }
 
     public Builder setFactID(Set<UUID> factID) {
@@ -599,6 +647,13 @@ public class FactSearchCriteria {
       return this;
     }
 
+    public Builder setCursor(Long cursorTimestamp, UUID cursorID) {
+      this.cursorBased = true;
+      this.cursorTimestamp = cursorTimestamp;
+      this.cursorID = cursorID;
+      return this;
+    }
+
     public Builder setCurrentUserID(UUID currentUserID) {
       this.currentUserID = currentUserID;
       return this;
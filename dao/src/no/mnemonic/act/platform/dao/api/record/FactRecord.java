@@ -1,14 +1,19 @@
 package no.mnemonic.act.platform.dao.api.record;
 
+import no.mnemonic.commons.utilities.collections.CollectionUtils;
 import no.mnemonic.commons.utilities.collections.ListUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
 
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Record representing a Fact.
+ * <p>
+ * The ACL and comments of a Fact can be resolved lazily. If a resolver is set via {@link #setAclResolver(Supplier)}
+ * or {@link #setCommentsResolver(Supplier)} the ACL or comments are only fetched on first access.
  */
 public class FactRecord {
 
@@ -42,6 +47,8 @@ public class FactRecord {
   private Set<Flag> flags;
   private List<FactAclEntryRecord> acl;
   private List<FactCommentRecord> comments;
+  private Supplier<List<FactAclEntryRecord>> aclResolver;
+  private Supplier<List<FactCommentRecord>> commentsResolver;
 
   public UUID getId() {
     return id;
@@ -193,30 +200,76 @@ public class FactRecord {
   }
 
   public List<FactAclEntryRecord> getAcl() {
+    resolveAcl();
     return acl;
   }
 
   public FactRecord setAcl(List<FactAclEntryRecord> acl) {
     this.acl = acl;
+    this.aclResolver = null;
     return this;
   }
 
   public FactRecord addAclEntry(FactAclEntryRecord entry) {
+    resolveAcl();
     this.acl = ListUtils.addToList(this.acl, entry);
     return this;
   }
 
+  /**
+   * Set a resolver which fetches the ACL on first access. Overrides any previously set ACL.
+   *
+   * @param aclResolver Function resolving the ACL
+   * @return this
+   */
+  public FactRecord setAclResolver(Supplier<List<FactAclEntryRecord>> aclResolver) {
+    this.acl = null;
+    this.aclResolver = aclResolver;
+    return this;
+  }
+
   public List<FactCommentRecord> getComments() {
+    resolveComments();
     return comments;
   }
 
   public FactRecord setComments(List<FactCommentRecord> comments) {
     this.comments = comments;
+    this.commentsResolver = null;
     return this;
   }
 
   public FactRecord addComment(FactCommentRecord comment) {
+    resolveComments();
     this.comments = ListUtils.addToList(this.comments, comment);
     return this;
   }
+
+  /**
+   * Set a resolver which fetches the comments on first access. Overrides any previously set comments.
+   *
+   * @param commentsResolver Function resolving the comments
+   * @return this
+   */
+  public FactRecord setCommentsResolver(Supplier<List<FactCommentRecord>> commentsResolver) {
+    this.comments = null;
+    this.commentsResolver = commentsResolver;
+    return this;
+  }
+
+  private synchronized void resolveAcl() {
+    if (aclResolver == null) return;
+    // Only resolve once, afterwards the ACL is treated as if it was set directly.
+    List<FactAclEntryRecord> resolved = aclResolver.get();
+    aclResolver = null;
+    acl = CollectionUtils.isEmpty(resolved) ? null : ListUtils.list(resolved);
+  }
+
+  private synchronized void resolveComments() {
+    if (commentsResolver == null) return;
+    // Only resolve once, afterwards the comments are treated as if they were set directly.
+    List<FactCommentRecord> resolved = commentsResolver.get();
+    commentsResolver = null;
+    comments = CollectionUtils.isEmpty(resolved) ? null : ListUtils.list(resolved);
+  }
 }
@@ -1,12 +1,17 @@
 package no.mnemonic.act.platform.dao.cassandra;
 
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
 import no.mnemonic.act.platform.dao.cassandra.entity.*;
 import no.mnemonic.act.platform.dao.cassandra.exceptions.ImmutableViolationException;
 import no.mnemonic.act.platform.dao.cassandra.mapper.FactDao;
 import no.mnemonic.act.platform.dao.cassandra.mapper.FactTypeDao;
+import no.mnemonic.act.platform.dao.cassandra.utilities.ConcurrentFetchIterator;
+import no.mnemonic.act.platform.dao.cassandra.utilities.FactEntityCache;
 import no.mnemonic.act.platform.dao.cassandra.utilities.MultiFetchIterator;
 import no.mnemonic.commons.component.Dependency;
 import no.mnemonic.commons.component.LifecycleAspect;
@@ -14,18 +19,29 @@ import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.StringUtils;
 import no.mnemonic.commons.utilities.collections.CollectionUtils;
 import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Singleton
 public class FactManager implements LifecycleAspect {
 
+  private static final int DEFAULT_MULTI_FETCH_CONCURRENCY = 32;
+  // Cassandra's performance is poor with a lot of elements inside an IN-clause, thus, use a small batch size.
+  private static final int ACL_MULTI_FETCH_BATCH_SIZE = 100;
+  private static final long DEFAULT_FACT_CACHE_SIZE = 256L * 1024 * 1024;
+  private static final long DEFAULT_FACT_CACHE_EXPIRATION = TimeUnit.MINUTES.toMillis(10);
+  private static final long DEFAULT_FACT_CACHE_MUTABLE_FIELDS_EXPIRATION = TimeUnit.SECONDS.toMillis(30);
+
   @Dependency
   private final ClusterManager clusterManager;
 
@@ -35,6 +51,13 @@ public class FactManager implements LifecycleAspect {
   private FactTypeDao factTypeDao;
   private FactDao factDao;
 
+  private int multiFetchConcurrency = DEFAULT_MULTI_FETCH_CONCURRENCY;
+  private long factCacheSize = DEFAULT_FACT_CACHE_SIZE;
+  private long factCacheExpiration = DEFAULT_FACT_CACHE_EXPIRATION;
+  private long factCacheMutableFieldsExpiration = DEFAULT_FACT_CACHE_MUTABLE_FIELDS_EXPIRATION;
+  // Facts are kept serialized off-heap in order to allow large caches with a small number of long-lived objects.
+  private FactEntityCache factCache = createFactCache();
+
   private Clock clock = Clock.systemUTC();
 
   @Inject
@@ -103,39 +126,110 @@ public class FactManager implements LifecycleAspect {
 
   public FactEntity getFact(UUID id) {
     if (id == null) return null;
-    return factDao.get(id);
+
+    FactEntity cached = factCache.get(id);
+    if (cached != null) return cached;
+
+    FactEntity fact = factDao.get(id);
+    // Only cache existing Facts as missing Facts might be created later.
+    factCache.put(fact);
+    return fact;
   }
 
   public Iterator<FactEntity> getFacts(List<UUID> id) {
     if (CollectionUtils.isEmpty(id)) return Collections.emptyIterator();
-    return new MultiFetchIterator<>(partition -> factDao.fetchByID(partition).iterator(), id);
+
+    // Serve cached Facts directly and only fetch the remaining Facts from Cassandra.
+    Map<UUID, FactEntity> facts = new HashMap<>();
+    List<UUID> missing = new ArrayList<>();
+    for (UUID factID : id) {
+      FactEntity cached = factCache.get(factID);
+      if (cached != null) {
+        facts.put(factID, cached);
+      } else {
+        missing.add(factID);
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      fetchFacts(missing).forEachRemaining(fact -> {
+        factCache.put(fact);
+        facts.put(fact.getId(), fact);
+      });
+    }
+
+    // Return the Facts in the order of the requested ids, skipping ids of non-existing Facts.
+    return id.stream()
+            .map(facts::get)
+            .filter(Objects::nonNull)
+            .iterator();
   }
 
   public FactEntity saveFact(FactEntity fact) {
     if (fact == null) return null;
     if (getFactType(fact.getTypeID()) == null)
       throw new IllegalArgumentException(String.format("FactType with id = %s does not exist.", fact.getTypeID()));
-    if (getFact(fact.getId()) != null)
+    // Only insert the Fact if it doesn't exist yet. This avoids a read-before-write and is safe against concurrent inserts.
+    if (!factDao.saveIfNotExists(fact))
       throw new ImmutableViolationException("It is not allowed to update a Fact");
 
-    factDao.save(fact);
+    // Populate cache with the newly created Fact as it will usually be accessed again soon.
+    factCache.put(fact);
     return fact;
   }
 
+  /**
+   * Verify asynchronously that a new Fact can be saved, i.e. that its FactType exists and that a referenced Fact
+   * (in case of a meta Fact) exists. Whether a Fact with the same id exists is not checked because
+   * {@link #saveFactAsync(FactEntity)} only inserts the Fact if it doesn't exist yet.
+   *
+   * @param fact New Fact
+   * @return Future which completes exceptionally if the Fact cannot be saved
+   */
+  public CompletableFuture<Void> verifyNewFactAsync(FactEntity fact) {
+    if (fact == null) return CompletableFuture.completedFuture(null);
+    if (getFactType(fact.getTypeID()) == null)
+      throw new IllegalArgumentException(String.format("FactType with id = %s does not exist.", fact.getTypeID()));
+    if (fact.getInReferenceToID() == null) return CompletableFuture.completedFuture(null);
+
+    return getFactAsync(fact.getInReferenceToID())
+            .thenAccept(referenced -> {
+              if (referenced == null)
+                throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", fact.getInReferenceToID()));
+            });
+  }
+
+  /**
+   * Save a new Fact asynchronously. In contrast to {@link #saveFact(FactEntity)} no consistency checks are performed,
+   * use {@link #verifyNewFactAsync(FactEntity)} beforehand. Like {@link #saveFact(FactEntity)} the Fact is only
+   * inserted if it doesn't exist yet, otherwise the returned future completes with an {@link ImmutableViolationException}.
+   *
+   * @param fact New Fact
+   * @return Future which completes when the Fact has been saved
+   */
+  public CompletableFuture<Void> saveFactAsync(FactEntity fact) {
+    if (fact == null) return CompletableFuture.completedFuture(null);
+    return factDao.saveIfNotExistsAsync(fact)
+            .toCompletableFuture()
+            .thenAccept(applied -> {
+              if (!applied) throw new ImmutableViolationException("It is not allowed to update a Fact");
+              // Populate cache with the newly created Fact as it will usually be accessed again soon.
+              factCache.put(fact);
+            });
+  }
+
   public FactEntity refreshFact(UUID id) {
-    FactEntity fact = getFact(id);
-    if (fact == null) throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", id));
-    factDao.save(fact.setLastSeenTimestamp(Instant.now(clock).toEpochMilli()));
+    if (id == null || !factDao.updateLastSeenTimestamp(id, Instant.now(clock).toEpochMilli()))
+      throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", id));
 
-    return fact;
+    return fetchUpdatedFact(id);
   }
 
   public FactEntity retractFact(UUID id) {
-    FactEntity fact = getFact(id);
-    if (fact == null) throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", id));
-    factDao.save(fact.addFlag(FactEntity.Flag.RetractedHint));
+    if (id == null || !factDao.addFlags(id, SetUtils.set(FactEntity.Flag.RetractedHint)))
+      throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", id));
 
-    return fact;
+    return fetchUpdatedFact(id);
   }
 
   /* FactAclEntity-related methods */
@@ -145,18 +239,48 @@ public class FactManager implements LifecycleAspect {
     return factDao.fetchAcl(id).all();
   }
 
+  /**
+   * Fetch the ACL entries of multiple Facts asynchronously. The ids are split into small partitions which are fetched
+   * with concurrent IN-clause requests using the driver's asynchronous API, thus, no additional threads are required.
+   *
+   * @param id UUIDs of Facts
+   * @return Future which completes with the ACL entries of all given Facts
+   */
+  public CompletableFuture<List<FactAclEntity>> fetchFactAclForFactsAsync(List<UUID> id) {
+    if (CollectionUtils.isEmpty(id)) return CompletableFuture.completedFuture(ListUtils.list());
+
+    List<CompletableFuture<List<FactAclEntity>>> partitions = Lists.partition(id, ACL_MULTI_FETCH_BATCH_SIZE)
+            .stream()
+            .map(partition -> factDao.fetchAclByIDAsync(partition)
+                    .thenCompose(page -> fetchRemainingPages(page, new ArrayList<>()))
+                    .toCompletableFuture())
+            .collect(Collectors.toList());
+    return CompletableFuture.allOf(partitions.toArray(new CompletableFuture[0]))
+            .thenApply(ignored -> partitions.stream()
+                    .flatMap(partition -> partition.join().stream())
+                    .collect(Collectors.toList()));
+  }
+
   public FactAclEntity saveFactAclEntry(FactAclEntity entry) {
     if (entry == null) return null;
     if (getFact(entry.getFactID()) == null)
       throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", entry.getFactID()));
-    if (factDao.getAclEntry(entry.getFactID(), entry.getId()) != null)
+    if (!factDao.save(entry))
       throw new ImmutableViolationException("It is not allowed to update an ACL entry.");
 
-    factDao.save(entry);
-
     return entry;
   }
 
+  public CompletableFuture<Void> saveFactAclEntryAsync(FactAclEntity entry) {
+    // Only used when saving a new Fact, thus, no consistency checks are performed (see saveFactAsync()).
+    if (entry == null) return CompletableFuture.completedFuture(null);
+    return factDao.saveIfNotExistsAsync(entry)
+            .toCompletableFuture()
+            .thenAccept(applied -> {
+              if (!applied) throw new ImmutableViolationException("It is not allowed to update an ACL entry.");
+            });
+  }
+
   /* FactCommentEntity-related methods */
 
   public List<FactCommentEntity> fetchFactComments(UUID id) {
@@ -168,14 +292,22 @@ public class FactManager implements LifecycleAspect {
     if (comment == null) return null;
     if (getFact(comment.getFactID()) == null)
       throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", comment.getFactID()));
-    if (factDao.getComment(comment.getFactID(), comment.getId()) != null)
+    if (!factDao.save(comment))
       throw new ImmutableViolationException("It is not allowed to update a comment.");
 
-    factDao.save(comment);
-
     return comment;
   }
 
+  public CompletableFuture<Void> saveFactCommentAsync(FactCommentEntity comment) {
+    // Only used when saving a new Fact, thus, no consistency checks are performed (see saveFactAsync()).
+    if (comment == null) return CompletableFuture.completedFuture(null);
+    return factDao.saveIfNotExistsAsync(comment)
+            .toCompletableFuture()
+            .thenAccept(applied -> {
+              if (!applied) throw new ImmutableViolationException("It is not allowed to update a comment.");
+            });
+  }
+
   /* MetaFactBindingEntity-related methods */
 
   public List<MetaFactBindingEntity> fetchMetaFactBindings(UUID id) {
@@ -187,14 +319,104 @@ public class FactManager implements LifecycleAspect {
     if (binding == null) return null;
     if (getFact(binding.getFactID()) == null)
       throw new IllegalArgumentException(String.format("Fact with id = %s does not exist.", binding.getFactID()));
-    if (factDao.getMetaFactBinding(binding.getFactID(), binding.getMetaFactID()) != null)
+    if (!factDao.save(binding))
       throw new ImmutableViolationException("It is not allowed to update a MetaFactBinding.");
 
-    factDao.save(binding);
-
     return binding;
   }
 
+  public CompletableFuture<Void> saveMetaFactBindingAsync(MetaFactBindingEntity binding) {
+    // Only used when saving a new Fact, thus, no consistency checks are performed (see saveFactAsync()).
+    if (binding == null) return CompletableFuture.completedFuture(null);
+    return factDao.saveIfNotExistsAsync(binding)
+            .toCompletableFuture()
+            .thenAccept(applied -> {
+              if (!applied) throw new ImmutableViolationException("It is not allowed to update a MetaFactBinding.");
+            });
+  }
+
+  /* FactIndexQueueEntity-related methods */
+
+  public List<FactIndexQueueEntity> fetchFactIndexQueue(int bucket, int limit) {
+    if (bucket < 0 || bucket >= FactIndexQueueEntity.BUCKETS || limit <= 0) return ListUtils.list();
+    return factDao.fetchIndexQueue(bucket, limit).all();
+  }
+
+  public FactIndexQueueEntity saveFactIndexQueueEntry(FactIndexQueueEntity entry) {
+    if (entry == null) return null;
+    if (entry.getFactID() == null) throw new IllegalArgumentException("Missing required field 'factID'.");
+
+    factDao.save(entry.setBucket(FactIndexQueueEntity.calculateBucket(entry.getFactID())));
+
+    return entry;
+  }
+
+  public void deleteFactIndexQueueEntry(FactIndexQueueEntity entry) {
+    if (entry == null) return;
+    factDao.delete(entry);
+  }
+
+  /**
+   * Specify how many single-partition requests are executed concurrently when fetching multiple entities by id.
+   * Defaults to 32. Set to 0 in order to fetch the entities in batches using an IN-clause instead.
+   *
+   * @param multiFetchConcurrency Maximum number of concurrent requests
+   * @return Class instance, i.e. 'this'
+   */
+  public FactManager setMultiFetchConcurrency(int multiFetchConcurrency) {
+    this.multiFetchConcurrency = multiFetchConcurrency;
+    return this;
+  }
+
+  /**
+   * Specify the maximum number of bytes used by the cache for looking up Facts by id. The cache is kept off-heap in
+   * direct memory, thus, -XX:MaxDirectMemorySize must be large enough. Defaults to 256 MiB. Set to 0 in order to disable caching. Resets the cache including its statistics.
+   *
+   * @param factCacheSize Maximum size of the cache in bytes
+   * @return Class instance, i.e. 'this'
+   */
+  public FactManager setFactCacheSize(long factCacheSize) {
+    this.factCacheSize = factCacheSize;
+    this.factCache = createFactCache();
+    return this;
+  }
+
+  /**
+   * Specify the time after which cached Facts are evicted. Defaults to 10 minutes.
+   * Resets the cache including its statistics.
+   *
+   * @param factCacheExpiration Expiration time in milliseconds
+   * @return Class instance, i.e. 'this'
+   */
+  public FactManager setFactCacheExpiration(long factCacheExpiration) {
+    this.factCacheExpiration = factCacheExpiration;
+    this.factCache = createFactCache();
+    return this;
+  }
+
+  /**
+   * Specify the time after which the mutable fields (lastSeenTimestamp and flags) of a cached Fact are re-fetched.
+   * This bounds how long changes performed by other application instances, e.g. a retraction, stay unnoticed.
+   * Defaults to 30 seconds. Resets the cache including its statistics.
+   *
+   * @param factCacheMutableFieldsExpiration Expiration time in milliseconds
+   * @return Class instance, i.e. 'this'
+   */
+  public FactManager setFactCacheMutableFieldsExpiration(long factCacheMutableFieldsExpiration) {
+    this.factCacheMutableFieldsExpiration = factCacheMutableFieldsExpiration;
+    this.factCache = createFactCache();
+    return this;
+  }
+
+  /**
+   * Return hit/miss statistics of the cache used for looking up Facts by id.
+   *
+   * @return Cache statistics
+   */
+  public CacheStats getFactCacheStats() {
+    return factCache.stats();
+  }
+
   /* Setters used for unit testing */
 
   FactManager withClock(Clock clock) {
@@ -204,6 +426,38 @@ public class FactManager implements LifecycleAspect {
 
   /* Private helper methods */
 
+  private <T> CompletionStage<List<T>> fetchRemainingPages(MappedAsyncPagingIterable<T> page, List<T> result) {
+    page.currentPage().forEach(result::add);
+    if (!page.hasMorePages()) return CompletableFuture.completedFuture(result);
+    return page.fetchNextPage().thenCompose(next -> fetchRemainingPages(next, result));
+  }
+
+  private FactEntityCache createFactCache() {
+    return new FactEntityCache(factCacheSize, factCacheExpiration, factCacheMutableFieldsExpiration);
+  }
+
+  private FactEntity fetchUpdatedFact(UUID id) {
+    // The cached Fact is outdated now. Drop it and read the current row which includes concurrent changes.
+    factCache.invalidate(id);
+    return getFact(id);
+  }
+
+  private Iterator<FactEntity> fetchFacts(List<UUID> id) {
+    if (multiFetchConcurrency > 0) {
+      // Fetch each partition with its own request, executing multiple requests concurrently.
+      return new ConcurrentFetchIterator<>(factDao::getAsync, id, multiFetchConcurrency);
+    }
+
+    return new MultiFetchIterator<>(partition -> factDao.fetchByID(partition).iterator(), id);
+  }
+
+  private CompletableFuture<FactEntity> getFactAsync(UUID id) {
+    FactEntity cached = factCache.get(id);
+    if (cached != null) return CompletableFuture.completedFuture(cached);
+
+    return factDao.getAsync(id).toCompletableFuture();
+  }
+
   private LoadingCache<UUID, FactTypeEntity> createFactTypeByIdCache() {
     return CacheBuilder.newBuilder()
             .expireAfterAccess(10, TimeUnit.MINUTES)
@@ -1,15 +1,16 @@
 package no.mnemonic.act.platform.dao.cassandra;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
-import no.mnemonic.act.platform.dao.cassandra.entity.ObjectByTypeValueEntity;
-import no.mnemonic.act.platform.dao.cassandra.entity.ObjectEntity;
-import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
-import no.mnemonic.act.platform.dao.cassandra.entity.ObjectTypeEntity;
+import com.google.common.collect.Iterators;
+import no.mnemonic.act.platform.dao.cassandra.entity.*;
 import no.mnemonic.act.platform.dao.cassandra.exceptions.ImmutableViolationException;
 import no.mnemonic.act.platform.dao.cassandra.mapper.ObjectDao;
 import no.mnemonic.act.platform.dao.cassandra.mapper.ObjectTypeDao;
+import no.mnemonic.act.platform.dao.cassandra.utilities.ConcurrentFetchIterator;
 import no.mnemonic.act.platform.dao.cassandra.utilities.MultiFetchIterator;
 import no.mnemonic.commons.component.Dependency;
 import no.mnemonic.commons.component.LifecycleAspect;
@@ -20,12 +21,30 @@ import no.mnemonic.commons.utilities.collections.CollectionUtils;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Manages ObjectTypes, Objects and the bindings between Objects and Facts stored in Cassandra.
+ * <p>
+ * Objects are immutable and cached without expiration. The bindings of an Object to Facts are cached as well, but new
+ * bindings are added whenever a Fact is created. Saving a binding invalidates the cached bindings of the Object on
+ * this application instance, and a read which overlaps with such an invalidation isn't cached. Other application
+ * instances only see new bindings after their cached bindings expired, see {@link #setBindingCacheExpiration(long)}.
+ */
 @Singleton
 public class ObjectManager implements LifecycleAspect {
 
+  private static final int DEFAULT_MULTI_FETCH_CONCURRENCY = 32;
+  private static final long DEFAULT_OBJECT_CACHE_SIZE = 100_000;
+  private static final long DEFAULT_BINDING_CACHE_SIZE = 1_000_000;
+  private static final long DEFAULT_BINDING_CACHE_EXPIRATION = TimeUnit.MINUTES.toMillis(1);
+  // Bindings of Objects with more bindings than this are neither cached nor loaded into memory at once.
+  private static final int MAXIMUM_CACHED_BINDINGS_PER_OBJECT = 10_000;
+
   @Dependency
   private final ClusterManager clusterManager;
 
@@ -35,6 +54,19 @@ public class ObjectManager implements LifecycleAspect {
   private ObjectTypeDao objectTypeDao;
   private ObjectDao objectDao;
 
+  private int multiFetchConcurrency = DEFAULT_MULTI_FETCH_CONCURRENCY;
+  // Objects are immutable, thus, they can be cached without the need for invalidation.
+  private Cache<UUID, ObjectEntity> objectByIdCache = createObjectCache(DEFAULT_OBJECT_CACHE_SIZE);
+  private Cache<String, UUID> objectIdByTypeValueCache = createObjectCache(DEFAULT_OBJECT_CACHE_SIZE);
+  // In contrast to Objects new bindings are added when Facts are created, thus, cached bindings expire after some time.
+  private long bindingCacheSize = DEFAULT_BINDING_CACHE_SIZE;
+  private long bindingCacheExpiration = DEFAULT_BINDING_CACHE_EXPIRATION;
+  private Cache<UUID, List<ObjectFactBindingEntity>> bindingsByObjectCache = createBindingCache(DEFAULT_BINDING_CACHE_SIZE, DEFAULT_BINDING_CACHE_EXPIRATION);
+  // Incremented on every invalidation of cached bindings. Used to detect invalidations happening while bindings are read.
+  private final AtomicLong bindingInvalidationCounter = new AtomicLong();
+  private Cache<UUID, Long> invalidatedBindings = createInvalidationCache(DEFAULT_BINDING_CACHE_EXPIRATION);
+  private boolean factTypeBindingLookupEnabled;
+
   @Inject
   public ObjectManager(ClusterManager clusterManager) {
     this.clusterManager = clusterManager;
@@ -101,7 +133,11 @@ public class ObjectManager implements LifecycleAspect {
 
   public ObjectEntity getObject(UUID id) {
     if (id == null) return null;
-    return objectDao.get(id);
+
+    ObjectEntity cached = objectByIdCache.getIfPresent(id);
+    if (cached != null) return cached;
+
+    return cacheObject(objectDao.get(id));
   }
 
   public ObjectEntity getObject(String type, String value) {
@@ -110,12 +146,28 @@ public class ObjectManager implements LifecycleAspect {
     ObjectTypeEntity objectType = getObjectType(type);
     if (objectType == null) throw new IllegalArgumentException(String.format("ObjectType with name = %s does not exist.", type));
 
-    ObjectByTypeValueEntity objectByTypeValue = objectDao.getObjectByTypeValue(objectType.getId(), value);
-    return ObjectUtils.ifNotNull(objectByTypeValue, o -> getObject(o.getObjectID()));
+    String typeValueKey = createTypeValueKey(objectType.getId(), value);
+    UUID objectID = objectIdByTypeValueCache.getIfPresent(typeValueKey);
+    if (objectID == null) {
+      // Only cache existing Objects as missing Objects might be created later.
+      ObjectByTypeValueEntity objectByTypeValue = objectDao.getObjectByTypeValue(objectType.getId(), value);
+      if (objectByTypeValue == null) return null;
+
+      objectID = objectByTypeValue.getObjectID();
+      objectIdByTypeValueCache.put(typeValueKey, objectID);
+    }
+
+    return getObject(objectID);
   }
 
   public Iterator<ObjectEntity> getObjects(List<UUID> id) {
     if (CollectionUtils.isEmpty(id)) return Collections.emptyIterator();
+    if (multiFetchConcurrency > 0) {
+      // Fetch each partition with its own request, executing multiple requests concurrently.
+      // Cached Objects are returned immediately without sending a request.
+      return new ConcurrentFetchIterator<>(this::getObjectAsync, id, multiFetchConcurrency);
+    }
+
     return new MultiFetchIterator<>(partition -> objectDao.fetchByID(partition).iterator(), id);
   }
 
@@ -125,19 +177,28 @@ public class ObjectManager implements LifecycleAspect {
     ObjectTypeEntity type = getObjectType(object.getTypeID());
     if (type == null) throw new IllegalArgumentException(String.format("ObjectType with id = %s does not exist.", object.getTypeID()));
 
-    // It's not allowed to create the same object multiple times.
-    if (getObject(type.getName(), object.getValue()) != null) {
-      throw new ImmutableViolationException("Object already exists.");
-    }
-
     // Also save an ObjectByTypeValue mapping.
     ObjectByTypeValueEntity objectByTypeValue = new ObjectByTypeValueEntity()
             .setObjectTypeID(object.getTypeID())
             .setObjectValue(object.getValue())
             .setObjectID(object.getId());
 
+    // It's not allowed to create the same object multiple times. Only the node which successfully inserts the
+    // ObjectByTypeValue mapping creates the Object, even if multiple nodes try to create it concurrently. The Object
+    // itself is saved first such that the mapping never points to a non-existing Object.
     objectDao.save(object);
-    objectDao.save(objectByTypeValue);
+    ObjectByTypeValueEntity existing = objectDao.save(objectByTypeValue);
+    if (existing != null) {
+      // Another node won. Remove the Object saved above unless the mapping points to it, i.e. the same Object was saved twice.
+      if (!Objects.equals(existing.getObjectID(), object.getId())) {
+        objectDao.delete(object);
+      }
+      throw new ImmutableViolationException("Object already exists.");
+    }
+
+    // Populate caches with the newly created Object as it will usually be accessed again soon.
+    cacheObject(object);
+    objectIdByTypeValueCache.put(createTypeValueKey(object.getTypeID(), object.getValue()), object.getId());
 
     return object;
   }
@@ -146,23 +207,281 @@ public class ObjectManager implements LifecycleAspect {
 
   public Iterator<ObjectFactBindingEntity> fetchObjectFactBindings(UUID id) {
     if (id == null) return Collections.emptyIterator();
-    return objectDao.fetchObjectFactBindings(id).iterator();
+
+    List<ObjectFactBindingEntity> cached = bindingsByObjectCache.getIfPresent(id);
+    if (cached != null) return cached.iterator();
+
+    long startInvalidation = bindingInvalidationCounter.get();
+    long startTimestamp = System.currentTimeMillis();
+    Iterator<ObjectFactBindingEntity> iterator = objectDao.fetchObjectFactBindings(id).iterator();
+    List<ObjectFactBindingEntity> bindings = new ArrayList<>();
+    while (iterator.hasNext() && bindings.size() < MAXIMUM_CACHED_BINDINGS_PER_OBJECT) {
+      bindings.add(iterator.next());
+    }
+
+    if (iterator.hasNext()) {
+      // Hot Object with a huge number of bindings. Don't cache them and let the driver fetch the remaining pages on demand.
+      return Iterators.concat(bindings.iterator(), iterator);
+    }
+
+    cacheBindings(id, Collections.unmodifiableList(bindings), startInvalidation, startTimestamp);
+    return bindings.iterator();
   }
 
   public ObjectFactBindingEntity saveObjectFactBinding(ObjectFactBindingEntity binding) {
     if (binding == null) return null;
     if (getObject(binding.getObjectID()) == null)
       throw new IllegalArgumentException(String.format("Object with id = %s does not exist.", binding.getObjectID()));
-    if (objectDao.getObjectFactBinding(binding.getObjectID(), binding.getFactID()) != null)
+    if (!objectDao.save(binding))
       throw new ImmutableViolationException("It is not allowed to update an ObjectFactBinding.");
 
-    objectDao.save(binding);
+    invalidateBindings(binding.getObjectID());
+    return binding;
+  }
+
+  /**
+   * Iterate over all ObjectFactBindings stored in Cassandra. This performs a full table scan where the driver fetches
+   * the pages on demand, thus, it should only be used for maintenance tasks such as data migrations.
+   *
+   * @return Iterator over all ObjectFactBindings
+   */
+  public Iterator<ObjectFactBindingEntity> fetchAllObjectFactBindings() {
+    return objectDao.fetchAllObjectFactBindings().iterator();
+  }
+
+  /**
+   * Verify asynchronously that all given Objects exist. All lookups are executed concurrently.
+   *
+   * @param id IDs of Objects
+   * @return Future which completes exceptionally if one of the Objects does not exist
+   */
+  public CompletableFuture<Void> verifyObjectsExistAsync(Collection<UUID> id) {
+    if (CollectionUtils.isEmpty(id)) return CompletableFuture.completedFuture(null);
+
+    return CompletableFuture.allOf(id.stream()
+            .map(objectID -> getObjectAsync(objectID)
+                    .toCompletableFuture()
+                    .thenAccept(object -> {
+                      if (object == null)
+                        throw new IllegalArgumentException(String.format("Object with id = %s does not exist.", objectID));
+                    }))
+            .toArray(CompletableFuture[]::new));
+  }
+
+  public CompletableFuture<Void> saveObjectFactBindingAsync(ObjectFactBindingEntity binding) {
+    // Only used when saving a new Fact, thus, no consistency checks are performed (see verifyObjectsExistAsync()).
+    if (binding == null) return CompletableFuture.completedFuture(null);
+    return objectDao.saveIfNotExistsAsync(binding)
+            .toCompletableFuture()
+            .thenAccept(applied -> {
+              if (!applied) throw new ImmutableViolationException("It is not allowed to update an ObjectFactBinding.");
+              invalidateBindings(binding.getObjectID());
+            });
+  }
 
+  /* ObjectFactTypeBindingEntity-related methods */
+
+  /**
+   * Fetch the bindings of an Object to Facts of the given FactTypes which are bound in one of the given directions.
+   * Every combination of FactType and direction is read with a clustering-key range read which is only executed
+   * when the previous one has been consumed. If the lookup by FactType is disabled all bindings of the Object in the
+   * given directions are returned instead, i.e. callers must not rely on the bindings being filtered by FactType.
+   *
+   * @param id         ID of Object
+   * @param factTypeID IDs of FactTypes
+   * @param direction  Directions of the bindings
+   * @return Iterator over matching ObjectFactBindings
+   */
+  public Iterator<ObjectFactBindingEntity> fetchObjectFactBindings(UUID id, Set<UUID> factTypeID, Set<Direction> direction) {
+    if (id == null || CollectionUtils.isEmpty(factTypeID) || CollectionUtils.isEmpty(direction))
+      return Collections.emptyIterator();
+    if (!factTypeBindingLookupEnabled) {
+      return Iterators.filter(fetchObjectFactBindings(id), binding -> direction.contains(binding.getDirection()));
+    }
+
+    Iterator<Iterator<ObjectFactTypeBindingEntity>> reads = Iterators.concat(Iterators.transform(factTypeID.iterator(),
+            typeID -> Iterators.transform(direction.iterator(),
+                    dir -> objectDao.fetchObjectFactTypeBindings(id, typeID, dir).iterator())));
+
+    return Iterators.transform(Iterators.concat(reads), binding -> new ObjectFactBindingEntity()
+            .setObjectID(binding.getObjectID())
+            .setFactID(binding.getFactID())
+            .setDirection(binding.getDirection()));
+  }
+
+  public ObjectFactTypeBindingEntity saveObjectFactTypeBinding(ObjectFactTypeBindingEntity binding) {
+    // Bindings are immutable and writing the same binding twice is harmless, thus, no consistency checks are performed.
+    if (binding == null) return null;
+    objectDao.save(binding);
     return binding;
   }
 
+  public CompletableFuture<Void> saveObjectFactTypeBindingAsync(ObjectFactTypeBindingEntity binding) {
+    // Only used when saving a new Fact, thus, no consistency checks are performed (see verifyObjectsExistAsync()).
+    if (binding == null) return CompletableFuture.completedFuture(null);
+    return objectDao.saveAsync(binding).toCompletableFuture();
+  }
+
+  /**
+   * Specify how many single-partition requests are executed concurrently when fetching multiple entities by id.
+   * Defaults to 32. Set to 0 in order to fetch the entities in batches using an IN-clause instead.
+   *
+   * @param multiFetchConcurrency Maximum number of concurrent requests
+   * @return Class instance, i.e. 'this'
+   */
+  public ObjectManager setMultiFetchConcurrency(int multiFetchConcurrency) {
+    this.multiFetchConcurrency = multiFetchConcurrency;
+    return this;
+  }
+
+  /**
+   * Specify the maximum number of Objects kept in the in-memory caches for lookups by id and by type/value.
+   * Defaults to 100000. Set to 0 in order to disable caching. Resets the caches including their statistics.
+   *
+   * @param objectCacheSize Maximum number of cached Objects
+   * @return Class instance, i.e. 'this'
+   */
+  public ObjectManager setObjectCacheSize(long objectCacheSize) {
+    this.objectByIdCache = createObjectCache(objectCacheSize);
+    this.objectIdByTypeValueCache = createObjectCache(objectCacheSize);
+    return this;
+  }
+
+  /**
+   * Return hit/miss statistics of the cache used for looking up Objects by id.
+   *
+   * @return Cache statistics
+   */
+  public CacheStats getObjectByIdCacheStats() {
+    return objectByIdCache.stats();
+  }
+
+  /**
+   * Return hit/miss statistics of the cache used for looking up Objects by type/value.
+   *
+   * @return Cache statistics
+   */
+  public CacheStats getObjectByTypeValueCacheStats() {
+    return objectIdByTypeValueCache.stats();
+  }
+
+  /**
+   * Specify the maximum number of ObjectFactBindings kept in the in-memory cache for lookups by Object.
+   * Defaults to 1000000. Set to 0 in order to disable caching. Resets the cache including its statistics.
+   *
+   * @param bindingCacheSize Maximum number of cached bindings
+   * @return Class instance, i.e. 'this'
+   */
+  public ObjectManager setBindingCacheSize(long bindingCacheSize) {
+    this.bindingCacheSize = bindingCacheSize;
+    this.bindingsByObjectCache = createBindingCache(bindingCacheSize, bindingCacheExpiration);
+    return this;
+  }
+
+  /**
+   * Specify the time after which cached ObjectFactBindings are evicted. This bounds how long bindings added by other
+   * application instances stay unnoticed. Defaults to 1 minute. Resets the cache including its statistics.
+   *
+   * @param bindingCacheExpiration Expiration time in milliseconds
+   * @return Class instance, i.e. 'this'
+   */
+  public ObjectManager setBindingCacheExpiration(long bindingCacheExpiration) {
+    this.bindingCacheExpiration = bindingCacheExpiration;
+    this.bindingsByObjectCache = createBindingCache(bindingCacheSize, bindingCacheExpiration);
+    this.invalidatedBindings = createInvalidationCache(bindingCacheExpiration);
+    return this;
+  }
+
+  /**
+   * Return hit/miss statistics of the cache used for looking up ObjectFactBindings by Object.
+   *
+   * @return Cache statistics
+   */
+  public CacheStats getBindingCacheStats() {
+    return bindingsByObjectCache.stats();
+  }
+
+  /**
+   * Specify whether the bindings of an Object to Facts of specific FactTypes are read from the lookup table clustered
+   * by FactType and direction (see {@link #fetchObjectFactBindings(UUID, Set, Set)}). Defaults to false. Only enable the
+   * lookup after the bindings of existing Facts have been backfilled, see {@code ObjectFactTypeBindingBackfill}.
+   * Otherwise, bindings of Facts created before the lookup table existed are silently missed.
+   *
+   * @param factTypeBindingLookupEnabled Whether the lookup by FactType is enabled
+   * @return Class instance, i.e. 'this'
+   */
+  public ObjectManager setFactTypeBindingLookupEnabled(boolean factTypeBindingLookupEnabled) {
+    this.factTypeBindingLookupEnabled = factTypeBindingLookupEnabled;
+    return this;
+  }
+
   /* Private helper methods */
 
+  private CompletionStage<ObjectEntity> getObjectAsync(UUID id) {
+    ObjectEntity cached = objectByIdCache.getIfPresent(id);
+    if (cached != null) return CompletableFuture.completedFuture(cached);
+
+    return objectDao.getAsync(id).thenApply(this::cacheObject);
+  }
+
+  private ObjectEntity cacheObject(ObjectEntity object) {
+    if (object != null) {
+      objectByIdCache.put(object.getId(), object);
+    }
+
+    return object;
+  }
+
+  private synchronized void cacheBindings(UUID id, List<ObjectFactBindingEntity> bindings, long startInvalidation, long startTimestamp) {
+    // Older invalidations have been forgotten already, thus, a read taking that long can't be verified.
+    if (System.currentTimeMillis() - startTimestamp > bindingCacheExpiration) return;
+
+    // Synchronized with invalidateBindings(), thus, an invalidation either happens before (and is detected here) or
+    // after the bindings have been cached (and drops them again). Don't cache bindings read before a new binding was added.
+    if (bindingInvalidationCounter.get() != startInvalidation) {
+      Long invalidation = invalidatedBindings.getIfPresent(id);
+      if (invalidation != null && invalidation > startInvalidation) return;
+    }
+
+    bindingsByObjectCache.put(id, bindings);
+  }
+
+  private synchronized void invalidateBindings(UUID id) {
+    long invalidation = bindingInvalidationCounter.incrementAndGet();
+    // Remember the invalidation for bindings which are read right now, see cacheBindings().
+    invalidatedBindings.put(id, invalidation);
+    bindingsByObjectCache.invalidate(id);
+  }
+
+  private String createTypeValueKey(UUID typeID, String value) {
+    // The UUID has a fixed length, thus, the key is unique for every combination of type and value.
+    return typeID + "/" + value;
+  }
+
+  private <K, V> Cache<K, V> createObjectCache(long maximumSize) {
+    return CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+  }
+
+  private Cache<UUID, List<ObjectFactBindingEntity>> createBindingCache(long maximumSize, long expiration) {
+    return CacheBuilder.newBuilder()
+            // Hot Objects can have a huge number of bindings, thus, limit the total number of bindings instead of Objects.
+            .maximumWeight(maximumSize)
+            .weigher((UUID id, List<ObjectFactBindingEntity> bindings) -> Math.max(bindings.size(), 1))
+            .expireAfterWrite(expiration, TimeUnit.MILLISECONDS)
+            .recordStats()
+            .build();
+  }
+
+  private Cache<UUID, Long> createInvalidationCache(long expiration) {
+    // Reads taking longer than the expiration time are never cached, thus, older invalidations are irrelevant.
+    return CacheBuilder.newBuilder()
+            .expireAfterWrite(expiration, TimeUnit.MILLISECONDS)
+            .build();
+  }
+
   private LoadingCache<UUID, ObjectTypeEntity> createObjectTypeByIdCache() {
     return CacheBuilder.newBuilder()
             .expireAfterAccess(10, TimeUnit.MINUTES)
@@ -0,0 +1,21 @@
+package no.mnemonic.act.platform.dao.cassandra;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+
+public class ObjectManagerProvider implements Provider<ObjectManager> {
+
+  @Inject
+  private ClusterManager clusterManager;
+  @Inject
+  @Named("cassandra.fact.type.binding.lookup.enabled")
+  private String factTypeBindingLookupEnabled;
+
+  @Override
+  public ObjectManager get() {
+    return new ObjectManager(clusterManager)
+            .setFactTypeBindingLookupEnabled(Boolean.parseBoolean(factTypeBindingLookupEnabled));
+  }
+
+}
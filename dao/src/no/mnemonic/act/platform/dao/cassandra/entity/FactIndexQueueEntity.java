@@ -0,0 +1,68 @@
+package no.mnemonic.act.platform.dao.cassandra.entity;
+
+import com.datastax.oss.driver.api.mapper.annotations.ClusteringColumn;
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Entity;
+import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
+
+import java.util.UUID;
+
+import static no.mnemonic.act.platform.dao.cassandra.entity.CassandraEntity.KEY_SPACE;
+import static no.mnemonic.act.platform.dao.cassandra.entity.FactIndexQueueEntity.TABLE;
+
+/**
+ * Entry in the durable outbox of Facts which still need to be (re-)indexed into ElasticSearch. Entries are spread
+ * over a fixed number of buckets (partitions) and are ordered by the time they were added inside each bucket.
+ */
+@Entity(defaultKeyspace = KEY_SPACE)
+@CqlName(TABLE)
+public class FactIndexQueueEntity implements CassandraEntity {
+
+  public static final String TABLE = "fact_index_queue";
+  public static final int BUCKETS = 16;
+
+  @PartitionKey
+  private int bucket;
+  @ClusteringColumn(0)
+  private long timestamp;
+  @ClusteringColumn(1)
+  @CqlName("fact_id")
+  private UUID factID;
+
+  /**
+   * Calculate the bucket a Fact will be placed in.
+   *
+   * @param factID UUID of Fact
+   * @return Bucket of Fact
+   */
+  public static int calculateBucket(UUID factID) {
+    return factID != null ? Math.floorMod(factID.hashCode(), BUCKETS) : 0;
+  }
+
+  public int getBucket() {
+    return bucket;
+  }
+
+  public FactIndexQueueEntity setBucket(int bucket) {
+    this.bucket = bucket;
+    return this;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public FactIndexQueueEntity setTimestamp(long timestamp) {
+    this.timestamp = timestamp;
+    return this;
+  }
+
+  public UUID getFactID() {
+    return factID;
+  }
+
+  public FactIndexQueueEntity setFactID(UUID factID) {
+    this.factID = factID;
+    return this;
+  }
+}
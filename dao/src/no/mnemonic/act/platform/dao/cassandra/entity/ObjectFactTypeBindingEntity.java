@@ -0,0 +1,70 @@
+package no.mnemonic.act.platform.dao.cassandra.entity;
+
+import com.datastax.oss.driver.api.mapper.annotations.ClusteringColumn;
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Entity;
+import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
+
+import java.util.UUID;
+
+import static no.mnemonic.act.platform.dao.cassandra.entity.CassandraEntity.KEY_SPACE;
+import static no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactTypeBindingEntity.TABLE;
+
+/**
+ * Same binding between Object and Fact as {@link ObjectFactBindingEntity}, but clustered by FactType and direction.
+ * This allows to only read the bindings of an Object to Facts of a specific type bound in a specific direction.
+ */
+@Entity(defaultKeyspace = KEY_SPACE)
+@CqlName(TABLE)
+public class ObjectFactTypeBindingEntity implements CassandraEntity {
+
+  public static final String TABLE = "object_fact_type_binding";
+
+  @PartitionKey
+  @CqlName("object_id")
+  private UUID objectID;
+  @ClusteringColumn(0)
+  @CqlName("fact_type_id")
+  private UUID factTypeID;
+  @ClusteringColumn(1)
+  private Direction direction;
+  @ClusteringColumn(2)
+  @CqlName("fact_id")
+  private UUID factID;
+
+  public UUID getObjectID() {
+    return objectID;
+  }
+
+  public ObjectFactTypeBindingEntity setObjectID(UUID objectID) {
+    this.objectID = objectID;
+    return this;
+  }
+
+  public UUID getFactTypeID() {
+    return factTypeID;
+  }
+
+  public ObjectFactTypeBindingEntity setFactTypeID(UUID factTypeID) {
+    this.factTypeID = factTypeID;
+    return this;
+  }
+
+  public Direction getDirection() {
+    return direction;
+  }
+
+  public ObjectFactTypeBindingEntity setDirection(Direction direction) {
+    this.direction = direction;
+    return this;
+  }
+
+  public UUID getFactID() {
+    return factID;
+  }
+
+  public ObjectFactTypeBindingEntity setFactID(UUID factID) {
+    this.factID = factID;
+    return this;
+  }
+}
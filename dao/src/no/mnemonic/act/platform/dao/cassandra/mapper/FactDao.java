@@ -1,14 +1,18 @@
 package no.mnemonic.act.platform.dao.cassandra.mapper;
 
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
 import com.datastax.oss.driver.api.core.PagingIterable;
 import com.datastax.oss.driver.api.mapper.annotations.*;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactAclEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactCommentEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactIndexQueueEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.MetaFactBindingEntity;
 
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 
 import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
 import static no.mnemonic.act.platform.dao.cassandra.entity.CassandraEntity.KEY_SPACE;
@@ -19,46 +23,74 @@ public interface FactDao {
 
   /* FactEntity-related methods */
 
-  @Insert
-  void save(FactEntity entity);
+  @Insert(ifNotExists = true)
+  boolean saveIfNotExists(FactEntity entity);
+
+  @Insert(ifNotExists = true)
+  CompletionStage<Boolean> saveIfNotExistsAsync(FactEntity entity);
 
   @Select
   FactEntity get(UUID id);
 
+  @Select
+  CompletionStage<FactEntity> getAsync(UUID id);
+
   @Query("SELECT * FROM " + KEY_SPACE + "." + FactEntity.TABLE + " WHERE id IN :id")
   PagingIterable<FactEntity> fetchByID(List<UUID> id);
 
+  // Facts are created with lightweight transactions, thus, the mutable fields are also updated with lightweight
+  // transactions. Only the changed column is written in order to not overwrite concurrent changes to other columns.
+  @Query("UPDATE " + KEY_SPACE + "." + FactEntity.TABLE + " SET last_seen_timestamp = :lastSeenTimestamp WHERE id = :id IF EXISTS")
+  boolean updateLastSeenTimestamp(UUID id, long lastSeenTimestamp);
+
+  @Query("UPDATE " + KEY_SPACE + "." + FactEntity.TABLE + " SET flags = flags + :flags WHERE id = :id IF EXISTS")
+  boolean addFlags(UUID id, Set<FactEntity.Flag> flags);
+
   /* MetaFactBindingEntity-related methods */
 
-  @Insert
-  void save(MetaFactBindingEntity entity);
+  @Insert(ifNotExists = true)
+  boolean save(MetaFactBindingEntity entity);
 
-  @Select
-  MetaFactBindingEntity getMetaFactBinding(UUID factID, UUID metaFactID);
+  @Insert(ifNotExists = true)
+  CompletionStage<Boolean> saveIfNotExistsAsync(MetaFactBindingEntity entity);
 
   @Query("SELECT * FROM " + KEY_SPACE + "." + MetaFactBindingEntity.TABLE + " WHERE fact_id = :id")
   PagingIterable<MetaFactBindingEntity> fetchMetaFactBindings(UUID id);
 
   /* FactAclEntity-related methods */
 
-  @Insert
-  void save(FactAclEntity entity);
+  @Insert(ifNotExists = true)
+  boolean save(FactAclEntity entity);
 
-  @Select
-  FactAclEntity getAclEntry(UUID factID, UUID id);
+  @Insert(ifNotExists = true)
+  CompletionStage<Boolean> saveIfNotExistsAsync(FactAclEntity entity);
 
   @Query("SELECT * FROM " + KEY_SPACE + "." + FactAclEntity.TABLE + " WHERE fact_id = :id")
   PagingIterable<FactAclEntity> fetchAcl(UUID id);
 
+  @Query("SELECT * FROM " + KEY_SPACE + "." + FactAclEntity.TABLE + " WHERE fact_id IN :id")
+  CompletionStage<MappedAsyncPagingIterable<FactAclEntity>> fetchAclByIDAsync(List<UUID> id);
+
   /* FactCommentEntity-related methods */
 
-  @Insert
-  void save(FactCommentEntity entity);
+  @Insert(ifNotExists = true)
+  boolean save(FactCommentEntity entity);
 
-  @Select
-  FactCommentEntity getComment(UUID factID, UUID id);
+  @Insert(ifNotExists = true)
+  CompletionStage<Boolean> saveIfNotExistsAsync(FactCommentEntity entity);
 
   @Query("SELECT * FROM " + KEY_SPACE + "." + FactCommentEntity.TABLE + " WHERE fact_id = :id")
   PagingIterable<FactCommentEntity> fetchComments(UUID id);
 
+  /* FactIndexQueueEntity-related methods */
+
+  @Insert
+  void save(FactIndexQueueEntity entity);
+
+  @Delete
+  void delete(FactIndexQueueEntity entity);
+
+  @Query("SELECT * FROM " + KEY_SPACE + "." + FactIndexQueueEntity.TABLE + " WHERE bucket = :bucket LIMIT :limit")
+  PagingIterable<FactIndexQueueEntity> fetchIndexQueue(int bucket, int limit);
+
 }
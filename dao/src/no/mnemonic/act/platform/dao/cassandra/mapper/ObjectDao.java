@@ -4,10 +4,13 @@ import com.datastax.oss.driver.api.core.PagingIterable;
 import com.datastax.oss.driver.api.mapper.annotations.*;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectByTypeValueEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.Direction;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactTypeBindingEntity;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 
 import static com.datastax.oss.driver.api.mapper.entity.saving.NullSavingStrategy.DO_NOT_SET;
 import static no.mnemonic.act.platform.dao.cassandra.entity.CassandraEntity.KEY_SPACE;
@@ -21,29 +24,50 @@ public interface ObjectDao {
   @Insert
   void save(ObjectEntity entity);
 
+  @Delete
+  void delete(ObjectEntity entity);
+
   @Select
   ObjectEntity get(UUID id);
 
+  @Select
+  CompletionStage<ObjectEntity> getAsync(UUID id);
+
   @Query("SELECT * FROM " + KEY_SPACE + "." + ObjectEntity.TABLE + " WHERE id IN :id")
   PagingIterable<ObjectEntity> fetchByID(List<UUID> id);
 
   /* ObjectByTypeValueEntity-related methods */
 
-  @Insert
-  void save(ObjectByTypeValueEntity entity);
+  // Returns null if the mapping was inserted, otherwise the existing mapping.
+  @Insert(ifNotExists = true)
+  ObjectByTypeValueEntity save(ObjectByTypeValueEntity entity);
 
   @Select
   ObjectByTypeValueEntity getObjectByTypeValue(UUID objectTypeID, String objectValue);
 
   /* ObjectFactBindingEntity-related methods */
 
-  @Insert
-  void save(ObjectFactBindingEntity entity);
+  @Insert(ifNotExists = true)
+  boolean save(ObjectFactBindingEntity entity);
 
-  @Select
-  ObjectFactBindingEntity getObjectFactBinding(UUID objectID, UUID factID);
+  @Insert(ifNotExists = true)
+  CompletionStage<Boolean> saveIfNotExistsAsync(ObjectFactBindingEntity entity);
 
   @Query("SELECT * FROM " + KEY_SPACE + "." + ObjectFactBindingEntity.TABLE + " WHERE object_id = :id")
   PagingIterable<ObjectFactBindingEntity> fetchObjectFactBindings(UUID id);
 
+  @Query("SELECT * FROM " + KEY_SPACE + "." + ObjectFactBindingEntity.TABLE)
+  PagingIterable<ObjectFactBindingEntity> fetchAllObjectFactBindings();
+
+  /* ObjectFactTypeBindingEntity-related methods */
+
+  @Insert
+  void save(ObjectFactTypeBindingEntity entity);
+
+  @Insert
+  CompletionStage<Void> saveAsync(ObjectFactTypeBindingEntity entity);
+
+  @Query("SELECT * FROM " + KEY_SPACE + "." + ObjectFactTypeBindingEntity.TABLE + " WHERE object_id = :id AND fact_type_id = :factTypeID AND direction = :direction")
+  PagingIterable<ObjectFactTypeBindingEntity> fetchObjectFactTypeBindings(UUID id, UUID factTypeID, Direction direction);
+
 }
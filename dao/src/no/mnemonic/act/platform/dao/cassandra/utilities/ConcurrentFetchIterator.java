@@ -0,0 +1,80 @@
+package no.mnemonic.act.platform.dao.cassandra.utilities;
+
+import no.mnemonic.commons.utilities.ObjectUtils;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * {@link Iterator} implementing multi-fetch against Cassandra by executing one asynchronous single-partition request
+ * per id instead of one request with an IN-clause. This allows the driver to route every request directly to a replica
+ * owning the partition (token-aware routing) instead of letting one coordinator fan out the IN-clause.
+ * <p>
+ * At most 'concurrency' requests are in flight at the same time and new requests are issued while the results are
+ * consumed. The order of the returned elements corresponds to the order of the ids. Ids which don't exist are skipped.
+ *
+ * @param <T> Type of returned elements
+ */
+public class ConcurrentFetchIterator<T> implements Iterator<T> {
+
+  private final Function<UUID, CompletionStage<T>> fetch;
+  private final Iterator<UUID> id;
+  private final int concurrency;
+  private final Deque<CompletableFuture<T>> inFlight = new ArrayDeque<>();
+  private T next;
+
+  /**
+   * Create a new instance.
+   *
+   * @param fetch       Function for fetching one element asynchronously
+   * @param id          List of all elements to fetch (by id)
+   * @param concurrency Maximum number of requests in flight (must be positive)
+   */
+  public ConcurrentFetchIterator(Function<UUID, CompletionStage<T>> fetch, List<UUID> id, int concurrency) {
+    if (concurrency < 1) throw new IllegalArgumentException("'concurrency' must be positive!");
+    this.fetch = ObjectUtils.notNull(fetch, "'fetch' cannot be null!");
+    this.id = ObjectUtils.notNull(id, "'id' cannot be null!").iterator();
+    this.concurrency = concurrency;
+  }
+
+  @Override
+  public boolean hasNext() {
+    // Skip over ids which don't exist in Cassandra, i.e. where the request returned null.
+    while (next == null) {
+      fillWindow();
+      if (inFlight.isEmpty()) return false;
+      next = await(inFlight.poll());
+    }
+
+    return true;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) throw new NoSuchElementException();
+
+    T current = next;
+    next = null;
+    return current;
+  }
+
+  private void fillWindow() {
+    // Issue new requests until the maximum number of requests in flight is reached or all ids have been requested.
+    while (inFlight.size() < concurrency && id.hasNext()) {
+      inFlight.add(fetch.apply(id.next()).toCompletableFuture());
+    }
+  }
+
+  private T await(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      // Rethrow the original exception thrown by the driver.
+      if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+      throw ex;
+    }
+  }
+}
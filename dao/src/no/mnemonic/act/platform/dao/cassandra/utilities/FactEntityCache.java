@@ -0,0 +1,380 @@
+package no.mnemonic.act.platform.dao.cassandra.utilities;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import no.mnemonic.act.platform.dao.cassandra.entity.AccessMode;
+import no.mnemonic.act.platform.dao.cassandra.entity.Direction;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.CollectionUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cache for {@link FactEntity} which keeps the cached Facts off-heap. The immutable fields of a Fact are serialized into
+ * a few large direct buffers (slabs) instead of keeping the object graph of the entity (including its UUID, String and
+ * binding instances) on the Java heap. Only a small index entry per Fact stays on-heap which holds the location of the
+ * serialized data and an overlay of the mutable fields (lastSeenTimestamp and flags). The overlay can be refreshed
+ * without re-serializing the Fact.
+ * <p>
+ * The capacity of the cache is split into slabs of at most 64 MiB. Each slab is allocated once when it's used for the
+ * first time and is never resized or released. Facts are appended to the current slab. When it's full the next slab is
+ * reused in a round-robin fashion, evicting all Facts stored in that slab, i.e. the oldest Facts are evicted first.
+ * Space of invalidated or expired Facts is reclaimed when their slab is reused.
+ * <p>
+ * The mutable fields might be changed by other application instances at any time, thus, they expire much earlier than
+ * the immutable fields. A Fact with expired mutable fields is treated as not cached, and putting the re-fetched Fact
+ * only refreshes the overlay of the existing entry.
+ * <p>
+ * Every call to {@link #get(UUID)} returns a new {@link FactEntity} instance, thus, callers are free to modify the
+ * returned instance.
+ */
+public class FactEntityCache {
+
+  private static final int MAXIMUM_SLAB_SIZE = 64 * 1024 * 1024;
+
+  private static final byte NULL = 0;
+  private static final byte NOT_NULL = 1;
+
+  // Index of cached Facts. The serialized data is stored in the slabs.
+  private final Cache<UUID, Entry> cache;
+  private final Slab[] slabs;
+  private final long mutableFieldsExpiration;
+  // Number of entries found in the cache but not returned because their mutable fields expired.
+  private final LongAdder outdatedCount = new LongAdder();
+  // Number of entries evicted because their slab was reused.
+  private final LongAdder slabEvictionCount = new LongAdder();
+
+  // Slab which new Facts are appended to, guarded by 'this'.
+  private int currentSlab;
+
+  /**
+   * Create a new cache.
+   *
+   * @param capacity                Maximum number of bytes used by cached Facts (must not be negative, 0 disables caching)
+   * @param expiration              Time in milliseconds after which cached Facts are evicted (must be positive)
+   * @param mutableFieldsExpiration Time in milliseconds after which the mutable fields of cached Facts must be
+   *                                re-fetched (must be positive)
+   */
+  public FactEntityCache(long capacity, long expiration, long mutableFieldsExpiration) {
+    if (capacity < 0) throw new IllegalArgumentException("'capacity' cannot be negative!");
+    if (expiration < 1) throw new IllegalArgumentException("'expiration' must be positive!");
+    if (mutableFieldsExpiration < 1) throw new IllegalArgumentException("'mutableFieldsExpiration' must be positive!");
+    this.mutableFieldsExpiration = mutableFieldsExpiration;
+    this.slabs = createSlabs(capacity);
+    this.cache = CacheBuilder.newBuilder()
+            .expireAfterWrite(expiration, TimeUnit.MILLISECONDS)
+            .recordStats()
+            .build();
+  }
+
+  /**
+   * Return a cached Fact.
+   *
+   * @param id ID of Fact
+   * @return Deserialized Fact, or null if the Fact isn't cached or its mutable fields expired
+   */
+  public FactEntity get(UUID id) {
+    if (id == null) return null;
+
+    Entry entry = cache.getIfPresent(id);
+    if (entry == null) return null;
+    if (System.currentTimeMillis() - entry.overlayTimestamp > mutableFieldsExpiration) {
+      outdatedCount.increment();
+      return null;
+    }
+
+    FactEntity fact = entry.toEntity();
+    if (fact == null) {
+      // The slab was reused after the entry was looked up.
+      outdatedCount.increment();
+    }
+
+    return fact;
+  }
+
+  /**
+   * Add a Fact to the cache. If the Fact is already cached only its mutable fields are refreshed because the
+   * immutable fields of a Fact never change.
+   *
+   * @param fact Fact to cache
+   */
+  public synchronized void put(FactEntity fact) {
+    if (fact == null || fact.getId() == null || slabs.length == 0) return;
+
+    // Accessing the entry through the map view doesn't count as a cache hit.
+    Entry entry = cache.asMap().get(fact.getId());
+    if (entry != null) {
+      entry.updateOverlay(fact);
+      return;
+    }
+
+    byte[] value = fact.getValue() != null ? fact.getValue().getBytes(StandardCharsets.UTF_8) : null;
+    // Empty bindings aren't stored in Cassandra, thus, they're serialized in the same way as missing bindings.
+    List<FactEntity.FactObjectBinding> bindings = ObjectUtils.ifNull(fact.getBindings(), Collections.emptyList());
+    int length = serializedSize(value, bindings);
+    // Facts larger than a slab are never cached.
+    if (length > slabs[0].size) return;
+
+    Slab slab = slabs[currentSlab];
+    if (slab.position + length > slab.size) {
+      currentSlab = (currentSlab + 1) % slabs.length;
+      slab = slabs[currentSlab];
+      reuse(slab);
+    }
+
+    entry = new Entry(fact.getId(), slab, slab.generation, slab.position, length);
+    serialize(slab.writeView(slab.position, length), fact, value, bindings);
+    slab.position += length;
+    slab.entries.add(entry);
+    entry.updateOverlay(fact);
+    cache.put(fact.getId(), entry);
+  }
+
+  /**
+   * Remove a Fact from the cache.
+   *
+   * @param id ID of Fact
+   */
+  public void invalidate(UUID id) {
+    if (id == null) return;
+    cache.invalidate(id);
+  }
+
+  /**
+   * Return hit/miss statistics of the cache. Returning null for a Fact with expired mutable fields counts as a miss.
+   * Facts evicted because their slab was reused are included in the eviction count.
+   *
+   * @return Cache statistics
+   */
+  public CacheStats stats() {
+    CacheStats stats = cache.stats();
+    long outdated = outdatedCount.sum();
+    return new CacheStats(stats.hitCount() - outdated, stats.missCount() + outdated, stats.loadSuccessCount(),
+            stats.loadExceptionCount(), stats.totalLoadTime(), stats.evictionCount() + slabEvictionCount.sum());
+  }
+
+  /**
+   * Return the number of cached Facts.
+   *
+   * @return Number of cached Facts
+   */
+  public long size() {
+    return cache.size();
+  }
+
+  private void reuse(Slab slab) {
+    slab.reset();
+    for (Entry evicted : slab.entries) {
+      // Only remove the entry if it hasn't been invalidated and cached again in the meantime.
+      if (cache.asMap().remove(evicted.id, evicted)) {
+        slabEvictionCount.increment();
+      }
+    }
+    slab.entries.clear();
+  }
+
+  private static Slab[] createSlabs(long capacity) {
+    if (capacity == 0) return new Slab[0];
+
+    int numberOfSlabs = (int) ((capacity + MAXIMUM_SLAB_SIZE - 1) / MAXIMUM_SLAB_SIZE);
+    int slabSize = (int) (capacity / numberOfSlabs);
+    Slab[] slabs = new Slab[numberOfSlabs];
+    for (int i = 0; i < numberOfSlabs; i++) {
+      slabs[i] = new Slab(slabSize);
+    }
+
+    return slabs;
+  }
+
+  private static class Slab {
+    private final int size;
+    // Guards reading from the slab against reusing it.
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Entries stored in the slab since it was reset, guarded by the cache instance.
+    private final List<Entry> entries = new ArrayList<>();
+    // Allocated on first usage, guarded by the cache instance.
+    private ByteBuffer buffer;
+    // Next free byte, guarded by the cache instance.
+    private int position;
+    // Incremented every time the slab is reused, guarded by the lock.
+    private int generation;
+
+    private Slab(int size) {
+      this.size = size;
+    }
+
+    private ByteBuffer writeView(int offset, int length) {
+      if (buffer == null) {
+        buffer = ByteBuffer.allocateDirect(size);
+      }
+
+      return view(offset, length);
+    }
+
+    private ByteBuffer view(int offset, int length) {
+      // Work on a duplicate because the position and limit of the shared buffer must never change.
+      ByteBuffer view = buffer.duplicate();
+      view.limit(offset + length).position(offset);
+      return view;
+    }
+
+    private void reset() {
+      lock.writeLock().lock();
+      try {
+        generation++;
+        position = 0;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  private static class Entry {
+    private final UUID id;
+    // Location of the serialized immutable fields.
+    private final Slab slab;
+    private final int generation;
+    private final int offset;
+    private final int length;
+    // Overlay of the mutable fields.
+    private volatile long lastSeenTimestamp;
+    private volatile Set<FactEntity.Flag> flags;
+    // Time when the mutable fields were fetched.
+    private volatile long overlayTimestamp;
+
+    private Entry(UUID id, Slab slab, int generation, int offset, int length) {
+      this.id = id;
+      this.slab = slab;
+      this.generation = generation;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    private void updateOverlay(FactEntity fact) {
+      this.lastSeenTimestamp = fact.getLastSeenTimestamp();
+      // Cassandra returns an empty set if no flags are stored, thus, normalize the flags in the same way.
+      this.flags = !CollectionUtils.isEmpty(fact.getFlags()) ? SetUtils.set(fact.getFlags()) : Collections.emptySet();
+      this.overlayTimestamp = System.currentTimeMillis();
+    }
+
+    private FactEntity toEntity() {
+      FactEntity fact;
+      slab.lock.readLock().lock();
+      try {
+        // The data has been overwritten if the slab was reused.
+        if (slab.generation != generation) return null;
+        fact = deserialize(slab.view(offset, length));
+      } finally {
+        slab.lock.readLock().unlock();
+      }
+
+      return fact.setLastSeenTimestamp(lastSeenTimestamp)
+              .setFlags(SetUtils.set(flags));
+    }
+  }
+
+  /* Serialization of the immutable fields */
+
+  private static int serializedSize(byte[] value, List<FactEntity.FactObjectBinding> bindings) {
+    return 6 * (1 + 16) // id, typeID, inReferenceToID, organizationID, originID, addedByID
+            + 1 + 4 + (value != null ? value.length : 0) // value
+            + 4 // accessMode
+            + 4 + 4 // confidence, trust
+            + 8 // timestamp
+            + 4 + bindings.size() * (1 + 16 + 4); // bindings
+  }
+
+  private static void serialize(ByteBuffer buffer, FactEntity fact, byte[] value, List<FactEntity.FactObjectBinding> bindings) {
+    putUUID(buffer, fact.getId());
+    putUUID(buffer, fact.getTypeID());
+    putBytes(buffer, value);
+    putUUID(buffer, fact.getInReferenceToID());
+    putUUID(buffer, fact.getOrganizationID());
+    putUUID(buffer, fact.getOriginID());
+    putUUID(buffer, fact.getAddedByID());
+    buffer.putInt(fact.getAccessMode() != null ? fact.getAccessMode().value() : -1);
+    buffer.putFloat(fact.getConfidence());
+    buffer.putFloat(fact.getTrust());
+    buffer.putLong(fact.getTimestamp());
+    buffer.putInt(!bindings.isEmpty() ? bindings.size() : -1);
+    for (FactEntity.FactObjectBinding binding : bindings) {
+      putUUID(buffer, binding.getObjectID());
+      buffer.putInt(binding.getDirection() != null ? binding.getDirection().value() : -1);
+    }
+  }
+
+  private static FactEntity deserialize(ByteBuffer buffer) {
+    FactEntity fact = new FactEntity()
+            .setId(getUUID(buffer))
+            .setTypeID(getUUID(buffer))
+            .setValue(getString(buffer))
+            .setInReferenceToID(getUUID(buffer))
+            .setOrganizationID(getUUID(buffer))
+            .setOriginID(getUUID(buffer))
+            .setAddedByID(getUUID(buffer))
+            .setAccessMode(AccessMode.getValueMap().get(buffer.getInt()))
+            .setConfidence(buffer.getFloat())
+            .setTrust(buffer.getFloat())
+            .setTimestamp(buffer.getLong());
+
+    int numberOfBindings = buffer.getInt();
+    if (numberOfBindings < 0) return fact;
+
+    List<FactEntity.FactObjectBinding> bindings = new ArrayList<>(numberOfBindings);
+    for (int i = 0; i < numberOfBindings; i++) {
+      bindings.add(new FactEntity.FactObjectBinding()
+              .setObjectID(getUUID(buffer))
+              .setDirection(Direction.getValueMap().get(buffer.getInt())));
+    }
+
+    // Need to call setBindings() in order to also restore the JSON blob.
+    return fact.setBindings(bindings);
+  }
+
+  private static void putUUID(ByteBuffer buffer, UUID uuid) {
+    if (uuid == null) {
+      buffer.put(NULL).putLong(0).putLong(0);
+      return;
+    }
+
+    buffer.put(NOT_NULL)
+            .putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits());
+  }
+
+  private static UUID getUUID(ByteBuffer buffer) {
+    byte marker = buffer.get();
+    long mostSignificantBits = buffer.getLong();
+    long leastSignificantBits = buffer.getLong();
+    return marker == NOT_NULL ? new UUID(mostSignificantBits, leastSignificantBits) : null;
+  }
+
+  private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+    if (bytes == null) {
+      buffer.put(NULL).putInt(0);
+      return;
+    }
+
+    buffer.put(NOT_NULL).putInt(bytes.length).put(bytes);
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    byte marker = buffer.get();
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return marker == NOT_NULL ? new String(bytes, StandardCharsets.UTF_8) : null;
+  }
+}
@@ -26,6 +26,9 @@ import org.apache.lucene.search.join.ScoreMode;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.index.IndexRequest;
@@ -52,6 +55,7 @@ import org.elasticsearch.search.aggregations.metrics.cardinality.Cardinality;
 import org.elasticsearch.search.aggregations.metrics.max.Max;
 import org.elasticsearch.search.aggregations.metrics.tophits.TopHits;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -61,6 +65,7 @@ import java.io.InputStreamReader;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -78,6 +83,7 @@ public class FactSearchManager implements LifecycleAspect {
   private static final String TYPE_NAME = "_doc";
   private static final String MAPPINGS_JSON = "mappings.json";
   private static final int MAX_RESULT_WINDOW = 10_000; // Must be the same value as specified in mappings.json.
+  private static final String SEARCH_AFTER_SEPARATOR = ":";
 
   private static final String FILTER_FACTS_AGGREGATION_NAME = "FilterFactsAggregation";
   private static final String NESTED_OBJECTS_AGGREGATION_NAME = "NestedObjectsAggregation";
@@ -104,6 +110,7 @@ public class FactSearchManager implements LifecycleAspect {
 
   private String searchScrollExpiration = "1m";
   private int searchScrollSize = 1000;
+  private int searchScrollPrefetchDepth = 1;
   private boolean isTestEnvironment = false;
 
   @Inject
@@ -181,6 +188,46 @@ public class FactSearchManager implements LifecycleAspect {
     return fact;
   }
 
+  /**
+   * Index multiple Facts into ElasticSearch using one bulk request.
+   * <p>
+   * The bulk request is not atomic, i.e. some Facts might be indexed while others fail. The returned set contains the
+   * UUIDs of all Facts which have been indexed successfully. The caller is responsible for retrying the remaining Facts.
+   *
+   * @param facts Facts to index
+   * @return UUIDs of successfully indexed Facts
+   */
+  public Set<UUID> indexFacts(List<FactDocument> facts) {
+    Set<UUID> indexed = SetUtils.set();
+    if (CollectionUtils.isEmpty(facts)) return indexed;
+    BulkResponse response;
+
+    try {
+      BulkRequest request = new BulkRequest()
+              .setRefreshPolicy(isTestEnvironment ? WriteRequest.RefreshPolicy.IMMEDIATE : WriteRequest.RefreshPolicy.NONE);
+      for (FactDocument fact : facts) {
+        if (fact == null || fact.getId() == null) continue;
+        request.add(new IndexRequest(INDEX_NAME, TYPE_NAME, fact.getId().toString())
+                .source(FACT_DOCUMENT_WRITER.writeValueAsBytes(fact), XContentType.JSON));
+      }
+      if (request.numberOfActions() == 0) return indexed;
+      response = clientFactory.getClient().bulk(request, RequestOptions.DEFAULT);
+    } catch (ElasticsearchException | IOException ex) {
+      throw logAndExit(ex, String.format("Could not perform bulk request to index %d Facts.", facts.size()));
+    }
+
+    for (BulkItemResponse item : response) {
+      if (item.isFailed()) {
+        LOGGER.warning("Could not index Fact with id = %s: %s", item.getId(), item.getFailureMessage());
+      } else {
+        indexed.add(UUID.fromString(item.getId()));
+      }
+    }
+
+    LOGGER.info("Successfully indexed %d of %d Facts in bulk (took %s).", indexed.size(), facts.size(), response.getTook());
+    return indexed;
+  }
+
   /**
    * Retrieve all Facts which are considered logically the same when matched against a given search criteria, i.e. the
    * following condition holds: an indexed Fact matches the search criteria and will be included in the returned result
@@ -227,31 +274,29 @@ public class FactSearchManager implements LifecycleAspect {
    * Both 'currentUserID' (identifying the calling user) and 'availableOrganizationID' (identifying the Organizations
    * the calling user has access to) must be set in the search criteria in order to apply access control to Facts. Only
    * Facts accessible to the calling user will be returned.
+   * <p>
+   * If a cursor-based search is requested the Facts are sorted by timestamp and id, and they are fetched using
+   * 'search_after' instead of a scrolling search. Such a search does not keep a search context open in ElasticSearch
+   * and it can continue from any position given by the cursor in the search criteria.
    *
    * @param criteria Search criteria to match against Facts
    * @return Facts satisfying search criteria wrapped inside a result container
    */
   public ScrollingSearchResult<FactDocument> searchFacts(FactSearchCriteria criteria) {
-    if (criteria == null) return ScrollingSearchResult.<FactDocument>builder().build();
-
-    SearchResponse response;
-    try {
-      response = clientFactory.getClient().search(buildFactsSearchRequest(criteria), RequestOptions.DEFAULT);
-    } catch (ElasticsearchException | IOException ex) {
-      throw logAndExit(ex, "Could not perform request to search for Facts.");
-    }
-
-    if (response.status() != RestStatus.OK) {
-      LOGGER.warning("Could not search for Facts (response code %s).", response.status());
-      return ScrollingSearchResult.<FactDocument>builder().build();
-    }
+    return searchFacts(criteria, true, this::decodeFactDocument);
+  }
 
-    LOGGER.info("Successfully initiated streaming of search results. Start fetching data.");
-    return ScrollingSearchResult.<FactDocument>builder()
-            .setInitialBatch(createFactsBatch(response))
-            .setFetchNextBatch(this::fetchNextFactsBatch)
-            .setCount((int) response.getHits().getTotalHits())
-            .build();
+  /**
+   * Search for Facts indexed in ElasticSearch by a given search criteria, but only return the UUIDs of the matching
+   * Facts. Works exactly like {@link #searchFacts(FactSearchCriteria)} except that ElasticSearch won't return the
+   * indexed documents. This reduces the size of the responses and avoids decoding of the documents. Use this method
+   * if the caller only requires the UUIDs, e.g. because the Facts are fetched from Cassandra afterwards.
+   *
+   * @param criteria Search criteria to match against Facts
+   * @return UUIDs of Facts satisfying search criteria wrapped inside a result container
+   */
+  public ScrollingSearchResult<UUID> searchFactIds(FactSearchCriteria criteria) {
+    return searchFacts(criteria, false, hit -> UUID.fromString(hit.getId()));
   }
 
   /**
@@ -364,6 +409,19 @@ public class FactSearchManager implements LifecycleAspect {
     return this;
   }
 
+  /**
+   * Specify how many batches are fetched ahead of time from ElasticSearch using a scrolling search while the current
+   * batch is still being consumed. Defaults to 1. Set to 0 in order to only fetch the next batch once the current batch
+   * has been consumed completely.
+   *
+   * @param searchScrollPrefetchDepth Number of batches to fetch ahead of time
+   * @return Class instance, i.e. 'this'
+   */
+  public FactSearchManager setSearchScrollPrefetchDepth(int searchScrollPrefetchDepth) {
+    this.searchScrollPrefetchDepth = searchScrollPrefetchDepth;
+    return this;
+  }
+
   private boolean indexExists() {
     try {
       GetIndexRequest request = new GetIndexRequest(INDEX_NAME);
@@ -394,7 +452,33 @@ public class FactSearchManager implements LifecycleAspect {
     LOGGER.info("Successfully created index '%s'.", INDEX_NAME);
   }
 
-  private ScrollingSearchResult.ScrollingBatch<FactDocument> fetchNextFactsBatch(String scrollId) {
+  private <T> ScrollingSearchResult<T> searchFacts(FactSearchCriteria criteria, boolean fetchSource, Function<SearchHit, T> hitMapper) {
+    if (criteria == null) return ScrollingSearchResult.<T>builder().build();
+    if (criteria.isCursorBased()) return searchFactsWithCursor(criteria, fetchSource, hitMapper);
+
+    SearchResponse response;
+    try {
+      response = clientFactory.getClient().search(buildFactsSearchRequest(criteria, fetchSource), RequestOptions.DEFAULT);
+    } catch (ElasticsearchException | IOException ex) {
+      throw logAndExit(ex, "Could not perform request to search for Facts.");
+    }
+
+    if (response.status() != RestStatus.OK) {
+      LOGGER.warning("Could not search for Facts (response code %s).", response.status());
+      return ScrollingSearchResult.<T>builder().build();
+    }
+
+    LOGGER.info("Successfully initiated streaming of search results. Start fetching data.");
+    return ScrollingSearchResult.<T>builder()
+            .setInitialBatch(createFactsBatch(response, hitMapper))
+            .setFetchNextBatch(scrollId -> fetchNextFactsBatch(scrollId, hitMapper))
+            .setFetchNextBatchAsync(scrollId -> fetchNextFactsBatchAsync(scrollId, hitMapper))
+            .setPrefetchDepth(searchScrollPrefetchDepth)
+            .setCount((int) response.getHits().getTotalHits())
+            .build();
+  }
+
+  private <T> ScrollingSearchResult.ScrollingBatch<T> fetchNextFactsBatch(String scrollId, Function<SearchHit, T> hitMapper) {
     SearchResponse response;
     try {
       SearchScrollRequest request = new SearchScrollRequest()
@@ -411,14 +495,119 @@ public class FactSearchManager implements LifecycleAspect {
       return ScrollingSearchResult.emptyBatch();
     }
 
-    return createFactsBatch(response);
+    return createFactsBatch(response, hitMapper);
+  }
+
+  private <T> CompletableFuture<ScrollingSearchResult.ScrollingBatch<T>> fetchNextFactsBatchAsync(String scrollId, Function<SearchHit, T> hitMapper) {
+    CompletableFuture<ScrollingSearchResult.ScrollingBatch<T>> future = new CompletableFuture<>();
+    SearchScrollRequest request = new SearchScrollRequest()
+            .scrollId(scrollId)
+            .scroll(searchScrollExpiration);
+    clientFactory.getClient().scrollAsync(request, RequestOptions.DEFAULT,
+            createBatchListener(future, response -> createFactsBatch(response, hitMapper)));
+    return future;
   }
 
-  private ScrollingSearchResult.ScrollingBatch<FactDocument> createFactsBatch(SearchResponse response) {
-    List<FactDocument> values = retrieveFactDocuments(response);
+  private <T> ScrollingSearchResult<T> searchFactsWithCursor(FactSearchCriteria criteria, boolean fetchSource, Function<SearchHit, T> hitMapper) {
+    SearchResponse response;
+    try {
+      response = clientFactory.getClient().search(buildFactsSearchAfterRequest(criteria, fetchSource, criteria.getCursorTimestamp(),
+              ObjectUtils.ifNotNull(criteria.getCursorID(), UUID::toString)), RequestOptions.DEFAULT);
+    } catch (ElasticsearchException | IOException ex) {
+      throw logAndExit(ex, "Could not perform request to search for Facts.");
+    }
+
+    if (response.status() != RestStatus.OK) {
+      LOGGER.warning("Could not search for Facts (response code %s).", response.status());
+      return ScrollingSearchResult.<T>builder().build();
+    }
+
+    LOGGER.info("Successfully initiated cursor-based search. Start fetching data.");
+    // Instead of a scroll ID the batches hold the sort values of their last search hit. Subsequent batches are fetched
+    // using 'search_after' which doesn't require a search context to be kept open in ElasticSearch.
+    return ScrollingSearchResult.<T>builder()
+            .setInitialBatch(createFactsSearchAfterBatch(response, hitMapper))
+            .setFetchNextBatch(searchAfter -> fetchNextFactsSearchAfterBatch(criteria, fetchSource, searchAfter, hitMapper))
+            .setFetchNextBatchAsync(searchAfter -> fetchNextFactsSearchAfterBatchAsync(criteria, fetchSource, searchAfter, hitMapper))
+            .setPrefetchDepth(searchScrollPrefetchDepth)
+            .setCount((int) response.getHits().getTotalHits())
+            .build();
+  }
+
+  private <T> ScrollingSearchResult.ScrollingBatch<T> fetchNextFactsSearchAfterBatch(FactSearchCriteria criteria, boolean fetchSource,
+                                                                                      String searchAfter, Function<SearchHit, T> hitMapper) {
+    SearchResponse response;
+    try {
+      response = clientFactory.getClient().search(buildFactsSearchAfterRequest(criteria, fetchSource, searchAfter), RequestOptions.DEFAULT);
+    } catch (ElasticsearchException | IOException ex) {
+      LOGGER.warning(ex, "Could not perform request to retrieve next batch of search results. Stop searching.");
+      return ScrollingSearchResult.emptyBatch();
+    }
+
+    if (response.status() != RestStatus.OK) {
+      LOGGER.warning("Could not retrieve next batch of search results (response code %s). Stop searching.", response.status());
+      return ScrollingSearchResult.emptyBatch();
+    }
+
+    return createFactsSearchAfterBatch(response, hitMapper);
+  }
+
+  private <T> CompletableFuture<ScrollingSearchResult.ScrollingBatch<T>> fetchNextFactsSearchAfterBatchAsync(FactSearchCriteria criteria, boolean fetchSource,
+                                                                                                             String searchAfter, Function<SearchHit, T> hitMapper) {
+    CompletableFuture<ScrollingSearchResult.ScrollingBatch<T>> future = new CompletableFuture<>();
+    clientFactory.getClient().searchAsync(buildFactsSearchAfterRequest(criteria, fetchSource, searchAfter), RequestOptions.DEFAULT,
+            createBatchListener(future, response -> createFactsSearchAfterBatch(response, hitMapper)));
+    return future;
+  }
+
+  private <T> ActionListener<SearchResponse> createBatchListener(CompletableFuture<ScrollingSearchResult.ScrollingBatch<T>> future,
+                                                                 Function<SearchResponse, ScrollingSearchResult.ScrollingBatch<T>> batchCreator) {
+    return new ActionListener<SearchResponse>() {
+      @Override
+      public void onResponse(SearchResponse response) {
+        if (response.status() != RestStatus.OK) {
+          LOGGER.warning("Could not retrieve next batch of search results (response code %s). Stop scrolling.", response.status());
+          future.complete(ScrollingSearchResult.emptyBatch());
+          return;
+        }
+
+        try {
+          future.complete(batchCreator.apply(response));
+        } catch (Exception ex) {
+          LOGGER.warning(ex, "Could not process next batch of search results. Stop scrolling.");
+          future.complete(ScrollingSearchResult.emptyBatch());
+        }
+      }
+
+      @Override
+      public void onFailure(Exception ex) {
+        LOGGER.warning(ex, "Could not perform request to retrieve next batch of search results. Stop scrolling.");
+        future.complete(ScrollingSearchResult.emptyBatch());
+      }
+    };
+  }
+
+  private <T> ScrollingSearchResult.ScrollingBatch<T> createFactsSearchAfterBatch(SearchResponse response, Function<SearchHit, T> hitMapper) {
+    SearchHit[] hits = response.getHits().getHits();
+    if (hits.length == 0) {
+      LOGGER.info("Successfully retrieved all search results. No more data available.");
+      return ScrollingSearchResult.emptyBatch();
+    }
+
+    List<T> values = retrieveSearchHits(response, hitMapper);
+    LOGGER.debug("Successfully retrieved next batch of search results (batch: %d, total: %d).", values.size(), response.getHits().getTotalHits());
+
+    // Remember the sort values (timestamp + id) of the last hit. The next batch will continue directly after this hit.
+    Object[] sortValues = hits[hits.length - 1].getSortValues();
+    String searchAfter = sortValues[0] + SEARCH_AFTER_SEPARATOR + sortValues[1];
+    return new ScrollingSearchResult.ScrollingBatch<>(searchAfter, values.iterator(), hits.length < searchScrollSize);
+  }
+
+  private <T> ScrollingSearchResult.ScrollingBatch<T> createFactsBatch(SearchResponse response, Function<SearchHit, T> hitMapper) {
+    List<T> values = retrieveSearchHits(response, hitMapper);
     LOGGER.debug("Successfully retrieved next batch of search results (batch: %d, total: %d).", values.size(), response.getHits().getTotalHits());
 
-    boolean finished = values.size() < searchScrollSize;
+    boolean finished = response.getHits().getHits().length < searchScrollSize;
     if (finished) {
       LOGGER.info("Successfully retrieved all search results. No more data available.");
       // Close search context when all results have been fetched. If the client doesn't consume all results the context
@@ -461,9 +650,10 @@ public class FactSearchManager implements LifecycleAspect {
             .source(sourceBuilder);
   }
 
-  private SearchRequest buildFactsSearchRequest(FactSearchCriteria criteria) {
+  private SearchRequest buildFactsSearchRequest(FactSearchCriteria criteria, boolean fetchSource) {
     SearchSourceBuilder sourceBuilder = new SearchSourceBuilder()
             .size(searchScrollSize)
+            .fetchSource(fetchSource)
             .query(buildFactsQuery(criteria));
     return new SearchRequest()
             .indices(INDEX_NAME)
@@ -472,6 +662,30 @@ public class FactSearchManager implements LifecycleAspect {
             .source(sourceBuilder);
   }
 
+  private SearchRequest buildFactsSearchAfterRequest(FactSearchCriteria criteria, boolean fetchSource, String searchAfter) {
+    String[] sortValues = searchAfter.split(SEARCH_AFTER_SEPARATOR, 2);
+    return buildFactsSearchAfterRequest(criteria, fetchSource, Long.parseLong(sortValues[0]), sortValues[1]);
+  }
+
+  private SearchRequest buildFactsSearchAfterRequest(FactSearchCriteria criteria, boolean fetchSource, Long timestamp, String id) {
+    // Sort by timestamp and use the Fact's id as tiebreaker in order to guarantee a stable order of the results.
+    // The indexed 'id' field is used instead of '_id' because sorting on '_id' requires loading it into fielddata.
+    SearchSourceBuilder sourceBuilder = new SearchSourceBuilder()
+            .size(searchScrollSize)
+            .fetchSource(fetchSource)
+            .query(buildFactsQuery(criteria))
+            .sort("timestamp", SortOrder.DESC)
+            .sort("id", SortOrder.DESC);
+    if (timestamp != null && id != null) {
+      sourceBuilder.searchAfter(new Object[]{timestamp, id});
+    }
+
+    return new SearchRequest()
+            .indices(INDEX_NAME)
+            .types(TYPE_NAME)
+            .source(sourceBuilder);
+  }
+
   private SearchRequest buildObjectsSearchRequest(FactSearchCriteria criteria) {
     SearchSourceBuilder sourceBuilder = new SearchSourceBuilder()
             .size(0) // Not interested in the search hits as the search result is part of the returned aggregations.
@@ -779,11 +993,15 @@ public class FactSearchManager implements LifecycleAspect {
   }
 
   private List<FactDocument> retrieveFactDocuments(SearchResponse response) {
-    List<FactDocument> result = ListUtils.list();
+    return retrieveSearchHits(response, this::decodeFactDocument);
+  }
+
+  private <T> List<T> retrieveSearchHits(SearchResponse response, Function<SearchHit, T> hitMapper) {
+    List<T> result = ListUtils.list();
     for (SearchHit hit : response.getHits()) {
-      FactDocument document = decodeFactDocument(UUID.fromString(hit.getId()), toBytes(hit.getSourceRef()));
-      if (document != null) {
-        result.add(document);
+      T value = hitMapper.apply(hit);
+      if (value != null) {
+        result.add(value);
       }
     }
     return result;
@@ -904,6 +1122,10 @@ public class FactSearchManager implements LifecycleAspect {
     return null;
   }
 
+  private FactDocument decodeFactDocument(SearchHit hit) {
+    return decodeFactDocument(UUID.fromString(hit.getId()), toBytes(hit.getSourceRef()));
+  }
+
   private FactDocument decodeFactDocument(UUID factID, byte[] source) {
     try {
       FactDocument fact = FACT_DOCUMENT_READER.readValue(source);
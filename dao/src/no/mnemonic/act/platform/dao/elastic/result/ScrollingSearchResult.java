@@ -1,36 +1,54 @@
 package no.mnemonic.act.platform.dao.elastic.result;
 
-import no.mnemonic.act.platform.dao.elastic.document.ElasticDocument;
 import no.mnemonic.commons.utilities.ObjectUtils;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 /**
  * Container streaming out the results of a search from ElasticSearch, i.e. the matching documents. The container
  * implements {@link Iterator} and fetches search results batch-wise until no more results are available.
+ * <p>
+ * If a function to fetch batches asynchronously and a prefetch depth are provided the container reads ahead, i.e.
+ * the next batches are requested from ElasticSearch while the current batch is still being consumed.
  *
  * @param <T> Type of result values
  */
-public class ScrollingSearchResult<T extends ElasticDocument> implements Iterator<T> {
+public class ScrollingSearchResult<T> implements Iterator<T> {
 
   private final Function<String, ScrollingBatch<T>> fetchNextBatch;
+  private final Function<String, CompletableFuture<ScrollingBatch<T>>> fetchNextBatchAsync;
+  private final int prefetchDepth;
   private final int count;
+  // Batches requested ahead of time, in the order they will be consumed. Contains at most 'prefetchDepth' elements.
+  private final Deque<CompletableFuture<ScrollingBatch<T>>> prefetchedBatches = new ArrayDeque<>();
 
   private ScrollingBatch<T> currentBatch;
 
-  private ScrollingSearchResult(ScrollingBatch<T> initialBatch, Function<String, ScrollingBatch<T>> fetchNextBatch, int count) {
+  private ScrollingSearchResult(ScrollingBatch<T> initialBatch,
+                                Function<String, ScrollingBatch<T>> fetchNextBatch,
+                                Function<String, CompletableFuture<ScrollingBatch<T>>> fetchNextBatchAsync,
+                                int prefetchDepth,
+                                int count) {
     this.currentBatch = ObjectUtils.notNull(initialBatch, "'initialBatch' cannot be null!");
     this.fetchNextBatch = ObjectUtils.notNull(fetchNextBatch, "'fetchNextBatch' cannot be null!");
+    this.fetchNextBatchAsync = fetchNextBatchAsync;
+    this.prefetchDepth = fetchNextBatchAsync != null ? Math.max(prefetchDepth, 0) : 0;
     this.count = count;
+    // Start reading ahead immediately while the client consumes the initial batch.
+    prefetch();
   }
 
   @Override
   public boolean hasNext() {
     if (!currentBatch.hasNext() && !currentBatch.isFinished()) {
       // If the current batch has been consumed completely and there's more data available, fetch the next batch.
-      currentBatch = ObjectUtils.notNull(fetchNextBatch.apply(currentBatch.getScrollId()), "'currentBatch' cannot be null!");
+      currentBatch = ObjectUtils.notNull(nextBatch(), "'currentBatch' cannot be null!");
+      prefetch();
     }
 
     return currentBatch.hasNext();
@@ -41,6 +59,28 @@ public class ScrollingSearchResult<T extends ElasticDocument> implements Iterato
     return currentBatch.next();
   }
 
+  private ScrollingBatch<T> nextBatch() {
+    if (prefetchDepth == 0) return fetchNextBatch.apply(currentBatch.getScrollId());
+    // Waits until the prefetched batch is available. In the best case it has already been fetched completely.
+    return prefetchedBatches.removeFirst().join();
+  }
+
+  private void prefetch() {
+    while (prefetchedBatches.size() < prefetchDepth) {
+      CompletableFuture<ScrollingBatch<T>> previous = prefetchedBatches.peekLast();
+      // A scroll request requires the scroll ID returned by the previous request. Chain the requests such that the
+      // next batch is requested as soon as the previous one has been received.
+      prefetchedBatches.addLast(previous == null
+              ? fetchAhead(currentBatch)
+              : previous.thenCompose(this::fetchAhead));
+    }
+  }
+
+  private CompletableFuture<ScrollingBatch<T>> fetchAhead(ScrollingBatch<T> previous) {
+    if (previous.isFinished()) return CompletableFuture.completedFuture(emptyBatch());
+    return fetchNextBatchAsync.apply(previous.getScrollId());
+  }
+
   /**
    * Returns the total number of indexed documents matching a given search criteria, i.e. the amount of available search results.
    *
@@ -56,7 +96,7 @@ public class ScrollingSearchResult<T extends ElasticDocument> implements Iterato
    * @param <T> Type of result values
    * @return Empty result batch
    */
-  public static <T extends ElasticDocument> ScrollingBatch<T> emptyBatch() {
+  public static <T> ScrollingBatch<T> emptyBatch() {
     return new ScrollingBatch<>("EMPTY_SCROLLING_BATCH", Collections.emptyIterator(), true);
   }
 
@@ -66,7 +106,7 @@ public class ScrollingSearchResult<T extends ElasticDocument> implements Iterato
    * @param <T> Type of result values
    * @return New builder
    */
-  public static <T extends ElasticDocument> Builder<T> builder() {
+  public static <T> Builder<T> builder() {
     return new Builder<>();
   }
 
@@ -75,9 +115,11 @@ public class ScrollingSearchResult<T extends ElasticDocument> implements Iterato
    *
    * @param <T> Type of result values
    */
-  public static class Builder<T extends ElasticDocument> {
+  public static class Builder<T> {
     private ScrollingBatch<T> initialBatch = emptyBatch();
     private Function<String, ScrollingBatch<T>> fetchNextBatch = scrollId -> emptyBatch();
+    private Function<String, CompletableFuture<ScrollingBatch<T>>> fetchNextBatchAsync;
+    private int prefetchDepth;
     private int count;
 
     private Builder() {
@@ -89,7 +131,7 @@ public class ScrollingSearchResult<T extends ElasticDocument> implements Iterato
      * @return New ScrollingSearchResult
      */
     public ScrollingSearchResult<T> build() {
-      return new ScrollingSearchResult<>(initialBatch, fetchNextBatch, count);
+      return new ScrollingSearchResult<>(initialBatch, fetchNextBatch, fetchNextBatchAsync, prefetchDepth, count);
     }
 
     /**
@@ -116,6 +158,32 @@ public class ScrollingSearchResult<T extends ElasticDocument> implements Iterato
       return this;
     }
 
+    /**
+     * Sets function to fetch next batch of search results asynchronously. Only used if a prefetch depth is set.
+     * <p>
+     * It takes an ElasticSearch scroll ID as input and should return a future which completes with the next batch of
+     * search results. The future should not complete exceptionally but with an empty batch in case of an error.
+     *
+     * @param fetchNextBatchAsync Function to fetch next batch of search results asynchronously
+     * @return This builder
+     */
+    public Builder<T> setFetchNextBatchAsync(Function<String, CompletableFuture<ScrollingBatch<T>>> fetchNextBatchAsync) {
+      this.fetchNextBatchAsync = fetchNextBatchAsync;
+      return this;
+    }
+
+    /**
+     * Sets the number of batches which are fetched ahead of time while the current batch is being consumed.
+     * Defaults to 0, i.e. batches are only fetched once the current batch has been consumed completely.
+     *
+     * @param prefetchDepth Number of batches to fetch ahead of time
+     * @return This builder
+     */
+    public Builder<T> setPrefetchDepth(int prefetchDepth) {
+      this.prefetchDepth = prefetchDepth;
+      return this;
+    }
+
     /**
      * Sets the total number of indexed documents matching a given search criteria, i.e. the amount of available search results.
      *
@@ -133,7 +201,7 @@ public class ScrollingSearchResult<T extends ElasticDocument> implements Iterato
    *
    * @param <T> Type of result values
    */
-  public static class ScrollingBatch<T extends ElasticDocument> implements Iterator<T> {
+  public static class ScrollingBatch<T> implements Iterator<T> {
     private final String scrollId;
     private final Iterator<T> values;
     private final boolean finished;
@@ -141,7 +209,7 @@ public class ScrollingSearchResult<T extends ElasticDocument> implements Iterato
     /**
      * Creates a new batch of search results.
      *
-     * @param scrollId Scroll ID returned from ElasticSearch
+     * @param scrollId Scroll ID returned from ElasticSearch (or any other token required to fetch the next batch)
      * @param values   Search results from current batch
      * @param finished Whether more data is available in ElasticSearch
      */
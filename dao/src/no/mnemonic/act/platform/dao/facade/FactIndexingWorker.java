@@ -0,0 +1,430 @@
+package no.mnemonic.act.platform.dao.facade;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import no.mnemonic.act.platform.dao.cassandra.FactManager;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactIndexQueueEntity;
+import no.mnemonic.act.platform.dao.elastic.FactSearchManager;
+import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
+import no.mnemonic.act.platform.dao.facade.converters.FactRecordConverter;
+import no.mnemonic.commons.component.Dependency;
+import no.mnemonic.commons.component.LifecycleAspect;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Background worker which indexes Facts into ElasticSearch asynchronously.
+ * <p>
+ * Every Fact which needs to be (re-)indexed is first recorded in a durable outbox in Cassandra, see
+ * {@link #submit(UUID)}. The worker drains the outbox and indexes the Facts using bulk requests. A bulk is sent when
+ * either the configured bulk size is reached or the flush interval has elapsed. Failed bulks are retried with an
+ * exponential backoff, and the number of concurrently executed bulks is bounded. Entries are only removed from the
+ * outbox after the Fact has been indexed successfully. Entries left behind (e.g. after a restart) are picked up again
+ * periodically.
+ * <p>
+ * Because the outbox only stores the Fact's UUID the indexed document is always created from the current state of the
+ * Fact in Cassandra (the authoritative data store). Indexing the same Fact multiple times is therefore harmless.
+ */
+@Singleton
+public class FactIndexingWorker implements LifecycleAspect {
+
+  private static final Logger LOGGER = Logging.getLogger(FactIndexingWorker.class);
+  private static final long MAXIMUM_RETRY_BACKOFF = 30_000;
+
+  @Dependency
+  private final FactManager factManager;
+  @Dependency
+  private final FactSearchManager factSearchManager;
+  private final FactRecordConverter factRecordConverter;
+
+  // Entries submitted or recovered, but not yet processed by the drain thread.
+  private final BlockingQueue<FactIndexQueueEntity> pending = new LinkedBlockingQueue<>();
+  // All entries known by this worker which have not been finished (pending, deferred or in-flight).
+  private final Set<FactIndexQueueEntity> queued = ConcurrentHashMap.newKeySet();
+  // Facts which are currently part of an executed bulk. Only accessed from the drain thread and bulk threads.
+  private final Set<UUID> inFlightFacts = ConcurrentHashMap.newKeySet();
+  // Entries which cannot be sent yet because the same Fact is currently in-flight. Only accessed from the drain thread.
+  private final List<FactIndexQueueEntity> deferred = new ArrayList<>();
+  private final AtomicLong indexedCount = new AtomicLong();
+  private final AtomicLong failedCount = new AtomicLong();
+
+  private int bulkSize = 500;
+  private long flushInterval = 1000;
+  private int maximumInFlightBulks = 4;
+  private int maximumRetries = 5;
+  private long retryBackoff = 500;
+  private long recoveryInterval = 60_000;
+  private boolean isTestEnvironment = false;
+  private Clock clock = Clock.systemUTC();
+
+  private volatile boolean running;
+  private Semaphore inFlightBulks;
+  private ExecutorService bulkExecutor;
+  private ScheduledExecutorService recoveryExecutor;
+  private Thread drainThread;
+
+  @Inject
+  public FactIndexingWorker(FactManager factManager,
+                            FactSearchManager factSearchManager,
+                            FactRecordConverter factRecordConverter) {
+    this.factManager = factManager;
+    this.factSearchManager = factSearchManager;
+    this.factRecordConverter = factRecordConverter;
+  }
+
+  @Override
+  public void startComponent() {
+    running = true;
+    inFlightBulks = new Semaphore(maximumInFlightBulks);
+    bulkExecutor = Executors.newFixedThreadPool(maximumInFlightBulks, createThreadFactory("FactIndexingWorker-bulk-%d"));
+    recoveryExecutor = Executors.newSingleThreadScheduledExecutor(createThreadFactory("FactIndexingWorker-recovery-%d"));
+    drainThread = createThreadFactory("FactIndexingWorker-drain-%d").newThread(this::drain);
+    drainThread.start();
+
+    // Pick up all entries left behind by a previous instance immediately and check periodically for stale entries.
+    recoveryExecutor.execute(() -> recover(clock.millis()));
+    recoveryExecutor.scheduleWithFixedDelay(() -> recover(clock.millis() - recoveryInterval),
+            recoveryInterval, recoveryInterval, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void stopComponent() {
+    running = false;
+    if (drainThread != null) drainThread.interrupt();
+    if (recoveryExecutor != null) recoveryExecutor.shutdownNow();
+    if (bulkExecutor != null) {
+      // Let in-flight bulks finish. Everything else stays in the outbox and will be recovered after a restart.
+      bulkExecutor.shutdown();
+      try {
+        bulkExecutor.awaitTermination(flushInterval + retryBackoff, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException ignored) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    LOGGER.info("Stopped FactIndexingWorker with %d entries remaining in the index queue.", queued.size());
+  }
+
+  /**
+   * Submit a Fact for (re-)indexing. The Fact is first recorded in the durable outbox and will afterwards be indexed
+   * asynchronously. When this method returns it is guaranteed that the Fact will be indexed eventually.
+   *
+   * @param factID UUID of Fact to index
+   */
+  public void submit(UUID factID) {
+    if (factID == null) return;
+
+    FactIndexQueueEntity entry = factManager.saveFactIndexQueueEntry(new FactIndexQueueEntity()
+            .setFactID(factID)
+            .setTimestamp(clock.millis()));
+
+    if (isTestEnvironment) {
+      // Index Fact directly in order to make it available for search immediately.
+      indexBatch(ListUtils.list(entry));
+      return;
+    }
+
+    enqueue(entry);
+  }
+
+  /**
+   * Returns the number of entries which have been submitted to this worker but which have not been indexed yet.
+   *
+   * @return Current depth of the index queue
+   */
+  public int getQueueDepth() {
+    return queued.size();
+  }
+
+  /**
+   * Returns the age of the oldest entry in the index queue which has not been indexed yet, i.e. how far indexing lags
+   * behind. Returns 0 if the queue is empty.
+   *
+   * @return Indexing lag in milliseconds
+   */
+  public long getLag() {
+    OptionalLong oldest = queued.stream()
+            .mapToLong(FactIndexQueueEntity::getTimestamp)
+            .min();
+    return oldest.isPresent() ? Math.max(clock.millis() - oldest.getAsLong(), 0) : 0;
+  }
+
+  /**
+   * Returns the total number of Facts indexed by this worker.
+   *
+   * @return Number of indexed Facts
+   */
+  public long getIndexedCount() {
+    return indexedCount.get();
+  }
+
+  /**
+   * Returns the number of Facts this worker failed to index after all retries. Those Facts stay in the outbox and
+   * will be retried later.
+   *
+   * @return Number of failed Facts
+   */
+  public long getFailedCount() {
+    return failedCount.get();
+  }
+
+  /**
+   * Specify if this class is executed during unit tests (defaults to false). This setting will index submitted Facts
+   * synchronously in order to make them available for search immediately.
+   *
+   * @param testEnvironment Whether this class is executed during unit tests
+   * @return Class instance, i.e. 'this'
+   */
+  public FactIndexingWorker setTestEnvironment(boolean testEnvironment) {
+    this.isTestEnvironment = testEnvironment;
+    return this;
+  }
+
+  /**
+   * Specify the maximum number of Facts indexed with one bulk request. Defaults to 500.
+   *
+   * @param bulkSize Maximum bulk size
+   * @return Class instance, i.e. 'this'
+   */
+  public FactIndexingWorker setBulkSize(int bulkSize) {
+    this.bulkSize = bulkSize;
+    return this;
+  }
+
+  /**
+   * Specify how long the worker waits for more Facts before a non-full bulk request is sent. Defaults to 1 second.
+   *
+   * @param flushInterval Flush interval in milliseconds
+   * @return Class instance, i.e. 'this'
+   */
+  public FactIndexingWorker setFlushInterval(long flushInterval) {
+    this.flushInterval = flushInterval;
+    return this;
+  }
+
+  /**
+   * Specify the maximum number of bulk requests executed concurrently. Defaults to 4. Must be set before the
+   * component is started.
+   *
+   * @param maximumInFlightBulks Maximum number of concurrent bulk requests
+   * @return Class instance, i.e. 'this'
+   */
+  public FactIndexingWorker setMaximumInFlightBulks(int maximumInFlightBulks) {
+    this.maximumInFlightBulks = maximumInFlightBulks;
+    return this;
+  }
+
+  /**
+   * Specify how often a failed bulk request is retried before the Facts are left for recovery. Defaults to 5.
+   *
+   * @param maximumRetries Maximum number of retries
+   * @return Class instance, i.e. 'this'
+   */
+  public FactIndexingWorker setMaximumRetries(int maximumRetries) {
+    this.maximumRetries = maximumRetries;
+    return this;
+  }
+
+  /**
+   * Specify the initial backoff between retries which is doubled after each attempt. Defaults to 500 milliseconds.
+   *
+   * @param retryBackoff Initial retry backoff in milliseconds
+   * @return Class instance, i.e. 'this'
+   */
+  public FactIndexingWorker setRetryBackoff(long retryBackoff) {
+    this.retryBackoff = retryBackoff;
+    return this;
+  }
+
+  /**
+   * Specify how often the outbox is checked for entries which have not been processed. Entries older than this
+   * interval are picked up again. Defaults to 1 minute. Must be set before the component is started.
+   *
+   * @param recoveryInterval Recovery interval in milliseconds
+   * @return Class instance, i.e. 'this'
+   */
+  public FactIndexingWorker setRecoveryInterval(long recoveryInterval) {
+    this.recoveryInterval = recoveryInterval;
+    return this;
+  }
+
+  /* Setters used for unit testing */
+
+  FactIndexingWorker withClock(Clock clock) {
+    this.clock = clock;
+    return this;
+  }
+
+  /* Package-private methods used by unit tests */
+
+  void recover(long staleThreshold) {
+    // Only recover entries which are not handled by this worker already.
+    Set<UUID> known = SetUtils.set(queued, FactIndexQueueEntity::getFactID);
+
+    try {
+      for (int bucket = 0; bucket < FactIndexQueueEntity.BUCKETS; bucket++) {
+        for (FactIndexQueueEntity entry : factManager.fetchFactIndexQueue(bucket, bulkSize)) {
+          if (entry.getTimestamp() > staleThreshold || known.contains(entry.getFactID())) continue;
+          enqueue(entry);
+          known.add(entry.getFactID());
+        }
+      }
+    } catch (Exception ex) {
+      LOGGER.warning(ex, "Could not recover entries from the index queue.");
+    }
+
+    LOGGER.debug("Index queue depth is %d with a lag of %d ms.", getQueueDepth(), getLag());
+  }
+
+  List<FactIndexQueueEntity> indexBatch(List<FactIndexQueueEntity> entries) {
+    Map<UUID, List<FactIndexQueueEntity>> entriesByFact = entries.stream()
+            .collect(Collectors.groupingBy(FactIndexQueueEntity::getFactID));
+
+    Set<UUID> existing;
+    Set<UUID> indexed;
+    try {
+      List<FactDocument> documents = ListUtils.list();
+      List<FactEntity> facts = ListUtils.list(factManager.getFacts(ListUtils.list(entriesByFact.keySet())));
+      factRecordConverter.fromEntities(facts).forEach(fact -> documents.add(factRecordConverter.toDocument(fact)));
+      existing = SetUtils.set(documents, FactDocument::getId);
+      indexed = factSearchManager.indexFacts(documents);
+    } catch (Exception ex) {
+      LOGGER.warning(ex, "Could not index bulk of %d Facts.", entriesByFact.size());
+      return entries;
+    }
+
+    List<FactIndexQueueEntity> remaining = ListUtils.list();
+    for (Map.Entry<UUID, List<FactIndexQueueEntity>> entry : entriesByFact.entrySet()) {
+      if (!existing.contains(entry.getKey())) {
+        // Without a Fact in Cassandra there's nothing to index. Drop the entries instead of retrying forever.
+        LOGGER.warning("Fact with id = %s does not exist. Remove it from the index queue.", entry.getKey());
+        entry.getValue().forEach(this::finish);
+      } else if (indexed.contains(entry.getKey())) {
+        indexedCount.incrementAndGet();
+        entry.getValue().forEach(this::finish);
+      } else {
+        remaining.addAll(entry.getValue());
+      }
+    }
+
+    return remaining;
+  }
+
+  /* Private helper methods */
+
+  private void enqueue(FactIndexQueueEntity entry) {
+    queued.add(entry);
+    pending.offer(entry);
+  }
+
+  private void finish(FactIndexQueueEntity entry) {
+    try {
+      factManager.deleteFactIndexQueueEntry(entry);
+    } catch (Exception ex) {
+      // The Fact is indexed, the entry will only be processed once more during recovery.
+      LOGGER.warning(ex, "Could not remove Fact with id = %s from the index queue.", entry.getFactID());
+    }
+    queued.remove(entry);
+  }
+
+  private void drain() {
+    while (running) {
+      try {
+        List<FactIndexQueueEntity> batch = nextBatch();
+        if (batch.isEmpty()) continue;
+
+        // Block until a bulk slot becomes available. This bounds the number of in-flight bulk requests.
+        inFlightBulks.acquire();
+        Set<UUID> batchFacts = SetUtils.set(batch, FactIndexQueueEntity::getFactID);
+        inFlightFacts.addAll(batchFacts);
+        bulkExecutor.execute(() -> {
+          try {
+            indexWithRetry(batch);
+          } finally {
+            inFlightFacts.removeAll(batchFacts);
+            inFlightBulks.release();
+          }
+        });
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RejectedExecutionException ex) {
+        // Worker is shutting down, remaining entries will be recovered after a restart.
+        return;
+      }
+    }
+  }
+
+  private List<FactIndexQueueEntity> nextBatch() throws InterruptedException {
+    List<FactIndexQueueEntity> batch = new ArrayList<>(bulkSize);
+
+    // First pick up deferred entries whose Facts are not in-flight anymore.
+    Iterator<FactIndexQueueEntity> deferredIterator = deferred.iterator();
+    while (deferredIterator.hasNext() && batch.size() < bulkSize) {
+      FactIndexQueueEntity entry = deferredIterator.next();
+      if (inFlightFacts.contains(entry.getFactID())) continue;
+      batch.add(entry);
+      deferredIterator.remove();
+    }
+
+    // Then collect pending entries until either the bulk is full or the flush interval has elapsed.
+    long deadline = System.currentTimeMillis() + flushInterval;
+    while (batch.size() < bulkSize) {
+      long remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0) break;
+
+      FactIndexQueueEntity entry = pending.poll(remaining, TimeUnit.MILLISECONDS);
+      if (entry == null) break;
+
+      // Indexing the same Fact in two concurrent bulks could overwrite a newer document with an older one.
+      if (inFlightFacts.contains(entry.getFactID())) {
+        deferred.add(entry);
+      } else {
+        batch.add(entry);
+      }
+    }
+
+    return batch;
+  }
+
+  private void indexWithRetry(List<FactIndexQueueEntity> batch) {
+    List<FactIndexQueueEntity> remaining = batch;
+
+    for (int attempt = 0; ; attempt++) {
+      remaining = indexBatch(remaining);
+      if (remaining.isEmpty()) return;
+
+      if (attempt >= maximumRetries || !running) {
+        // Give up for now. The entries stay in the outbox and will be picked up again by the recovery.
+        LOGGER.warning("Could not index %d Facts after %d attempts. Leave them for recovery.", remaining.size(), attempt + 1);
+        failedCount.addAndGet(remaining.size());
+        remaining.forEach(queued::remove);
+        return;
+      }
+
+      try {
+        Thread.sleep(Math.min(retryBackoff << attempt, MAXIMUM_RETRY_BACKOFF));
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        remaining.forEach(queued::remove);
+        return;
+      }
+    }
+  }
+
+  private ThreadFactory createThreadFactory(String nameFormat) {
+    return new ThreadFactoryBuilder()
+            .setNameFormat(nameFormat)
+            .setDaemon(true)
+            .build();
+  }
+}
@@ -24,11 +24,12 @@ import no.mnemonic.act.platform.dao.facade.converters.ObjectRecordConverter;
 import no.mnemonic.act.platform.dao.facade.utilities.BatchingIterator;
 import no.mnemonic.act.platform.dao.facade.utilities.MappingIterator;
 import no.mnemonic.commons.utilities.collections.CollectionUtils;
+import no.mnemonic.commons.utilities.collections.ListUtils;
 
 import javax.inject.Inject;
-import java.util.Iterator;
-import java.util.Set;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 public class ObjectFactDaoFacade implements ObjectFactDao {
@@ -36,6 +37,7 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
   private final ObjectManager objectManager;
   private final FactManager factManager;
   private final FactSearchManager factSearchManager;
+  private final FactIndexingWorker factIndexingWorker;
   private final ObjectRecordConverter objectRecordConverter;
   private final FactRecordConverter factRecordConverter;
   private final FactAclEntryRecordConverter factAclEntryRecordConverter;
@@ -45,6 +47,7 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
   public ObjectFactDaoFacade(ObjectManager objectManager,
                              FactManager factManager,
                              FactSearchManager factSearchManager,
+                             FactIndexingWorker factIndexingWorker,
                              ObjectRecordConverter objectRecordConverter,
                              FactRecordConverter factRecordConverter,
                              FactAclEntryRecordConverter factAclEntryRecordConverter,
@@ -52,6 +55,7 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
     this.objectManager = objectManager;
     this.factManager = factManager;
     this.factSearchManager = factSearchManager;
+    this.factIndexingWorker = factIndexingWorker;
     this.objectRecordConverter = objectRecordConverter;
     this.factRecordConverter = factRecordConverter;
     this.factAclEntryRecordConverter = factAclEntryRecordConverter;
@@ -70,6 +74,12 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
     return objectRecordConverter.fromEntity(objectManager.getObject(type, value));
   }
 
+  @Override
+  public Iterator<ObjectRecord> getObjects(List<UUID> id) {
+    // Fetch all Objects at once from ObjectManager and convert results.
+    return new MappingIterator<>(objectManager.getObjects(id), objectRecordConverter::fromEntity);
+  }
+
   @Override
   public ObjectRecord storeObject(ObjectRecord record) {
     if (record == null) return null;
@@ -117,6 +127,12 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
     return factRecordConverter.fromEntity(factManager.getFact(id));
   }
 
+  @Override
+  public Iterator<FactRecord> getFacts(List<UUID> id) {
+    // Convert the whole batch at once which allows to fetch the related Objects and ACL entries with multi-fetches.
+    return fetchFactRecords(id);
+  }
+
   @Override
   public FactRecord storeFact(FactRecord record) {
     if (record == null) return null;
@@ -126,18 +142,31 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
       record.setId(UUID.randomUUID());
     }
 
-    // Save new Fact and lookup tables in Cassandra.
     FactEntity entity = factRecordConverter.toEntity(record);
-    factManager.saveFact(entity);
-    saveFactObjectBindings(entity);
-    saveMetaFactBindings(entity);
-
-    // Save all ACL entries and comments in Cassandra.
-    saveAclEntries(record);
-    saveComments(record);
-
-    // Index new Fact in ElasticSearch.
-    factSearchManager.indexFact(factRecordConverter.toDocument(record));
+    List<ObjectFactBindingEntity> objectFactBindings = createObjectFactBindings(entity);
+    List<FactAclEntity> acl = ListUtils.list(record.getAcl(), entry -> factAclEntryRecordConverter.toEntity(ensureId(entry), record.getId()));
+    List<FactCommentEntity> comments = ListUtils.list(record.getComments(), comment -> factCommentRecordConverter.toEntity(ensureId(comment), record.getId()));
+
+    // Verify up front that everything can be saved before anything is written. All lookups are executed concurrently.
+    join(CompletableFuture.allOf(
+            factManager.verifyNewFactAsync(entity),
+            objectManager.verifyObjectsExistAsync(ListUtils.list(objectFactBindings, ObjectFactBindingEntity::getObjectID))
+    ));
+
+    // Insert the Fact first. The insert is only applied if the Fact doesn't exist yet, thus, if another node creates
+    // the same Fact concurrently only one of them succeeds and nothing else is written by the other one.
+    join(factManager.saveFactAsync(entity));
+
+    // Save lookup tables, ACL entries and comments in Cassandra. All inserts are executed concurrently.
+    List<CompletableFuture<Void>> inserts = ListUtils.list(factManager.saveMetaFactBindingAsync(createMetaFactBinding(entity)));
+    objectFactBindings.forEach(binding -> inserts.add(objectManager.saveObjectFactBindingAsync(binding)));
+    createObjectFactTypeBindings(entity).forEach(binding -> inserts.add(objectManager.saveObjectFactTypeBindingAsync(binding)));
+    acl.forEach(entry -> inserts.add(factManager.saveFactAclEntryAsync(entry)));
+    comments.forEach(comment -> inserts.add(factManager.saveFactCommentAsync(comment)));
+    join(CompletableFuture.allOf(inserts.toArray(new CompletableFuture[0])));
+
+    // Index new Fact in ElasticSearch. This happens asynchronously via the durable index queue.
+    factIndexingWorker.submit(record.getId());
 
     return record;
   }
@@ -179,13 +208,13 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
       return ResultContainer.<FactRecord>builder().build();
     }
 
-    return createResultContainer(searchResult.getValues().iterator(), searchResult.getCount());
+    return createResultContainer(new MappingIterator<>(searchResult.getValues().iterator(), FactDocument::getId), searchResult.getCount());
   }
 
   @Override
   public ResultContainer<FactRecord> searchFacts(FactSearchCriteria criteria) {
-    // Search for Facts in ElasticSearch.
-    ScrollingSearchResult<FactDocument> searchResult = factSearchManager.searchFacts(criteria);
+    // Search for Facts in ElasticSearch. Only the UUIDs are required because the Facts are fetched from Cassandra.
+    ScrollingSearchResult<UUID> searchResult = factSearchManager.searchFactIds(criteria);
     if (searchResult.getCount() <= 0) {
       // Return immediately if the search didn't yield any results.
       return ResultContainer.<FactRecord>builder().build();
@@ -215,27 +244,32 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
     return comment;
   }
 
-  private void saveFactObjectBindings(FactEntity fact) {
-    if (CollectionUtils.isEmpty(fact.getBindings())) return;
+  private List<ObjectFactBindingEntity> createObjectFactBindings(FactEntity fact) {
+    // Create bindings between Objects and the new Fact.
+    return ListUtils.list(fact.getBindings(), binding -> new ObjectFactBindingEntity()
+            .setObjectID(binding.getObjectID())
+            .setFactID(fact.getId())
+            .setDirection(binding.getDirection())
+    );
+  }
 
-    // Save all bindings between Objects and the new Fact.
-    for (FactEntity.FactObjectBinding binding : fact.getBindings()) {
-      objectManager.saveObjectFactBinding(new ObjectFactBindingEntity()
-              .setObjectID(binding.getObjectID())
-              .setFactID(fact.getId())
-              .setDirection(binding.getDirection())
-      );
-    }
+  private List<ObjectFactTypeBindingEntity> createObjectFactTypeBindings(FactEntity fact) {
+    // Create the same bindings clustered by FactType in order to allow graph traversals to only read matching bindings.
+    return ListUtils.list(fact.getBindings(), binding -> new ObjectFactTypeBindingEntity()
+            .setObjectID(binding.getObjectID())
+            .setFactTypeID(fact.getTypeID())
+            .setDirection(binding.getDirection())
+            .setFactID(fact.getId())
+    );
   }
 
-  private void saveMetaFactBindings(FactEntity fact) {
-    if (fact.getInReferenceToID() == null) return;
+  private MetaFactBindingEntity createMetaFactBinding(FactEntity fact) {
+    if (fact.getInReferenceToID() == null) return null;
 
-    // Save binding between referenced Fact and new meta Fact.
-    factManager.saveMetaFactBinding(new MetaFactBindingEntity()
+    // Create binding between referenced Fact and new meta Fact.
+    return new MetaFactBindingEntity()
             .setFactID(fact.getInReferenceToID())
-            .setMetaFactID(fact.getId())
-    );
+            .setMetaFactID(fact.getId());
   }
 
   private void saveAclEntries(FactRecord fact) {
@@ -254,12 +288,16 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
   }
 
   private void saveAclEntry(FactRecord fact, FactAclEntryRecord entry) {
+    factManager.saveFactAclEntry(factAclEntryRecordConverter.toEntity(ensureId(entry), fact.getId()));
+  }
+
+  private FactAclEntryRecord ensureId(FactAclEntryRecord entry) {
     // Ensure that id is set before converting and saving entity.
     if (entry.getId() == null) {
       entry.setId(UUID.randomUUID());
     }
 
-    factManager.saveFactAclEntry(factAclEntryRecordConverter.toEntity(entry, fact.getId()));
+    return entry;
   }
 
   private void saveComments(FactRecord fact) {
@@ -278,35 +316,58 @@ public class ObjectFactDaoFacade implements ObjectFactDao {
   }
 
   private void saveComment(FactRecord fact, FactCommentRecord comment) {
+    factManager.saveFactComment(factCommentRecordConverter.toEntity(ensureId(comment), fact.getId()));
+  }
+
+  private FactCommentRecord ensureId(FactCommentRecord comment) {
     // Ensure that id is set before converting and saving entity.
     if (comment.getId() == null) {
       comment.setId(UUID.randomUUID());
     }
 
-    factManager.saveFactComment(factCommentRecordConverter.toEntity(comment, fact.getId()));
+    return comment;
+  }
+
+  private void join(CompletableFuture<Void> future) {
+    try {
+      future.join();
+    } catch (CompletionException ex) {
+      // Rethrow the original exception, e.g. IllegalArgumentException or ImmutableViolationException.
+      if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+      throw ex;
+    }
   }
 
   private FactRecord reindexFact(UUID factID) {
-    // getFact() will fetch all required information from Cassandra (the authoritative data store).
-    // Because of that, the returned record will contain up-to-date information.
-    FactRecord record = getFact(factID);
-    // Simply reindex everything based on the fetched record.
-    factSearchManager.indexFact(factRecordConverter.toDocument(record));
+    // The indexing worker will fetch all required information from Cassandra (the authoritative data store)
+    // and reindex everything asynchronously based on the up-to-date information.
+    factIndexingWorker.submit(factID);
     // Return up-to-date record.
-    return record;
+    return getFact(factID);
   }
 
-  private ResultContainer<FactRecord> createResultContainer(Iterator<FactDocument> results, int count) {
-    // Iterator which maps FactDocument to UUID.
-    Iterator<UUID> idIterator = new MappingIterator<>(results, FactDocument::getId);
-    // Iterator which fetches FactEntity from Cassandra in batches.
-    Iterator<FactEntity> batchingIterator = new BatchingIterator<>(idIterator, factManager::getFacts);
-    // Iterator which maps FactEntity to FactRecord.
-    Iterator<FactRecord> recordIterator = new MappingIterator<>(batchingIterator, factRecordConverter::fromEntity);
+  private ResultContainer<FactRecord> createResultContainer(Iterator<UUID> idIterator, int count) {
+    // Iterator which fetches FactEntity from Cassandra in batches and converts each batch to FactRecord at once.
+    // Converting whole batches allows to fetch the related Objects and ACL entries with multi-fetches.
+    Iterator<FactRecord> recordIterator = new BatchingIterator<>(idIterator, this::fetchFactRecords);
 
     return ResultContainer.<FactRecord>builder()
             .setCount(count)
             .setValues(recordIterator)
             .build();
   }
+
+  private Iterator<FactRecord> fetchFactRecords(List<UUID> id) {
+    if (CollectionUtils.isEmpty(id)) return Collections.emptyIterator();
+
+    Map<UUID, FactRecord> records = new HashMap<>();
+    factRecordConverter.fromEntities(ListUtils.list(factManager.getFacts(id))).forEach(record -> records.put(record.getId(), record));
+
+    // Depending on the fetch strategy Cassandra returns the Facts in arbitrary order. Restore the requested order
+    // because search results must be returned in the order determined by ElasticSearch, e.g. for cursor-based search.
+    return id.stream()
+            .map(records::remove)
+            .filter(Objects::nonNull)
+            .iterator();
+  }
 }
@@ -1,6 +1,7 @@
 package no.mnemonic.act.platform.dao.facade.converters;
 
 import no.mnemonic.act.platform.dao.api.record.FactAclEntryRecord;
+import no.mnemonic.act.platform.dao.api.record.FactCommentRecord;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
 import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
 import no.mnemonic.act.platform.dao.cassandra.FactManager;
@@ -13,10 +14,15 @@ import no.mnemonic.commons.logging.Logger;
 import no.mnemonic.commons.logging.Logging;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.collections.CollectionUtils;
+import no.mnemonic.commons.utilities.collections.ListUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
 
 import javax.inject.Inject;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static no.mnemonic.act.platform.dao.cassandra.entity.Direction.FactIsDestination;
 import static no.mnemonic.act.platform.dao.cassandra.entity.Direction.FactIsSource;
@@ -56,30 +62,59 @@ public class FactRecordConverter {
   public FactRecord fromEntity(FactEntity entity) {
     if (entity == null) return null;
 
-    // Set all fields directly available on entity.
-    FactRecord record = new FactRecord()
-            .setId(entity.getId())
-            .setTypeID(entity.getTypeID())
-            .setValue(entity.getValue())
-            .setInReferenceToID(entity.getInReferenceToID())
-            .setOrganizationID(entity.getOrganizationID())
-            .setOriginID(entity.getOriginID())
-            .setAddedByID(entity.getAddedByID())
-            .setAccessMode(ObjectUtils.ifNotNull(entity.getAccessMode(), m -> FactRecord.AccessMode.valueOf(m.name())))
-            .setConfidence(entity.getConfidence())
-            .setTrust(entity.getTrust())
-            .setTimestamp(entity.getTimestamp())
-            .setLastSeenTimestamp(entity.getLastSeenTimestamp())
-            .setFlags(SetUtils.set(entity.getFlags(), flag -> FactRecord.Flag.valueOf(flag.name())));
+    FactRecord record = convertFact(entity);
 
-    // Populate with records from related entities.
-    populateObjects(record, entity);
-    populateFactAcl(record);
-    populateFactComments(record);
+    // Populate with records from related entities. ACL and comments are only fetched when accessed.
+    populateObjects(record, entity, this::convertObject);
+    record.setAclResolver(() -> convertAcl(factManager.fetchFactAcl(entity.getId())));
+    record.setCommentsResolver(() -> convertComments(factManager.fetchFactComments(entity.getId())));
 
     return record;
   }
 
+  /**
+   * Convert a batch of {@link FactEntity} to {@link FactRecord}s.
+   * <p>
+   * In contrast to {@link #fromEntity(FactEntity)} the related Objects and ACL entries are not fetched per Fact,
+   * but with one multi-fetch per entity type for the whole batch. The multi-fetches are executed concurrently.
+   * Comments are rarely needed and are only fetched when accessed.
+   * The order of the returned records corresponds to the order of the given entities.
+   *
+   * @param entities Facts to convert
+   * @return Converted Facts
+   */
+  public List<FactRecord> fromEntities(List<FactEntity> entities) {
+    if (CollectionUtils.isEmpty(entities)) return ListUtils.list();
+
+    List<FactEntity> facts = entities.stream()
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    List<UUID> factID = ListUtils.list(facts, FactEntity::getId);
+    List<UUID> objectID = facts.stream()
+            .flatMap(fact -> ListUtils.list(fact.getBindings()).stream())
+            .map(FactEntity.FactObjectBinding::getObjectID)
+            .distinct()
+            .collect(Collectors.toList());
+
+    // Fetch ACL entries asynchronously while the Objects are fetched by the current thread.
+    CompletableFuture<List<FactAclEntity>> aclFuture = factManager.fetchFactAclForFactsAsync(factID);
+
+    Map<UUID, ObjectRecord> objects = new HashMap<>();
+    objectManager.getObjects(objectID).forEachRemaining(object -> objects.put(object.getId(), objectRecordConverter.fromEntity(object)));
+    Map<UUID, List<FactAclEntity>> acl = groupByFact(join(aclFuture), FactAclEntity::getFactID);
+
+    List<FactRecord> records = new ArrayList<>(facts.size());
+    for (FactEntity entity : facts) {
+      FactRecord record = convertFact(entity);
+      populateObjects(record, entity, objects::get);
+      record.setAcl(convertAcl(acl.get(entity.getId())));
+      record.setCommentsResolver(() -> convertComments(factManager.fetchFactComments(entity.getId())));
+      records.add(record);
+    }
+
+    return records;
+  }
+
   /**
    * Convert {@link FactRecord} to {@link FactEntity}.
    *
@@ -189,34 +224,35 @@ public class FactRecordConverter {
     return criteriaBuilder.build();
   }
 
-  private void populateObjects(FactRecord record, FactEntity entity) {
+  private void populateObjects(FactRecord record, FactEntity entity, Function<UUID, ObjectRecord> objectResolver) {
     if (CollectionUtils.isEmpty(entity.getBindings())) return;
 
     if (CollectionUtils.size(entity.getBindings()) == 1) {
-      populateObjectsWithCardinalityOne(record, entity.getBindings().get(0));
+      populateObjectsWithCardinalityOne(record, entity.getBindings().get(0), objectResolver);
     } else if (CollectionUtils.size(entity.getBindings()) == 2) {
-      populateObjectsWithCardinalityTwo(record, entity.getBindings().get(0), entity.getBindings().get(1));
+      populateObjectsWithCardinalityTwo(record, entity.getBindings().get(0), entity.getBindings().get(1), objectResolver);
     } else {
       // This should never happen as long as create Fact API only allows bindings with cardinality 1 or 2. Log it, just in case.
       LOGGER.warning("Fact is bound to more than two Objects (id = %s). Ignoring Objects in result.", record.getId());
     }
   }
 
-  private void populateObjectsWithCardinalityOne(FactRecord record, FactEntity.FactObjectBinding binding) {
+  private void populateObjectsWithCardinalityOne(FactRecord record, FactEntity.FactObjectBinding binding, Function<UUID, ObjectRecord> objectResolver) {
     if (binding.getDirection() == FactIsDestination) {
-      record.setSourceObject(convertObject(binding.getObjectID()));
+      record.setSourceObject(objectResolver.apply(binding.getObjectID()));
     } else if (binding.getDirection() == FactIsSource) {
-      record.setDestinationObject(convertObject(binding.getObjectID()));
+      record.setDestinationObject(objectResolver.apply(binding.getObjectID()));
     } else {
       // In case of bidirectional binding with cardinality 1 populate source and destination with same Object.
-      ObjectRecord object = convertObject(binding.getObjectID());
+      ObjectRecord object = objectResolver.apply(binding.getObjectID());
       record.setSourceObject(object)
               .setDestinationObject(object)
               .setBidirectionalBinding(true);
     }
   }
 
-  private void populateObjectsWithCardinalityTwo(FactRecord record, FactEntity.FactObjectBinding first, FactEntity.FactObjectBinding second) {
+  private void populateObjectsWithCardinalityTwo(FactRecord record, FactEntity.FactObjectBinding first, FactEntity.FactObjectBinding second,
+                                                 Function<UUID, ObjectRecord> objectResolver) {
     if ((first.getDirection() == FactIsDestination && second.getDirection() == FactIsDestination) ||
             (first.getDirection() == FactIsSource && second.getDirection() == FactIsSource)) {
       // This should never happen as long as create Fact API only allows bindings with cardinality 1 or 2. Log it, just in case.
@@ -226,37 +262,69 @@ public class FactRecordConverter {
 
     if (first.getDirection() == FactIsDestination) {
       // If 'first' has direction 'FactIsDestination' it's the source Object and 'second' the destination Object ...
-      record.setSourceObject(convertObject(first.getObjectID()))
-              .setDestinationObject(convertObject(second.getObjectID()));
+      record.setSourceObject(objectResolver.apply(first.getObjectID()))
+              .setDestinationObject(objectResolver.apply(second.getObjectID()));
     } else if (second.getDirection() == FactIsDestination) {
       // ... and vice versa. They can't have the same direction!
-      record.setSourceObject(convertObject(second.getObjectID()))
-              .setDestinationObject(convertObject(first.getObjectID()));
+      record.setSourceObject(objectResolver.apply(second.getObjectID()))
+              .setDestinationObject(objectResolver.apply(first.getObjectID()));
     } else {
       // With bidirectional binding it doesn't matter which Object is source/destination.
       // In order to be consistent always set first as source and second as destination.
-      record.setSourceObject(convertObject(first.getObjectID()))
-              .setDestinationObject(convertObject(second.getObjectID()))
+      record.setSourceObject(objectResolver.apply(first.getObjectID()))
+              .setDestinationObject(objectResolver.apply(second.getObjectID()))
               .setBidirectionalBinding(true);
     }
   }
 
-  private void populateFactAcl(FactRecord record) {
-    for (FactAclEntity entity : factManager.fetchFactAcl(record.getId())) {
-      record.addAclEntry(factAclEntryRecordConverter.fromEntity(entity));
-    }
+  private List<FactAclEntryRecord> convertAcl(List<FactAclEntity> acl) {
+    if (CollectionUtils.isEmpty(acl)) return null;
+    return ListUtils.list(acl, factAclEntryRecordConverter::fromEntity);
   }
 
-  private void populateFactComments(FactRecord record) {
-    for (FactCommentEntity entity : factManager.fetchFactComments(record.getId())) {
-      record.addComment(factCommentRecordConverter.fromEntity(entity));
-    }
+  private List<FactCommentRecord> convertComments(List<FactCommentEntity> comments) {
+    if (CollectionUtils.isEmpty(comments)) return null;
+    return ListUtils.list(comments, factCommentRecordConverter::fromEntity);
+  }
+
+  private FactRecord convertFact(FactEntity entity) {
+    // Set all fields directly available on entity.
+    return new FactRecord()
+            .setId(entity.getId())
+            .setTypeID(entity.getTypeID())
+            .setValue(entity.getValue())
+            .setInReferenceToID(entity.getInReferenceToID())
+            .setOrganizationID(entity.getOrganizationID())
+            .setOriginID(entity.getOriginID())
+            .setAddedByID(entity.getAddedByID())
+            .setAccessMode(ObjectUtils.ifNotNull(entity.getAccessMode(), m -> FactRecord.AccessMode.valueOf(m.name())))
+            .setConfidence(entity.getConfidence())
+            .setTrust(entity.getTrust())
+            .setTimestamp(entity.getTimestamp())
+            .setLastSeenTimestamp(entity.getLastSeenTimestamp())
+            .setFlags(SetUtils.set(entity.getFlags(), flag -> FactRecord.Flag.valueOf(flag.name())));
   }
 
   private ObjectRecord convertObject(UUID objectID) {
     return objectRecordConverter.fromEntity(objectManager.getObject(objectID));
   }
 
+  private <T> Map<UUID, List<T>> groupByFact(List<T> entities, Function<T, UUID> factID) {
+    Map<UUID, List<T>> result = new HashMap<>();
+    entities.forEach(entity -> result.computeIfAbsent(factID.apply(entity), id -> new ArrayList<>()).add(entity));
+    return result;
+  }
+
+  private <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      // Rethrow the original exception thrown while fetching data from Cassandra.
+      if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+      throw ex;
+    }
+  }
+
   private ObjectDocument toDocument(ObjectRecord record, ObjectDocument.Direction direction) {
     return new ObjectDocument()
             .setId(record.getId())
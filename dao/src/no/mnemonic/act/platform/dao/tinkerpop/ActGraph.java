@@ -1,20 +1,28 @@
 package no.mnemonic.act.platform.dao.tinkerpop;
 
+import no.mnemonic.act.platform.dao.api.result.ObjectStatisticsContainer;
 import no.mnemonic.act.platform.dao.cassandra.FactManager;
 import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.act.platform.dao.tinkerpop.computer.ActGraphComputer;
 import no.mnemonic.act.platform.dao.tinkerpop.exceptions.GraphOperationException;
 import no.mnemonic.act.platform.dao.tinkerpop.utils.ElementFactory;
+import no.mnemonic.act.platform.dao.tinkerpop.utils.ObjectStatisticsCache;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
 import org.apache.commons.configuration.Configuration;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
 import org.apache.tinkerpop.gremlin.structure.*;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 import static org.apache.tinkerpop.gremlin.structure.Graph.Exceptions.*;
@@ -23,21 +31,53 @@ import static org.apache.tinkerpop.gremlin.structure.Graph.Exceptions.*;
  * The ActGraph is a {@link Graph} implementation of the Object-Fact-Model on top of the Cassandra storage layer. It is
  * a read-only graph, i.e. the graph can only be traversed and no edges or vertices added. For the mapping of Objects
  * and Facts to vertices and edges see {@link ObjectVertex} and {@link FactEdge}, respectively.
+ * <p>
+ * Filters on edges are pushed down into the lookup of adjacent edges by {@link ActVertexStepStrategy}.
+ * <p>
+ * Graph analytics are supported on bounded subgraphs by {@link ActGraphComputer}, see {@link #compute()}. Computations
+ * are executed on the configured computer pool which is shared between graphs and defaults to the common pool.
+ * <p>
+ * The resources consumed by traversals are counted and limited by a {@link TraversalBudget}, see
+ * {@link TraversalStatistics}. Profiled traversals additionally report them per step, see {@link ActProfileStrategy}.
+ * <p>
+ * If an Object statistics resolver is configured vertices expose statistics about their bound Facts as properties,
+ * see {@link ObjectVertex} and {@link ObjectStatisticsCache}.
+ * <p>
+ * An optional vertex listener is notified about every vertex created while traversing the graph, i.e. about every
+ * Object touched by a traversal.
  */
 public class ActGraph implements Graph {
 
   private static final Features SUPPORTED_FEATURES = new ActGraphFeatures();
 
+  static {
+    // Register provider strategies which are applied to all traversals of an ActGraph.
+    TraversalStrategies.GlobalCache.registerStrategies(ActGraph.class, TraversalStrategies.GlobalCache.getStrategies(Graph.class)
+            .clone()
+            .addStrategies(ActVertexStepStrategy.instance(), ActProfileStrategy.instance()));
+  }
+
   private final ObjectManager objectManager;
   private final FactManager factManager;
   private final Predicate<FactEntity> hasFactAccess;
+  private final TraversalStatistics statistics;
   private final ElementFactory elementFactory;
+  private final ObjectStatisticsCache objectStatisticsCache;
+  private final Consumer<UUID> vertexListener;
+  private final ForkJoinPool computerPool;
 
-  private ActGraph(ObjectManager objectManager, FactManager factManager, Predicate<FactEntity> hasFactAccess) {
+  private ActGraph(ObjectManager objectManager, FactManager factManager, Predicate<FactEntity> hasFactAccess, TraversalBudget budget,
+                   TraversalStatistics statistics, Function<Set<UUID>, ObjectStatisticsContainer> objectStatisticsResolver,
+                   Consumer<UUID> vertexListener, ForkJoinPool computerPool) {
     this.objectManager = ObjectUtils.notNull(objectManager, "'objectManager' is null!");
     this.factManager = ObjectUtils.notNull(factManager, "'factManager' is null!");
     this.hasFactAccess = ObjectUtils.notNull(hasFactAccess, "'hasFactAccess' is null!");
+    // Shared statistics take precedence, otherwise only this graph is limited by the budget.
+    this.statistics = ObjectUtils.ifNull(statistics, () -> new TraversalStatistics(ObjectUtils.ifNull(budget, () -> TraversalBudget.builder().build())));
     this.elementFactory = ElementFactory.builder().setOwner(this).build();
+    this.objectStatisticsCache = ObjectStatisticsCache.builder().setResolver(objectStatisticsResolver).build();
+    this.vertexListener = ObjectUtils.ifNull(vertexListener, () -> objectID -> {});
+    this.computerPool = ObjectUtils.ifNull(computerPool, ForkJoinPool::commonPool);
   }
 
   @Override
@@ -47,12 +87,16 @@ public class ActGraph implements Graph {
 
   @Override
   public <C extends GraphComputer> C compute(Class<C> graphComputerClass) {
-    throw graphComputerNotSupported();
+    if (!graphComputerClass.isAssignableFrom(ActGraphComputer.class)) {
+      throw graphDoesNotSupportProvidedGraphComputer(graphComputerClass);
+    }
+
+    return graphComputerClass.cast(compute());
   }
 
   @Override
-  public GraphComputer compute() {
-    throw graphComputerNotSupported();
+  public ActGraphComputer compute() {
+    return new ActGraphComputer(this);
   }
 
   @Override
@@ -98,9 +142,14 @@ public class ActGraph implements Graph {
   }
 
   public boolean hasFactAccess(FactEntity fact) {
+    statistics.recordAccessCheck();
     return hasFactAccess.test(fact);
   }
 
+  public void notifyVertexCreated(UUID objectID) {
+    vertexListener.accept(objectID);
+  }
+
   public ObjectManager getObjectManager() {
     return objectManager;
   }
@@ -109,6 +158,18 @@ public class ActGraph implements Graph {
     return factManager;
   }
 
+  public TraversalStatistics getStatistics() {
+    return statistics;
+  }
+
+  public ObjectStatisticsCache getObjectStatisticsCache() {
+    return objectStatisticsCache;
+  }
+
+  public ForkJoinPool getComputerPool() {
+    return computerPool;
+  }
+
   ElementFactory getElementFactory() {
     return elementFactory;
   }
@@ -155,12 +216,17 @@ public class ActGraph implements Graph {
     private ObjectManager objectManager;
     private FactManager factManager;
     private Predicate<FactEntity> hasFactAccess;
+    private TraversalBudget budget;
+    private TraversalStatistics statistics;
+    private Function<Set<UUID>, ObjectStatisticsContainer> objectStatisticsResolver;
+    private Consumer<UUID> vertexListener;
+    private ForkJoinPool computerPool;
 
     private Builder() {
     }
 
     public ActGraph build() {
-      return new ActGraph(objectManager, factManager, hasFactAccess);
+      return new ActGraph(objectManager, factManager, hasFactAccess, budget, statistics, objectStatisticsResolver, vertexListener, computerPool);
     }
 
     public Builder setObjectManager(ObjectManager objectManager) {
@@ -177,6 +243,31 @@ public class ActGraph implements Graph {
       this.hasFactAccess = hasFactAccess;
       return this;
     }
+
+    public Builder setBudget(TraversalBudget budget) {
+      this.budget = budget;
+      return this;
+    }
+
+    public Builder setStatistics(TraversalStatistics statistics) {
+      this.statistics = statistics;
+      return this;
+    }
+
+    public Builder setObjectStatisticsResolver(Function<Set<UUID>, ObjectStatisticsContainer> objectStatisticsResolver) {
+      this.objectStatisticsResolver = objectStatisticsResolver;
+      return this;
+    }
+
+    public Builder setVertexListener(Consumer<UUID> vertexListener) {
+      this.vertexListener = vertexListener;
+      return this;
+    }
+
+    public Builder setComputerPool(ForkJoinPool computerPool) {
+      this.computerPool = computerPool;
+      return this;
+    }
   }
 
   private static class ActGraphFeatures implements Features {
@@ -212,7 +303,7 @@ public class ActGraph implements Graph {
 
     @Override
     public boolean supportsComputer() {
-      return false;
+      return true;
     }
 
     @Override
@@ -0,0 +1,56 @@
+package no.mnemonic.act.platform.dao.tinkerpop;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ProfileStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.MutableMetrics;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Step inserted directly after a {@link ProfileStep} by {@link ActProfileStrategy}. It attributes the Cassandra reads
+ * and access checks performed while the profiled step is executed to that step, and annotates the step's metrics with
+ * them. Resources consumed while the profiled step pulls from previous steps are attributed to those steps instead.
+ */
+class ActProfileStep<S> extends AbstractStep<S, S> {
+
+  static final String READS_ANNOTATION = "cassandraReads";
+  static final String ACCESS_CHECKS_ANNOTATION = "accessChecks";
+
+  private final TraversalStatistics statistics;
+  private TraversalStatistics.StepStatistics stepStatistics = new TraversalStatistics.StepStatistics();
+
+  ActProfileStep(Traversal.Admin traversal, TraversalStatistics statistics) {
+    super(traversal);
+    this.statistics = statistics;
+  }
+
+  @Override
+  protected Traverser.Admin<S> processNextStart() throws NoSuchElementException {
+    TraversalStatistics.StepStatistics previous = statistics.enterStep(stepStatistics);
+    try {
+      return starts.next();
+    } finally {
+      statistics.exitStep(previous);
+      annotate();
+    }
+  }
+
+  @Override
+  public ActProfileStep<S> clone() {
+    ActProfileStep<S> clone = (ActProfileStep<S>) super.clone();
+    clone.stepStatistics = new TraversalStatistics.StepStatistics();
+    return clone;
+  }
+
+  private void annotate() {
+    // The metrics of the previous ProfileStep are initialized when this step pulls from it for the first time.
+    if (!(getPreviousStep() instanceof ProfileStep)) return;
+    MutableMetrics metrics = ((ProfileStep<?>) getPreviousStep()).getMetrics();
+    if (metrics == null) return;
+
+    metrics.setAnnotation(READS_ANNOTATION, stepStatistics.getReads());
+    metrics.setAnnotation(ACCESS_CHECKS_ANNOTATION, stepStatistics.getAccessChecks());
+  }
+}
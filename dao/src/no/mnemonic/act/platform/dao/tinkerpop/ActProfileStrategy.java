@@ -0,0 +1,49 @@
+package no.mnemonic.act.platform.dao.tinkerpop;
+
+import no.mnemonic.commons.utilities.collections.SetUtils;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ProfileStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization.ProfileStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+
+import java.util.Set;
+
+/**
+ * Extends the metrics of a profiled traversal (i.e. a traversal ending with profile()) with the Cassandra reads and
+ * access checks performed by each step. It inserts an {@link ActProfileStep} after every {@link ProfileStep} added by
+ * TinkerPop's {@link ProfileStrategy}, thus, it's only applied after that strategy. (TinkerPop pairs every ProfileStep
+ * with the step in front of it, therefore, nothing may be inserted in between.)
+ * <p>
+ * The strategy is registered for {@link ActGraph}, thus, it's applied automatically to all traversals of the graph.
+ */
+public class ActProfileStrategy extends AbstractTraversalStrategy<TraversalStrategy.FinalizationStrategy>
+        implements TraversalStrategy.FinalizationStrategy {
+
+  private static final ActProfileStrategy INSTANCE = new ActProfileStrategy();
+
+  private ActProfileStrategy() {
+  }
+
+  @Override
+  public void apply(Traversal.Admin<?, ?> traversal) {
+    Graph graph = traversal.getGraph().orElse(null);
+    if (!(graph instanceof ActGraph)) return;
+
+    for (ProfileStep<?> profileStep : TraversalHelper.getStepsOfClass(ProfileStep.class, traversal)) {
+      int index = TraversalHelper.stepIndex(profileStep, traversal);
+      traversal.addStep(index + 1, new ActProfileStep<>(traversal, ((ActGraph) graph).getStatistics()));
+    }
+  }
+
+  @Override
+  public Set<Class<? extends FinalizationStrategy>> applyPrior() {
+    return SetUtils.set(ProfileStrategy.class);
+  }
+
+  public static ActProfileStrategy instance() {
+    return INSTANCE;
+  }
+}
@@ -0,0 +1,116 @@
+package no.mnemonic.act.platform.dao.tinkerpop;
+
+import com.google.common.collect.Iterators;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactTypeEntity;
+import no.mnemonic.commons.utilities.ObjectUtils;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import java.util.*;
+
+/**
+ * Replacement of a {@link VertexStep} returning edges (e.g. outE()) which also holds the filters of the directly
+ * following has() steps, see {@link ActVertexStepStrategy}. For an {@link ObjectVertex} the filters are evaluated
+ * on the fetched Facts before access control is applied and the edges are created.
+ */
+class ActVertexStep extends VertexStep<Edge> implements HasContainerHolder {
+
+  private List<HasContainer> hasContainers = new ArrayList<>();
+
+  ActVertexStep(VertexStep<Edge> originalStep, String... edgeLabels) {
+    super(originalStep.getTraversal(), Edge.class, originalStep.getDirection(), edgeLabels);
+    originalStep.getLabels().forEach(this::addLabel);
+  }
+
+  @Override
+  protected Iterator<Edge> flatMap(Traverser.Admin<Vertex> traverser) {
+    Vertex vertex = traverser.get();
+    if (vertex instanceof ObjectVertex && vertex.graph() instanceof ActGraph) {
+      ActGraph graph = (ActGraph) vertex.graph();
+      return ((ObjectVertex) vertex).edges(getDirection(), fact -> test(graph, fact), getEdgeLabels());
+    }
+
+    // Fall back to filtering the created edges for any other vertex implementation.
+    return Iterators.filter(super.flatMap(traverser), edge -> HasContainer.testAll(edge, hasContainers));
+  }
+
+  @Override
+  public List<HasContainer> getHasContainers() {
+    return Collections.unmodifiableList(hasContainers);
+  }
+
+  @Override
+  public void addHasContainer(HasContainer hasContainer) {
+    hasContainers.add(hasContainer);
+  }
+
+  @Override
+  public ActVertexStep clone() {
+    ActVertexStep clone = (ActVertexStep) super.clone();
+    clone.hasContainers = new ArrayList<>();
+    hasContainers.forEach(hasContainer -> clone.addHasContainer(hasContainer.clone()));
+    return clone;
+  }
+
+  @Override
+  public String toString() {
+    return StringFactory.stepString(this, getDirection(), Arrays.asList(getEdgeLabels()), "edge", hasContainers);
+  }
+
+  @Override
+  public int hashCode() {
+    return super.hashCode() ^ hasContainers.hashCode();
+  }
+
+  /**
+   * Determine whether a filter can be evaluated directly against a Fact. This is possible for the edge label and all
+   * edge properties, but not for the edge id because it is generated when the edge is created.
+   *
+   * @param hasContainer Filter
+   * @return True if the filter can be evaluated against a Fact
+   */
+  static boolean isFactFilter(HasContainer hasContainer) {
+    return !Objects.equals(hasContainer.getKey(), T.id.getAccessor());
+  }
+
+  private boolean test(ActGraph graph, FactEntity fact) {
+    // Evaluate the filters in the same way as HasContainer evaluates them against the corresponding edge.
+    Map<String, Object> propertyValues = null;
+    for (HasContainer hasContainer : hasContainers) {
+      if (Objects.equals(hasContainer.getKey(), T.label.getAccessor())) {
+        String label = ObjectUtils.ifNotNull(graph.getFactManager().getFactType(fact.getTypeID()), FactTypeEntity::getName);
+        if (!testValue(hasContainer, label)) return false;
+        continue;
+      }
+
+      if (propertyValues == null) {
+        // Only compute the properties once per Fact. Note that property values can be null.
+        propertyValues = new HashMap<>();
+        for (Property<?> property : FactEdge.createProperties(fact, null)) {
+          propertyValues.put(property.key(), property.value());
+        }
+      }
+
+      // A missing property never matches, but a property with a null value is passed to the predicate.
+      if (!propertyValues.containsKey(hasContainer.getKey()) || !testValue(hasContainer, propertyValues.get(hasContainer.getKey()))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static boolean testValue(HasContainer hasContainer, Object value) {
+    return ((P<Object>) hasContainer.getPredicate()).test(value);
+  }
+}
@@ -0,0 +1,95 @@
+package no.mnemonic.act.platform.dao.tinkerpop;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+
+import java.util.*;
+
+/**
+ * Provider optimization which folds has() and hasLabel() steps directly following an edge step (outE(), inE(), bothE())
+ * into an {@link ActVertexStep}. This allows {@link ObjectVertex} to evaluate the filters on the fetched Facts instead
+ * of creating all adjacent edges first and filtering them afterwards. Additionally, label filters are turned into edge
+ * labels of the step if the step didn't specify any labels itself, such that only the bindings to Facts of the
+ * requested types are read. (A sole hasLabel() is already inlined by TinkerPop's InlineFilterStrategy, but not if it
+ * is combined with other filters.)
+ * <p>
+ * The strategy is registered for {@link ActGraph}, thus, it's applied automatically to all traversals of the graph.
+ */
+public class ActVertexStepStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy>
+        implements TraversalStrategy.ProviderOptimizationStrategy {
+
+  private static final ActVertexStepStrategy INSTANCE = new ActVertexStepStrategy();
+
+  private ActVertexStepStrategy() {
+  }
+
+  @Override
+  public void apply(Traversal.Admin<?, ?> traversal) {
+    for (VertexStep<?> originalStep : TraversalHelper.getStepsOfClass(VertexStep.class, traversal)) {
+      if (!originalStep.returnsEdge()) continue;
+
+      // Collect all directly following has() steps which can be evaluated against Facts. Barriers in between can be
+      // skipped because the order of filters and barriers doesn't change the result.
+      List<HasStep<?>> foldableSteps = new ArrayList<>();
+      Step<?, ?> currentStep = originalStep.getNextStep();
+      while (currentStep instanceof HasStep || currentStep instanceof NoOpBarrierStep) {
+        if (currentStep instanceof HasStep) {
+          HasStep<?> hasStep = (HasStep<?>) currentStep;
+          if (!hasStep.getHasContainers().stream().allMatch(ActVertexStep::isFactFilter)) break;
+          foldableSteps.add(hasStep);
+        }
+        currentStep = currentStep.getNextStep();
+      }
+      if (foldableSteps.isEmpty()) continue;
+
+      List<HasContainer> hasContainers = new ArrayList<>();
+      foldableSteps.forEach(step -> hasContainers.addAll(step.getHasContainers()));
+
+      //noinspection unchecked
+      ActVertexStep actStep = new ActVertexStep((VertexStep<Edge>) originalStep, resolveEdgeLabels(originalStep, hasContainers));
+      hasContainers.forEach(actStep::addHasContainer);
+      //noinspection unchecked
+      TraversalHelper.replaceStep((Step) originalStep, actStep, traversal);
+      for (HasStep<?> foldedStep : foldableSteps) {
+        // Keep step labels, e.g. outE().has('value', 'x').as('e').
+        TraversalHelper.copyLabels(foldedStep, actStep, false);
+        traversal.removeStep(foldedStep);
+      }
+    }
+  }
+
+  public static ActVertexStepStrategy instance() {
+    return INSTANCE;
+  }
+
+  private String[] resolveEdgeLabels(VertexStep<?> originalStep, List<HasContainer> hasContainers) {
+    // Labels specified directly on the step take precedence, label filters are still applied afterwards.
+    if (originalStep.getEdgeLabels().length > 0) return originalStep.getEdgeLabels();
+
+    for (HasContainer hasContainer : hasContainers) {
+      if (!Objects.equals(hasContainer.getKey(), T.label.getAccessor())) continue;
+
+      // Translate hasLabel('a') and hasLabel('a', 'b') into edge labels.
+      if (hasContainer.getBiPredicate() == Compare.eq && hasContainer.getValue() instanceof String) {
+        return new String[]{(String) hasContainer.getValue()};
+      }
+      if (hasContainer.getBiPredicate() == Contains.within && hasContainer.getValue() instanceof Collection
+              && ((Collection<?>) hasContainer.getValue()).stream().allMatch(String.class::isInstance)) {
+        return ((Collection<?>) hasContainer.getValue()).toArray(new String[0]);
+      }
+    }
+
+    return originalStep.getEdgeLabels();
+  }
+}
@@ -29,13 +29,17 @@ public class FactEdge implements Edge {
   private final Set<Property> allProperties;
 
   public FactEdge(ActGraph graph, UUID factID, UUID inVertexObjectID, UUID outVertexObjectID) {
+    this(graph, fetchFact(graph, factID), inVertexObjectID, outVertexObjectID);
+  }
+
+  public FactEdge(ActGraph graph, FactEntity fact, UUID inVertexObjectID, UUID outVertexObjectID) {
     this.graph = ObjectUtils.notNull(graph, "'graph' is null!");
-    this.fact = ObjectUtils.notNull(graph.getFactManager().getFact(factID), String.format("Fact with id = %s does not exist.", factID));
+    this.fact = ObjectUtils.notNull(fact, "'fact' is null!");
     this.type = ObjectUtils.notNull(graph.getFactManager().getFactType(fact.getTypeID()), String.format("FactType with id = %s does not exist.", fact.getTypeID()));
     this.inVertex = graph.getElementFactory().getVertex(inVertexObjectID);
     this.outVertex = graph.getElementFactory().getVertex(outVertexObjectID);
     this.edgeID = UUID.randomUUID(); // Generate a random ID for each new edge.
-    this.allProperties = Collections.unmodifiableSet(getAllProperties()); // Generate properties set only once.
+    this.allProperties = Collections.unmodifiableSet(createProperties(fact, this)); // Generate properties set only once.
   }
 
   @Override
@@ -108,22 +112,28 @@ public class FactEdge implements Edge {
     return fact;
   }
 
-  private Set<Property> getAllProperties() {
+  private static FactEntity fetchFact(ActGraph graph, UUID factID) {
+    ObjectUtils.notNull(graph, "'graph' is null!");
+    graph.getStatistics().recordReads(1);
+    return ObjectUtils.notNull(graph.getFactManager().getFact(factID), String.format("Fact with id = %s does not exist.", factID));
+  }
+
+  static Set<Property> createProperties(FactEntity fact, FactEdge owner) {
     // Currently, those properties only expose information directly from a Fact. Some additional interesting properties
     // would be e.g. organizationName or originName, but those are not directly available. Maybe it would be good to
     // expose complex OrganizationProperty and OriginProperty properties instead of one simple property per field?
     return SetUtils.set(
-            new FactID(fact, this),
-            new Value(fact, this),
-            new InReferenceToID(fact, this),
-            new OrganizationID(fact, this),
-            new OriginID(fact, this),
-            new Trust(fact, this),
-            new Confidence(fact, this),
-            new Certainty(fact, this),
-            new AccessMode(fact, this),
-            new Timestamp(fact, this),
-            new LastSeenTimestamp(fact, this)
+            new FactID(fact, owner),
+            new Value(fact, owner),
+            new InReferenceToID(fact, owner),
+            new OrganizationID(fact, owner),
+            new OriginID(fact, owner),
+            new Trust(fact, owner),
+            new Confidence(fact, owner),
+            new Certainty(fact, owner),
+            new AccessMode(fact, owner),
+            new Timestamp(fact, owner),
+            new LastSeenTimestamp(fact, owner)
     );
   }
 
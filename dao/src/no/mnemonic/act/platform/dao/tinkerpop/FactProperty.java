@@ -25,7 +25,8 @@ abstract class FactProperty<V> implements Property<V> {
 
   private FactProperty(FactEntity fact, FactEdge owner) {
     this.fact = ObjectUtils.notNull(fact, "'fact' is null!");
-    this.owner = ObjectUtils.notNull(owner, "'owner' is null!");
+    // 'owner' is null if the properties are only used to evaluate filters before the edge is created.
+    this.owner = owner;
   }
 
   @Override
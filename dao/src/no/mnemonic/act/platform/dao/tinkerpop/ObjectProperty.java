@@ -85,4 +85,25 @@ abstract class ObjectProperty<V> implements VertexProperty<V> {
       return getObject().getValue();
     }
   }
+
+  static class Statistic extends ObjectProperty<Long> {
+    private final String key;
+    private final long value;
+
+    Statistic(ObjectEntity object, ObjectVertex owner, String key, long value) {
+      super(object, owner);
+      this.key = ObjectUtils.notNull(key, "'key' is null!");
+      this.value = value;
+    }
+
+    @Override
+    public String key() {
+      return key;
+    }
+
+    @Override
+    public Long value() {
+      return value;
+    }
+  }
 }
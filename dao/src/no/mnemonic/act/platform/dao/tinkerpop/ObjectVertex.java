@@ -1,17 +1,22 @@
 package no.mnemonic.act.platform.dao.tinkerpop;
 
+import com.google.common.collect.Iterators;
+import no.mnemonic.act.platform.dao.api.result.ObjectStatisticsContainer;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactTypeEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectTypeEntity;
 import no.mnemonic.commons.utilities.ObjectUtils;
-import no.mnemonic.commons.utilities.collections.ListUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
 import org.apache.tinkerpop.gremlin.structure.*;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 import static no.mnemonic.act.platform.dao.cassandra.entity.Direction.*;
+import static no.mnemonic.act.platform.dao.tinkerpop.ObjectProperty.Statistic;
 import static no.mnemonic.act.platform.dao.tinkerpop.ObjectProperty.Value;
 import static org.apache.tinkerpop.gremlin.structure.Vertex.Exceptions.edgeAdditionsNotSupported;
 import static org.apache.tinkerpop.gremlin.structure.Vertex.Exceptions.vertexRemovalNotSupported;
@@ -23,21 +28,41 @@ import static org.apache.tinkerpop.gremlin.structure.Vertex.Exceptions.vertexRem
  * Adjacent edges represent Facts where the edge direction (IN, OUT) is mapped onto the binding's direction between
  * Object and Fact. If a Fact is only bound to one Object the edge will be a loop, and if the Fact is bound to more
  * than two Objects an edge to each Object is created.
+ * <p>
+ * A vertex is created lazily, i.e. the Object and its ObjectType are only fetched when a property of the vertex is
+ * accessed, and the bindings to Facts are only iterated when the adjacent edges are requested. This makes it cheap to
+ * use vertices of Objects bound to a huge number of Facts as traversal endpoints. If the adjacent edges are filtered
+ * by label only the bindings to Facts of the matching FactTypes are read.
+ * <p>
+ * If the graph provides Object statistics a vertex additionally exposes the properties 'factCount',
+ * 'lastAddedTimestamp' and 'lastSeenTimestamp' over all Facts bound to the Object, as well as per FactType suffixed
+ * with the FactType's name, e.g. 'factCount.resolve'. Only Facts accessible to the user are included. The statistics
+ * are only fetched when one of these properties is requested, and they are served from an index instead of reading
+ * the bindings. This allows filtering vertices by their degree, e.g. has('factCount', lt(100)), before any of their
+ * edges are loaded.
  */
 public class ObjectVertex implements Vertex {
 
+  // Number of bindings for which the Facts are fetched together when creating adjacent edges.
+  private static final int EDGE_BATCH_SIZE = 1000;
+  // Keys of the properties exposing Object statistics.
+  private static final String FACT_COUNT = "factCount";
+  private static final String LAST_ADDED_TIMESTAMP = "lastAddedTimestamp";
+  private static final String LAST_SEEN_TIMESTAMP = "lastSeenTimestamp";
+  private static final Set<String> STATISTICS_KEYS = SetUtils.set(FACT_COUNT, LAST_ADDED_TIMESTAMP, LAST_SEEN_TIMESTAMP);
+
   private final ActGraph graph;
-  private final ObjectEntity object;
-  private final ObjectTypeEntity type;
-  private final List<ObjectFactBindingEntity> bindings;
-  private final Set<VertexProperty> allProperties;
+  private final UUID objectID;
+  // Resolved on first access, see resolve().
+  private volatile ObjectEntity object;
+  private volatile ObjectTypeEntity type;
+  private volatile Set<VertexProperty> allProperties;
+  // Resolved on first access, see resolveStatistics().
+  private volatile Set<VertexProperty> statisticsProperties;
 
   public ObjectVertex(ActGraph graph, UUID objectID) {
     this.graph = ObjectUtils.notNull(graph, "'graph' is null!");
-    this.object = ObjectUtils.notNull(graph.getObjectManager().getObject(objectID), String.format("Object with id = %s does not exist.", objectID));
-    this.type = ObjectUtils.notNull(graph.getObjectManager().getObjectType(object.getTypeID()), String.format("ObjectType with id = %s does not exist.", object.getTypeID()));
-    this.bindings = Collections.unmodifiableList(ListUtils.list(graph.getObjectManager().fetchObjectFactBindings(objectID)));
-    this.allProperties = Collections.unmodifiableSet(getAllProperties()); // Generate properties set only once.
+    this.objectID = ObjectUtils.notNull(objectID, "'objectID' is null!");
   }
 
   @Override
@@ -47,26 +72,37 @@ public class ObjectVertex implements Vertex {
 
   @Override
   public Iterator<Edge> edges(Direction direction, String... edgeLabels) {
-    Set<Edge> facts = new HashSet<>();
-
-    for (ObjectFactBindingEntity binding : bindings) {
-      if (binding.getDirection() == BiDirectional) {
-        facts.addAll(graph.getElementFactory().createEdges(binding));
-      }
-
-      if (binding.getDirection() == FactIsDestination && (direction == Direction.BOTH || direction == Direction.OUT)) {
-        facts.addAll(graph.getElementFactory().createEdges(binding));
-      }
+    return edges(direction, fact -> true, edgeLabels);
+  }
 
-      if (binding.getDirection() == FactIsSource && (direction == Direction.BOTH || direction == Direction.IN)) {
-        facts.addAll(graph.getElementFactory().createEdges(binding));
-      }
+  /**
+   * Same as {@link #edges(Direction, String...)} but only creates edges for Facts matching the given filter. The filter
+   * is evaluated on the fetched Facts before access control is applied and the edges are created.
+   *
+   * @param direction  Direction of the edges
+   * @param factFilter Filter which Facts must match
+   * @param edgeLabels Labels of the edges (optional)
+   * @return Adjacent edges matching the filter
+   */
+  Iterator<Edge> edges(Direction direction, Predicate<FactEntity> factFilter, String... edgeLabels) {
+    // Iterate the bindings page by page instead of loading all bindings of the Object into memory.
+    Iterator<ObjectFactBindingEntity> relevantBindings;
+    if (SetUtils.set(edgeLabels).isEmpty()) {
+      relevantBindings = Iterators.filter(
+              countReads(ObjectUtils.ifNull(graph.getObjectManager().fetchObjectFactBindings(objectID), Collections.emptyIterator())),
+              binding -> isRelevantBinding(binding, direction)
+      );
+    } else {
+      relevantBindings = fetchBindingsByLabel(direction, edgeLabels);
     }
 
-    return facts
-            .stream()
-            .filter(edge -> SetUtils.set(edgeLabels).isEmpty() || SetUtils.in(edge.label(), edgeLabels))
-            .iterator();
+    // Create edges in batches in order to fetch the Facts of multiple bindings at once.
+    Iterator<Edge> facts = Iterators.concat(Iterators.transform(
+            Iterators.partition(relevantBindings, EDGE_BATCH_SIZE),
+            batch -> graph.getElementFactory().createEdgesForBindings(batch, factFilter).iterator()
+    ));
+
+    return Iterators.filter(facts, edge -> SetUtils.set(edgeLabels).isEmpty() || SetUtils.in(edge.label(), edgeLabels));
   }
 
   @Override
@@ -79,8 +115,14 @@ public class ObjectVertex implements Vertex {
 
   @Override
   public <V> Iterator<VertexProperty<V>> properties(String... propertyKeys) {
+    Set<VertexProperty> properties = resolve().allProperties;
+    // Only fetch statistics if they are actually requested.
+    if (isStatisticsRequested(propertyKeys)) {
+      properties = SetUtils.union(properties, resolveStatistics());
+    }
+
     //noinspection unchecked
-    return allProperties.stream()
+    return properties.stream()
             .filter(property -> SetUtils.set(propertyKeys).isEmpty() || SetUtils.in(property.key(), propertyKeys))
             .map(property -> (VertexProperty<V>) property)
             .iterator();
@@ -93,12 +135,12 @@ public class ObjectVertex implements Vertex {
 
   @Override
   public Object id() {
-    return object.getId();
+    return objectID;
   }
 
   @Override
   public String label() {
-    return type.getName();
+    return resolve().type.getName();
   }
 
   @Override
@@ -130,15 +172,100 @@ public class ObjectVertex implements Vertex {
   }
 
   public ObjectEntity getObject() {
-    return object;
+    return resolve().object;
+  }
+
+  private Iterator<ObjectFactBindingEntity> fetchBindingsByLabel(Direction direction, String... edgeLabels) {
+    // Edge labels are FactType names, thus, only read the bindings to Facts of the requested types. Unknown labels
+    // can't match any edge. The edges are still filtered by label afterwards in case the lookup by type is disabled.
+    Set<UUID> factTypeID = new HashSet<>();
+    for (String label : edgeLabels) {
+      FactTypeEntity type = graph.getFactManager().getFactType(label);
+      if (type != null) factTypeID.add(type.getId());
+    }
+
+    Set<no.mnemonic.act.platform.dao.cassandra.entity.Direction> bindingDirections = EnumSet.of(BiDirectional);
+    if (direction == Direction.BOTH || direction == Direction.OUT) bindingDirections.add(FactIsDestination);
+    if (direction == Direction.BOTH || direction == Direction.IN) bindingDirections.add(FactIsSource);
+
+    return countReads(ObjectUtils.ifNull(graph.getObjectManager().fetchObjectFactBindings(objectID, factTypeID, bindingDirections), Collections.emptyIterator()));
+  }
+
+  private Iterator<ObjectFactBindingEntity> countReads(Iterator<ObjectFactBindingEntity> bindings) {
+    // Every binding is one row read from Cassandra. Count them while iterating, i.e. only bindings actually read.
+    return Iterators.transform(bindings, binding -> {
+      graph.getStatistics().recordReads(1);
+      return binding;
+    });
+  }
+
+  private boolean isRelevantBinding(ObjectFactBindingEntity binding, Direction direction) {
+    if (binding.getDirection() == BiDirectional) return true;
+    if (binding.getDirection() == FactIsDestination) return direction == Direction.BOTH || direction == Direction.OUT;
+    if (binding.getDirection() == FactIsSource) return direction == Direction.BOTH || direction == Direction.IN;
+    return false;
+  }
+
+  private ObjectVertex resolve() {
+    // Only fetch Object and ObjectType once. Racing threads will resolve the same data, thus, no locking is required.
+    if (allProperties != null) return this;
+
+    graph.getStatistics().recordReads(1);
+    ObjectEntity resolvedObject = ObjectUtils.notNull(graph.getObjectManager().getObject(objectID), String.format("Object with id = %s does not exist.", objectID));
+    this.type = ObjectUtils.notNull(graph.getObjectManager().getObjectType(resolvedObject.getTypeID()), String.format("ObjectType with id = %s does not exist.", resolvedObject.getTypeID()));
+    this.object = resolvedObject;
+    this.allProperties = Collections.unmodifiableSet(getAllProperties()); // Generate properties set only once.
+
+    return this;
   }
 
   private Set<VertexProperty> getAllProperties() {
-    // Currently, only one property is exposed. Object statistics would be interesting as well, but this requires an
-    // external index in order to allow efficient graph traversals.
+    // Object statistics are handled separately by resolveStatistics() because they require an additional lookup.
     return SetUtils.set(
             new Value(object, this)
     );
   }
 
+  private boolean isStatisticsRequested(String... propertyKeys) {
+    if (!graph.getObjectStatisticsCache().isEnabled()) return false;
+    if (SetUtils.set(propertyKeys).isEmpty()) return true;
+
+    for (String key : propertyKeys) {
+      if (key == null) continue;
+      int separator = key.indexOf('.');
+      if (STATISTICS_KEYS.contains(separator < 0 ? key : key.substring(0, separator))) return true;
+    }
+
+    return false;
+  }
+
+  private Set<VertexProperty> resolveStatistics() {
+    // Only fetch statistics once. Racing threads will resolve the same data, thus, no locking is required.
+    if (statisticsProperties != null) return statisticsProperties;
+
+    Set<VertexProperty> properties = new HashSet<>();
+    long factCount = 0;
+    long lastAddedTimestamp = 0;
+    long lastSeenTimestamp = 0;
+    for (ObjectStatisticsContainer.FactStatistic statistic : graph.getObjectStatisticsCache().getStatistics(objectID)) {
+      factCount += statistic.getFactCount();
+      lastAddedTimestamp = Math.max(lastAddedTimestamp, statistic.getLastAddedTimestamp());
+      lastSeenTimestamp = Math.max(lastSeenTimestamp, statistic.getLastSeenTimestamp());
+
+      FactTypeEntity factType = graph.getFactManager().getFactType(statistic.getFactTypeID());
+      if (factType == null) continue;
+      properties.add(new Statistic(object, this, FACT_COUNT + "." + factType.getName(), statistic.getFactCount()));
+      properties.add(new Statistic(object, this, LAST_ADDED_TIMESTAMP + "." + factType.getName(), statistic.getLastAddedTimestamp()));
+      properties.add(new Statistic(object, this, LAST_SEEN_TIMESTAMP + "." + factType.getName(), statistic.getLastSeenTimestamp()));
+    }
+
+    // The totals are always exposed, i.e. Objects without any accessible Facts have a 'factCount' of 0.
+    properties.add(new Statistic(object, this, FACT_COUNT, factCount));
+    properties.add(new Statistic(object, this, LAST_ADDED_TIMESTAMP, lastAddedTimestamp));
+    properties.add(new Statistic(object, this, LAST_SEEN_TIMESTAMP, lastSeenTimestamp));
+    this.statisticsProperties = Collections.unmodifiableSet(properties);
+
+    return statisticsProperties;
+  }
+
 }
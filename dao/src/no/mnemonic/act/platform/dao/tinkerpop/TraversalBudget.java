@@ -0,0 +1,87 @@
+package no.mnemonic.act.platform.dao.tinkerpop;
+
+/**
+ * Limits the resources a traversal of an {@link ActGraph} may consume. The traversal is aborted with a
+ * {@link no.mnemonic.act.platform.dao.tinkerpop.exceptions.TraversalBudgetExceededException} as soon as one of the
+ * limits is exceeded, see {@link TraversalStatistics}. A limit of 0 means unlimited.
+ */
+public class TraversalBudget {
+
+  private final long maximumVertices;
+  private final long maximumEdges;
+  private final long maximumReads;
+
+  private TraversalBudget(long maximumVertices, long maximumEdges, long maximumReads) {
+    this.maximumVertices = maximumVertices;
+    this.maximumEdges = maximumEdges;
+    this.maximumReads = maximumReads;
+  }
+
+  public long getMaximumVertices() {
+    return maximumVertices;
+  }
+
+  public long getMaximumEdges() {
+    return maximumEdges;
+  }
+
+  public long getMaximumReads() {
+    return maximumReads;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private long maximumVertices;
+    private long maximumEdges;
+    private long maximumReads;
+
+    private Builder() {
+    }
+
+    public TraversalBudget build() {
+      return new TraversalBudget(maximumVertices, maximumEdges, maximumReads);
+    }
+
+    /**
+     * Set the maximum number of vertices loaded during a traversal.
+     * <p>
+     * Defaults to 0, i.e. unlimited.
+     *
+     * @param maximumVertices Maximum number of vertices
+     * @return Builder instance, i.e. 'this'
+     */
+    public Builder setMaximumVertices(long maximumVertices) {
+      this.maximumVertices = maximumVertices;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of edges created during a traversal.
+     * <p>
+     * Defaults to 0, i.e. unlimited.
+     *
+     * @param maximumEdges Maximum number of edges
+     * @return Builder instance, i.e. 'this'
+     */
+    public Builder setMaximumEdges(long maximumEdges) {
+      this.maximumEdges = maximumEdges;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of Objects, Facts and Object-Fact bindings read from Cassandra during a traversal.
+     * <p>
+     * Defaults to 0, i.e. unlimited.
+     *
+     * @param maximumReads Maximum number of reads
+     * @return Builder instance, i.e. 'this'
+     */
+    public Builder setMaximumReads(long maximumReads) {
+      this.maximumReads = maximumReads;
+      return this;
+    }
+  }
+}
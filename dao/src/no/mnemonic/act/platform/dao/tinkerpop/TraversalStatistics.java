@@ -0,0 +1,145 @@
+package no.mnemonic.act.platform.dao.tinkerpop;
+
+import no.mnemonic.act.platform.dao.tinkerpop.exceptions.TraversalAbortedException;
+import no.mnemonic.act.platform.dao.tinkerpop.exceptions.TraversalBudgetExceededException;
+import no.mnemonic.commons.utilities.ObjectUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the resources consumed by the traversals of one {@link ActGraph} and enforces its {@link TraversalBudget}.
+ * One instance can be shared by multiple graphs (see {@link ActGraph.Builder#setStatistics(TraversalStatistics)}),
+ * e.g. when one request is traversed in parallel, in which case the budget applies to all graphs together.
+ * <p>
+ * A traversal can be stopped from the outside with {@link #abort()}. Afterwards, the next recorded resource
+ * throws a {@link TraversalAbortedException}, i.e. the traversal stops before performing its next read.
+ * <p>
+ * Reads are counted per row fetched from Cassandra, i.e. per Object, Fact and Object-Fact binding. Lookups of
+ * ObjectTypes and FactTypes are not counted. Note that the managers might serve some of the counted reads from their
+ * caches. Vertices are counted when they are loaded into the graph and edges when they are created from a binding.
+ * <p>
+ * While a profiled traversal is executed the consumed resources are additionally attributed to the currently
+ * executing step, see {@link ActProfileStrategy}.
+ */
+public class TraversalStatistics {
+
+  private final TraversalBudget budget;
+  private final AtomicLong vertexCount = new AtomicLong();
+  private final AtomicLong edgeCount = new AtomicLong();
+  private final AtomicLong readCount = new AtomicLong();
+  private final AtomicLong accessCheckCount = new AtomicLong();
+  private volatile boolean aborted;
+  // Step currently executed by the traversal thread, only set during profiling.
+  private final ThreadLocal<StepStatistics> activeStep = new ThreadLocal<>();
+
+  public TraversalStatistics(TraversalBudget budget) {
+    this.budget = ObjectUtils.notNull(budget, "'budget' is null!");
+  }
+
+  public long getVertexCount() {
+    return vertexCount.get();
+  }
+
+  public long getEdgeCount() {
+    return edgeCount.get();
+  }
+
+  public long getReadCount() {
+    return readCount.get();
+  }
+
+  public long getAccessCheckCount() {
+    return accessCheckCount.get();
+  }
+
+  /**
+   * Abort all traversals recording their resources in this instance.
+   */
+  public void abort() {
+    aborted = true;
+  }
+
+  /**
+   * Record that a vertex has been loaded.
+   *
+   * @throws TraversalBudgetExceededException If the maximum number of vertices is exceeded
+   */
+  public void recordVertex() {
+    check(vertexCount.incrementAndGet(), budget.getMaximumVertices(), "vertices");
+  }
+
+  /**
+   * Record that edges have been created.
+   *
+   * @param edges Number of created edges
+   * @throws TraversalBudgetExceededException If the maximum number of edges is exceeded
+   */
+  public void recordEdges(int edges) {
+    check(edgeCount.addAndGet(edges), budget.getMaximumEdges(), "edges");
+  }
+
+  /**
+   * Record that rows have been read from Cassandra.
+   *
+   * @param reads Number of read rows
+   * @throws TraversalBudgetExceededException If the maximum number of reads is exceeded
+   */
+  public void recordReads(int reads) {
+    StepStatistics step = activeStep.get();
+    if (step != null) step.reads += reads;
+    check(readCount.addAndGet(reads), budget.getMaximumReads(), "reads");
+  }
+
+  /**
+   * Record that access to a Fact has been checked.
+   */
+  public void recordAccessCheck() {
+    StepStatistics step = activeStep.get();
+    if (step != null) step.accessChecks++;
+    accessCheckCount.incrementAndGet();
+    checkAborted();
+  }
+
+  StepStatistics enterStep(StepStatistics step) {
+    StepStatistics previous = activeStep.get();
+    activeStep.set(step);
+    return previous;
+  }
+
+  void exitStep(StepStatistics previous) {
+    if (previous == null) {
+      activeStep.remove();
+    } else {
+      activeStep.set(previous);
+    }
+  }
+
+  private void check(long count, long maximum, String resource) {
+    checkAborted();
+    if (maximum > 0 && count > maximum) {
+      throw new TraversalBudgetExceededException(String.format("Traversal exceeded the maximum of %d %s!", maximum, resource));
+    }
+  }
+
+  private void checkAborted() {
+    if (aborted) {
+      throw new TraversalAbortedException("Traversal has been aborted!");
+    }
+  }
+
+  /**
+   * Resources consumed by one step of a profiled traversal. Only accessed from the traversal thread.
+   */
+  static class StepStatistics {
+    private long reads;
+    private long accessChecks;
+
+    long getReads() {
+      return reads;
+    }
+
+    long getAccessChecks() {
+      return accessChecks;
+    }
+  }
+}
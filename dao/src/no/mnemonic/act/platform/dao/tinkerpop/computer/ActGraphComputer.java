@@ -0,0 +1,440 @@
+package no.mnemonic.act.platform.dao.tinkerpop.computer;
+
+import no.mnemonic.act.platform.dao.tinkerpop.ActGraph;
+import no.mnemonic.act.platform.dao.tinkerpop.FactEdge;
+import no.mnemonic.act.platform.dao.tinkerpop.exceptions.GraphOperationException;
+import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import org.apache.tinkerpop.gremlin.process.computer.*;
+import org.apache.tinkerpop.gremlin.process.computer.util.ComputerGraph;
+import org.apache.tinkerpop.gremlin.process.computer.util.DefaultComputerResult;
+import org.apache.tinkerpop.gremlin.process.computer.util.GraphComputerHelper;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link GraphComputer} executing {@link VertexProgram}s in-process on a bounded subgraph of an {@link ActGraph}.
+ * <p>
+ * An ActGraph can't be iterated as a whole, thus, a computation is restricted to the subgraph around a set of seed
+ * vertices (see {@link #seeds(Collection)}). Starting at the seeds all vertices reachable within a maximum number of
+ * hops (see {@link #hops(int)}) are loaded together with all edges between them. Access control is applied by the
+ * ActGraph while loading, i.e. only Facts the user has access to become edges of the subgraph. The adjacency of the
+ * subgraph is stored in compact int arrays (see {@link ActSubgraph}).
+ * <p>
+ * Loading and execution happen on the computer pool of the ActGraph (see {@link ActGraph#getComputerPool()}) which is
+ * shared by all computations, i.e. the number of workers only determines how the vertices are split up and not how
+ * many threads are used. The subgraph is loaded one hop at a time where the edges of all vertices of one hop are
+ * fetched in parallel. Afterwards, the program is executed iteration by iteration where the vertices of an iteration
+ * are split into ranges executed in parallel. A computation checks between those steps whether it was cancelled or
+ * exceeded its timeout (see {@link #timeout(long)}) and stops early in that case. Vertex and
+ * edge filters (see {@link #vertices(Traversal)} and {@link #edges(Traversal)}) are applied while loading the
+ * subgraph, i.e. filtered vertices are neither included nor expanded and only legal edges are followed.
+ * <p>
+ * The result graph is always the loaded subgraph, and MapReduce jobs are not supported.
+ */
+public class ActGraphComputer implements GraphComputer {
+
+  /**
+   * Configuration key of the seed vertices (collection of vertices or vertex IDs), see {@link #seeds(Collection)}.
+   */
+  public static final String SEEDS = "act.computer.seeds";
+  /**
+   * Configuration key of the maximum number of hops (int), see {@link #hops(int)}.
+   */
+  public static final String HOPS = "act.computer.hops";
+  /**
+   * Configuration key of the maximum number of vertices (int), see {@link #maximumVertices(int)}.
+   */
+  public static final String MAXIMUM_VERTICES = "act.computer.maximumVertices";
+  /**
+   * Configuration key of the timeout in milliseconds (long), see {@link #timeout(long)}.
+   */
+  public static final String TIMEOUT = "act.computer.timeout";
+
+  private static final int MAX_WORKERS = Runtime.getRuntime().availableProcessors();
+  private static final int DEFAULT_HOPS = 1;
+  private static final int DEFAULT_MAXIMUM_VERTICES = 10000;
+  // Number of vertex ranges per worker, allows the pool to balance vertices with more or less expensive executions.
+  private static final int RANGES_PER_WORKER = 4;
+  private static final Features SUPPORTED_FEATURES = new ActGraphComputerFeatures();
+
+  private final ActGraph graph;
+  private final GraphFilter graphFilter = new GraphFilter();
+  private final Set<Object> seeds = new LinkedHashSet<>();
+  private VertexProgram<Object> vertexProgram;
+  private ResultGraph resultGraph;
+  private Persist persist;
+  private int workers;
+  private int hops = DEFAULT_HOPS;
+  private int maximumVertices = DEFAULT_MAXIMUM_VERTICES;
+  private long timeout;
+  private long deadline = Long.MAX_VALUE;
+  private boolean executed;
+
+  public ActGraphComputer(ActGraph graph) {
+    this.graph = ObjectUtils.notNull(graph, "'graph' is null!");
+    this.workers = Math.min(MAX_WORKERS, graph.getComputerPool().getParallelism());
+  }
+
+  @Override
+  public ActGraphComputer result(ResultGraph resultGraph) {
+    this.resultGraph = resultGraph;
+    return this;
+  }
+
+  @Override
+  public ActGraphComputer persist(Persist persist) {
+    this.persist = persist;
+    return this;
+  }
+
+  @Override
+  public ActGraphComputer program(VertexProgram vertexProgram) {
+    //noinspection unchecked
+    this.vertexProgram = vertexProgram;
+    return this;
+  }
+
+  @Override
+  public ActGraphComputer mapReduce(MapReduce mapReduce) {
+    throw new GraphOperationException("MapReduce is not supported!");
+  }
+
+  @Override
+  public ActGraphComputer workers(int workers) {
+    if (workers < 1 || workers > MAX_WORKERS) {
+      throw GraphComputer.Exceptions.computerRequiresMoreWorkersThanSupported(workers, MAX_WORKERS);
+    }
+
+    this.workers = workers;
+    return this;
+  }
+
+  @Override
+  public ActGraphComputer vertices(Traversal<Vertex, Vertex> vertexFilter) {
+    graphFilter.setVertexFilter(vertexFilter);
+    return this;
+  }
+
+  @Override
+  public ActGraphComputer edges(Traversal<Vertex, Edge> edgeFilter) {
+    graphFilter.setEdgeFilter(edgeFilter);
+    return this;
+  }
+
+  @Override
+  public ActGraphComputer configure(String key, Object value) {
+    if (SEEDS.equals(key)) {
+      return seeds(value instanceof Collection ? (Collection<?>) value : ListUtils.list(value));
+    } else if (HOPS.equals(key)) {
+      return hops(((Number) value).intValue());
+    } else if (MAXIMUM_VERTICES.equals(key)) {
+      return maximumVertices(((Number) value).intValue());
+    } else if (TIMEOUT.equals(key)) {
+      return timeout(((Number) value).longValue());
+    }
+
+    // Ignore unknown configuration.
+    return this;
+  }
+
+  /**
+   * Add vertices where loading the subgraph starts. At least one seed vertex is required.
+   *
+   * @param seeds Vertices or vertex IDs
+   * @return Class instance, i.e. 'this'
+   */
+  public ActGraphComputer seeds(Collection<?> seeds) {
+    this.seeds.addAll(ObjectUtils.notNull(seeds, "'seeds' is null!"));
+    return this;
+  }
+
+  /**
+   * Set the maximum number of hops between the seed vertices and the other vertices of the subgraph. With 0 hops the
+   * subgraph only consists of the seed vertices and the edges between them.
+   * <p>
+   * Defaults to 1.
+   *
+   * @param hops Maximum number of hops
+   * @return Class instance, i.e. 'this'
+   */
+  public ActGraphComputer hops(int hops) {
+    if (hops < 0) throw new IllegalArgumentException("'hops' must not be negative!");
+    this.hops = hops;
+    return this;
+  }
+
+  /**
+   * Set the maximum number of vertices of the subgraph. Loading a larger subgraph fails with a
+   * {@link GraphOperationException}, i.e. the subgraph is never truncated.
+   * <p>
+   * Defaults to 10000.
+   *
+   * @param maximumVertices Maximum number of vertices
+   * @return Class instance, i.e. 'this'
+   */
+  public ActGraphComputer maximumVertices(int maximumVertices) {
+    if (maximumVertices < 1) throw new IllegalArgumentException("'maximumVertices' must be positive!");
+    this.maximumVertices = maximumVertices;
+    return this;
+  }
+
+  /**
+   * Set the maximum time in milliseconds a computation may take, starting at {@link #submit()}. A computation exceeding
+   * the timeout completes exceptionally with a {@link TimeoutException} and stops executing. 0 means no timeout.
+   * <p>
+   * Defaults to 0.
+   *
+   * @param timeout Timeout in milliseconds
+   * @return Class instance, i.e. 'this'
+   */
+  public ActGraphComputer timeout(long timeout) {
+    if (timeout < 0) throw new IllegalArgumentException("'timeout' must not be negative!");
+    this.timeout = timeout;
+    return this;
+  }
+
+  @Override
+  public CompletableFuture<ComputerResult> submit() {
+    if (executed) throw GraphComputer.Exceptions.computerHasAlreadyBeenSubmittedAVertexProgram();
+    if (vertexProgram == null) throw GraphComputer.Exceptions.computerHasNoVertexProgramNorMapReducers();
+    if (seeds.isEmpty()) throw new GraphOperationException("Computing the whole graph is not supported, seeds are required!");
+    executed = true;
+
+    GraphComputerHelper.validateProgramOnComputer(this, vertexProgram);
+    ResultGraph resultGraphState = GraphComputerHelper.getResultGraphState(Optional.of(vertexProgram), Optional.ofNullable(resultGraph));
+    Persist persistState = GraphComputerHelper.getPersistState(Optional.of(vertexProgram), Optional.ofNullable(persist));
+    if (!features().supportsResultGraphPersistCombination(resultGraphState, persistState)) {
+      throw GraphComputer.Exceptions.resultGraphPersistCombinationNotSupported(resultGraphState, persistState);
+    }
+
+    if (timeout > 0) deadline = System.currentTimeMillis() + timeout;
+
+    // The whole computation runs inside the shared pool, thus, it can fork sub tasks. The pool must not be shut down
+    // when the computation completes, instead, a cancelled computation stops itself (see checkCancelled()).
+    CompletableFuture<ComputerResult> result = new CompletableFuture<>();
+    graph.getComputerPool().execute(() -> {
+      try {
+        result.complete(execute(persistState == Persist.VERTEX_PROPERTIES, result));
+      } catch (Throwable ex) {
+        result.completeExceptionally(ex);
+      }
+    });
+
+    return result;
+  }
+
+  @Override
+  public Features features() {
+    return SUPPORTED_FEATURES;
+  }
+
+  @Override
+  public String toString() {
+    return StringFactory.graphComputerString(this);
+  }
+
+  private ComputerResult execute(boolean persistVertexProperties, CompletableFuture<?> result) {
+    long start = System.currentTimeMillis();
+    ActSubgraph subgraph = loadSubgraph(result);
+    ActMemory memory = new ActMemory(vertexProgram.getMemoryComputeKeys());
+    SubgraphMessageBoard<Object> messageBoard = new SubgraphMessageBoard<>(subgraph, vertexProgram.getMessageCombiner().orElse(null));
+
+    subgraph.startComputation(vertexProgram.getVertexComputeKeys());
+    vertexProgram.setup(memory);
+    while (true) {
+      checkCancelled(result);
+      memory.completeSubRound();
+      messageBoard.startIteration(vertexProgram.getMessageScopes(memory));
+      new VertexRangeTask(subgraph, memory, messageBoard, result, 0, subgraph.vertexCount(), rangeSize(subgraph)).invoke();
+      messageBoard.completeIteration();
+      memory.completeSubRound();
+      boolean terminate = vertexProgram.terminate(memory);
+      memory.incrIteration();
+      if (terminate) break;
+    }
+    memory.complete();
+    memory.setRuntime(System.currentTimeMillis() - start);
+    subgraph.completeComputation(vertexProgram.getVertexComputeKeys(), persistVertexProperties);
+
+    return new DefaultComputerResult(subgraph, memory.asImmutable());
+  }
+
+  private ActSubgraph loadSubgraph(CompletableFuture<?> result) {
+    Map<Object, Vertex> vertices = new LinkedHashMap<>();
+    Map<Object, Edge> edges = new LinkedHashMap<>();
+
+    List<Vertex> currentLevel = new ArrayList<>();
+    graph.vertices(seeds.toArray()).forEachRemaining(vertex -> addVertex(vertices, currentLevel, vertex));
+    for (int hop = 0; !currentLevel.isEmpty(); hop++) {
+      checkCancelled(result);
+      // Fetch the adjacent edges of all vertices of the current level in parallel. The edges of the last level are
+      // needed as well because they might connect two vertices of the subgraph.
+      List<ForkJoinTask<List<Edge>>> tasks = new ArrayList<>();
+      for (Vertex vertex : currentLevel) {
+        GraphFilter filter = graphFilter.clone(); // The filter traversals are not thread-safe.
+        tasks.add(ForkJoinTask.adapt(() -> {
+          checkCancelled(result);
+          return IteratorUtils.list(filter.legalEdges(vertex));
+        }));
+      }
+      ForkJoinTask.invokeAll(tasks);
+
+      List<Vertex> nextLevel = new ArrayList<>();
+      for (ForkJoinTask<List<Edge>> task : tasks) {
+        for (Edge edge : task.join()) {
+          // An edge might be fetched from both of its vertices, only keep it once.
+          edges.putIfAbsent(edgeKey(edge), edge);
+          if (hop >= hops) continue;
+
+          edge.vertices(Direction.BOTH).forEachRemaining(adjacent -> {
+            if (!vertices.containsKey(adjacent.id())) addVertex(vertices, nextLevel, adjacent);
+          });
+        }
+      }
+
+      currentLevel.clear();
+      currentLevel.addAll(nextLevel);
+    }
+
+    return new ActSubgraph(graph, vertices.values(), edges.values());
+  }
+
+  private void addVertex(Map<Object, Vertex> vertices, List<Vertex> level, Vertex vertex) {
+    if (!graphFilter.legalVertex(vertex)) return;
+    if (vertices.size() >= maximumVertices) {
+      throw new GraphOperationException(String.format("Subgraph exceeds the maximum of %d vertices!", maximumVertices));
+    }
+
+    vertices.put(vertex.id(), vertex);
+    level.add(vertex);
+  }
+
+  private Object edgeKey(Edge edge) {
+    // The ID of a FactEdge is only stable as long as the edge is cached, thus, identify it by its Fact and vertices.
+    if (edge instanceof FactEdge) {
+      return ListUtils.list(((FactEdge) edge).getFact().getId(), edge.inVertex().id(), edge.outVertex().id());
+    }
+
+    return edge.id();
+  }
+
+  private int rangeSize(ActSubgraph subgraph) {
+    return Math.max(1, subgraph.vertexCount() / (workers * RANGES_PER_WORKER));
+  }
+
+  private void checkCancelled(CompletableFuture<?> result) {
+    if (System.currentTimeMillis() > deadline) {
+      result.completeExceptionally(new TimeoutException(String.format("Computation exceeded the timeout of %d ms.", timeout)));
+    }
+
+    // Stop as soon as possible when the computation was cancelled or timed out.
+    if (result.isDone()) throw new CancellationException("Computation was cancelled.");
+  }
+
+  /**
+   * Executes the vertex program on a range of vertices. Ranges larger than 'rangeSize' are split into two halves which
+   * are executed in parallel. Like a worker, every range executes its own clone of the vertex program.
+   */
+  private class VertexRangeTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ActSubgraph subgraph;
+    private final ActMemory memory;
+    private final SubgraphMessageBoard<Object> messageBoard;
+    private final CompletableFuture<?> result;
+    private final int from;
+    private final int to;
+    private final int rangeSize;
+
+    private VertexRangeTask(ActSubgraph subgraph, ActMemory memory, SubgraphMessageBoard<Object> messageBoard,
+                            CompletableFuture<?> result, int from, int to, int rangeSize) {
+      this.subgraph = subgraph;
+      this.memory = memory;
+      this.messageBoard = messageBoard;
+      this.result = result;
+      this.from = from;
+      this.to = to;
+      this.rangeSize = rangeSize;
+    }
+
+    @Override
+    protected void compute() {
+      checkCancelled(result);
+      if (to - from > rangeSize) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new VertexRangeTask(subgraph, memory, messageBoard, result, from, middle, rangeSize),
+                new VertexRangeTask(subgraph, memory, messageBoard, result, middle, to, rangeSize));
+        return;
+      }
+
+      VertexProgram<Object> program = vertexProgram.clone();
+      program.workerIterationStart(memory.asImmutable());
+      for (int vertex = from; vertex < to; vertex++) {
+        // Wrapping the vertex prevents the program from accessing properties of adjacent vertices.
+        program.execute(ComputerGraph.vertexProgram(new SubgraphVertex(subgraph, vertex), program), messageBoard.messenger(vertex), memory);
+      }
+      program.workerIterationEnd(memory.asImmutable());
+    }
+  }
+
+  private static class ActGraphComputerFeatures implements Features {
+    @Override
+    public int getMaxWorkers() {
+      return MAX_WORKERS;
+    }
+
+    @Override
+    public boolean supportsVertexAddition() {
+      return false;
+    }
+
+    @Override
+    public boolean supportsVertexRemoval() {
+      return false;
+    }
+
+    @Override
+    public boolean supportsVertexPropertyRemoval() {
+      return false;
+    }
+
+    @Override
+    public boolean supportsEdgeAddition() {
+      return false;
+    }
+
+    @Override
+    public boolean supportsEdgeRemoval() {
+      return false;
+    }
+
+    @Override
+    public boolean supportsEdgePropertyAddition() {
+      return false;
+    }
+
+    @Override
+    public boolean supportsEdgePropertyRemoval() {
+      return false;
+    }
+
+    @Override
+    public boolean supportsResultGraphPersistCombination(ResultGraph resultGraph, Persist persist) {
+      // The underlying graph is read-only, thus, computed values can only be returned in a new graph.
+      return resultGraph == ResultGraph.NEW && (persist == Persist.NOTHING || persist == Persist.VERTEX_PROPERTIES);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package no.mnemonic.act.platform.dao.tinkerpop.computer;
+
+import no.mnemonic.commons.utilities.collections.SetUtils;
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.computer.Memory;
+import org.apache.tinkerpop.gremlin.process.computer.MemoryComputeKey;
+import org.apache.tinkerpop.gremlin.process.computer.util.MemoryHelper;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Memory shared between all workers of an {@link ActGraphComputer}.
+ * <p>
+ * While vertices are executed values can only be added to the memory (using the reducer of the memory compute key),
+ * and the values from the previous iteration are read. The added values become visible after all vertices of an
+ * iteration have been executed. During setup and termination values can be set directly.
+ */
+class ActMemory implements Memory.Admin {
+
+  private final Map<String, MemoryComputeKey> memoryKeys = new ConcurrentHashMap<>();
+  private final AtomicInteger iteration = new AtomicInteger();
+  private final AtomicLong runtime = new AtomicLong();
+  private Map<String, Object> previousMap = new ConcurrentHashMap<>();
+  private Map<String, Object> currentMap = new ConcurrentHashMap<>();
+  private volatile boolean inExecute;
+
+  ActMemory(Set<MemoryComputeKey> memoryComputeKeys) {
+    for (MemoryComputeKey key : SetUtils.set(memoryComputeKeys)) {
+      memoryKeys.put(key.getKey(), key);
+    }
+  }
+
+  @Override
+  public Set<String> keys() {
+    // While executing vertices only broadcast keys are visible.
+    return previousMap.keySet()
+            .stream()
+            .filter(key -> !inExecute || memoryKeys.get(key).isBroadcast())
+            .collect(Collectors.toSet());
+  }
+
+  @Override
+  public <R> R get(String key) {
+    //noinspection unchecked
+    R value = (R) previousMap.get(key);
+    if (value == null || (inExecute && !memoryKeys.get(key).isBroadcast())) {
+      throw Memory.Exceptions.memoryDoesNotExist(key);
+    }
+
+    return value;
+  }
+
+  @Override
+  public void set(String key, Object value) {
+    checkKeyValue(key, value);
+    if (inExecute) throw Memory.Exceptions.memorySetOnlyDuringVertexProgramSetUpAndTerminate(key);
+    currentMap.put(key, value);
+  }
+
+  @Override
+  public void add(String key, Object value) {
+    checkKeyValue(key, value);
+    if (!inExecute) throw Memory.Exceptions.memoryAddOnlyDuringVertexProgramExecute(key);
+    //noinspection unchecked
+    currentMap.merge(key, value, (current, next) -> memoryKeys.get(key).getReducer().apply(current, next));
+  }
+
+  @Override
+  public int getIteration() {
+    return iteration.get();
+  }
+
+  @Override
+  public long getRuntime() {
+    return runtime.get();
+  }
+
+  @Override
+  public void setIteration(int iteration) {
+    this.iteration.set(iteration);
+  }
+
+  @Override
+  public void setRuntime(long runtime) {
+    this.runtime.set(runtime);
+  }
+
+  @Override
+  public String toString() {
+    return StringFactory.memoryString(this);
+  }
+
+  /**
+   * Switch between executing vertices and running the master phase (setup or terminate). The values added or set
+   * until now become visible for the next phase.
+   */
+  void completeSubRound() {
+    previousMap = new ConcurrentHashMap<>(currentMap);
+    inExecute = !inExecute;
+  }
+
+  /**
+   * Complete the computation. Afterwards, transient values are not accessible any more, and the iteration is the
+   * last executed iteration.
+   */
+  void complete() {
+    iteration.decrementAndGet();
+    previousMap = currentMap;
+    memoryKeys.values()
+            .stream()
+            .filter(MemoryComputeKey::isTransient)
+            .forEach(key -> previousMap.remove(key.getKey()));
+  }
+
+  private void checkKeyValue(String key, Object value) {
+    if (!memoryKeys.containsKey(key)) throw GraphComputer.Exceptions.providedKeyIsNotAMemoryComputeKey(key);
+    MemoryHelper.validateValue(value);
+  }
+}
@@ -0,0 +1,319 @@
+package no.mnemonic.act.platform.dao.tinkerpop.computer;
+
+import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.computer.VertexComputeKey;
+import org.apache.tinkerpop.gremlin.structure.*;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.tinkerpop.gremlin.structure.Graph.Exceptions.*;
+
+/**
+ * A bounded subgraph of another graph (usually an {@link no.mnemonic.act.platform.dao.tinkerpop.ActGraph}) which has
+ * been loaded into memory by {@link ActGraphComputer}. Vertices and edges are numbered consecutively, and the adjacency
+ * is stored in compact int arrays (compressed sparse rows), i.e. the outgoing edges of vertex i are stored in the
+ * slots outOffsets[i] until outOffsets[i + 1] of 'outEdges' (and the incoming edges in 'inEdges' respectively).
+ * <p>
+ * Values computed by a {@link org.apache.tinkerpop.gremlin.process.computer.VertexProgram} are stored in one array per
+ * compute key. After the computation the subgraph serves as result graph, i.e. it can be traversed like any other
+ * graph where the computed values are exposed as vertex properties. All other properties are taken from the vertices
+ * and edges of the underlying graph, and the traversal never leaves the subgraph.
+ */
+class ActSubgraph implements Graph {
+
+  private final Graph baseGraph;
+  private final Vertex[] vertices;
+  private final Edge[] edges;
+  private final Map<Object, Integer> vertexIndex = new HashMap<>();
+  private final Map<Object, Integer> edgeIndex = new HashMap<>();
+  // Edge labels are mapped to ints in order to filter adjacent edges without comparing strings.
+  private final Map<String, Integer> labelIndex = new HashMap<>();
+  private final int[] edgeLabel;
+  private final int[] edgeOut;
+  private final int[] edgeIn;
+  private final int[] outOffsets;
+  private final int[] outEdges;
+  private final int[] inOffsets;
+  private final int[] inEdges;
+  // Values of the vertex compute keys, one array per key indexed by vertex.
+  private final Map<String, Object[]> computedValues = new ConcurrentHashMap<>();
+  private volatile boolean computing;
+
+  /**
+   * Create a subgraph from the given vertices and edges. Edges are only included if both of their vertices are part of
+   * the subgraph.
+   *
+   * @param baseGraph Graph the vertices and edges belong to
+   * @param vertices  Vertices of the subgraph
+   * @param edges     Edges between the vertices of the subgraph
+   */
+  ActSubgraph(Graph baseGraph, Collection<Vertex> vertices, Collection<Edge> edges) {
+    this.baseGraph = ObjectUtils.notNull(baseGraph, "'baseGraph' is null!");
+    this.vertices = ObjectUtils.notNull(vertices, "'vertices' is null!").toArray(new Vertex[0]);
+    for (int i = 0; i < this.vertices.length; i++) {
+      vertexIndex.put(this.vertices[i].id(), i);
+    }
+
+    List<Edge> includedEdges = new ArrayList<>();
+    for (Edge edge : ObjectUtils.notNull(edges, "'edges' is null!")) {
+      if (vertexIndex.containsKey(edge.outVertex().id()) && vertexIndex.containsKey(edge.inVertex().id())) {
+        includedEdges.add(edge);
+      }
+    }
+
+    this.edges = includedEdges.toArray(new Edge[0]);
+    this.edgeLabel = new int[this.edges.length];
+    this.edgeOut = new int[this.edges.length];
+    this.edgeIn = new int[this.edges.length];
+    for (int i = 0; i < this.edges.length; i++) {
+      edgeIndex.put(this.edges[i].id(), i);
+      edgeLabel[i] = labelIndex.computeIfAbsent(this.edges[i].label(), label -> labelIndex.size());
+      edgeOut[i] = vertexIndex.get(this.edges[i].outVertex().id());
+      edgeIn[i] = vertexIndex.get(this.edges[i].inVertex().id());
+    }
+
+    this.outOffsets = new int[this.vertices.length + 1];
+    this.outEdges = new int[this.edges.length];
+    this.inOffsets = new int[this.vertices.length + 1];
+    this.inEdges = new int[this.edges.length];
+    fillAdjacency(edgeOut, outOffsets, outEdges);
+    fillAdjacency(edgeIn, inOffsets, inEdges);
+  }
+
+  @Override
+  public Vertex addVertex(Object... keyValues) {
+    throw vertexAdditionsNotSupported();
+  }
+
+  @Override
+  public <C extends GraphComputer> C compute(Class<C> graphComputerClass) {
+    throw graphComputerNotSupported();
+  }
+
+  @Override
+  public GraphComputer compute() {
+    throw graphComputerNotSupported();
+  }
+
+  @Override
+  public Iterator<Vertex> vertices(Object... vertexIds) {
+    // In contrast to the underlying graph the subgraph is bounded, thus, iterating all vertices is supported.
+    // Vertices outside of the subgraph are skipped.
+    List<Vertex> result = new ArrayList<>();
+    if (SetUtils.set(vertexIds).isEmpty()) {
+      for (int i = 0; i < vertices.length; i++) {
+        result.add(new SubgraphVertex(this, i));
+      }
+    } else {
+      for (Object id : vertexIds) {
+        int index = indexOfVertex(id);
+        if (index >= 0) result.add(new SubgraphVertex(this, index));
+      }
+    }
+    return result.iterator();
+  }
+
+  @Override
+  public Iterator<Edge> edges(Object... edgeIds) {
+    List<Edge> result = new ArrayList<>();
+    if (SetUtils.set(edgeIds).isEmpty()) {
+      for (int i = 0; i < edges.length; i++) {
+        result.add(new SubgraphEdge(this, i));
+      }
+    } else {
+      for (Object id : edgeIds) {
+        Integer index = edgeIndex.get(id instanceof Element ? ((Element) id).id() : id);
+        if (index != null) result.add(new SubgraphEdge(this, index));
+      }
+    }
+    return result.iterator();
+  }
+
+  @Override
+  public Transaction tx() {
+    throw transactionsNotSupported();
+  }
+
+  @Override
+  public void close() {
+    // NOOP, the underlying graph is handled by the owner of the graph.
+  }
+
+  @Override
+  public Variables variables() {
+    throw variablesNotSupported();
+  }
+
+  @Override
+  public Configuration configuration() {
+    return baseGraph.configuration();
+  }
+
+  @Override
+  public String toString() {
+    return StringFactory.graphString(this, String.format("vertices:%d edges:%d", vertices.length, edges.length));
+  }
+
+  /**
+   * Number of vertices in the subgraph.
+   *
+   * @return Number of vertices
+   */
+  int vertexCount() {
+    return vertices.length;
+  }
+
+  /**
+   * Number of edges in the subgraph.
+   *
+   * @return Number of edges
+   */
+  int edgeCount() {
+    return edges.length;
+  }
+
+  /**
+   * Resolve the index of a vertex given its ID or the vertex itself.
+   *
+   * @param id Vertex or ID of vertex
+   * @return Index of the vertex or -1 if the vertex is not part of the subgraph
+   */
+  int indexOfVertex(Object id) {
+    Integer index = vertexIndex.get(id instanceof Element ? ((Element) id).id() : id);
+    return index != null ? index : -1;
+  }
+
+  /**
+   * Resolve the index of an edge label.
+   *
+   * @param label Edge label
+   * @return Index of the label or -1 if no edge in the subgraph has this label
+   */
+  int indexOfLabel(String label) {
+    Integer index = labelIndex.get(label);
+    return index != null ? index : -1;
+  }
+
+  Vertex getBaseVertex(int vertex) {
+    return vertices[vertex];
+  }
+
+  Edge getBaseEdge(int edge) {
+    return edges[edge];
+  }
+
+  int getEdgeLabel(int edge) {
+    return edgeLabel[edge];
+  }
+
+  int getOutVertex(int edge) {
+    return edgeOut[edge];
+  }
+
+  int getInVertex(int edge) {
+    return edgeIn[edge];
+  }
+
+  /**
+   * Iterate the edges adjacent to a vertex without allocating any objects.
+   *
+   * @param vertex    Index of vertex
+   * @param direction Direction of the edges
+   * @param labels    Indices of edge labels to include (optional, all edges if empty)
+   * @param consumer  Invoked with the index of each edge and the index of the vertex on the other side of the edge
+   */
+  void forEachAdjacent(int vertex, Direction direction, int[] labels, AdjacencyConsumer consumer) {
+    if (direction == Direction.OUT || direction == Direction.BOTH) {
+      for (int slot = outOffsets[vertex]; slot < outOffsets[vertex + 1]; slot++) {
+        int edge = outEdges[slot];
+        if (hasLabel(edge, labels)) consumer.accept(edge, edgeIn[edge]);
+      }
+    }
+
+    if (direction == Direction.IN || direction == Direction.BOTH) {
+      for (int slot = inOffsets[vertex]; slot < inOffsets[vertex + 1]; slot++) {
+        int edge = inEdges[slot];
+        if (hasLabel(edge, labels)) consumer.accept(edge, edgeOut[edge]);
+      }
+    }
+  }
+
+  /**
+   * Start a computation, i.e. allocate the storage for the given compute keys and allow updating their values.
+   *
+   * @param computeKeys Vertex compute keys of the executed program
+   */
+  void startComputation(Set<VertexComputeKey> computeKeys) {
+    for (VertexComputeKey key : SetUtils.set(computeKeys)) {
+      computedValues.put(key.getKey(), new Object[vertices.length]);
+    }
+    computing = true;
+  }
+
+  /**
+   * Complete a computation. Afterwards, computed values can't be updated any more.
+   *
+   * @param computeKeys Vertex compute keys of the executed program
+   * @param persist     If false all computed values are discarded, otherwise only the values of transient keys
+   */
+  void completeComputation(Set<VertexComputeKey> computeKeys, boolean persist) {
+    computing = false;
+    for (VertexComputeKey key : SetUtils.set(computeKeys)) {
+      if (!persist || key.isTransient()) computedValues.remove(key.getKey());
+    }
+  }
+
+  boolean isComputeKey(String key) {
+    return computedValues.containsKey(key);
+  }
+
+  Set<String> getComputeKeys() {
+    return computedValues.keySet();
+  }
+
+  Object getComputedValue(String key, int vertex) {
+    Object[] values = computedValues.get(key);
+    return values != null ? values[vertex] : null;
+  }
+
+  void setComputedValue(String key, int vertex, Object value) {
+    Object[] values = computedValues.get(key);
+    if (!computing || values == null) {
+      throw new UnsupportedOperationException("Adding properties not supported");
+    }
+
+    values[vertex] = value;
+  }
+
+  private boolean hasLabel(int edge, int[] labels) {
+    if (labels == null || labels.length == 0) return true;
+    for (int label : labels) {
+      if (edgeLabel[edge] == label) return true;
+    }
+    return false;
+  }
+
+  private static void fillAdjacency(int[] endpoints, int[] offsets, int[] adjacency) {
+    // Count the edges per vertex, then compute the offsets as prefix sums, and finally place the edges into the slots.
+    for (int vertex : endpoints) {
+      offsets[vertex + 1]++;
+    }
+    for (int i = 1; i < offsets.length; i++) {
+      offsets[i] += offsets[i - 1];
+    }
+    int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+    for (int edge = 0; edge < endpoints.length; edge++) {
+      adjacency[next[endpoints[edge]]++] = edge;
+    }
+  }
+
+  @FunctionalInterface
+  interface AdjacencyConsumer {
+    void accept(int edge, int neighbour);
+  }
+}
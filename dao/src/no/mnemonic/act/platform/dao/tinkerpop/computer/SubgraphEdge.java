@@ -0,0 +1,96 @@
+package no.mnemonic.act.platform.dao.tinkerpop.computer;
+
+import no.mnemonic.commons.utilities.ObjectUtils;
+import org.apache.tinkerpop.gremlin.structure.*;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.structure.util.wrapped.WrappedEdge;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.Iterator;
+import java.util.Objects;
+
+import static org.apache.tinkerpop.gremlin.structure.Edge.Exceptions.edgeRemovalNotSupported;
+
+/**
+ * An edge of an {@link ActSubgraph}. It wraps the edge of the underlying graph, but its vertices are vertices of the
+ * subgraph, i.e. a traversal following this edge doesn't leave the subgraph.
+ */
+class SubgraphEdge implements Edge, WrappedEdge<Edge> {
+
+  private final ActSubgraph graph;
+  private final int index;
+
+  SubgraphEdge(ActSubgraph graph, int index) {
+    this.graph = ObjectUtils.notNull(graph, "'graph' is null!");
+    this.index = index;
+  }
+
+  @Override
+  public Iterator<Vertex> vertices(Direction direction) {
+    Vertex outVertex = new SubgraphVertex(graph, graph.getOutVertex(index));
+    Vertex inVertex = new SubgraphVertex(graph, graph.getInVertex(index));
+    switch (direction) {
+      case OUT:
+        return IteratorUtils.of(outVertex);
+      case IN:
+        return IteratorUtils.of(inVertex);
+      case BOTH:
+        return IteratorUtils.of(outVertex, inVertex);
+      default:
+        throw new IllegalArgumentException(String.format("Unknown direction %s.", direction));
+    }
+  }
+
+  @Override
+  public <V> Iterator<Property<V>> properties(String... propertyKeys) {
+    return getBaseEdge().properties(propertyKeys);
+  }
+
+  @Override
+  public <V> Property<V> property(String key, V value) {
+    throw new UnsupportedOperationException("Adding properties not supported");
+  }
+
+  @Override
+  public Object id() {
+    return getBaseEdge().id();
+  }
+
+  @Override
+  public String label() {
+    return getBaseEdge().label();
+  }
+
+  @Override
+  public Graph graph() {
+    return graph;
+  }
+
+  @Override
+  public void remove() {
+    throw edgeRemovalNotSupported();
+  }
+
+  @Override
+  public Edge getBaseEdge() {
+    return graph.getBaseEdge(index);
+  }
+
+  @Override
+  public String toString() {
+    return StringFactory.edgeString(this);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    SubgraphEdge that = (SubgraphEdge) o;
+    return Objects.equals(id(), that.id());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id());
+  }
+}
@@ -0,0 +1,151 @@
+package no.mnemonic.act.platform.dao.tinkerpop.computer;
+
+import no.mnemonic.commons.utilities.ObjectUtils;
+import org.apache.tinkerpop.gremlin.process.computer.MessageCombiner;
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+import org.apache.tinkerpop.gremlin.process.computer.Messenger;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Delivers messages between the vertices of an {@link ActSubgraph}. Messages sent in one iteration are received in the
+ * next iteration. If the program provides a {@link MessageCombiner} the messages to one vertex are combined when they
+ * are sent, thus, at most one message per vertex is kept. Otherwise, the messages are queued per vertex.
+ * <p>
+ * Messages to vertices outside of the subgraph are dropped. Local message scopes are only supported if the incident
+ * traversal consists of exactly one step returning edges (e.g. outE() or bothE('label')). This covers the message
+ * scopes of the vertex programs shipped with TinkerPop and allows to deliver messages directly along the adjacency
+ * arrays of the subgraph instead of executing the incident traversal for every vertex.
+ *
+ * @param <M> Type of messages
+ */
+class SubgraphMessageBoard<M> {
+
+  private final ActSubgraph graph;
+  private final MessageCombiner<M> combiner;
+  // Resolved local message scopes of the current iteration. Identity based because the hash code of a scope is
+  // computed from its incident traversal which would be created again for every message.
+  private volatile Map<MessageScope, LocalScope> localScopes = new IdentityHashMap<>();
+  private volatile AtomicReferenceArray<Object> receivedMessages;
+  private volatile AtomicReferenceArray<Object> sentMessages;
+
+  SubgraphMessageBoard(ActSubgraph graph, MessageCombiner<M> combiner) {
+    this.graph = ObjectUtils.notNull(graph, "'graph' is null!");
+    this.combiner = combiner;
+    this.receivedMessages = new AtomicReferenceArray<>(graph.vertexCount());
+    this.sentMessages = new AtomicReferenceArray<>(graph.vertexCount());
+  }
+
+  /**
+   * Create a {@link Messenger} for a vertex which is executed in the current iteration.
+   *
+   * @param vertex Index of vertex
+   * @return Messenger of the vertex
+   */
+  Messenger<M> messenger(int vertex) {
+    return new VertexMessenger(vertex);
+  }
+
+  /**
+   * Start an iteration, i.e. resolve the local message scopes used by the program in this iteration.
+   *
+   * @param messageScopes Message scopes of the program
+   */
+  void startIteration(Set<MessageScope> messageScopes) {
+    Map<MessageScope, LocalScope> resolved = new IdentityHashMap<>();
+    for (MessageScope scope : messageScopes) {
+      if (scope instanceof MessageScope.Local) resolved.put(scope, resolveLocalScope((MessageScope.Local<?>) scope));
+    }
+    localScopes = resolved;
+  }
+
+  /**
+   * Complete an iteration, i.e. make the messages sent in this iteration available to the receiving vertices.
+   */
+  void completeIteration() {
+    receivedMessages = sentMessages;
+    sentMessages = new AtomicReferenceArray<>(graph.vertexCount());
+  }
+
+  private void deliver(int vertex, M message) {
+    if (combiner != null) {
+      //noinspection unchecked
+      sentMessages.accumulateAndGet(vertex, message, (current, next) -> current == null ? next : combiner.combine((M) current, (M) next));
+      return;
+    }
+
+    // Create the queue of a vertex on first delivery. Concurrent senders must use the same queue.
+    Object queue = sentMessages.get(vertex);
+    if (queue == null) {
+      sentMessages.compareAndSet(vertex, null, new ConcurrentLinkedQueue<M>());
+      queue = sentMessages.get(vertex);
+    }
+    //noinspection unchecked
+    ((Queue<M>) queue).add(message);
+  }
+
+  private LocalScope resolveLocalScope(MessageScope.Local<?> scope) {
+    List<Step> steps = scope.getIncidentTraversal().get().asAdmin().getSteps();
+    if (steps.size() != 1 || !(steps.get(0) instanceof VertexStep) || !((VertexStep<?>) steps.get(0)).returnsEdge()) {
+      throw new IllegalArgumentException(String.format("Incident traversal %s of local message scope is not supported.", steps));
+    }
+
+    VertexStep<?> step = (VertexStep<?>) steps.get(0);
+    // Unknown labels are resolved to -1 which doesn't match any edge.
+    int[] labels = step.getEdgeLabels().length == 0 ? null : Arrays.stream(step.getEdgeLabels()).mapToInt(graph::indexOfLabel).toArray();
+    return new LocalScope(step.getDirection(), labels);
+  }
+
+  private class VertexMessenger implements Messenger<M> {
+
+    private final int vertex;
+
+    private VertexMessenger(int vertex) {
+      this.vertex = vertex;
+    }
+
+    @Override
+    public Iterator<M> receiveMessages() {
+      Object messages = receivedMessages.get(vertex);
+      if (messages == null) return Collections.emptyIterator();
+      //noinspection unchecked
+      return combiner != null ? IteratorUtils.of((M) messages) : ((Queue<M>) messages).iterator();
+    }
+
+    @Override
+    public void sendMessage(MessageScope messageScope, M message) {
+      if (messageScope instanceof MessageScope.Local) {
+        //noinspection unchecked
+        MessageScope.Local<M> scope = (MessageScope.Local<M>) messageScope;
+        // Scopes which haven't been announced by the program for this iteration are resolved every time.
+        LocalScope resolved = ObjectUtils.ifNull(localScopes.get(scope), () -> resolveLocalScope(scope));
+        graph.forEachAdjacent(vertex, resolved.direction, resolved.labels,
+                (edge, neighbour) -> deliver(neighbour, scope.getEdgeFunction().apply(message, graph.getBaseEdge(edge))));
+      } else if (messageScope instanceof MessageScope.Global) {
+        for (Vertex receiver : ((MessageScope.Global) messageScope).vertices()) {
+          int index = graph.indexOfVertex(receiver);
+          if (index >= 0) deliver(index, message);
+        }
+      } else {
+        throw new IllegalArgumentException(String.format("Message scope %s is not supported.", messageScope));
+      }
+    }
+  }
+
+  private static class LocalScope {
+    private final Direction direction;
+    private final int[] labels;
+
+    private LocalScope(Direction direction, int[] labels) {
+      this.direction = direction;
+      this.labels = labels;
+    }
+  }
+}
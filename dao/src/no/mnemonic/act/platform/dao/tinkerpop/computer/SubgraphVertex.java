@@ -0,0 +1,194 @@
+package no.mnemonic.act.platform.dao.tinkerpop.computer;
+
+import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+import org.apache.tinkerpop.gremlin.structure.*;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.structure.util.wrapped.WrappedVertex;
+
+import java.util.*;
+
+import static org.apache.tinkerpop.gremlin.structure.Vertex.Exceptions.edgeAdditionsNotSupported;
+import static org.apache.tinkerpop.gremlin.structure.Vertex.Exceptions.vertexRemovalNotSupported;
+
+/**
+ * A vertex of an {@link ActSubgraph}. It wraps the vertex of the underlying graph and adds the values computed by a
+ * {@link org.apache.tinkerpop.gremlin.process.computer.VertexProgram} as properties. Adjacent edges are restricted
+ * to the edges of the subgraph.
+ * <p>
+ * Properties of compute keys are served from the subgraph, thus, a program only accessing its own compute keys never
+ * resolves the underlying vertex (e.g. never fetches the Object of an {@link no.mnemonic.act.platform.dao.tinkerpop.ObjectVertex}).
+ */
+class SubgraphVertex implements Vertex, WrappedVertex<Vertex> {
+
+  private final ActSubgraph graph;
+  private final int index;
+
+  SubgraphVertex(ActSubgraph graph, int index) {
+    this.graph = ObjectUtils.notNull(graph, "'graph' is null!");
+    this.index = index;
+  }
+
+  @Override
+  public Edge addEdge(String label, Vertex inVertex, Object... keyValues) {
+    throw edgeAdditionsNotSupported();
+  }
+
+  @Override
+  public Iterator<Edge> edges(Direction direction, String... edgeLabels) {
+    List<Edge> result = new ArrayList<>();
+    graph.forEachAdjacent(index, direction, resolveLabels(edgeLabels), (edge, neighbour) -> result.add(new SubgraphEdge(graph, edge)));
+    return result.iterator();
+  }
+
+  @Override
+  public Iterator<Vertex> vertices(Direction direction, String... edgeLabels) {
+    List<Vertex> result = new ArrayList<>();
+    graph.forEachAdjacent(index, direction, resolveLabels(edgeLabels), (edge, neighbour) -> result.add(new SubgraphVertex(graph, neighbour)));
+    return result.iterator();
+  }
+
+  @Override
+  public <V> Iterator<VertexProperty<V>> properties(String... propertyKeys) {
+    List<VertexProperty<V>> result = new ArrayList<>();
+    boolean includeBaseProperties = SetUtils.set(propertyKeys).isEmpty();
+    for (String key : SetUtils.set(propertyKeys).isEmpty() ? graph.getComputeKeys() : SetUtils.set(propertyKeys)) {
+      if (!graph.isComputeKey(key)) {
+        includeBaseProperties = true;
+        continue;
+      }
+
+      Object value = graph.getComputedValue(key, index);
+      //noinspection unchecked
+      if (value != null) result.add(new ComputedProperty<>(this, key, (V) value));
+    }
+
+    // Only access the underlying vertex if other properties than computed values are requested.
+    if (includeBaseProperties) {
+      graph.getBaseVertex(index).<V>properties(propertyKeys).forEachRemaining(property -> {
+        if (!graph.isComputeKey(property.key())) result.add(property);
+      });
+    }
+
+    return result.iterator();
+  }
+
+  @Override
+  public <V> VertexProperty<V> property(VertexProperty.Cardinality cardinality, String key, V value, Object... keyValues) {
+    graph.setComputedValue(key, index, value);
+    return new ComputedProperty<>(this, key, value);
+  }
+
+  @Override
+  public Object id() {
+    return graph.getBaseVertex(index).id();
+  }
+
+  @Override
+  public String label() {
+    return graph.getBaseVertex(index).label();
+  }
+
+  @Override
+  public Graph graph() {
+    return graph;
+  }
+
+  @Override
+  public void remove() {
+    throw vertexRemovalNotSupported();
+  }
+
+  @Override
+  public Vertex getBaseVertex() {
+    return graph.getBaseVertex(index);
+  }
+
+  @Override
+  public String toString() {
+    return StringFactory.vertexString(this);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    SubgraphVertex that = (SubgraphVertex) o;
+    return Objects.equals(id(), that.id());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id());
+  }
+
+  int getIndex() {
+    return index;
+  }
+
+  private int[] resolveLabels(String... edgeLabels) {
+    if (SetUtils.set(edgeLabels).isEmpty()) return null;
+    // Unknown labels are resolved to -1 which doesn't match any edge.
+    return Arrays.stream(edgeLabels).mapToInt(graph::indexOfLabel).toArray();
+  }
+
+  private static class ComputedProperty<V> implements VertexProperty<V> {
+
+    private final SubgraphVertex owner;
+    private final String key;
+    private final V value;
+    private final UUID id;
+
+    private ComputedProperty(SubgraphVertex owner, String key, V value) {
+      this.owner = owner;
+      this.key = key;
+      this.value = value;
+      this.id = UUID.randomUUID(); // Generate a random ID for each new instance.
+    }
+
+    @Override
+    public String key() {
+      return key;
+    }
+
+    @Override
+    public V value() {
+      return value;
+    }
+
+    @Override
+    public boolean isPresent() {
+      return true;
+    }
+
+    @Override
+    public Vertex element() {
+      return owner;
+    }
+
+    @Override
+    public void remove() {
+      throw Property.Exceptions.propertyRemovalNotSupported();
+    }
+
+    @Override
+    public Object id() {
+      return id;
+    }
+
+    @Override
+    public <U> Property<U> property(String key, U value) {
+      throw VertexProperty.Exceptions.metaPropertiesNotSupported();
+    }
+
+    @Override
+    public <U> Iterator<Property<U>> properties(String... propertyKeys) {
+      throw VertexProperty.Exceptions.metaPropertiesNotSupported();
+    }
+
+    @Override
+    public String toString() {
+      return StringFactory.propertyString(this);
+    }
+  }
+}
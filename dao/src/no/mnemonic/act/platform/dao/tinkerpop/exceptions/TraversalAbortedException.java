@@ -0,0 +1,15 @@
+package no.mnemonic.act.platform.dao.tinkerpop.exceptions;
+
+/**
+ * A TraversalAbortedException is thrown when a graph traversal is aborted from the outside, see
+ * {@link no.mnemonic.act.platform.dao.tinkerpop.TraversalStatistics#abort()}.
+ */
+public class TraversalAbortedException extends GraphOperationException {
+
+  private static final long serialVersionUID = -3050718453021784612L;
+
+  public TraversalAbortedException(String message) {
+    super(message);
+  }
+
+}
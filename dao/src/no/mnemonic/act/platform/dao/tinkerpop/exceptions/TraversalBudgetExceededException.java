@@ -0,0 +1,14 @@
+package no.mnemonic.act.platform.dao.tinkerpop.exceptions;
+
+/**
+ * A TraversalBudgetExceededException is thrown when a graph traversal exceeds its {@link no.mnemonic.act.platform.dao.tinkerpop.TraversalBudget}.
+ */
+public class TraversalBudgetExceededException extends GraphOperationException {
+
+  private static final long serialVersionUID = 4206117366364528316L;
+
+  public TraversalBudgetExceededException(String message) {
+    super(message);
+  }
+
+}
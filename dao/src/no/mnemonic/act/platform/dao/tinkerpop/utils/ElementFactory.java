@@ -1,12 +1,17 @@
 package no.mnemonic.act.platform.dao.tinkerpop.utils;
 
 import com.google.common.cache.*;
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import no.mnemonic.act.platform.dao.cassandra.entity.Direction;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
 import no.mnemonic.act.platform.dao.tinkerpop.ActGraph;
 import no.mnemonic.act.platform.dao.tinkerpop.FactEdge;
 import no.mnemonic.act.platform.dao.tinkerpop.ObjectVertex;
+import no.mnemonic.act.platform.dao.tinkerpop.exceptions.GraphOperationException;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.collections.CollectionUtils;
 import no.mnemonic.commons.utilities.collections.ListUtils;
@@ -15,19 +20,23 @@ import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 /**
  * Helper class for creation and retrieval of edges and vertices which implements simple caching.
+ * <p>
+ * Edges and vertices are bound to the owning {@link ActGraph} and its access control, thus, they are cached per graph.
+ * The underlying Facts, Objects and bindings are cached by {@link no.mnemonic.act.platform.dao.cassandra.FactManager}
+ * and {@link no.mnemonic.act.platform.dao.cassandra.ObjectManager} which are shared between all graphs.
  */
 public class ElementFactory {
 
   private static final int CACHE_MAXIMUM_SIZE = 10000;
 
   private final ActGraph owner;
-  // Maps the triplet (factID, inVertex, outVertex) to UUID returned by Edge.id().
-  // Needed in order to identify entry in 'edgeCache'.
-  private final Map<EdgeID, UUID> edgeIdMap;
+  // Maps the triplet (factID, inVertex, outVertex) to UUID returned by Edge.id() and vice versa.
+  // Needed in order to identify entry in 'edgeCache' and to clean up the mapping in O(1) when an edge gets evicted.
+  private final BiMap<EdgeID, UUID> edgeIdMap;
   // Cache for created edges. This cache is manually populated by createEdges().
   private final Cache<UUID, Edge> edgeCache;
   // Cache for created vertices. This cache is automatically populated.
@@ -35,7 +44,7 @@ public class ElementFactory {
 
   private ElementFactory(ActGraph owner) {
     this.owner = ObjectUtils.notNull(owner, "'owner is null!'");
-    this.edgeIdMap = new ConcurrentHashMap<>();
+    this.edgeIdMap = Maps.synchronizedBiMap(HashBiMap.create());
     this.edgeCache = createEdgeCache();
     this.vertexCache = createVertexCache();
   }
@@ -55,33 +64,58 @@ public class ElementFactory {
   public Set<Edge> createEdges(ObjectFactBindingEntity inBinding) {
     ObjectUtils.notNull(inBinding, "'inBinding' is null!");
 
+    owner.getStatistics().recordReads(1);
     FactEntity fact = owner.getFactManager().getFact(inBinding.getFactID());
     // Only create edges if user has access to Fact.
     if (fact == null || !owner.hasFactAccess(fact)) {
       return new HashSet<>();
     }
 
-    // If the Fact is only bound to the 'inBinding' Object then this needs to be represented as a loop in the graph.
-    if (CollectionUtils.size(fact.getBindings()) == 1 && Objects.equals(fact.getBindings().get(0).getObjectID(), inBinding.getObjectID())) {
-      return SetUtils.set(createAndCache(inBinding.getFactID(), inBinding.getObjectID(), inBinding.getObjectID()));
-    }
+    return createEdges(inBinding, fact);
+  }
 
-    Set<Edge> edges = new HashSet<>();
-    for (FactEntity.FactObjectBinding outBinding : ListUtils.list(fact.getBindings())) {
-      // Skip bindings to 'inBinding' Object.
-      if (Objects.equals(outBinding.getObjectID(), inBinding.getObjectID())) continue;
+  /**
+   * Create edges based on multiple bindings between Objects and Facts.
+   * <p>
+   * Works the same as {@link ElementFactory#createEdges(ObjectFactBindingEntity)} but fetches all Facts referenced by
+   * the bindings at once using {@link no.mnemonic.act.platform.dao.cassandra.FactManager#getFacts(List)} instead of
+   * fetching one Fact after another. Access control is applied to the fetched Facts before any edge is created.
+   *
+   * @param inBindings Bindings between Objects and Facts (incoming vertices).
+   * @return Created edges.
+   */
+  public Set<Edge> createEdgesForBindings(Collection<ObjectFactBindingEntity> inBindings) {
+    return createEdgesForBindings(inBindings, fact -> true);
+  }
 
-      // For all other bindings create an edge where the objectID of the binding is the outgoing vertex.
-      // But only if the directions fit together!
-      if ((inBinding.getDirection() == Direction.BiDirectional && outBinding.getDirection() == Direction.BiDirectional) ||
-              (inBinding.getDirection() == Direction.FactIsDestination && outBinding.getDirection() == Direction.FactIsSource)) {
-        edges.add(createAndCache(inBinding.getFactID(), inBinding.getObjectID(), outBinding.getObjectID()));
-      }
+  /**
+   * Create edges based on multiple bindings between Objects and Facts, but only for Facts matching a filter.
+   * <p>
+   * Works the same as {@link ElementFactory#createEdgesForBindings(Collection)} but evaluates the filter on the fetched
+   * Facts before access control is applied, thus, neither access control nor edge creation is performed for Facts
+   * which don't match the filter.
+   *
+   * @param inBindings Bindings between Objects and Facts (incoming vertices).
+   * @param factFilter Filter which Facts must match.
+   * @return Created edges.
+   */
+  public Set<Edge> createEdgesForBindings(Collection<ObjectFactBindingEntity> inBindings, Predicate<FactEntity> factFilter) {
+    if (CollectionUtils.isEmpty(inBindings)) return new HashSet<>();
+    ObjectUtils.notNull(factFilter, "'factFilter' is null!");
 
-      // In this case need to swap 'inBinding' and 'outBinding' in order to have the correct edge direction.
-      if (inBinding.getDirection() == Direction.FactIsSource && outBinding.getDirection() == Direction.FactIsDestination) {
-        edges.add(createAndCache(inBinding.getFactID(), outBinding.getObjectID(), inBinding.getObjectID()));
-      }
+    // Fetch all Facts in one go and only keep those Facts matching the filter which the user has access to.
+    List<UUID> factID = ListUtils.list(SetUtils.set(inBindings, ObjectFactBindingEntity::getFactID));
+    owner.getStatistics().recordReads(factID.size());
+    Map<UUID, FactEntity> accessibleFacts = new HashMap<>();
+    owner.getFactManager().getFacts(factID).forEachRemaining(fact -> {
+      if (factFilter.test(fact) && owner.hasFactAccess(fact)) accessibleFacts.put(fact.getId(), fact);
+    });
+
+    Set<Edge> edges = new HashSet<>();
+    for (ObjectFactBindingEntity inBinding : inBindings) {
+      FactEntity fact = accessibleFacts.get(inBinding.getFactID());
+      if (fact == null) continue;
+      edges.addAll(createEdges(inBinding, fact));
     }
 
     return edges;
@@ -112,6 +146,10 @@ public class ElementFactory {
     if (id == null) return null;
     try {
       return vertexCache.get(id);
+    } catch (UncheckedExecutionException ex) {
+      // Don't hide that the traversal must stop, e.g. because it exceeded its budget or has been aborted.
+      if (ex.getCause() instanceof GraphOperationException) throw (GraphOperationException) ex.getCause();
+      return null;
     } catch (Exception ignored) {
       // If vertex cannot be fetched, e.g. because 'id' references a non-existing Object, just return null.
       return null;
@@ -122,14 +160,48 @@ public class ElementFactory {
     return new Builder();
   }
 
-  private Edge createAndCache(UUID factID, UUID inVertex, UUID outVertex) {
+  private Set<Edge> createEdges(ObjectFactBindingEntity inBinding, FactEntity fact) {
+    Set<Edge> edges = createEdgesForFact(inBinding, fact);
+    owner.getStatistics().recordEdges(edges.size());
+    return edges;
+  }
+
+  private Set<Edge> createEdgesForFact(ObjectFactBindingEntity inBinding, FactEntity fact) {
+    // If the Fact is only bound to the 'inBinding' Object then this needs to be represented as a loop in the graph.
+    if (CollectionUtils.size(fact.getBindings()) == 1 && Objects.equals(fact.getBindings().get(0).getObjectID(), inBinding.getObjectID())) {
+      return SetUtils.set(createAndCache(fact, inBinding.getObjectID(), inBinding.getObjectID()));
+    }
+
+    Set<Edge> edges = new HashSet<>();
+    for (FactEntity.FactObjectBinding outBinding : ListUtils.list(fact.getBindings())) {
+      // Skip bindings to 'inBinding' Object.
+      if (Objects.equals(outBinding.getObjectID(), inBinding.getObjectID())) continue;
+
+      // For all other bindings create an edge where the objectID of the binding is the outgoing vertex.
+      // But only if the directions fit together!
+      if ((inBinding.getDirection() == Direction.BiDirectional && outBinding.getDirection() == Direction.BiDirectional) ||
+              (inBinding.getDirection() == Direction.FactIsDestination && outBinding.getDirection() == Direction.FactIsSource)) {
+        edges.add(createAndCache(fact, inBinding.getObjectID(), outBinding.getObjectID()));
+      }
+
+      // In this case need to swap 'inBinding' and 'outBinding' in order to have the correct edge direction.
+      if (inBinding.getDirection() == Direction.FactIsSource && outBinding.getDirection() == Direction.FactIsDestination) {
+        edges.add(createAndCache(fact, outBinding.getObjectID(), inBinding.getObjectID()));
+      }
+    }
+
+    return edges;
+  }
+
+  private Edge createAndCache(FactEntity fact, UUID inVertex, UUID outVertex) {
     // Try to fetch edge from cache first (but only if 'edgeID' is mapped, otherwise edge is not cached).
-    EdgeID edgeID = new EdgeID(factID, inVertex, outVertex);
+    EdgeID edgeID = new EdgeID(fact.getId(), inVertex, outVertex);
     Edge edge = ObjectUtils.ifNotNull(edgeIdMap.get(edgeID), edgeCache::getIfPresent);
 
     if (edge == null) {
       // Edge is not present in cache, create new instance and cache it for later access.
-      edge = new FactEdge(owner, factID, inVertex, outVertex);
+      // Pass the already fetched Fact to the edge in order to avoid fetching it again.
+      edge = new FactEdge(owner, fact, inVertex, outVertex);
       edgeIdMap.put(edgeID, (UUID) edge.id());
       edgeCache.put((UUID) edge.id(), edge);
     }
@@ -150,18 +222,23 @@ public class ElementFactory {
             .build(new CacheLoader<UUID, Vertex>() {
               @Override
               public Vertex load(UUID key) {
+                // ObjectVertex resolves the Object lazily, thus, verify here that the Object exists. This lookup is
+                // served from the ObjectManager's cache in most cases.
+                owner.getStatistics().recordVertex();
+                owner.getStatistics().recordReads(1);
+                ObjectUtils.notNull(owner.getObjectManager().getObject(key), String.format("Object with id = %s does not exist.", key));
+                // Vertices are created together with the edges of one batch, thus, their statistics can be calculated together.
+                owner.getObjectStatisticsCache().register(key);
+                owner.notifyVertexCreated(key);
                 return new ObjectVertex(owner, key);
               }
             });
   }
 
-  private void cleanUpEdgeCache(RemovalNotification notification) {
+  private void cleanUpEdgeCache(RemovalNotification<UUID, Edge> notification) {
     // Need to clean up 'edgeIdMap' when an entry gets evicted.
     if (notification.wasEvicted()) {
-      SetUtils.set(edgeIdMap.entrySet())
-              .stream()
-              .filter(entry -> Objects.equals(entry.getValue(), notification.getKey()))
-              .forEach(entry -> edgeIdMap.remove(entry.getKey()));
+      edgeIdMap.inverse().remove(notification.getKey());
     }
   }
 
@@ -0,0 +1,131 @@
+package no.mnemonic.act.platform.dao.tinkerpop.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import no.mnemonic.act.platform.dao.api.result.ObjectStatisticsContainer;
+import no.mnemonic.act.platform.dao.tinkerpop.ActGraph;
+import no.mnemonic.commons.utilities.ObjectUtils;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Helper class for the retrieval of statistics about the Facts bound to Objects which implements simple caching.
+ * <p>
+ * The statistics are calculated by a resolver supplied by the owner of the {@link ActGraph}. The resolver is
+ * responsible for applying access control, i.e. the statistics must only include Facts accessible to the user
+ * traversing the graph. Because of that, the statistics are cached per graph.
+ * <p>
+ * Calculating statistics for one Object at a time would require one request per vertex. Instead, vertices register
+ * themselves when they are created, and the statistics of all registered vertices (up to a maximum batch size) are
+ * calculated together with the first vertex for which statistics are requested. Vertices are usually created together
+ * with the edges of one batch of Facts, thus, one request covers most vertices reached by one traversal step.
+ */
+public class ObjectStatisticsCache {
+
+  private static final int CACHE_MAXIMUM_SIZE = 10000;
+  private static final int MAXIMUM_BATCH_SIZE = 1000;
+
+  private final Function<Set<UUID>, ObjectStatisticsContainer> resolver;
+  // Objects registered for the next batch, ordered by registration. Guarded by itself.
+  private final Set<UUID> pending = new LinkedHashSet<>();
+  private final Cache<UUID, Collection<ObjectStatisticsContainer.FactStatistic>> cache;
+
+  private ObjectStatisticsCache(Function<Set<UUID>, ObjectStatisticsContainer> resolver) {
+    this.resolver = resolver;
+    this.cache = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_MAXIMUM_SIZE)
+            .build();
+  }
+
+  /**
+   * Returns whether statistics are available, i.e. whether a resolver has been configured.
+   *
+   * @return True if statistics are available
+   */
+  public boolean isEnabled() {
+    return resolver != null;
+  }
+
+  /**
+   * Register an Object for which statistics might be requested later. Its statistics will be calculated together with
+   * the next batch. If more Objects are registered than fit into one batch the Objects registered first are dropped.
+   *
+   * @param objectID UUID of Object
+   */
+  public void register(UUID objectID) {
+    if (!isEnabled() || objectID == null) return;
+
+    synchronized (pending) {
+      pending.add(objectID);
+      if (pending.size() > MAXIMUM_BATCH_SIZE) {
+        Iterator<UUID> iterator = pending.iterator();
+        iterator.next();
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Retrieve the statistics about the Facts bound to an Object. If the statistics are not cached they are calculated
+   * together with the statistics of all Objects registered by {@link #register(UUID)}.
+   * <p>
+   * Returns an empty collection if no statistics are available.
+   *
+   * @param objectID UUID of Object
+   * @return Statistics about the Facts bound to the Object, one element per FactType
+   */
+  public Collection<ObjectStatisticsContainer.FactStatistic> getStatistics(UUID objectID) {
+    if (!isEnabled() || objectID == null) return Collections.emptySet();
+
+    Collection<ObjectStatisticsContainer.FactStatistic> statistics = cache.getIfPresent(objectID);
+    if (statistics != null) return statistics;
+
+    // Racing threads might calculate the statistics of the same Object twice which is harmless.
+    Set<UUID> batch = nextBatch(objectID);
+    ObjectStatisticsContainer container = ObjectUtils.ifNull(resolver.apply(batch), () -> ObjectStatisticsContainer.builder().build());
+    for (UUID id : batch) {
+      cache.put(id, container.getStatistics(id));
+    }
+
+    return container.getStatistics(objectID);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private Set<UUID> nextBatch(UUID objectID) {
+    Set<UUID> batch = new HashSet<>();
+    batch.add(objectID);
+
+    synchronized (pending) {
+      pending.remove(objectID);
+      Iterator<UUID> iterator = pending.iterator();
+      while (iterator.hasNext() && batch.size() < MAXIMUM_BATCH_SIZE) {
+        UUID next = iterator.next();
+        iterator.remove();
+        // Skip Objects which have already been calculated, e.g. when a vertex was evicted and created again.
+        if (cache.getIfPresent(next) == null) batch.add(next);
+      }
+    }
+
+    return batch;
+  }
+
+  public static class Builder {
+    private Function<Set<UUID>, ObjectStatisticsContainer> resolver;
+
+    private Builder() {
+    }
+
+    public ObjectStatisticsCache build() {
+      return new ObjectStatisticsCache(resolver);
+    }
+
+    public Builder setResolver(Function<Set<UUID>, ObjectStatisticsContainer> resolver) {
+      this.resolver = resolver;
+      return this;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package no.mnemonic.act.platform.dao.tools;
+
+import com.google.common.collect.Iterators;
+import no.mnemonic.act.platform.dao.cassandra.ClusterManager;
+import no.mnemonic.act.platform.dao.cassandra.FactManager;
+import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactTypeBindingEntity;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Migration which populates the lookup table of ObjectFactBindings clustered by FactType (see
+ * {@link ObjectFactTypeBindingEntity}) from the bindings of all existing Facts. New Facts write both tables, thus,
+ * the backfill only needs to be executed once after upgrading. Writing the same binding multiple times is harmless,
+ * i.e. the backfill can simply be executed again if it was interrupted. After the backfill has finished the lookup
+ * can be enabled with the 'cassandra.fact.type.binding.lookup.enabled' property.
+ * <p>
+ * Execute the backfill from the deployment directory with the application stopped, using the same configuration
+ * file as the application (or use the 'backfill' command of the init script):
+ * <pre>
+ * java -cp "libraries/*" no.mnemonic.act.platform.dao.tools.ObjectFactTypeBindingBackfill conf/application.properties
+ * </pre>
+ */
+public class ObjectFactTypeBindingBackfill {
+
+  private static final Logger LOGGER = Logging.getLogger(ObjectFactTypeBindingBackfill.class);
+  private static final int BATCH_SIZE = 1000;
+
+  private final ObjectManager objectManager;
+  private final FactManager factManager;
+
+  public ObjectFactTypeBindingBackfill(ObjectManager objectManager, FactManager factManager) {
+    this.objectManager = ObjectUtils.notNull(objectManager, "'objectManager' is null!");
+    this.factManager = ObjectUtils.notNull(factManager, "'factManager' is null!");
+  }
+
+  /**
+   * Execute the backfill. Bindings are processed in batches where the Facts of a batch are fetched together and the
+   * new bindings of a batch are written concurrently.
+   *
+   * @return Number of written bindings
+   */
+  public long run() {
+    long count = 0;
+    Iterator<List<ObjectFactBindingEntity>> batches = Iterators.partition(objectManager.fetchAllObjectFactBindings(), BATCH_SIZE);
+    while (batches.hasNext()) {
+      count += backfill(batches.next());
+      LOGGER.info("Backfilled %d ObjectFactBindings.", count);
+    }
+
+    return count;
+  }
+
+  private int backfill(List<ObjectFactBindingEntity> bindings) {
+    Map<UUID, UUID> factTypeByFact = new HashMap<>();
+    factManager.getFacts(new ArrayList<>(SetUtils.set(bindings, ObjectFactBindingEntity::getFactID)))
+            .forEachRemaining(fact -> factTypeByFact.put(fact.getId(), fact.getTypeID()));
+
+    List<CompletableFuture<Void>> inserts = new ArrayList<>();
+    for (ObjectFactBindingEntity binding : bindings) {
+      UUID factTypeID = factTypeByFact.get(binding.getFactID());
+      if (factTypeID == null) {
+        // Should not happen as bindings are only written together with the Fact itself.
+        LOGGER.warning("Fact with id = %s does not exist. Skip binding to Object with id = %s.", binding.getFactID(), binding.getObjectID());
+        continue;
+      }
+
+      inserts.add(objectManager.saveObjectFactTypeBindingAsync(new ObjectFactTypeBindingEntity()
+              .setObjectID(binding.getObjectID())
+              .setFactTypeID(factTypeID)
+              .setDirection(binding.getDirection())
+              .setFactID(binding.getFactID())));
+    }
+
+    CompletableFuture.allOf(inserts.toArray(new CompletableFuture[0])).join();
+    return inserts.size();
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.err.println("Usage: ObjectFactTypeBindingBackfill <application.properties>");
+      System.exit(1);
+    }
+
+    Properties properties = new Properties();
+    try (InputStream stream = new FileInputStream(args[0])) {
+      properties.load(stream);
+    }
+
+    ClusterManager clusterManager = ClusterManager.builder()
+            .setDataCenter(properties.getProperty("cassandra.data.center"))
+            .setPort(Integer.parseInt(properties.getProperty("cassandra.port")))
+            .setContactPoints(SetUtils.set(properties.getProperty("cassandra.contact.points").split(",")))
+            .build();
+    ObjectManager objectManager = new ObjectManager(clusterManager);
+    FactManager factManager = new FactManager(clusterManager);
+
+    clusterManager.startComponent();
+    objectManager.startComponent();
+    factManager.startComponent();
+    try {
+      long count = new ObjectFactTypeBindingBackfill(objectManager, factManager).run();
+      LOGGER.info("Finished backfill of %d ObjectFactBindings.", count);
+    } finally {
+      factManager.stopComponent();
+      objectManager.stopComponent();
+      clusterManager.stopComponent();
+    }
+  }
+}
@@ -52,6 +52,10 @@ public abstract class AbstractManagerTest {
     clusterManager.stopComponent();
   }
 
+  protected ClusterManager getClusterManager() {
+    return clusterManager;
+  }
+
   protected FactManager getFactManager() {
     return factManager;
   }
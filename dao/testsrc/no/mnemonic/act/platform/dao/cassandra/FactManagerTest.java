@@ -9,6 +9,8 @@ import org.junit.Test;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
@@ -156,6 +158,29 @@ public class FactManagerTest extends AbstractManagerTest {
     assertNull(getFactManager().getFact(UUID.randomUUID()));
   }
 
+  @Test
+  public void testGetFactTwiceUsesCache() {
+    FactEntity entity = createAndSaveFact();
+    FactManager manager = getFactManager().setFactCacheSize(1024 * 1024);
+
+    FactEntity fact1 = manager.getFact(entity.getId());
+    FactEntity fact2 = manager.getFact(entity.getId());
+    assertNotSame(fact1, fact2);
+    assertFact(fact1, fact2);
+    assertEquals(1, manager.getFactCacheStats().missCount());
+    assertEquals(1, manager.getFactCacheStats().hitCount());
+  }
+
+  @Test
+  public void testGetFactWithDisabledCache() {
+    FactEntity entity = createAndSaveFact();
+    FactManager manager = getFactManager().setFactCacheSize(0);
+
+    assertFact(entity, manager.getFact(entity.getId()));
+    assertFact(entity, manager.getFact(entity.getId()));
+    assertEquals(0, manager.getFactCacheStats().hitCount());
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testSaveFactWithNonExistingFactType() {
     getFactManager().saveFact(createFact());
@@ -168,6 +193,70 @@ public class FactManagerTest extends AbstractManagerTest {
     getFactManager().saveFact(entity);
   }
 
+  @Test
+  public void testVerifyNewFactAsync() {
+    FactEntity entity = createFact(createAndSaveFactType().getId()).setInReferenceToID(createAndSaveFact().getId());
+    getFactManager().verifyNewFactAsync(entity).join();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testVerifyNewFactAsyncWithNonExistingFactType() {
+    getFactManager().verifyNewFactAsync(createFact());
+  }
+
+  @Test
+  public void testVerifyNewFactAsyncWithExistingFact() {
+    // Existence is enforced by the insert itself, thus, verification doesn't read the Fact.
+    FactEntity entity = createAndSaveFact();
+    getFactManager().verifyNewFactAsync(entity).join();
+  }
+
+  @Test
+  public void testVerifyNewFactAsyncWithNonExistingReferencedFact() {
+    FactEntity entity = createFact(createAndSaveFactType().getId());
+    assertVerificationFails(IllegalArgumentException.class, () -> getFactManager().verifyNewFactAsync(entity).join());
+  }
+
+  @Test
+  public void testSaveFactAsync() {
+    FactEntity entity = createFact(createAndSaveFactType().getId());
+    getFactManager().saveFactAsync(entity).join();
+    assertFact(entity, getFactManager().getFact(entity.getId()));
+  }
+
+  @Test
+  public void testSaveFactAsyncTwiceThrowsException() {
+    FactEntity entity = createFact(createAndSaveFactType().getId());
+    getFactManager().saveFactAsync(entity).join();
+    // The second insert loses against the first one and isn't applied.
+    assertVerificationFails(ImmutableViolationException.class, () -> getFactManager().saveFactAsync(entity).join());
+  }
+
+  @Test
+  public void testSaveFactAclEntryAsyncTwiceThrowsException() {
+    FactAclEntity entry = createFactAclEntry(createAndSaveFact().getId());
+    getFactManager().saveFactAclEntryAsync(entry).join();
+    assertVerificationFails(ImmutableViolationException.class, () -> getFactManager().saveFactAclEntryAsync(entry).join());
+  }
+
+  @Test
+  public void testSaveFactAclEntryCommentAndMetaFactBindingAsync() {
+    UUID factID = createAndSaveFact().getId();
+    FactAclEntity entry = createFactAclEntry(factID);
+    FactCommentEntity comment = createFactComment(factID);
+    MetaFactBindingEntity binding = createMetaFactBinding(factID);
+
+    CompletableFuture.allOf(
+            getFactManager().saveFactAclEntryAsync(entry),
+            getFactManager().saveFactCommentAsync(comment),
+            getFactManager().saveMetaFactBindingAsync(binding)
+    ).join();
+
+    assertFactAclEntry(entry, getFactManager().fetchFactAcl(factID).get(0));
+    assertFactComment(comment, getFactManager().fetchFactComments(factID).get(0));
+    assertMetaFactBinding(binding, getFactManager().fetchMetaFactBindings(factID).get(0));
+  }
+
   @Test
   public void testSaveFactReturnsSameEntity() {
     FactEntity entity = createFact(createAndSaveFactType().getId());
@@ -204,6 +293,39 @@ public class FactManagerTest extends AbstractManagerTest {
     assertFact(expected, actual.get(0));
   }
 
+  @Test
+  public void testFetchFactsByIdPreservesOrder() {
+    FactTypeEntity type = createAndSaveFactType();
+    List<UUID> expected = ListUtils.list();
+    for (int i = 0; i < 10; i++) {
+      expected.add(createAndSaveFact(type.getId(), "value" + i).getId());
+    }
+
+    assertEquals(expected, ListUtils.list(getFactManager().getFacts(expected), FactEntity::getId));
+  }
+
+  @Test
+  public void testFetchFactsByIdUsesCache() {
+    FactEntity cached = createAndSaveFact();
+    FactEntity fetched = createAndSaveFact();
+    FactManager manager = getFactManager().setFactCacheSize(1024 * 1024);
+    manager.getFact(cached.getId());
+
+    List<UUID> expected = ListUtils.list(fetched.getId(), cached.getId());
+    assertEquals(expected, ListUtils.list(manager.getFacts(expected), FactEntity::getId));
+    assertEquals(expected, ListUtils.list(manager.getFacts(expected), FactEntity::getId));
+    assertEquals(2, manager.getFactCacheStats().missCount());
+    assertEquals(3, manager.getFactCacheStats().hitCount());
+  }
+
+  @Test
+  public void testFetchFactsByIdUsingInClause() {
+    FactEntity expected = createAndSaveFact();
+    List<FactEntity> actual = ListUtils.list(getFactManager().setMultiFetchConcurrency(0).getFacts(ListUtils.list(expected.getId(), UUID.randomUUID())));
+    assertEquals(1, actual.size());
+    assertFact(expected, actual.get(0));
+  }
+
   @Test
   public void testFetchFactsByIdWithUnknownId() {
     assertEquals(0, ListUtils.list(getFactManager().getFacts(null)).size());
@@ -224,6 +346,33 @@ public class FactManagerTest extends AbstractManagerTest {
     assertEquals(timestamp, manager.getFact(fact.getId()).getLastSeenTimestamp());
   }
 
+  @Test
+  public void testRefreshFactReplacesCachedFact() {
+    FactManager manager = getFactManagerWithMockedClock(123456789);
+    FactEntity fact = manager.saveFact(createFact(createAndSaveFactType().getId(), "value"));
+
+    manager.getFact(fact.getId());
+    manager.refreshFact(fact.getId());
+    assertEquals(123456789, manager.getFact(fact.getId()).getLastSeenTimestamp());
+    // The cached Fact is dropped and the current row is read once.
+    assertEquals(1, manager.getFactCacheStats().missCount());
+  }
+
+  @Test
+  public void testRefreshFactKeepsRetractionFromOtherInstance() {
+    FactEntity fact = createAndSaveFact();
+    FactManager otherInstance = new FactManager(getClusterManager());
+    otherInstance.startComponent();
+
+    // This instance caches the Fact before it is retracted by the other instance.
+    getFactManager().getFact(fact.getId());
+    otherInstance.retractFact(fact.getId());
+
+    FactEntity refreshedFact = getFactManager().refreshFact(fact.getId());
+    assertEquals(Collections.singleton(FactEntity.Flag.RetractedHint), refreshedFact.getFlags());
+    assertEquals(Collections.singleton(FactEntity.Flag.RetractedHint), otherInstance.getFact(fact.getId()).getFlags());
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testRefreshFactWithNonExistingFact() {
     getFactManager().refreshFact(UUID.randomUUID());
@@ -261,6 +410,22 @@ public class FactManagerTest extends AbstractManagerTest {
     assertEquals(0, getFactManager().fetchFactAcl(UUID.randomUUID()).size());
   }
 
+  @Test
+  public void testFetchFactAclForFactsAsync() {
+    FactAclEntity first = createAndSaveFactAclEntry(createAndSaveFact().getId());
+    FactAclEntity second = createAndSaveFactAclEntry(createAndSaveFact().getId());
+    List<FactAclEntity> acl = getFactManager().fetchFactAclForFactsAsync(ListUtils.list(first.getFactID(), second.getFactID())).join();
+
+    assertEquals(2, acl.size());
+    assertEquals(SetUtils.set(first.getId(), second.getId()), SetUtils.set(acl, FactAclEntity::getId));
+  }
+
+  @Test
+  public void testFetchFactAclForFactsAsyncWithEmptyInput() {
+    assertTrue(getFactManager().fetchFactAclForFactsAsync(null).join().isEmpty());
+    assertTrue(getFactManager().fetchFactAclForFactsAsync(ListUtils.list()).join().isEmpty());
+  }
+
   @Test
   public void testSaveFactAclEntryReturnsSameEntity() {
     FactAclEntity entity = createFactAclEntry(createAndSaveFact().getId());
@@ -362,6 +527,48 @@ public class FactManagerTest extends AbstractManagerTest {
     getFactManager().saveMetaFactBinding(binding);
   }
 
+  @Test
+  public void testSaveAndFetchFactIndexQueue() {
+    UUID factID = UUID.randomUUID();
+    FactIndexQueueEntity entry = getFactManager().saveFactIndexQueueEntry(new FactIndexQueueEntity()
+            .setFactID(factID)
+            .setTimestamp(123456789));
+
+    List<FactIndexQueueEntity> queue = getFactManager().fetchFactIndexQueue(FactIndexQueueEntity.calculateBucket(factID), 10);
+    assertEquals(1, queue.size());
+    assertEquals(factID, queue.get(0).getFactID());
+    assertEquals(entry.getBucket(), queue.get(0).getBucket());
+    assertEquals(entry.getTimestamp(), queue.get(0).getTimestamp());
+  }
+
+  @Test
+  public void testFetchFactIndexQueueWithInvalidInput() {
+    assertEquals(0, getFactManager().fetchFactIndexQueue(-1, 10).size());
+    assertEquals(0, getFactManager().fetchFactIndexQueue(FactIndexQueueEntity.BUCKETS, 10).size());
+    assertEquals(0, getFactManager().fetchFactIndexQueue(0, 0).size());
+  }
+
+  @Test
+  public void testDeleteFactIndexQueueEntry() {
+    UUID factID = UUID.randomUUID();
+    FactIndexQueueEntity entry = getFactManager().saveFactIndexQueueEntry(new FactIndexQueueEntity()
+            .setFactID(factID)
+            .setTimestamp(123456789));
+
+    getFactManager().deleteFactIndexQueueEntry(entry);
+    assertEquals(0, getFactManager().fetchFactIndexQueue(entry.getBucket(), 10).size());
+  }
+
+  @Test
+  public void testSaveFactIndexQueueEntryReturnsNullOnNullInput() {
+    assertNull(getFactManager().saveFactIndexQueueEntry(null));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSaveFactIndexQueueEntryWithoutFactThrowsException() {
+    getFactManager().saveFactIndexQueueEntry(new FactIndexQueueEntity());
+  }
+
   private FactTypeEntity createFactType() {
     return createFactType("factType");
   }
@@ -530,4 +737,12 @@ public class FactManagerTest extends AbstractManagerTest {
     return getFactManager().withClock(clock);
   }
 
+  private void assertVerificationFails(Class<? extends Exception> expected, Runnable verification) {
+    try {
+      verification.run();
+      fail("Expected " + expected.getSimpleName() + "!");
+    } catch (CompletionException ex) {
+      assertTrue(expected.isInstance(ex.getCause()));
+    }
+  }
 }
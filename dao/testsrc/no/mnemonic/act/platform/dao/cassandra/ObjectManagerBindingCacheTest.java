@@ -0,0 +1,109 @@
+package no.mnemonic.act.platform.dao.cassandra;
+
+import com.datastax.oss.driver.api.core.PagingIterable;
+import no.mnemonic.act.platform.dao.cassandra.entity.Direction;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
+import no.mnemonic.act.platform.dao.cassandra.mapper.CassandraMapper;
+import no.mnemonic.act.platform.dao.cassandra.mapper.ObjectDao;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+/**
+ * Verifies the invalidation of cached ObjectFactBindings without Cassandra, see {@link ObjectManagerTest} for the
+ * tests against a real database.
+ */
+public class ObjectManagerBindingCacheTest {
+
+  @Mock
+  private ClusterManager clusterManager;
+  @Mock
+  private CassandraMapper cassandraMapper;
+  @Mock
+  private ObjectDao objectDao;
+
+  private final UUID objectID = UUID.randomUUID();
+  private final List<ObjectFactBindingEntity> storedBindings = new ArrayList<>();
+  private ObjectManager manager;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+    when(clusterManager.getCassandraMapper()).thenReturn(cassandraMapper);
+    when(cassandraMapper.getObjectDao()).thenReturn(objectDao);
+    when(objectDao.saveIfNotExistsAsync(any(ObjectFactBindingEntity.class))).then(i -> {
+      storedBindings.add(i.getArgument(0));
+      return CompletableFuture.completedFuture(true);
+    });
+
+    manager = new ObjectManager(clusterManager);
+    manager.startComponent();
+  }
+
+  @Test
+  public void testFetchBindingsIsCached() {
+    mockRead(() -> {});
+
+    assertEquals(0, ListUtils.list(manager.fetchObjectFactBindings(objectID)).size());
+    assertEquals(0, ListUtils.list(manager.fetchObjectFactBindings(objectID)).size());
+    verify(objectDao).fetchObjectFactBindings(objectID);
+  }
+
+  @Test
+  public void testSaveBindingInvalidatesCachedBindings() {
+    mockRead(() -> {});
+
+    assertEquals(0, ListUtils.list(manager.fetchObjectFactBindings(objectID)).size());
+    manager.saveObjectFactBindingAsync(createBinding()).join();
+    assertEquals(1, ListUtils.list(manager.fetchObjectFactBindings(objectID)).size());
+  }
+
+  @Test
+  public void testSaveBindingWhileReadingDoesNotCacheStaleBindings() {
+    // The binding is saved after the read has returned its result, but before the result is cached.
+    mockRead(() -> manager.saveObjectFactBindingAsync(createBinding()).join());
+
+    assertEquals(0, ListUtils.list(manager.fetchObjectFactBindings(objectID)).size());
+    mockRead(() -> {});
+    assertEquals(1, ListUtils.list(manager.fetchObjectFactBindings(objectID)).size());
+    verify(objectDao, times(2)).fetchObjectFactBindings(objectID);
+  }
+
+  @Test
+  public void testSaveBindingOfOtherObjectWhileReadingCachesBindings() {
+    mockRead(() -> manager.saveObjectFactBindingAsync(createBinding().setObjectID(UUID.randomUUID())).join());
+
+    manager.fetchObjectFactBindings(objectID);
+    manager.fetchObjectFactBindings(objectID);
+    verify(objectDao).fetchObjectFactBindings(objectID);
+  }
+
+  private void mockRead(Runnable afterRead) {
+    @SuppressWarnings("unchecked")
+    PagingIterable<ObjectFactBindingEntity> result = mock(PagingIterable.class);
+    when(result.iterator()).then(i -> {
+      List<ObjectFactBindingEntity> snapshot = new ArrayList<>(storedBindings);
+      afterRead.run();
+      return snapshot.iterator();
+    });
+    when(objectDao.fetchObjectFactBindings(objectID)).thenReturn(result);
+  }
+
+  private ObjectFactBindingEntity createBinding() {
+    return new ObjectFactBindingEntity()
+            .setObjectID(objectID)
+            .setFactID(UUID.randomUUID())
+            .setDirection(Direction.FactIsSource);
+  }
+}
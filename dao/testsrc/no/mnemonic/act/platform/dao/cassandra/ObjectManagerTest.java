@@ -3,15 +3,19 @@ package no.mnemonic.act.platform.dao.cassandra;
 import no.mnemonic.act.platform.dao.cassandra.entity.Direction;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactTypeBindingEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectTypeEntity;
 import no.mnemonic.act.platform.dao.cassandra.exceptions.ImmutableViolationException;
 import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.Assert.*;
 
@@ -153,6 +157,22 @@ public class ObjectManagerTest extends AbstractManagerTest {
     assertObject(expected, actual.get(0));
   }
 
+  @Test
+  public void testFetchObjectsByIdPreservesOrder() {
+    List<UUID> expected = ListUtils.list(createAndSaveObjects(), ObjectEntity::getId);
+    Collections.reverse(expected);
+
+    assertEquals(expected, ListUtils.list(getObjectManager().getObjects(expected), ObjectEntity::getId));
+  }
+
+  @Test
+  public void testFetchObjectsByIdUsingInClause() {
+    ObjectEntity expected = createAndSaveObjects().get(0);
+    List<ObjectEntity> actual = ListUtils.list(getObjectManager().setMultiFetchConcurrency(0).getObjects(ListUtils.list(expected.getId(), UUID.randomUUID())));
+    assertEquals(1, actual.size());
+    assertObject(expected, actual.get(0));
+  }
+
   @Test
   public void testFetchObjectsByIdWithUnknownId() {
     assertEquals(0, ListUtils.list(getObjectManager().getObjects(null)).size());
@@ -173,6 +193,37 @@ public class ObjectManagerTest extends AbstractManagerTest {
     getObjectManager().saveObject(object);
   }
 
+  @Test
+  public void testSaveObjectWithSameTypeAndValueDoesNotLeaveOrphan() {
+    ObjectTypeEntity type = createAndSaveObjectType();
+    ObjectEntity first = createObject(type.getId());
+    ObjectEntity second = createObject(type.getId());
+    getObjectManager().saveObject(first);
+
+    try {
+      getObjectManager().saveObject(second);
+      fail("Expected ImmutableViolationException!");
+    } catch (ImmutableViolationException ignored) {
+    }
+
+    assertNull(getObjectManager().getObject(second.getId()));
+    assertObject(first, getObjectManager().getObject(type.getName(), first.getValue()));
+  }
+
+  @Test
+  public void testSaveSameObjectTwiceKeepsObject() {
+    ObjectEntity object = createObject(createAndSaveObjectType().getId());
+    getObjectManager().saveObject(object);
+
+    try {
+      getObjectManager().saveObject(object);
+      fail("Expected ImmutableViolationException!");
+    } catch (ImmutableViolationException ignored) {
+    }
+
+    assertObject(object, getObjectManager().getObject(object.getId()));
+  }
+
   @Test
   public void testSaveObjectReturnsSameEntity() {
     ObjectEntity entity = createObject(createAndSaveObjectType().getId());
@@ -200,6 +251,40 @@ public class ObjectManagerTest extends AbstractManagerTest {
     assertEquals(0, ListUtils.list(getObjectManager().fetchObjectFactBindings(UUID.randomUUID())).size());
   }
 
+  @Test
+  public void testFetchObjectFactBindingsTwiceUsesCache() {
+    ObjectEntity object = createAndSaveObject();
+    ObjectFactBindingEntity binding = createAndSaveObjectFactBinding(object.getId());
+
+    assertEquals(1, ListUtils.list(getObjectManager().fetchObjectFactBindings(object.getId())).size());
+    List<ObjectFactBindingEntity> actual = ListUtils.list(getObjectManager().fetchObjectFactBindings(object.getId()));
+    assertEquals(1, actual.size());
+    assertObjectFactBinding(binding, actual.get(0));
+    assertEquals(1, getObjectManager().getBindingCacheStats().hitCount());
+  }
+
+  @Test
+  public void testSaveObjectFactBindingInvalidatesCache() {
+    ObjectEntity object = createAndSaveObject();
+    createAndSaveObjectFactBinding(object.getId());
+    assertEquals(1, ListUtils.list(getObjectManager().fetchObjectFactBindings(object.getId())).size());
+
+    createAndSaveObjectFactBinding(object.getId());
+    getObjectManager().saveObjectFactBindingAsync(createObjectFactBinding(object.getId())).join();
+    assertEquals(3, ListUtils.list(getObjectManager().fetchObjectFactBindings(object.getId())).size());
+  }
+
+  @Test
+  public void testFetchObjectFactBindingsWithDisabledCache() {
+    ObjectEntity object = createAndSaveObject();
+    createAndSaveObjectFactBinding(object.getId());
+    ObjectManager manager = getObjectManager().setBindingCacheSize(0);
+
+    assertEquals(1, ListUtils.list(manager.fetchObjectFactBindings(object.getId())).size());
+    assertEquals(1, ListUtils.list(manager.fetchObjectFactBindings(object.getId())).size());
+    assertEquals(0, manager.getBindingCacheStats().hitCount());
+  }
+
   @Test
   public void testSaveObjectFactBindingReturnsSameEntity() {
     ObjectFactBindingEntity binding = createObjectFactBinding(createAndSaveObject().getId());
@@ -223,6 +308,154 @@ public class ObjectManagerTest extends AbstractManagerTest {
     getObjectManager().saveObjectFactBinding(binding);
   }
 
+  @Test
+  public void testGetObjectByIdIsCached() {
+    ObjectEntity expected = createAndSaveObject();
+    getObjectManager().setObjectCacheSize(10);
+
+    assertObject(expected, getObjectManager().getObject(expected.getId()));
+    assertObject(expected, getObjectManager().getObject(expected.getId()));
+    assertEquals(1, getObjectManager().getObjectByIdCacheStats().missCount());
+    assertEquals(1, getObjectManager().getObjectByIdCacheStats().hitCount());
+  }
+
+  @Test
+  public void testGetObjectByTypeValueIsCached() {
+    ObjectTypeEntity type = createAndSaveObjectType();
+    ObjectEntity expected = createAndSaveObject(type.getId());
+    getObjectManager().setObjectCacheSize(10);
+
+    assertObject(expected, getObjectManager().getObject(type.getName(), expected.getValue()));
+    assertObject(expected, getObjectManager().getObject(type.getName(), expected.getValue()));
+    assertEquals(1, getObjectManager().getObjectByTypeValueCacheStats().missCount());
+    assertEquals(1, getObjectManager().getObjectByTypeValueCacheStats().hitCount());
+  }
+
+  @Test
+  public void testGetObjectDoesNotCacheMissingObject() {
+    ObjectTypeEntity type = createAndSaveObjectType();
+    assertNull(getObjectManager().getObject(type.getName(), "value"));
+
+    ObjectEntity expected = createAndSaveObject(type.getId());
+    assertObject(expected, getObjectManager().getObject(type.getName(), expected.getValue()));
+  }
+
+  @Test
+  public void testSaveObjectPopulatesCache() {
+    ObjectTypeEntity type = createAndSaveObjectType();
+    ObjectEntity expected = createAndSaveObject(type.getId());
+
+    assertSame(expected, getObjectManager().getObject(expected.getId()));
+    assertSame(expected, getObjectManager().getObject(type.getName(), expected.getValue()));
+    assertEquals(0, getObjectManager().getObjectByIdCacheStats().missCount());
+    assertEquals(0, getObjectManager().getObjectByTypeValueCacheStats().missCount());
+  }
+
+  @Test
+  public void testGetObjectsUsesCache() {
+    List<ObjectEntity> expected = createAndSaveObjects();
+    List<UUID> id = ListUtils.list(expected, ObjectEntity::getId);
+
+    assertEquals(id, ListUtils.list(getObjectManager().getObjects(id), ObjectEntity::getId));
+    assertEquals(3, getObjectManager().getObjectByIdCacheStats().hitCount());
+  }
+
+  @Test
+  public void testVerifyObjectsExistAsync() {
+    List<UUID> id = ListUtils.list(createAndSaveObjects(), ObjectEntity::getId);
+    getObjectManager().verifyObjectsExistAsync(id).join();
+  }
+
+  @Test
+  public void testVerifyObjectsExistAsyncWithNonExistingObject() {
+    List<UUID> id = ListUtils.list(createAndSaveObject().getId(), UUID.randomUUID());
+    try {
+      getObjectManager().verifyObjectsExistAsync(id).join();
+      fail("Expected IllegalArgumentException!");
+    } catch (CompletionException ex) {
+      assertTrue(ex.getCause() instanceof IllegalArgumentException);
+    }
+  }
+
+  @Test
+  public void testSaveObjectFactBindingAsync() {
+    ObjectFactBindingEntity binding = createObjectFactBinding(createAndSaveObject().getId());
+    getObjectManager().saveObjectFactBindingAsync(binding).join();
+
+    List<ObjectFactBindingEntity> actual = ListUtils.list(getObjectManager().fetchObjectFactBindings(binding.getObjectID()));
+    assertEquals(1, actual.size());
+    assertObjectFactBinding(binding, actual.get(0));
+  }
+
+  @Test
+  public void testSaveObjectFactBindingAsyncTwiceThrowsException() {
+    ObjectFactBindingEntity binding = createObjectFactBinding(createAndSaveObject().getId());
+    getObjectManager().saveObjectFactBindingAsync(binding).join();
+    try {
+      getObjectManager().saveObjectFactBindingAsync(binding).join();
+      fail("Expected ImmutableViolationException!");
+    } catch (CompletionException ex) {
+      assertTrue(ex.getCause() instanceof ImmutableViolationException);
+    }
+  }
+
+  @Test
+  public void testFetchObjectFactBindingsByFactType() {
+    UUID objectID = createAndSaveObject().getId();
+    UUID factTypeID = UUID.randomUUID();
+    ObjectFactTypeBindingEntity binding = createObjectFactTypeBinding(objectID, factTypeID, Direction.FactIsSource);
+    getObjectManager().saveObjectFactTypeBindingAsync(binding).join();
+    getObjectManager().saveObjectFactTypeBinding(createObjectFactTypeBinding(objectID, factTypeID, Direction.FactIsDestination));
+    getObjectManager().saveObjectFactTypeBinding(createObjectFactTypeBinding(objectID, UUID.randomUUID(), Direction.FactIsSource));
+    ObjectManager manager = getObjectManager().setFactTypeBindingLookupEnabled(true);
+
+    List<ObjectFactBindingEntity> actual = ListUtils.list(manager.fetchObjectFactBindings(objectID,
+            SetUtils.set(factTypeID), SetUtils.set(Direction.FactIsSource, Direction.BiDirectional)));
+    assertEquals(1, actual.size());
+    assertEquals(binding.getObjectID(), actual.get(0).getObjectID());
+    assertEquals(binding.getFactID(), actual.get(0).getFactID());
+    assertEquals(binding.getDirection(), actual.get(0).getDirection());
+  }
+
+  @Test
+  public void testFetchObjectFactBindingsByFactTypeWithMultipleFactTypes() {
+    UUID objectID = createAndSaveObject().getId();
+    UUID factTypeID1 = UUID.randomUUID();
+    UUID factTypeID2 = UUID.randomUUID();
+    getObjectManager().saveObjectFactTypeBinding(createObjectFactTypeBinding(objectID, factTypeID1, Direction.BiDirectional));
+    getObjectManager().saveObjectFactTypeBinding(createObjectFactTypeBinding(objectID, factTypeID2, Direction.BiDirectional));
+    ObjectManager manager = getObjectManager().setFactTypeBindingLookupEnabled(true);
+
+    assertEquals(2, ListUtils.list(manager.fetchObjectFactBindings(objectID,
+            SetUtils.set(factTypeID1, factTypeID2), SetUtils.set(Direction.BiDirectional))).size());
+  }
+
+  @Test
+  public void testFetchObjectFactBindingsByFactTypeWithLookupDisabledByDefault() {
+    ObjectEntity object = createAndSaveObject();
+    createAndSaveObjectFactBinding(object.getId());
+
+    assertEquals(1, ListUtils.list(getObjectManager().fetchObjectFactBindings(object.getId(),
+            SetUtils.set(UUID.randomUUID()), SetUtils.set(Direction.BiDirectional))).size());
+    assertEquals(0, ListUtils.list(getObjectManager().fetchObjectFactBindings(object.getId(),
+            SetUtils.set(UUID.randomUUID()), SetUtils.set(Direction.FactIsSource))).size());
+  }
+
+  @Test
+  public void testFetchObjectFactBindingsByFactTypeWithoutFactTypes() {
+    assertFalse(getObjectManager().fetchObjectFactBindings(UUID.randomUUID(), null, SetUtils.set(Direction.BiDirectional)).hasNext());
+    assertFalse(getObjectManager().fetchObjectFactBindings(UUID.randomUUID(), SetUtils.set(UUID.randomUUID()), null).hasNext());
+  }
+
+  @Test
+  public void testFetchAllObjectFactBindings() {
+    ObjectEntity object = createAndSaveObject();
+    createAndSaveObjectFactBinding(object.getId());
+    createAndSaveObjectFactBinding(object.getId());
+
+    assertEquals(2, ListUtils.list(getObjectManager().fetchAllObjectFactBindings()).size());
+  }
+
   private ObjectTypeEntity createObjectType() {
     return createObjectType("objectType");
   }
@@ -254,6 +487,14 @@ public class ObjectManagerTest extends AbstractManagerTest {
             .setDirection(Direction.BiDirectional);
   }
 
+  private ObjectFactTypeBindingEntity createObjectFactTypeBinding(UUID objectID, UUID factTypeID, Direction direction) {
+    return new ObjectFactTypeBindingEntity()
+            .setObjectID(objectID)
+            .setFactTypeID(factTypeID)
+            .setDirection(direction)
+            .setFactID(UUID.randomUUID());
+  }
+
   private ObjectTypeEntity createAndSaveObjectType() {
     return createAndSaveObjectTypes(1).get(0);
   }
@@ -0,0 +1,122 @@
+package no.mnemonic.act.platform.dao.cassandra.utilities;
+
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class ConcurrentFetchIteratorTest {
+
+  @Mock
+  private Function<UUID, CompletionStage<UUID>> fetch;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+    when(fetch.apply(any())).then(i -> CompletableFuture.completedFuture(i.getArgument(0)));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testInitializeWithoutFetchFunction() {
+    new ConcurrentFetchIterator<>(null, ListUtils.list(), 1);
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testInitializeWithoutIdList() {
+    new ConcurrentFetchIterator<>(fetch, null, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInitializeWithInvalidConcurrency() {
+    new ConcurrentFetchIterator<>(fetch, ListUtils.list(), 0);
+  }
+
+  @Test
+  public void testIteratorNoElements() {
+    Iterator<UUID> iterator = new ConcurrentFetchIterator<>(fetch, ListUtils.list(), 1);
+    assertFalse(iterator.hasNext());
+    verifyNoInteractions(fetch);
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testNextWithoutMoreElements() {
+    new ConcurrentFetchIterator<>(fetch, ListUtils.list(), 1).next();
+  }
+
+  @Test
+  public void testIteratorPreservesOrder() {
+    List<UUID> id = createIds(10);
+    // Complete the requests in reverse order.
+    Map<UUID, CompletableFuture<UUID>> futures = new ConcurrentHashMap<>();
+    when(fetch.apply(any())).then(i -> futures.computeIfAbsent(i.getArgument(0), k -> new CompletableFuture<>()));
+
+    Iterator<UUID> iterator = new ConcurrentFetchIterator<>(fetch, id, id.size());
+    new Thread(() -> {
+      while (futures.size() < id.size()) Thread.yield();
+      for (int i = id.size() - 1; i >= 0; i--) {
+        futures.get(id.get(i)).complete(id.get(i));
+      }
+    }).start();
+
+    assertEquals(id, ListUtils.list(iterator));
+  }
+
+  @Test
+  public void testIteratorSkipsMissingElements() {
+    List<UUID> id = createIds(3);
+    when(fetch.apply(id.get(1))).thenReturn(CompletableFuture.completedFuture(null));
+
+    Iterator<UUID> iterator = new ConcurrentFetchIterator<>(fetch, id, 2);
+    assertEquals(ListUtils.list(id.get(0), id.get(2)), ListUtils.list(iterator));
+  }
+
+  @Test
+  public void testIteratorLimitsRequestsInFlight() {
+    List<UUID> id = createIds(10);
+
+    Iterator<UUID> iterator = new ConcurrentFetchIterator<>(fetch, id, 3);
+    assertTrue(iterator.hasNext());
+    verify(fetch, times(3)).apply(any());
+
+    iterator.next();
+    assertTrue(iterator.hasNext());
+    verify(fetch, times(4)).apply(any());
+  }
+
+  @Test
+  public void testIteratorFetchesLazily() {
+    Iterator<UUID> iterator = new ConcurrentFetchIterator<>(fetch, createIds(10), 3);
+    verifyNoInteractions(fetch);
+
+    iterator.next();
+    verify(fetch, times(3)).apply(any());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testIteratorRethrowsException() {
+    CompletableFuture<UUID> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IllegalStateException());
+    when(fetch.apply(any())).thenReturn(failed);
+
+    new ConcurrentFetchIterator<>(fetch, createIds(1), 1).hasNext();
+  }
+
+  private List<UUID> createIds(int size) {
+    List<UUID> id = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      id.add(UUID.randomUUID());
+    }
+    return id;
+  }
+}
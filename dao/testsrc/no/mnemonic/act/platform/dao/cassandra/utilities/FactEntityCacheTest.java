@@ -0,0 +1,237 @@
+package no.mnemonic.act.platform.dao.cassandra.utilities;
+
+import no.mnemonic.act.platform.dao.cassandra.entity.AccessMode;
+import no.mnemonic.act.platform.dao.cassandra.entity.Direction;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class FactEntityCacheTest {
+
+  private static final long CAPACITY = 1024 * 1024;
+  private static final long EXPIRATION = 60000;
+  private static final long MUTABLE_FIELDS_EXPIRATION = 30000;
+
+  private final FactEntityCache cache = new FactEntityCache(CAPACITY, EXPIRATION, MUTABLE_FIELDS_EXPIRATION);
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInitializeWithNegativeCapacity() {
+    new FactEntityCache(-1, EXPIRATION, MUTABLE_FIELDS_EXPIRATION);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInitializeWithInvalidExpiration() {
+    new FactEntityCache(CAPACITY, 0, MUTABLE_FIELDS_EXPIRATION);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInitializeWithInvalidMutableFieldsExpiration() {
+    new FactEntityCache(CAPACITY, EXPIRATION, 0);
+  }
+
+  @Test
+  public void testGetWithNullId() {
+    assertNull(cache.get(null));
+  }
+
+  @Test
+  public void testGetNonCachedFact() {
+    assertNull(cache.get(UUID.randomUUID()));
+    assertEquals(1, cache.stats().missCount());
+  }
+
+  @Test
+  public void testPutAndGetFact() {
+    FactEntity fact = createFact();
+    cache.put(fact);
+
+    assertFact(fact, cache.get(fact.getId()));
+    assertEquals(1, cache.stats().hitCount());
+  }
+
+  @Test
+  public void testPutAndGetFactWithMissingFields() {
+    FactEntity fact = new FactEntity().setId(UUID.randomUUID());
+    cache.put(fact);
+
+    FactEntity cached = cache.get(fact.getId());
+    assertEquals(fact.getId(), cached.getId());
+    assertNull(cached.getTypeID());
+    assertNull(cached.getValue());
+    assertNull(cached.getInReferenceToID());
+    assertNull(cached.getAccessMode());
+    assertNull(cached.getBindings());
+    assertEquals(FactEntity.DEFAULT_CONFIDENCE, cached.getConfidence(), 0.0);
+    assertEquals(FactEntity.DEFAULT_TRUST, cached.getTrust(), 0.0);
+    assertEquals(Collections.emptySet(), cached.getFlags());
+  }
+
+  @Test
+  public void testPutWithNullFact() {
+    cache.put(null);
+    cache.put(new FactEntity());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testGetReturnsNewInstance() {
+    FactEntity fact = createFact();
+    cache.put(fact);
+
+    FactEntity cached = cache.get(fact.getId());
+    cached.setLastSeenTimestamp(42).addFlag(FactEntity.Flag.RetractedHint);
+
+    assertNotSame(cached, cache.get(fact.getId()));
+    assertEquals(fact.getLastSeenTimestamp(), cache.get(fact.getId()).getLastSeenTimestamp());
+    assertEquals(Collections.emptySet(), cache.get(fact.getId()).getFlags());
+  }
+
+  @Test
+  public void testPutCachedFactRefreshesOverlay() {
+    FactEntity fact = createFact();
+    cache.put(fact);
+    cache.put(createFact().setId(fact.getId()).setLastSeenTimestamp(42).addFlag(FactEntity.Flag.RetractedHint));
+
+    FactEntity cached = cache.get(fact.getId());
+    assertEquals(42, cached.getLastSeenTimestamp());
+    assertEquals(SetUtils.set(FactEntity.Flag.RetractedHint), cached.getFlags());
+    // The immutable fields are kept.
+    assertEquals(fact.getTypeID(), cached.getTypeID());
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.stats().hitCount());
+  }
+
+  @Test
+  public void testGetFactWithExpiredMutableFields() throws Exception {
+    FactEntityCache shortCache = new FactEntityCache(CAPACITY, EXPIRATION, 1);
+    FactEntity fact = createFact();
+    shortCache.put(fact);
+    Thread.sleep(10);
+
+    // The Fact must be re-fetched, which is counted as a miss.
+    assertNull(shortCache.get(fact.getId()));
+    assertEquals(0, shortCache.stats().hitCount());
+    assertEquals(1, shortCache.stats().missCount());
+
+    shortCache.put(fact);
+    assertFact(fact, shortCache.get(fact.getId()));
+  }
+
+  @Test
+  public void testInvalidate() {
+    FactEntity fact = createFact();
+    cache.put(fact);
+    cache.invalidate(fact.getId());
+    assertNull(cache.get(fact.getId()));
+  }
+
+  @Test
+  public void testEvictionByCapacity() {
+    FactEntityCache smallCache = new FactEntityCache(1024, EXPIRATION, MUTABLE_FIELDS_EXPIRATION);
+    for (int i = 0; i < 100; i++) {
+      smallCache.put(createFact());
+    }
+
+    assertTrue(smallCache.size() < 100);
+    assertTrue(smallCache.stats().evictionCount() > 0);
+  }
+
+  @Test
+  public void testReusedSlabEvictsOldestFacts() {
+    // Two slabs of 64 MiB with room for three large Facts each.
+    FactEntityCache smallCache = new FactEntityCache(128L * 1024 * 1024, EXPIRATION, MUTABLE_FIELDS_EXPIRATION);
+    FactEntity first = createFact();
+    smallCache.put(first);
+    for (int i = 0; i < 10; i++) {
+      smallCache.put(createFact().setValue(createValue(20 * 1024 * 1024)));
+    }
+    FactEntity last = createFact();
+    smallCache.put(last);
+
+    assertNull(smallCache.get(first.getId()));
+    assertFact(last, smallCache.get(last.getId()));
+    assertTrue(smallCache.size() <= 8);
+    assertTrue(smallCache.stats().evictionCount() > 0);
+  }
+
+  @Test
+  public void testPutInvalidatedFactAgain() {
+    FactEntity fact = createFact();
+    cache.put(fact);
+    cache.invalidate(fact.getId());
+    cache.put(fact.setLastSeenTimestamp(789));
+
+    assertFact(fact, cache.get(fact.getId()));
+  }
+
+  @Test
+  public void testFactLargerThanSlabIsNotCached() {
+    FactEntityCache smallCache = new FactEntityCache(1024, EXPIRATION, MUTABLE_FIELDS_EXPIRATION);
+    FactEntity fact = createFact().setValue(createValue(1024));
+    smallCache.put(fact);
+    assertNull(smallCache.get(fact.getId()));
+    assertEquals(0, smallCache.size());
+  }
+
+  @Test
+  public void testDisabledCache() {
+    FactEntityCache disabledCache = new FactEntityCache(0, EXPIRATION, MUTABLE_FIELDS_EXPIRATION);
+    FactEntity fact = createFact();
+    disabledCache.put(fact);
+    assertNull(disabledCache.get(fact.getId()));
+  }
+
+  private String createValue(int length) {
+    char[] value = new char[length];
+    Arrays.fill(value, 'v');
+    return new String(value);
+  }
+
+  private FactEntity createFact() {
+    FactEntity.FactObjectBinding binding1 = new FactEntity.FactObjectBinding()
+            .setObjectID(UUID.randomUUID())
+            .setDirection(Direction.FactIsSource);
+    FactEntity.FactObjectBinding binding2 = new FactEntity.FactObjectBinding()
+            .setObjectID(UUID.randomUUID())
+            .setDirection(Direction.FactIsDestination);
+
+    return new FactEntity()
+            .setId(UUID.randomUUID())
+            .setTypeID(UUID.randomUUID())
+            .setValue("välue")
+            .setInReferenceToID(UUID.randomUUID())
+            .setOrganizationID(UUID.randomUUID())
+            .setOriginID(UUID.randomUUID())
+            .setAddedByID(UUID.randomUUID())
+            .setAccessMode(AccessMode.Explicit)
+            .setConfidence(0.1f)
+            .setTrust(0.2f)
+            .setTimestamp(123)
+            .setLastSeenTimestamp(456)
+            .addBinding(binding1)
+            .addBinding(binding2);
+  }
+
+  private void assertFact(FactEntity expected, FactEntity actual) {
+    assertEquals(expected.getId(), actual.getId());
+    assertEquals(expected.getTypeID(), actual.getTypeID());
+    assertEquals(expected.getValue(), actual.getValue());
+    assertEquals(expected.getInReferenceToID(), actual.getInReferenceToID());
+    assertEquals(expected.getOrganizationID(), actual.getOrganizationID());
+    assertEquals(expected.getOriginID(), actual.getOriginID());
+    assertEquals(expected.getAddedByID(), actual.getAddedByID());
+    assertEquals(expected.getAccessMode(), actual.getAccessMode());
+    assertEquals(expected.getConfidence(), actual.getConfidence(), 0.0);
+    assertEquals(expected.getTrust(), actual.getTrust(), 0.0);
+    assertEquals(expected.getTimestamp(), actual.getTimestamp());
+    assertEquals(expected.getLastSeenTimestamp(), actual.getLastSeenTimestamp());
+    assertEquals(expected.getBindingsStored(), actual.getBindingsStored());
+    assertEquals(Collections.emptySet(), actual.getFlags());
+  }
+}
@@ -480,6 +480,100 @@ public class FactSearchManagerSearchFactsTest extends AbstractManagerTest {
     assertEquals(3, ListUtils.list(result).size());
   }
 
+  @Test
+  public void testSearchFactsWithoutPrefetching() {
+    indexFact(d -> d);
+    indexFact(d -> d);
+    indexFact(d -> d);
+
+    getFactSearchManager().setSearchScrollPrefetchDepth(0);
+    ScrollingSearchResult<FactDocument> result = getFactSearchManager().searchFacts(createFactSearchCriteria(b -> b));
+    assertEquals(3, result.getCount());
+    assertEquals(3, ListUtils.list(result).size());
+  }
+
+  @Test
+  public void testSearchFactsWithDeepPrefetching() {
+    indexFact(d -> d);
+    indexFact(d -> d);
+    indexFact(d -> d);
+
+    getFactSearchManager().setSearchScrollPrefetchDepth(5);
+    ScrollingSearchResult<FactDocument> result = getFactSearchManager().searchFacts(createFactSearchCriteria(b -> b));
+    assertEquals(3, result.getCount());
+    assertEquals(3, ListUtils.list(result).size());
+  }
+
+  @Test
+  public void testSearchFactIdsWithoutCriteria() {
+    ScrollingSearchResult<UUID> result = getFactSearchManager().searchFactIds(null);
+    assertEquals(0, result.getCount());
+    assertEquals(0, ListUtils.list(result).size());
+  }
+
+  @Test
+  public void testSearchFactIdsPopulateSearchResult() {
+    FactDocument fact1 = indexFact(d -> d);
+    FactDocument fact2 = indexFact(d -> d);
+    FactDocument fact3 = indexFact(d -> d);
+
+    ScrollingSearchResult<UUID> result = getFactSearchManager().searchFactIds(createFactSearchCriteria(b -> b));
+    assertEquals(3, result.getCount());
+    assertEquals(set(fact1.getId(), fact2.getId(), fact3.getId()), set(result));
+  }
+
+  @Test
+  public void testSearchFactIdsWithStartCursor() {
+    FactDocument fact1 = indexFact(d -> d.setTimestamp(111111111L));
+    FactDocument fact2 = indexFact(d -> d.setTimestamp(222222222L));
+
+    List<UUID> result = ListUtils.list(getFactSearchManager().searchFactIds(createFactSearchCriteria(b -> b.setCursor(null, null))));
+    assertEquals(ListUtils.list(fact2.getId(), fact1.getId()), result);
+  }
+
+  @Test
+  public void testSearchFactsWithStartCursor() {
+    FactDocument fact1 = indexFact(d -> d.setTimestamp(111111111L));
+    FactDocument fact2 = indexFact(d -> d.setTimestamp(333333333L));
+    FactDocument fact3 = indexFact(d -> d.setTimestamp(222222222L));
+
+    ScrollingSearchResult<FactDocument> result = getFactSearchManager().searchFacts(createFactSearchCriteria(b -> b.setCursor(null, null)));
+    assertEquals(3, result.getCount());
+
+    List<FactDocument> facts = ListUtils.list(result);
+    assertEquals(3, facts.size());
+    assertEquals(fact2.getId(), facts.get(0).getId());
+    assertEquals(fact3.getId(), facts.get(1).getId());
+    assertEquals(fact1.getId(), facts.get(2).getId());
+  }
+
+  @Test
+  public void testSearchFactsContinueFromCursor() {
+    FactDocument fact1 = indexFact(d -> d.setTimestamp(111111111L));
+    indexFact(d -> d.setTimestamp(333333333L));
+    indexFact(d -> d.setTimestamp(222222222L));
+
+    // Sorted by timestamp and id (both descending), i.e. the cursor points behind all Facts with the same timestamp.
+    List<FactDocument> facts = ListUtils.list(getFactSearchManager().searchFacts(createFactSearchCriteria(
+            b -> b.setCursor(222222222L, UUID.fromString("00000000-0000-0000-0000-000000000000")))));
+    assertEquals(1, facts.size());
+    assertEquals(fact1.getId(), facts.get(0).getId());
+  }
+
+  @Test
+  public void testSearchFactsContinueFromCursorWithSameTimestamp() {
+    FactDocument fact1 = indexFact(d -> d.setTimestamp(111111111L));
+    FactDocument fact2 = indexFact(d -> d.setTimestamp(111111111L));
+    // Facts with the same timestamp are sorted by their id (descending).
+    FactDocument first = fact1.getId().toString().compareTo(fact2.getId().toString()) > 0 ? fact1 : fact2;
+    FactDocument second = first == fact1 ? fact2 : fact1;
+
+    List<FactDocument> facts = ListUtils.list(getFactSearchManager().searchFacts(createFactSearchCriteria(
+            b -> b.setCursor(first.getTimestamp(), first.getId()))));
+    assertEquals(1, facts.size());
+    assertEquals(second.getId(), facts.get(0).getId());
+  }
+
   private void testSearchFacts(FactSearchCriteria criteria, FactDocument accessibleFact) {
     List<FactDocument> result = ListUtils.list(getFactSearchManager().searchFacts(criteria));
     assertEquals(1, result.size());
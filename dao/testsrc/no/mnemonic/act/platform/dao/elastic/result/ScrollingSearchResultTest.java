@@ -0,0 +1,100 @@
+package no.mnemonic.act.platform.dao.elastic.result;
+
+import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ScrollingSearchResultTest {
+
+  @Test
+  public void testEmptyResult() {
+    ScrollingSearchResult<FactDocument> result = ScrollingSearchResult.<FactDocument>builder().build();
+    assertFalse(result.hasNext());
+    assertEquals(0, result.getCount());
+  }
+
+  @Test
+  public void testIterateWithoutPrefetching() {
+    AtomicInteger requests = new AtomicInteger();
+    ScrollingSearchResult<FactDocument> result = ScrollingSearchResult.<FactDocument>builder()
+            .setInitialBatch(createBatch("0", false))
+            .setFetchNextBatch(scrollId -> {
+              requests.incrementAndGet();
+              return createBatch(String.valueOf(Integer.parseInt(scrollId) + 1), scrollId.equals("2"));
+            })
+            .setCount(4)
+            .build();
+
+    assertEquals(0, requests.get());
+    assertEquals(4, ListUtils.list(result).size());
+    assertEquals(3, requests.get());
+  }
+
+  @Test
+  public void testIterateWithPrefetching() {
+    CompletableFuture<ScrollingSearchResult.ScrollingBatch<FactDocument>> secondBatch = new CompletableFuture<>();
+    AtomicInteger requests = new AtomicInteger();
+    ScrollingSearchResult<FactDocument> result = ScrollingSearchResult.<FactDocument>builder()
+            .setInitialBatch(createBatch("0", false))
+            .setFetchNextBatchAsync(scrollId -> {
+              requests.incrementAndGet();
+              return scrollId.equals("0") ? secondBatch : CompletableFuture.completedFuture(createBatch("2", true));
+            })
+            .setPrefetchDepth(2)
+            .setCount(3)
+            .build();
+
+    // The first prefetch request is sent immediately, the second only after the first one completed.
+    assertEquals(1, requests.get());
+    secondBatch.complete(createBatch("1", false));
+    assertEquals(2, requests.get());
+
+    List<FactDocument> documents = ListUtils.list(result);
+    assertEquals(3, documents.size());
+    assertEquals(2, requests.get());
+  }
+
+  @Test
+  public void testPrefetchingStopsAfterFinishedBatch() {
+    AtomicInteger requests = new AtomicInteger();
+    ScrollingSearchResult<FactDocument> result = ScrollingSearchResult.<FactDocument>builder()
+            .setInitialBatch(createBatch("0", false))
+            .setFetchNextBatchAsync(scrollId -> {
+              requests.incrementAndGet();
+              return CompletableFuture.completedFuture(createBatch("1", true));
+            })
+            .setPrefetchDepth(5)
+            .build();
+
+    assertEquals(2, ListUtils.list(result).size());
+    assertEquals(1, requests.get());
+  }
+
+  @Test
+  public void testPrefetchingWithoutAsyncFunctionFallsBackToSynchronousFetching() {
+    AtomicInteger requests = new AtomicInteger();
+    ScrollingSearchResult<FactDocument> result = ScrollingSearchResult.<FactDocument>builder()
+            .setInitialBatch(createBatch("0", false))
+            .setFetchNextBatch(scrollId -> {
+              requests.incrementAndGet();
+              return createBatch("1", true);
+            })
+            .setPrefetchDepth(2)
+            .build();
+
+    assertEquals(0, requests.get());
+    assertEquals(2, ListUtils.list(result).size());
+    assertEquals(1, requests.get());
+  }
+
+  private ScrollingSearchResult.ScrollingBatch<FactDocument> createBatch(String scrollId, boolean finished) {
+    return new ScrollingSearchResult.ScrollingBatch<>(scrollId, ListUtils.list(new FactDocument().setId(UUID.randomUUID())).iterator(), finished);
+  }
+}
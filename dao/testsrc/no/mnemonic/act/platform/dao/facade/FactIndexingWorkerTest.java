@@ -0,0 +1,211 @@
+package no.mnemonic.act.platform.dao.facade;
+
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.cassandra.FactManager;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactIndexQueueEntity;
+import no.mnemonic.act.platform.dao.elastic.FactSearchManager;
+import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
+import no.mnemonic.act.platform.dao.facade.converters.FactRecordConverter;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class FactIndexingWorkerTest {
+
+  private static final long NOW = 1000000L;
+
+  @Mock
+  private FactManager factManager;
+  @Mock
+  private FactSearchManager factSearchManager;
+  @Mock
+  private FactRecordConverter factRecordConverter;
+
+  private FactIndexingWorker worker;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+    when(factManager.saveFactIndexQueueEntry(any())).then(i -> i.getArgument(0));
+    when(factManager.fetchFactIndexQueue(anyInt(), anyInt())).thenReturn(ListUtils.list());
+    when(factRecordConverter.fromEntities(any())).then(i -> ListUtils.list(i.<List<FactEntity>>getArgument(0), e -> new FactRecord().setId(e.getId())));
+    when(factRecordConverter.toDocument(any())).then(i -> new FactDocument().setId(i.<FactRecord>getArgument(0).getId()));
+
+    worker = new FactIndexingWorker(factManager, factSearchManager, factRecordConverter)
+            .setFlushInterval(10)
+            .setRetryBackoff(1)
+            .withClock(Clock.fixed(Instant.ofEpochMilli(NOW), ZoneId.systemDefault()));
+  }
+
+  @After
+  public void cleanUp() {
+    worker.stopComponent();
+  }
+
+  @Test
+  public void testSubmitWithNullFactID() {
+    worker.submit(null);
+    verifyNoInteractions(factManager, factSearchManager);
+  }
+
+  @Test
+  public void testSubmitSavesIndexQueueEntry() {
+    UUID factID = UUID.randomUUID();
+    worker.submit(factID);
+
+    verify(factManager).saveFactIndexQueueEntry(argThat(e -> factID.equals(e.getFactID()) && e.getTimestamp() == NOW));
+    assertEquals(1, worker.getQueueDepth());
+    assertEquals(0, worker.getLag());
+  }
+
+  @Test
+  public void testSubmitInTestEnvironmentIndexesFactDirectly() {
+    UUID factID = mockFact();
+    when(factSearchManager.indexFacts(any())).thenReturn(SetUtils.set(factID));
+
+    worker.setTestEnvironment(true).submit(factID);
+
+    verify(factSearchManager).indexFacts(argThat(documents -> documents.size() == 1 && factID.equals(documents.get(0).getId())));
+    verify(factManager).deleteFactIndexQueueEntry(argThat(e -> factID.equals(e.getFactID())));
+    assertEquals(0, worker.getQueueDepth());
+    assertEquals(1, worker.getIndexedCount());
+  }
+
+  @Test
+  public void testIndexBatchRemovesIndexedEntries() {
+    UUID factID = mockFact();
+    when(factSearchManager.indexFacts(any())).thenReturn(SetUtils.set(factID));
+
+    List<FactIndexQueueEntity> remaining = worker.indexBatch(ListUtils.list(createEntry(factID), createEntry(factID)));
+
+    assertTrue(remaining.isEmpty());
+    verify(factSearchManager).indexFacts(argThat(documents -> documents.size() == 1));
+    verify(factManager, times(2)).deleteFactIndexQueueEntry(argThat(e -> factID.equals(e.getFactID())));
+    assertEquals(1, worker.getIndexedCount());
+  }
+
+  @Test
+  public void testIndexBatchReturnsFailedEntries() {
+    UUID indexedFactID = mockFact();
+    UUID failedFactID = mockFact();
+    when(factManager.getFacts(any())).thenReturn(ListUtils.list(new FactEntity().setId(indexedFactID), new FactEntity().setId(failedFactID)).iterator());
+    when(factSearchManager.indexFacts(any())).thenReturn(SetUtils.set(indexedFactID));
+
+    FactIndexQueueEntity failedEntry = createEntry(failedFactID);
+    List<FactIndexQueueEntity> remaining = worker.indexBatch(ListUtils.list(createEntry(indexedFactID), failedEntry));
+
+    assertEquals(ListUtils.list(failedEntry), remaining);
+    verify(factManager).deleteFactIndexQueueEntry(argThat(e -> indexedFactID.equals(e.getFactID())));
+    verify(factManager, never()).deleteFactIndexQueueEntry(failedEntry);
+  }
+
+  @Test
+  public void testIndexBatchRemovesEntriesOfNonExistingFacts() {
+    when(factManager.getFacts(any())).thenReturn(ListUtils.<FactEntity>list().iterator());
+    when(factSearchManager.indexFacts(any())).thenReturn(SetUtils.set());
+
+    FactIndexQueueEntity entry = createEntry(UUID.randomUUID());
+    assertTrue(worker.indexBatch(ListUtils.list(entry)).isEmpty());
+    verify(factManager).deleteFactIndexQueueEntry(entry);
+  }
+
+  @Test
+  public void testIndexBatchReturnsAllEntriesOnException() {
+    UUID factID = mockFact();
+    when(factSearchManager.indexFacts(any())).thenThrow(IllegalStateException.class);
+
+    List<FactIndexQueueEntity> entries = ListUtils.list(createEntry(factID));
+    assertEquals(entries, worker.indexBatch(entries));
+    verify(factManager, never()).deleteFactIndexQueueEntry(any());
+  }
+
+  @Test
+  public void testRecoverEnqueuesStaleEntries() {
+    FactIndexQueueEntity stale = createEntry(UUID.randomUUID()).setTimestamp(NOW - 100);
+    FactIndexQueueEntity fresh = createEntry(UUID.randomUUID()).setTimestamp(NOW);
+    when(factManager.fetchFactIndexQueue(eq(0), anyInt())).thenReturn(ListUtils.list(stale, fresh));
+
+    worker.recover(NOW - 50);
+
+    verify(factManager, times(FactIndexQueueEntity.BUCKETS)).fetchFactIndexQueue(anyInt(), anyInt());
+    assertEquals(1, worker.getQueueDepth());
+    assertEquals(100, worker.getLag());
+  }
+
+  @Test
+  public void testRecoverSkipsAlreadyQueuedFacts() {
+    UUID factID = UUID.randomUUID();
+    worker.submit(factID);
+    when(factManager.fetchFactIndexQueue(eq(0), anyInt())).thenReturn(ListUtils.list(createEntry(factID).setTimestamp(NOW - 100)));
+
+    worker.recover(NOW);
+
+    assertEquals(1, worker.getQueueDepth());
+  }
+
+  @Test
+  public void testWorkerIndexesSubmittedFacts() throws Exception {
+    UUID factID = mockFact();
+    when(factSearchManager.indexFacts(any())).thenReturn(SetUtils.set(factID));
+
+    worker.startComponent();
+    worker.submit(factID);
+
+    verify(factSearchManager, timeout(5000)).indexFacts(argThat(documents -> documents.size() == 1));
+    verify(factManager, timeout(5000)).deleteFactIndexQueueEntry(argThat(e -> factID.equals(e.getFactID())));
+  }
+
+  @Test
+  public void testWorkerRetriesFailedBulks() throws Exception {
+    UUID factID = mockFact();
+    when(factSearchManager.indexFacts(any()))
+            .thenReturn(SetUtils.set())
+            .thenReturn(SetUtils.set(factID));
+
+    worker.startComponent();
+    worker.submit(factID);
+
+    verify(factSearchManager, timeout(5000).times(2)).indexFacts(any());
+    verify(factManager, timeout(5000)).deleteFactIndexQueueEntry(argThat(e -> factID.equals(e.getFactID())));
+  }
+
+  @Test
+  public void testWorkerGivesUpAfterMaximumRetries() throws Exception {
+    UUID factID = mockFact();
+    when(factSearchManager.indexFacts(any())).thenReturn(SetUtils.set());
+
+    worker.setMaximumRetries(2).startComponent();
+    worker.submit(factID);
+
+    verify(factSearchManager, timeout(5000).times(3)).indexFacts(any());
+    verify(factManager, never()).deleteFactIndexQueueEntry(any());
+  }
+
+  private UUID mockFact() {
+    UUID factID = UUID.randomUUID();
+    when(factManager.getFacts(any())).then(i -> ListUtils.list(new FactEntity().setId(factID)).iterator());
+    return factID;
+  }
+
+  private FactIndexQueueEntity createEntry(UUID factID) {
+    return new FactIndexQueueEntity()
+            .setBucket(FactIndexQueueEntity.calculateBucket(factID))
+            .setTimestamp(NOW)
+            .setFactID(factID);
+  }
+}
@@ -12,6 +12,7 @@ import no.mnemonic.act.platform.dao.api.result.ResultContainer;
 import no.mnemonic.act.platform.dao.cassandra.FactManager;
 import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
 import no.mnemonic.act.platform.dao.cassandra.entity.*;
+import no.mnemonic.act.platform.dao.cassandra.exceptions.ImmutableViolationException;
 import no.mnemonic.act.platform.dao.elastic.FactSearchManager;
 import no.mnemonic.act.platform.dao.elastic.criteria.FactExistenceSearchCriteria;
 import no.mnemonic.act.platform.dao.elastic.document.FactDocument;
@@ -27,9 +28,12 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -43,6 +47,8 @@ public class ObjectFactDaoFacadeTest {
   @Mock
   private FactSearchManager factSearchManager;
   @Mock
+  private FactIndexingWorker factIndexingWorker;
+  @Mock
   private ObjectRecordConverter objectRecordConverter;
   @Mock
   private FactRecordConverter factRecordConverter;
@@ -56,10 +62,19 @@ public class ObjectFactDaoFacadeTest {
   @Before
   public void setUp() {
     initMocks(this);
+    when(factManager.verifyNewFactAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+    when(factManager.saveFactAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+    when(factManager.saveMetaFactBindingAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+    when(factManager.saveFactAclEntryAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+    when(factManager.saveFactCommentAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+    when(objectManager.verifyObjectsExistAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+    when(objectManager.saveObjectFactBindingAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+    when(objectManager.saveObjectFactTypeBindingAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
     dao = new ObjectFactDaoFacade(
             objectManager,
             factManager,
             factSearchManager,
+            factIndexingWorker,
             objectRecordConverter,
             factRecordConverter,
             factAclEntryRecordConverter,
@@ -80,6 +95,19 @@ public class ObjectFactDaoFacadeTest {
     verify(objectRecordConverter).fromEntity(entity);
   }
 
+  @Test
+  public void testGetObjectsById() {
+    UUID id = UUID.randomUUID();
+    ObjectEntity entity = new ObjectEntity();
+    ObjectRecord record = new ObjectRecord();
+    when(objectManager.getObjects(ListUtils.list(id))).thenReturn(ListUtils.list(entity).iterator());
+    when(objectRecordConverter.fromEntity(entity)).thenReturn(record);
+
+    assertEquals(ListUtils.list(record), ListUtils.list(dao.getObjects(ListUtils.list(id))));
+    verify(objectManager).getObjects(ListUtils.list(id));
+    verify(objectRecordConverter).fromEntity(entity);
+  }
+
   @Test
   public void testGetObjectByTypeValue() {
     String type = "type";
@@ -168,6 +196,19 @@ public class ObjectFactDaoFacadeTest {
     verify(objectRecordConverter).fromEntity(entity);
   }
 
+  @Test
+  public void testGetFactsById() {
+    UUID id = UUID.randomUUID();
+    FactEntity entity = new FactEntity().setId(id);
+    FactRecord record = new FactRecord().setId(id);
+    when(factManager.getFacts(ListUtils.list(id))).thenReturn(ListUtils.list(entity).iterator());
+    when(factRecordConverter.fromEntities(ListUtils.list(entity))).thenReturn(ListUtils.list(record));
+
+    assertEquals(ListUtils.list(record), ListUtils.list(dao.getFacts(ListUtils.list(id))));
+    verify(factManager).getFacts(ListUtils.list(id));
+    verify(factRecordConverter).fromEntities(ListUtils.list(entity));
+  }
+
   @Test
   public void testGetFactById() {
     UUID id = UUID.randomUUID();
@@ -190,30 +231,26 @@ public class ObjectFactDaoFacadeTest {
   public void testStoreFactSavesEntity() {
     FactRecord record = new FactRecord().setId(UUID.randomUUID());
     FactEntity entity = new FactEntity().setId(record.getId());
-    FactDocument document = new FactDocument().setId(record.getId());
     when(factRecordConverter.toEntity(record)).thenReturn(entity);
-    when(factRecordConverter.toDocument(record)).thenReturn(document);
 
     assertSame(record, dao.storeFact(record));
-    verify(factManager).saveFact(entity);
-    verify(factSearchManager).indexFact(document);
+    verify(factManager).verifyNewFactAsync(entity);
+    verify(factManager).saveFactAsync(entity);
+    verify(factIndexingWorker).submit(record.getId());
     verify(factRecordConverter).toEntity(argThat(r -> r.getId() == record.getId()));
-    verify(factRecordConverter).toDocument(argThat(r -> r.getId() == record.getId()));
   }
 
   @Test
   public void testStoreFactSetsId() {
     FactRecord record = new FactRecord();
     FactEntity entity = new FactEntity();
-    FactDocument document = new FactDocument();
     when(factRecordConverter.toEntity(record)).thenReturn(entity);
-    when(factRecordConverter.toDocument(record)).thenReturn(document);
 
     assertSame(record, dao.storeFact(record));
-    verify(factManager).saveFact(entity);
-    verify(factSearchManager).indexFact(document);
+    verify(factManager).verifyNewFactAsync(entity);
+    verify(factManager).saveFactAsync(entity);
+    verify(factIndexingWorker).submit(notNull());
     verify(factRecordConverter).toEntity(argThat(r -> r.getId() != null));
-    verify(factRecordConverter).toDocument(argThat(r -> r.getId() != null));
   }
 
   @Test
@@ -227,7 +264,8 @@ public class ObjectFactDaoFacadeTest {
     when(factRecordConverter.toEntity(notNull())).thenReturn(entity);
 
     dao.storeFact(new FactRecord());
-    verify(objectManager).saveObjectFactBinding(argThat(b -> {
+    verify(objectManager).verifyObjectsExistAsync(ListUtils.list(binding.getObjectID()));
+    verify(objectManager).saveObjectFactBindingAsync(argThat(b -> {
       assertEquals(binding.getObjectID(), b.getObjectID());
       assertEquals(binding.getDirection(), b.getDirection());
       assertEquals(entity.getId(), b.getFactID());
@@ -235,6 +273,27 @@ public class ObjectFactDaoFacadeTest {
     }));
   }
 
+  @Test
+  public void testStoreFactSavesObjectFactTypeBindings() {
+    FactEntity.FactObjectBinding binding = new FactEntity.FactObjectBinding()
+            .setObjectID(UUID.randomUUID())
+            .setDirection(Direction.FactIsSource);
+    FactEntity entity = new FactEntity()
+            .setId(UUID.randomUUID())
+            .setTypeID(UUID.randomUUID())
+            .addBinding(binding);
+    when(factRecordConverter.toEntity(notNull())).thenReturn(entity);
+
+    dao.storeFact(new FactRecord());
+    verify(objectManager).saveObjectFactTypeBindingAsync(argThat(b -> {
+      assertEquals(binding.getObjectID(), b.getObjectID());
+      assertEquals(entity.getTypeID(), b.getFactTypeID());
+      assertEquals(binding.getDirection(), b.getDirection());
+      assertEquals(entity.getId(), b.getFactID());
+      return true;
+    }));
+  }
+
   @Test
   public void testStoreFactSavesMetaFactBindings() {
     FactEntity entity = new FactEntity()
@@ -243,7 +302,7 @@ public class ObjectFactDaoFacadeTest {
     when(factRecordConverter.toEntity(notNull())).thenReturn(entity);
 
     dao.storeFact(new FactRecord());
-    verify(factManager).saveMetaFactBinding(argThat(b -> {
+    verify(factManager).saveMetaFactBindingAsync(argThat(b -> {
       assertEquals(entity.getInReferenceToID(), b.getFactID());
       assertEquals(entity.getId(), b.getMetaFactID());
       return true;
@@ -260,7 +319,7 @@ public class ObjectFactDaoFacadeTest {
     when(factAclEntryRecordConverter.toEntity(entry, fact.getId())).thenReturn(new FactAclEntity());
 
     dao.storeFact(fact);
-    verify(factManager).saveFactAclEntry(notNull());
+    verify(factManager).saveFactAclEntryAsync(notNull());
     verify(factAclEntryRecordConverter).toEntity(argThat(r -> r.getId() != null), eq(fact.getId()));
   }
 
@@ -274,10 +333,65 @@ public class ObjectFactDaoFacadeTest {
     when(factCommentRecordConverter.toEntity(comment, fact.getId())).thenReturn(new FactCommentEntity());
 
     dao.storeFact(fact);
-    verify(factManager).saveFactComment(notNull());
+    verify(factManager).saveFactCommentAsync(notNull());
     verify(factCommentRecordConverter).toEntity(argThat(r -> r.getId() != null), eq(fact.getId()));
   }
 
+  @Test
+  public void testStoreFactDoesNotSaveAnythingIfVerificationFails() {
+    CompletableFuture<Void> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new ImmutableViolationException("test"));
+    when(factManager.verifyNewFactAsync(any())).thenReturn(failed);
+    when(factRecordConverter.toEntity(notNull())).thenReturn(new FactEntity().setId(UUID.randomUUID()));
+
+    try {
+      dao.storeFact(new FactRecord());
+      fail("Expected ImmutableViolationException!");
+    } catch (ImmutableViolationException ignored) {
+    }
+
+    verify(factManager, never()).saveFactAsync(any());
+    verify(objectManager, never()).saveObjectFactBindingAsync(any());
+    verify(objectManager, never()).saveObjectFactTypeBindingAsync(any());
+    verifyNoInteractions(factIndexingWorker);
+  }
+
+  @Test
+  public void testStoreFactDoesNotSaveAnythingElseIfFactInsertIsNotApplied() {
+    CompletableFuture<Void> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new ImmutableViolationException("test"));
+    when(factManager.saveFactAsync(any())).thenReturn(failed);
+    when(factRecordConverter.toEntity(notNull())).thenReturn(new FactEntity().setId(UUID.randomUUID()));
+
+    try {
+      dao.storeFact(new FactRecord().addAclEntry(new FactAclEntryRecord()));
+      fail("Expected ImmutableViolationException!");
+    } catch (ImmutableViolationException ignored) {
+    }
+
+    verify(factManager, never()).saveFactAclEntryAsync(any());
+    verify(factManager, never()).saveMetaFactBindingAsync(any());
+    verify(objectManager, never()).saveObjectFactBindingAsync(any());
+    verify(objectManager, never()).saveObjectFactTypeBindingAsync(any());
+    verifyNoInteractions(factIndexingWorker);
+  }
+
+  @Test
+  public void testStoreFactRethrowsInsertException() {
+    CompletableFuture<Void> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IllegalStateException());
+    when(factManager.saveFactAsync(any())).thenReturn(failed);
+    when(factRecordConverter.toEntity(notNull())).thenReturn(new FactEntity().setId(UUID.randomUUID()));
+
+    try {
+      dao.storeFact(new FactRecord());
+      fail("Expected IllegalStateException!");
+    } catch (IllegalStateException ignored) {
+    }
+
+    verifyNoInteractions(factIndexingWorker);
+  }
+
   @Test
   public void testRefreshFactWithNull() {
     assertNull(dao.refreshFact(null));
@@ -447,7 +561,7 @@ public class ObjectFactDaoFacadeTest {
     when(factSearchManager.retrieveExistingFacts(criteria))
             .thenReturn(SearchResult.<FactDocument>builder().setCount(1).addValue(document).build());
     when(factManager.getFacts(anyList())).thenReturn(ListUtils.list(entity).iterator());
-    when(factRecordConverter.fromEntity(entity)).thenReturn(record);
+    when(factRecordConverter.fromEntities(ListUtils.list(entity))).thenReturn(ListUtils.list(record));
 
     ResultContainer<FactRecord> container = dao.retrieveExistingFacts(record);
     assertEquals(1, container.getCount());
@@ -455,43 +569,61 @@ public class ObjectFactDaoFacadeTest {
     verify(factRecordConverter).toCriteria(record);
     verify(factSearchManager).retrieveExistingFacts(criteria);
     verify(factManager).getFacts(argThat(list -> list.contains(id)));
-    verify(factRecordConverter).fromEntity(entity);
+    verify(factRecordConverter).fromEntities(ListUtils.list(entity));
   }
 
   @Test
   public void testSearchFactsWithoutSearchResult() {
     FactSearchCriteria criteria = createFactSearchCriteria();
-    when(factSearchManager.searchFacts(criteria)).thenReturn(ScrollingSearchResult.<FactDocument>builder().build());
+    when(factSearchManager.searchFactIds(criteria)).thenReturn(ScrollingSearchResult.<UUID>builder().build());
 
     ResultContainer<FactRecord> container = dao.searchFacts(criteria);
     assertEquals(0, container.getCount());
     assertFalse(container.hasNext());
-    verify(factSearchManager).searchFacts(criteria);
+    verify(factSearchManager).searchFactIds(criteria);
     verifyNoInteractions(factManager);
   }
 
   @Test
   public void testSearchFactsWithSearchResult() {
     UUID id = UUID.randomUUID();
-    FactDocument document = new FactDocument().setId(id);
     FactEntity entity = new FactEntity().setId(id);
     FactRecord record = new FactRecord().setId(id);
     FactSearchCriteria criteria = createFactSearchCriteria();
 
-    when(factSearchManager.searchFacts(criteria)).thenReturn(ScrollingSearchResult.<FactDocument>builder()
+    when(factSearchManager.searchFactIds(criteria)).thenReturn(ScrollingSearchResult.<UUID>builder()
             .setInitialBatch(new ScrollingSearchResult.ScrollingBatch<>("TEST_SCROLL_ID",
-                    ListUtils.list(document).iterator(), true))
+                    ListUtils.list(id).iterator(), true))
             .setCount(1)
             .build());
     when(factManager.getFacts(anyList())).thenReturn(ListUtils.list(entity).iterator());
-    when(factRecordConverter.fromEntity(entity)).thenReturn(record);
+    when(factRecordConverter.fromEntities(ListUtils.list(entity))).thenReturn(ListUtils.list(record));
 
     ResultContainer<FactRecord> container = dao.searchFacts(criteria);
     assertEquals(1, container.getCount());
     assertEquals(ListUtils.list(record), ListUtils.list(container));
-    verify(factSearchManager).searchFacts(criteria);
+    verify(factSearchManager).searchFactIds(criteria);
     verify(factManager).getFacts(argThat(list -> list.contains(id)));
-    verify(factRecordConverter).fromEntity(entity);
+    verify(factRecordConverter).fromEntities(ListUtils.list(entity));
+  }
+
+  @Test
+  public void testSearchFactsKeepsOrderOfSearchResult() {
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    FactSearchCriteria criteria = createFactSearchCriteria();
+
+    when(factSearchManager.searchFactIds(criteria)).thenReturn(ScrollingSearchResult.<UUID>builder()
+            .setInitialBatch(new ScrollingSearchResult.ScrollingBatch<>("TEST_SCROLL_ID",
+                    ListUtils.list(first, second).iterator(), true))
+            .setCount(2)
+            .build());
+    // Cassandra returns the Facts in a different order than ElasticSearch.
+    when(factManager.getFacts(anyList())).thenReturn(ListUtils.list(new FactEntity().setId(second), new FactEntity().setId(first)).iterator());
+    when(factRecordConverter.fromEntities(anyList())).then(i -> ListUtils.list(i.<List<FactEntity>>getArgument(0), entity -> new FactRecord().setId(entity.getId())));
+
+    List<FactRecord> records = ListUtils.list(dao.searchFacts(criteria));
+    assertEquals(ListUtils.list(first, second), ListUtils.list(records, FactRecord::getId));
   }
 
   @Test
@@ -563,15 +695,13 @@ public class ObjectFactDaoFacadeTest {
     // Mock methods required for reindexing.
     when(factManager.getFact(fact.getId())).thenReturn(new FactEntity());
     when(factRecordConverter.fromEntity(notNull())).thenReturn(new FactRecord());
-    when(factRecordConverter.toDocument(notNull())).thenReturn(new FactDocument());
   }
 
   private void verifyReindexingOfFact(FactRecord fact) {
     // Verify reindexing.
     verify(factManager).getFact(fact.getId());
     verify(factRecordConverter).fromEntity(notNull());
-    verify(factRecordConverter).toDocument(notNull());
-    verify(factSearchManager, atLeastOnce()).indexFact(notNull());
+    verify(factIndexingWorker, atLeastOnce()).submit(fact.getId());
   }
 
   private FactSearchCriteria createFactSearchCriteria() {
@@ -16,10 +16,12 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.Assert.*;
-import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -242,6 +244,30 @@ public class FactRecordConverterTest {
     verify(factAclEntryRecordConverter, times(3)).fromEntity(notNull());
   }
 
+  @Test
+  public void testFromEntityResolvesAclAndCommentsLazily() {
+    FactEntity entity = new FactEntity().setId(UUID.randomUUID());
+    FactRecord record = converter.fromEntity(entity);
+    verify(factManager, never()).fetchFactAcl(any());
+    verify(factManager, never()).fetchFactComments(any());
+
+    assertNull(record.getAcl());
+    assertNull(record.getComments());
+    verify(factManager).fetchFactAcl(entity.getId());
+    verify(factManager).fetchFactComments(entity.getId());
+  }
+
+  @Test
+  public void testFromEntityAddAclEntryKeepsResolvedAcl() {
+    FactEntity entity = new FactEntity().setId(UUID.randomUUID());
+    when(factManager.fetchFactAcl(entity.getId())).thenReturn(ListUtils.list(new FactAclEntity()));
+    when(factAclEntryRecordConverter.fromEntity(notNull())).then(i -> new FactAclEntryRecord());
+
+    FactRecord record = converter.fromEntity(entity).addAclEntry(new FactAclEntryRecord());
+    assertEquals(2, record.getAcl().size());
+    verify(factManager).fetchFactAcl(entity.getId());
+  }
+
   @Test
   public void testFromEntityWithComments() {
     FactEntity entity = new FactEntity().setId(UUID.randomUUID());
@@ -256,6 +282,91 @@ public class FactRecordConverterTest {
     verify(factCommentRecordConverter, times(3)).fromEntity(notNull());
   }
 
+  @Test
+  public void testFromEntitiesWithEmptyList() {
+    assertEquals(0, converter.fromEntities(null).size());
+    assertEquals(0, converter.fromEntities(ListUtils.list()).size());
+    verifyNoInteractions(factManager, objectManager);
+  }
+
+  @Test
+  public void testFromEntitiesPreservesOrder() {
+    mockBatchFetch();
+    FactEntity first = new FactEntity().setId(UUID.randomUUID());
+    FactEntity second = new FactEntity().setId(UUID.randomUUID());
+
+    List<FactRecord> records = converter.fromEntities(ListUtils.list(first, null, second));
+    assertEquals(ListUtils.list(first.getId(), second.getId()), ListUtils.list(records, FactRecord::getId));
+  }
+
+  @Test
+  public void testFromEntitiesFetchesObjectsOnce() {
+    mockBatchFetch();
+    ObjectEntity source = new ObjectEntity().setId(UUID.randomUUID());
+    ObjectEntity destination = new ObjectEntity().setId(UUID.randomUUID());
+    ObjectRecord sourceRecord = new ObjectRecord().setId(source.getId());
+    ObjectRecord destinationRecord = new ObjectRecord().setId(destination.getId());
+    when(objectManager.getObjects(anyList())).thenReturn(ListUtils.list(source, destination).iterator());
+    when(objectRecordConverter.fromEntity(source)).thenReturn(sourceRecord);
+    when(objectRecordConverter.fromEntity(destination)).thenReturn(destinationRecord);
+
+    FactEntity first = createFactWithBindings(source.getId(), destination.getId());
+    FactEntity second = createFactWithBindings(source.getId(), destination.getId());
+
+    List<FactRecord> records = converter.fromEntities(ListUtils.list(first, second));
+    for (FactRecord record : records) {
+      assertSame(sourceRecord, record.getSourceObject());
+      assertSame(destinationRecord, record.getDestinationObject());
+    }
+
+    verify(objectManager).getObjects(argThat(id -> id.size() == 2 && id.containsAll(ListUtils.list(source.getId(), destination.getId()))));
+    verify(objectManager, never()).getObject(any());
+  }
+
+  @Test
+  public void testFromEntitiesFetchesAclOnce() {
+    mockBatchFetch();
+    FactEntity first = new FactEntity().setId(UUID.randomUUID());
+    FactEntity second = new FactEntity().setId(UUID.randomUUID());
+    when(factManager.fetchFactAclForFactsAsync(anyList())).thenReturn(CompletableFuture.completedFuture(ListUtils.list(
+            new FactAclEntity().setFactID(first.getId()),
+            new FactAclEntity().setFactID(first.getId()),
+            new FactAclEntity().setFactID(second.getId())
+    )));
+    when(factAclEntryRecordConverter.fromEntity(notNull())).then(i -> new FactAclEntryRecord());
+
+    List<FactRecord> records = converter.fromEntities(ListUtils.list(first, second));
+    assertEquals(2, records.get(0).getAcl().size());
+    assertEquals(1, records.get(1).getAcl().size());
+
+    verify(factManager).fetchFactAclForFactsAsync(ListUtils.list(first.getId(), second.getId()));
+    verify(factManager, never()).fetchFactAcl(any());
+  }
+
+  @Test
+  public void testFromEntitiesResolvesCommentsLazily() {
+    mockBatchFetch();
+    FactEntity entity = new FactEntity().setId(UUID.randomUUID());
+    when(factManager.fetchFactComments(entity.getId())).thenReturn(ListUtils.list(new FactCommentEntity(), new FactCommentEntity()));
+    when(factCommentRecordConverter.fromEntity(notNull())).then(i -> new FactCommentRecord());
+
+    FactRecord record = converter.fromEntities(ListUtils.list(entity)).get(0);
+    verify(factManager, never()).fetchFactComments(any());
+
+    assertEquals(2, record.getComments().size());
+    assertEquals(2, record.getComments().size());
+    verify(factManager).fetchFactComments(entity.getId());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testFromEntitiesRethrowsFetchException() {
+    mockBatchFetch();
+    CompletableFuture<List<FactAclEntity>> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IllegalStateException());
+    when(factManager.fetchFactAclForFactsAsync(anyList())).thenReturn(failed);
+    converter.fromEntities(ListUtils.list(new FactEntity().setId(UUID.randomUUID())));
+  }
+
   @Test
   public void testToEntityWithNullRecord() {
     assertNull(converter.toEntity(null));
@@ -508,4 +619,16 @@ public class FactRecordConverterTest {
     assertEquals(expected.getId(), actual.getObjectID());
     assertEquals(direction, actual.getDirection());
   }
+
+  private void mockBatchFetch() {
+    when(objectManager.getObjects(anyList())).thenReturn(ListUtils.<ObjectEntity>list().iterator());
+    when(factManager.fetchFactAclForFactsAsync(anyList())).thenReturn(CompletableFuture.completedFuture(ListUtils.list()));
+  }
+
+  private FactEntity createFactWithBindings(UUID sourceID, UUID destinationID) {
+    return new FactEntity()
+            .setId(UUID.randomUUID())
+            .addBinding(new FactEntity.FactObjectBinding().setObjectID(sourceID).setDirection(Direction.FactIsDestination))
+            .addBinding(new FactEntity.FactObjectBinding().setObjectID(destinationID).setDirection(Direction.FactIsSource));
+  }
 }
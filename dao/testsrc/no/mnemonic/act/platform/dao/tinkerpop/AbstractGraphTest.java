@@ -8,8 +8,11 @@ import no.mnemonic.commons.utilities.collections.ListUtils;
 import org.junit.Before;
 import org.mockito.Mock;
 
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -25,6 +28,12 @@ abstract class AbstractGraphTest {
   @Before
   public void setup() {
     initMocks(this);
+    // Resolve Facts fetched in batches by the mocked single Fact lookups.
+    when(factManager.getFacts(any())).then(i -> i.<List<UUID>>getArgument(0)
+            .stream()
+            .map(factManager::getFact)
+            .filter(Objects::nonNull)
+            .iterator());
 
     actGraph = ActGraph.builder()
             .setObjectManager(objectManager)
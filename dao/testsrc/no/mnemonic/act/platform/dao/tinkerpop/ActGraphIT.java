@@ -4,6 +4,7 @@ import no.mnemonic.act.platform.dao.cassandra.ClusterManager;
 import no.mnemonic.act.platform.dao.cassandra.FactManager;
 import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
 import no.mnemonic.act.platform.dao.cassandra.entity.*;
+import no.mnemonic.act.platform.dao.tools.ObjectFactTypeBindingBackfill;
 import no.mnemonic.commons.junit.docker.CassandraDockerResource;
 import no.mnemonic.commons.junit.docker.DockerTestUtils;
 import no.mnemonic.commons.utilities.ObjectUtils;
@@ -47,7 +48,7 @@ public class ActGraphIT {
             .setPort(cassandra.getExposedHostPort(9042))
             .addContactPoint(DockerTestUtils.getDockerHost())
             .build();
-    objectManager = new ObjectManager(clusterManager);
+    objectManager = new ObjectManager(clusterManager).setFactTypeBindingLookupEnabled(true);
     factManager = new FactManager(clusterManager);
     clusterManager.startComponent();
     objectManager.startComponent();
@@ -99,6 +100,9 @@ public class ActGraphIT {
     factManager.saveFact(resolve);
     factManager.saveFact(seen);
     factManager.saveFact(used);
+
+    // Populate the lookup table of bindings by FactType from the saved bindings.
+    new ObjectFactTypeBindingBackfill(objectManager, factManager).run();
   }
 
   @AfterClass
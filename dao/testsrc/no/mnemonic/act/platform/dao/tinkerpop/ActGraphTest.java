@@ -17,12 +17,14 @@ import org.apache.tinkerpop.gremlin.structure.util.star.StarGraph;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 import org.junit.Test;
 
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
 
 public class ActGraphTest extends AbstractGraphTest {
 
@@ -69,6 +71,19 @@ public class ActGraphTest extends AbstractGraphTest {
     assertEquals(objectVertex, result.next());
   }
 
+  @Test
+  public void testGraphsShareStatistics() {
+    TraversalStatistics statistics = new TraversalStatistics(TraversalBudget.builder().build());
+    ActGraph first = createGraph(statistics);
+    ActGraph second = createGraph(statistics);
+
+    first.vertices(mockObject()).next();
+    second.vertices(mockObject()).next();
+    assertSame(statistics, first.getStatistics());
+    assertSame(statistics, second.getStatistics());
+    assertEquals(2, statistics.getVertexCount());
+  }
+
   @Test(expected = GraphOperationException.class)
   public void testFetchingAllEdgesNotAllowed() {
     getActGraph().edges();
@@ -90,6 +105,31 @@ public class ActGraphTest extends AbstractGraphTest {
     assertEquals(expected, actual);
   }
 
+  @Test
+  public void testVertexListenerNotifiedAboutTouchedObjects() {
+    UUID objectID = mockObject();
+    UUID otherID = mockObject();
+    UUID factID = mockFact(new FactEntity.FactObjectBinding()
+            .setDirection(Direction.BiDirectional)
+            .setObjectID(otherID)
+    );
+    when(getObjectManager().fetchObjectFactBindings(objectID)).then(i -> IteratorUtils.of(new ObjectFactBindingEntity()
+            .setFactID(factID)
+            .setObjectID(objectID)
+            .setDirection(Direction.BiDirectional)));
+
+    Set<UUID> touched = new HashSet<>();
+    ActGraph graph = ActGraph.builder()
+            .setObjectManager(getObjectManager())
+            .setFactManager(getFactManager())
+            .setHasFactAccess(b -> true)
+            .setVertexListener(touched::add)
+            .build();
+
+    assertEquals(1, graph.traversal().V(objectID).both().count().next().intValue());
+    assertEquals(SetUtils.set(objectID, otherID), touched);
+  }
+
   /* The following tests are adapted from gremlin-test GraphTest. */
 
   @Test
@@ -252,4 +292,12 @@ public class ActGraphTest extends AbstractGraphTest {
             .setDirection(Direction.BiDirectional);
   }
 
+  private ActGraph createGraph(TraversalStatistics statistics) {
+    return ActGraph.builder()
+            .setObjectManager(getObjectManager())
+            .setFactManager(getFactManager())
+            .setHasFactAccess(f -> true)
+            .setStatistics(statistics)
+            .build();
+  }
 }
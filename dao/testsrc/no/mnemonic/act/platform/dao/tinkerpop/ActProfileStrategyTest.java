@@ -0,0 +1,102 @@
+package no.mnemonic.act.platform.dao.tinkerpop;
+
+import no.mnemonic.act.platform.dao.cassandra.entity.Direction;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
+import no.mnemonic.act.platform.dao.tinkerpop.exceptions.TraversalBudgetExceededException;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.util.Metrics;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalMetrics;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static no.mnemonic.commons.utilities.collections.ListUtils.list;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
+
+public class ActProfileStrategyTest extends AbstractGraphTest {
+
+  private UUID objectID;
+
+  @Before
+  public void setUp() {
+    objectID = mockObjectWithFact();
+  }
+
+  @Test
+  public void testStrategyNotAppliedWithoutProfile() {
+    Traversal.Admin<?, ?> traversal = getActGraph().traversal().V(objectID).outE().asAdmin();
+    traversal.applyStrategies();
+    assertTrue(TraversalHelper.getStepsOfClass(ActProfileStep.class, traversal).isEmpty());
+  }
+
+  @Test
+  public void testProfileAnnotatesStepsWithReadsAndAccessChecks() {
+    TraversalMetrics metrics = getActGraph().traversal().V(objectID).outE().profile().next();
+    List<? extends Metrics> steps = list(metrics.getMetrics());
+    assertEquals(2, steps.size());
+
+    // V() loads the starting vertex.
+    assertEquals(1L, steps.get(0).getAnnotation(ActProfileStep.READS_ANNOTATION));
+    assertEquals(0L, steps.get(0).getAnnotation(ActProfileStep.ACCESS_CHECKS_ANNOTATION));
+    // outE() reads the binding and the Fact, checks access to the Fact, and loads the other vertex.
+    assertEquals(3L, steps.get(1).getAnnotation(ActProfileStep.READS_ANNOTATION));
+    assertEquals(1L, steps.get(1).getAnnotation(ActProfileStep.ACCESS_CHECKS_ANNOTATION));
+    assertTrue(metrics.toString().contains(ActProfileStep.READS_ANNOTATION));
+  }
+
+  @Test
+  public void testProfileAnnotatesNestedTraversals() {
+    TraversalMetrics metrics = getActGraph().traversal().V(objectID).where(__.outE()).profile().next();
+    Metrics whereStep = list(metrics.getMetrics()).get(1);
+    Metrics nestedStep = list(whereStep.getNested()).get(0);
+    assertEquals(3L, nestedStep.getAnnotation(ActProfileStep.READS_ANNOTATION));
+    assertEquals(0L, whereStep.getAnnotation(ActProfileStep.READS_ANNOTATION));
+  }
+
+  @Test
+  public void testTraversalCountsResources() {
+    assertEquals(1, getActGraph().traversal().V(objectID).outE().toList().size());
+
+    TraversalStatistics statistics = getActGraph().getStatistics();
+    assertEquals(2, statistics.getVertexCount());
+    assertEquals(1, statistics.getEdgeCount());
+    assertEquals(4, statistics.getReadCount());
+    assertEquals(1, statistics.getAccessCheckCount());
+  }
+
+  @Test(expected = TraversalBudgetExceededException.class)
+  public void testTraversalExceedsBudget() {
+    ActGraph.builder()
+            .setObjectManager(getObjectManager())
+            .setFactManager(getFactManager())
+            .setHasFactAccess(fact -> true)
+            .setBudget(TraversalBudget.builder().setMaximumReads(2).build())
+            .build()
+            .traversal()
+            .V(objectID)
+            .outE()
+            .toList();
+  }
+
+  private UUID mockObjectWithFact() {
+    UUID objectID = mockObject();
+    UUID factID = mockFact(new FactEntity.FactObjectBinding()
+            .setObjectID(mockObject())
+            .setDirection(Direction.FactIsSource)
+    );
+
+    ObjectFactBindingEntity binding = new ObjectFactBindingEntity()
+            .setObjectID(objectID)
+            .setFactID(factID)
+            .setDirection(Direction.FactIsDestination);
+    when(getObjectManager().fetchObjectFactBindings(objectID)).then(i -> list(binding).iterator());
+
+    return objectID;
+  }
+}
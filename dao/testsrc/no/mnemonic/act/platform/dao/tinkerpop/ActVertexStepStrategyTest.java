@@ -0,0 +1,143 @@
+package no.mnemonic.act.platform.dao.tinkerpop;
+
+import no.mnemonic.act.platform.dao.cassandra.entity.Direction;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactTypeEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static no.mnemonic.commons.utilities.collections.ListUtils.list;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ActVertexStepStrategyTest extends AbstractGraphTest {
+
+  @Mock
+  private Predicate<FactEntity> hasFactAccess;
+
+  private GraphTraversalSource g;
+  private UUID objectID;
+
+  @Before
+  public void setUp() {
+    when(hasFactAccess.test(any())).thenReturn(true);
+    g = ActGraph.builder()
+            .setObjectManager(getObjectManager())
+            .setFactManager(getFactManager())
+            .setHasFactAccess(hasFactAccess)
+            .build()
+            .traversal();
+    objectID = mockObjectWithFact();
+  }
+
+  @Test
+  public void testFoldHasIntoEdgeStep() {
+    ActVertexStep step = applyStrategies(g.V(objectID).outE().has("value", "value").has("trust", P.gt(0.1f)));
+    assertEquals(2, step.getHasContainers().size());
+    assertEquals(0, step.getEdgeLabels().length);
+  }
+
+  @Test
+  public void testFoldHasLabelIntoEdgeLabels() {
+    // A sole hasLabel() is already inlined by TinkerPop, but not in combination with other filters.
+    assertArrayEquals(new String[]{"type"}, applyStrategies(g.V(objectID).outE().has("value", "value").hasLabel("type")).getEdgeLabels());
+    assertArrayEquals(new String[]{"a", "b"}, applyStrategies(g.V(objectID).bothE().hasLabel("a", "b").has("value", "value")).getEdgeLabels());
+  }
+
+  @Test
+  public void testFoldHasLabelKeepsLabelsOfEdgeStep() {
+    ActVertexStep step = applyStrategies(g.V(objectID).inE("a").hasLabel("b"));
+    assertArrayEquals(new String[]{"a"}, step.getEdgeLabels());
+    assertEquals(1, step.getHasContainers().size());
+  }
+
+  @Test
+  public void testFoldKeepsStepLabels() {
+    assertTrue(applyStrategies(g.V(objectID).outE().has("value", "value").as("e")).getLabels().contains("e"));
+  }
+
+  @Test
+  public void testDoNotFoldHasId() {
+    Traversal.Admin<?, ?> traversal = g.V(objectID).outE().hasId(UUID.randomUUID()).asAdmin();
+    traversal.applyStrategies();
+    assertTrue(TraversalHelper.getStepsOfClass(ActVertexStep.class, traversal).isEmpty());
+    assertFalse(TraversalHelper.getStepsOfClass(HasStep.class, traversal).isEmpty());
+  }
+
+  @Test
+  public void testDoNotFoldAfterVertexStepReturningVertices() {
+    Traversal.Admin<?, ?> traversal = g.V(objectID).out().has("value", "value").asAdmin();
+    traversal.applyStrategies();
+    assertTrue(TraversalHelper.getStepsOfClass(ActVertexStep.class, traversal).isEmpty());
+  }
+
+  @Test
+  public void testTraversalWithMatchingFilter() {
+    assertEquals(1, g.V(objectID).outE().has("value", "value").toList().size());
+    assertEquals(1, g.V(objectID).outE().has("timestamp", P.gt(100L)).toList().size());
+    assertEquals(1, g.V(objectID).outE().hasLabel("type").has("trust", P.gte(0.3f)).toList().size());
+  }
+
+  @Test
+  public void testTraversalWithNonMatchingFilterSkipsAccessCheck() {
+    assertEquals(0, g.V(objectID).outE().has("value", "something").toList().size());
+    assertEquals(0, g.V(objectID).outE().has("timestamp", P.lt(100L)).toList().size());
+    assertEquals(0, g.V(objectID).outE().has("unknown", "value").toList().size());
+    assertEquals(0, g.V(objectID).outE().hasLabel(P.neq("type")).toList().size());
+    verify(hasFactAccess, never()).test(any());
+  }
+
+  @Test
+  public void testTraversalWithHasLabelOnlyReadsBindingsOfFactType() {
+    assertEquals(1, g.V(objectID).outE().has("value", "value").hasLabel("type").toList().size());
+    verify(getObjectManager()).fetchObjectFactBindings(eq(objectID), any(), any());
+    verify(getObjectManager(), never()).fetchObjectFactBindings(objectID);
+  }
+
+  private ActVertexStep applyStrategies(GraphTraversal<?, ?> traversal) {
+    Traversal.Admin<?, ?> admin = traversal.asAdmin();
+    admin.applyStrategies();
+
+    List<ActVertexStep> steps = TraversalHelper.getStepsOfClass(ActVertexStep.class, admin);
+    assertEquals(1, steps.size());
+    assertTrue(TraversalHelper.getStepsOfClass(HasStep.class, admin).isEmpty());
+    return steps.get(0);
+  }
+
+  private UUID mockObjectWithFact() {
+    UUID objectID = mockObject();
+    UUID factID = mockFact(new FactEntity.FactObjectBinding()
+            .setObjectID(mockObject())
+            .setDirection(Direction.FactIsSource)
+    );
+
+    ObjectFactBindingEntity binding = new ObjectFactBindingEntity()
+            .setObjectID(objectID)
+            .setFactID(factID)
+            .setDirection(Direction.FactIsDestination);
+    when(getObjectManager().fetchObjectFactBindings(objectID)).then(i -> list(binding).iterator());
+
+    UUID factTypeID = getFactManager().getFact(factID).getTypeID();
+    when(getFactManager().getFactType("type")).thenReturn(new FactTypeEntity().setId(factTypeID).setName("type"));
+    when(getObjectManager().fetchObjectFactBindings(eq(objectID), eq(Collections.singleton(factTypeID)), any()))
+            .then(i -> i.<Set<Direction>>getArgument(2).contains(binding.getDirection()) ? list(binding).iterator() : Collections.emptyIterator());
+
+    return objectID;
+  }
+}
@@ -17,6 +17,7 @@ import java.util.UUID;
 
 import static no.mnemonic.commons.utilities.collections.MapUtils.Pair.T;
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class FactEdgeTest extends AbstractGraphTest {
@@ -51,6 +52,20 @@ public class FactEdgeTest extends AbstractGraphTest {
     assertSame(getActGraph(), edge.graph());
   }
 
+  @Test
+  public void testCreateEdgeFromFetchedFact() {
+    FactEntity fact = getFactManager().getFact(mockFact(null));
+    Edge edge = new FactEdge(getActGraph(), fact, mockObject(), mockObject());
+    assertEquals(fact.getId().toString(), edge.value("factID"));
+    assertEquals("type", edge.label());
+    verify(getFactManager()).getFact(fact.getId());
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testCreateEdgeFromNullFact() {
+    new FactEdge(getActGraph(), (FactEntity) null, UUID.randomUUID(), UUID.randomUUID());
+  }
+
   @Test
   public void testVerticesWithDirectionIn() {
     UUID factID = mockFact(null);
@@ -1,25 +1,30 @@
 package no.mnemonic.act.platform.dao.tinkerpop;
 
+import no.mnemonic.act.platform.dao.api.result.ObjectStatisticsContainer;
 import no.mnemonic.act.platform.dao.cassandra.entity.Direction;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactTypeEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
 import no.mnemonic.commons.utilities.collections.MapUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
+import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.junit.Test;
 
-import java.util.Map;
-import java.util.Set;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Function;
 
 import static no.mnemonic.commons.utilities.collections.ListUtils.list;
 import static no.mnemonic.commons.utilities.collections.MapUtils.Pair.T;
+import static org.apache.tinkerpop.gremlin.process.traversal.P.gt;
 import static org.apache.tinkerpop.gremlin.structure.Direction.*;
 import static org.junit.Assert.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 public class ObjectVertexTest extends AbstractGraphTest {
 
@@ -28,9 +33,14 @@ public class ObjectVertexTest extends AbstractGraphTest {
     new ObjectVertex(null, UUID.randomUUID());
   }
 
+  @Test(expected = RuntimeException.class)
+  public void testCreateVertexWithoutObjectId() {
+    new ObjectVertex(getActGraph(), null);
+  }
+
   @Test(expected = RuntimeException.class)
   public void testCreateVertexWithoutObject() {
-    new ObjectVertex(getActGraph(), UUID.randomUUID());
+    new ObjectVertex(getActGraph(), UUID.randomUUID()).label();
   }
 
   @Test(expected = RuntimeException.class)
@@ -42,7 +52,41 @@ public class ObjectVertexTest extends AbstractGraphTest {
             .setValue("value")
     );
 
-    new ObjectVertex(getActGraph(), objectID);
+    new ObjectVertex(getActGraph(), objectID).label();
+  }
+
+  @Test
+  public void testCreateVertexResolvesObjectLazily() {
+    UUID objectID = mockObject();
+    Vertex vertex = new ObjectVertex(getActGraph(), objectID);
+    assertEquals(objectID, vertex.id());
+    verifyNoInteractions(getObjectManager());
+
+    assertEquals("type", vertex.label());
+    assertEquals("value", vertex.value("value"));
+    verify(getObjectManager()).getObject(objectID);
+    verify(getObjectManager(), never()).fetchObjectFactBindings(any());
+  }
+
+  @Test
+  public void testEdgesFetchesFactsInBatches() {
+    UUID objectID = mockObject();
+    List<ObjectFactBindingEntity> bindings = new ArrayList<>();
+    for (int i = 0; i < 1500; i++) {
+      bindings.add(new ObjectFactBindingEntity()
+              .setObjectID(objectID)
+              .setFactID(mockFact(new FactEntity.FactObjectBinding()
+                      .setObjectID(mockObject())
+                      .setDirection(Direction.BiDirectional)))
+              .setDirection(Direction.BiDirectional));
+    }
+    when(getObjectManager().fetchObjectFactBindings(objectID)).then(i -> bindings.iterator());
+
+    Iterator<Edge> edges = new ObjectVertex(getActGraph(), objectID).edges(BOTH);
+    verify(getFactManager(), never()).getFacts(any());
+
+    assertEquals(1500, list(edges).size());
+    verify(getFactManager(), times(2)).getFacts(any());
   }
 
   @Test
@@ -93,6 +137,27 @@ public class ObjectVertexTest extends AbstractGraphTest {
     assertFalse(vertex.edges(BOTH, "something").hasNext());
   }
 
+  @Test
+  public void testEdgesFilterByLabelOnlyReadsBindingsOfFactType() {
+    UUID objectID = mockObjectWithFact(Direction.FactIsDestination);
+    Vertex vertex = new ObjectVertex(getActGraph(), objectID);
+
+    assertTrue(vertex.edges(OUT, "type").hasNext());
+    assertFalse(vertex.edges(IN, "type").hasNext());
+    verify(getObjectManager()).fetchObjectFactBindings(eq(objectID), any(), eq(SetUtils.set(Direction.BiDirectional, Direction.FactIsDestination)));
+    verify(getObjectManager()).fetchObjectFactBindings(eq(objectID), any(), eq(SetUtils.set(Direction.BiDirectional, Direction.FactIsSource)));
+    verify(getObjectManager(), never()).fetchObjectFactBindings(objectID);
+  }
+
+  @Test
+  public void testEdgesFilterByUnknownLabel() {
+    UUID objectID = mockObjectWithFact(Direction.BiDirectional);
+    Vertex vertex = new ObjectVertex(getActGraph(), objectID);
+
+    assertFalse(vertex.edges(BOTH, "something").hasNext());
+    verify(getObjectManager()).fetchObjectFactBindings(eq(objectID), eq(Collections.emptySet()), any());
+  }
+
   @Test
   public void testVerticesWithDirectionBiDirectional() {
     UUID objectID = mockObjectWithFact(Direction.BiDirectional);
@@ -150,6 +215,70 @@ public class ObjectVertexTest extends AbstractGraphTest {
     assertTrue(vertex.properties("value").hasNext());
   }
 
+  @Test
+  public void testPropertiesWithStatistics() {
+    UUID objectID = mockObject();
+    UUID factTypeID = mockFactType("seenIn");
+    ActGraph graph = createGraphWithStatistics(criteria -> ObjectStatisticsContainer.builder()
+            .addStatistic(objectID, new ObjectStatisticsContainer.FactStatistic(factTypeID, 3, 123456789, 987654321))
+            .addStatistic(objectID, new ObjectStatisticsContainer.FactStatistic(mockFactType("mentions"), 2, 111111111, 999999999))
+            .build());
+
+    Vertex vertex = new ObjectVertex(graph, objectID);
+    assertEquals(5L, vertex.<Long>value("factCount").longValue());
+    assertEquals(123456789L, vertex.<Long>value("lastAddedTimestamp").longValue());
+    assertEquals(999999999L, vertex.<Long>value("lastSeenTimestamp").longValue());
+    assertEquals(3L, vertex.<Long>value("factCount.seenIn").longValue());
+    assertEquals(123456789L, vertex.<Long>value("lastAddedTimestamp.seenIn").longValue());
+    assertEquals(987654321L, vertex.<Long>value("lastSeenTimestamp.seenIn").longValue());
+    assertEquals(2L, vertex.<Long>value("factCount.mentions").longValue());
+    assertEquals(10, SetUtils.set(vertex.properties()).size());
+  }
+
+  @Test
+  public void testPropertiesWithStatisticsOfObjectWithoutFacts() {
+    ActGraph graph = createGraphWithStatistics(criteria -> ObjectStatisticsContainer.builder().build());
+
+    Vertex vertex = new ObjectVertex(graph, mockObject());
+    assertEquals(0L, vertex.<Long>value("factCount").longValue());
+    assertFalse(vertex.properties("factCount.seenIn").hasNext());
+  }
+
+  @Test
+  public void testPropertiesWithoutStatisticsResolver() {
+    Vertex vertex = createVertex();
+    assertFalse(vertex.properties("factCount").hasNext());
+    assertEquals(SetUtils.set("value"), vertex.keys());
+  }
+
+  @Test
+  public void testPropertiesOnlyFetchesStatisticsWhenRequested() {
+    //noinspection unchecked
+    Function<Set<UUID>, ObjectStatisticsContainer> resolver = mock(Function.class);
+    Vertex vertex = new ObjectVertex(createGraphWithStatistics(resolver), mockObject());
+
+    assertEquals("value", vertex.value("value"));
+    verifyNoInteractions(resolver);
+  }
+
+  @Test
+  public void testFilterVerticesByFactCountFetchesStatisticsInBatch() {
+    UUID factTypeID = mockFactType("seenIn");
+    UUID object1 = mockObject();
+    UUID object2 = mockObject();
+    //noinspection unchecked
+    Function<Set<UUID>, ObjectStatisticsContainer> resolver = mock(Function.class);
+    when(resolver.apply(any())).thenReturn(ObjectStatisticsContainer.builder()
+            .addStatistic(object1, new ObjectStatisticsContainer.FactStatistic(factTypeID, 10, 0, 0))
+            .addStatistic(object2, new ObjectStatisticsContainer.FactStatistic(factTypeID, 1, 0, 0))
+            .build());
+
+    ActGraph graph = createGraphWithStatistics(resolver);
+    assertEquals(list(object1), graph.traversal().V(object1, object2).has("factCount.seenIn", gt(5L)).id().toList());
+    verify(resolver).apply(SetUtils.set(object1, object2));
+    verify(getObjectManager(), never()).fetchObjectFactBindings(any());
+  }
+
   /* The following tests are adapted from gremlin-test VertexTest. */
 
   @Test
@@ -228,6 +357,21 @@ public class ObjectVertexTest extends AbstractGraphTest {
     return new ObjectVertex(getActGraph(), mockObject());
   }
 
+  private ActGraph createGraphWithStatistics(Function<Set<UUID>, ObjectStatisticsContainer> resolver) {
+    return ActGraph.builder()
+            .setObjectManager(getObjectManager())
+            .setFactManager(getFactManager())
+            .setHasFactAccess(f -> true)
+            .setObjectStatisticsResolver(resolver)
+            .build();
+  }
+
+  private UUID mockFactType(String name) {
+    UUID factTypeID = UUID.randomUUID();
+    when(getFactManager().getFactType(factTypeID)).thenReturn(new FactTypeEntity().setId(factTypeID).setName(name));
+    return factTypeID;
+  }
+
   private UUID mockObjectWithFact(Direction inDirection) {
     UUID objectID = mockObject();
     UUID factID = mockFact(new FactEntity.FactObjectBinding()
@@ -235,11 +379,17 @@ public class ObjectVertexTest extends AbstractGraphTest {
             .setDirection(swapDirection(inDirection))
     );
 
-    when(getObjectManager().fetchObjectFactBindings(objectID)).thenReturn(list(new ObjectFactBindingEntity()
+    ObjectFactBindingEntity binding = new ObjectFactBindingEntity()
             .setObjectID(objectID)
             .setFactID(factID)
-            .setDirection(inDirection)
-    ).iterator());
+            .setDirection(inDirection);
+    when(getObjectManager().fetchObjectFactBindings(objectID)).then(i -> list(binding).iterator());
+
+    // Also mock the lookup of bindings by FactType and direction.
+    UUID factTypeID = getFactManager().getFact(factID).getTypeID();
+    when(getFactManager().getFactType("type")).thenReturn(new FactTypeEntity().setId(factTypeID).setName("type"));
+    when(getObjectManager().fetchObjectFactBindings(eq(objectID), eq(SetUtils.set(factTypeID)), any()))
+            .then(i -> i.<Set<Direction>>getArgument(2).contains(inDirection) ? list(binding).iterator() : Collections.emptyIterator());
 
     return objectID;
   }
@@ -0,0 +1,98 @@
+package no.mnemonic.act.platform.dao.tinkerpop;
+
+import no.mnemonic.act.platform.dao.tinkerpop.exceptions.TraversalAbortedException;
+import no.mnemonic.act.platform.dao.tinkerpop.exceptions.TraversalBudgetExceededException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TraversalStatisticsTest {
+
+  @Test
+  public void testRecordWithoutBudget() {
+    TraversalStatistics statistics = new TraversalStatistics(TraversalBudget.builder().build());
+    statistics.recordVertex();
+    statistics.recordEdges(2);
+    statistics.recordReads(3);
+    statistics.recordAccessCheck();
+
+    assertEquals(1, statistics.getVertexCount());
+    assertEquals(2, statistics.getEdgeCount());
+    assertEquals(3, statistics.getReadCount());
+    assertEquals(1, statistics.getAccessCheckCount());
+  }
+
+  @Test
+  public void testRecordVerticesExceedsBudget() {
+    TraversalStatistics statistics = new TraversalStatistics(TraversalBudget.builder().setMaximumVertices(1).build());
+    statistics.recordVertex();
+    assertBudgetExceeded(statistics::recordVertex);
+  }
+
+  @Test
+  public void testRecordEdgesExceedsBudget() {
+    TraversalStatistics statistics = new TraversalStatistics(TraversalBudget.builder().setMaximumEdges(2).build());
+    statistics.recordEdges(2);
+    assertBudgetExceeded(() -> statistics.recordEdges(1));
+  }
+
+  @Test
+  public void testRecordReadsExceedsBudget() {
+    TraversalStatistics statistics = new TraversalStatistics(TraversalBudget.builder().setMaximumReads(2).build());
+    assertBudgetExceeded(() -> statistics.recordReads(3));
+  }
+
+  @Test
+  public void testRecordAfterAbort() {
+    TraversalStatistics statistics = new TraversalStatistics(TraversalBudget.builder().build());
+    statistics.recordReads(1);
+    statistics.abort();
+
+    assertAborted(statistics::recordVertex);
+    assertAborted(() -> statistics.recordEdges(1));
+    assertAborted(() -> statistics.recordReads(1));
+    assertAborted(statistics::recordAccessCheck);
+  }
+
+  @Test
+  public void testRecordAttributedToActiveStep() {
+    TraversalStatistics statistics = new TraversalStatistics(TraversalBudget.builder().build());
+    TraversalStatistics.StepStatistics outer = new TraversalStatistics.StepStatistics();
+    TraversalStatistics.StepStatistics inner = new TraversalStatistics.StepStatistics();
+
+    TraversalStatistics.StepStatistics previousOuter = statistics.enterStep(outer);
+    statistics.recordReads(1);
+    TraversalStatistics.StepStatistics previousInner = statistics.enterStep(inner);
+    statistics.recordReads(2);
+    statistics.recordAccessCheck();
+    statistics.exitStep(previousInner);
+    statistics.recordReads(3);
+    statistics.exitStep(previousOuter);
+    statistics.recordReads(4);
+
+    assertEquals(4, outer.getReads());
+    assertEquals(0, outer.getAccessChecks());
+    assertEquals(2, inner.getReads());
+    assertEquals(1, inner.getAccessChecks());
+    assertEquals(10, statistics.getReadCount());
+  }
+
+  private void assertAborted(Runnable record) {
+    try {
+      record.run();
+      fail("Expected TraversalAbortedException!");
+    } catch (TraversalAbortedException ignored) {
+      // Expected.
+    }
+  }
+
+  private void assertBudgetExceeded(Runnable record) {
+    try {
+      record.run();
+      fail("Expected TraversalBudgetExceededException!");
+    } catch (TraversalBudgetExceededException ignored) {
+      // Expected.
+    }
+  }
+}
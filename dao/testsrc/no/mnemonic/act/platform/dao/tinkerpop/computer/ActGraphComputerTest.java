@@ -0,0 +1,369 @@
+package no.mnemonic.act.platform.dao.tinkerpop.computer;
+
+import no.mnemonic.act.platform.dao.cassandra.FactManager;
+import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
+import no.mnemonic.act.platform.dao.cassandra.entity.*;
+import no.mnemonic.act.platform.dao.tinkerpop.ActGraph;
+import no.mnemonic.act.platform.dao.tinkerpop.ObjectVertex;
+import no.mnemonic.act.platform.dao.tinkerpop.exceptions.GraphOperationException;
+import org.apache.tinkerpop.gremlin.process.computer.ComputerResult;
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.computer.VertexProgram;
+import org.apache.tinkerpop.gremlin.process.computer.clustering.connected.ConnectedComponentVertexProgram;
+import org.apache.tinkerpop.gremlin.process.computer.ranking.pagerank.PageRankVertexProgram;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.wrapped.WrappedVertex;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeoutException;
+
+import static no.mnemonic.commons.utilities.collections.ListUtils.list;
+import static no.mnemonic.commons.utilities.collections.SetUtils.set;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class ActGraphComputerTest {
+
+  private static final UUID OBJECT_TYPE_ID = UUID.randomUUID();
+  private static final UUID FACT_TYPE_ID = UUID.randomUUID();
+
+  @Mock
+  private ObjectManager objectManager;
+  @Mock
+  private FactManager factManager;
+
+  private final Map<UUID, FactEntity> facts = new HashMap<>();
+  private final Map<UUID, List<ObjectFactBindingEntity>> bindings = new HashMap<>();
+  private final Set<UUID> inaccessibleFacts = new HashSet<>();
+  private ActGraph graph;
+
+  @Before
+  public void setup() {
+    initMocks(this);
+    when(objectManager.fetchObjectFactBindings(isA(UUID.class))).then(i -> bindings.getOrDefault(i.<UUID>getArgument(0), list()).iterator());
+    when(factManager.getFacts(any())).then(i -> i.<List<UUID>>getArgument(0).stream().map(facts::get).iterator());
+    when(objectManager.getObject(isA(UUID.class))).then(i -> new ObjectEntity()
+            .setId(i.getArgument(0))
+            .setTypeID(OBJECT_TYPE_ID)
+            .setValue("value"));
+    when(objectManager.getObjectType(OBJECT_TYPE_ID)).thenReturn(new ObjectTypeEntity().setId(OBJECT_TYPE_ID).setName("type"));
+    when(factManager.getFactType(FACT_TYPE_ID)).thenReturn(new FactTypeEntity().setId(FACT_TYPE_ID).setName("link"));
+
+    graph = ActGraph.builder()
+            .setObjectManager(objectManager)
+            .setFactManager(factManager)
+            .setHasFactAccess(fact -> !inaccessibleFacts.contains(fact.getId()))
+            .build();
+  }
+
+  @Test(expected = GraphOperationException.class)
+  public void testSubmitWithoutSeeds() {
+    graph.compute().program(createConnectedComponent()).submit();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSubmitWithoutProgram() {
+    graph.compute().seeds(list(UUID.randomUUID())).submit();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSubmitTwice() {
+    ActGraphComputer computer = graph.compute().seeds(list(UUID.randomUUID())).program(createConnectedComponent());
+    computer.submit();
+    computer.submit();
+  }
+
+  @Test(expected = GraphOperationException.class)
+  public void testMapReduceNotSupported() {
+    graph.compute().mapReduce(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOriginalResultGraphNotSupported() {
+    graph.compute()
+            .seeds(list(UUID.randomUUID()))
+            .program(createConnectedComponent())
+            .result(GraphComputer.ResultGraph.ORIGINAL)
+            .submit();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooManyWorkers() {
+    graph.compute().workers(graph.compute().features().getMaxWorkers() + 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeTimeout() {
+    graph.compute().timeout(-1);
+  }
+
+  @Test
+  public void testComputeReturnsActGraphComputer() {
+    assertTrue(graph.features().graph().supportsComputer());
+    assertNotNull(graph.compute(ActGraphComputer.class));
+    assertNotNull(graph.compute(GraphComputer.class));
+  }
+
+  @Test
+  public void testLoadSubgraphWithinHops() throws Exception {
+    UUID[] objects = createObjects(4);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[1], objects[2]);
+    mockFact(objects[2], objects[3]);
+
+    assertEquals(set(objects[0]), getVertexIds(compute(createConnectedComponent(), 0, objects[0]).graph()));
+    assertEquals(set(objects[0], objects[1]), getVertexIds(compute(createConnectedComponent(), 1, objects[0]).graph()));
+    assertEquals(set(objects[0], objects[1], objects[2]), getVertexIds(compute(createConnectedComponent(), 2, objects[0]).graph()));
+    assertEquals(set(objects), getVertexIds(compute(createConnectedComponent(), 1, objects[1], objects[2]).graph()));
+  }
+
+  @Test
+  public void testLoadSubgraphIncludesEdgesBetweenLastHop() throws Exception {
+    UUID[] objects = createObjects(3);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[0], objects[2]);
+    mockFact(objects[1], objects[2]);
+
+    // Every Fact is represented by two edges, one in each direction.
+    Graph subgraph = compute(createConnectedComponent(), 1, objects[0]).graph();
+    assertEquals(6, subgraph.traversal().E().count().next().intValue());
+  }
+
+  @Test
+  public void testLoadSubgraphSkipsFactsWithoutAccess() throws Exception {
+    UUID[] objects = createObjects(3);
+    mockFact(objects[0], objects[1]);
+    inaccessibleFacts.add(mockFact(objects[0], objects[2]));
+
+    assertEquals(set(objects[0], objects[1]), getVertexIds(compute(createConnectedComponent(), 1, objects[0]).graph()));
+  }
+
+  @Test
+  public void testLoadSubgraphExceedsMaximumVertices() throws Exception {
+    UUID[] objects = createObjects(3);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[0], objects[2]);
+
+    try {
+      graph.compute()
+              .seeds(list(objects[0]))
+              .maximumVertices(2)
+              .program(createConnectedComponent())
+              .submit()
+              .get();
+      fail("Expected ExecutionException!");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof GraphOperationException);
+    }
+  }
+
+  @Test
+  public void testComputeOnSharedComputerPool() throws Exception {
+    UUID[] objects = createObjects(2);
+    mockFact(objects[0], objects[1]);
+
+    ForkJoinPool computerPool = new ForkJoinPool(1);
+    try {
+      Set<ForkJoinPool> usedPools = Collections.synchronizedSet(new HashSet<>());
+      when(objectManager.fetchObjectFactBindings(isA(UUID.class))).then(i -> {
+        usedPools.add(ForkJoinTask.getPool());
+        return bindings.getOrDefault(i.<UUID>getArgument(0), list()).iterator();
+      });
+
+      ActGraph sharedGraph = ActGraph.builder()
+              .setObjectManager(objectManager)
+              .setFactManager(factManager)
+              .setHasFactAccess(fact -> true)
+              .setComputerPool(computerPool)
+              .build();
+      for (int i = 0; i < 2; i++) {
+        sharedGraph.compute().seeds(list(objects[0])).program(createConnectedComponent()).submit().get();
+      }
+
+      // Both computations ran on the shared pool which stays usable afterwards.
+      assertEquals(set(computerPool), usedPools);
+      assertFalse(computerPool.isShutdown());
+    } finally {
+      computerPool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testComputationExceedsTimeout() throws Exception {
+    UUID[] objects = createObjects(3);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[1], objects[2]);
+    when(objectManager.fetchObjectFactBindings(isA(UUID.class))).then(i -> {
+      Thread.sleep(50);
+      return bindings.getOrDefault(i.<UUID>getArgument(0), list()).iterator();
+    });
+
+    try {
+      graph.compute()
+              .seeds(list(objects[0]))
+              .hops(2)
+              .timeout(10)
+              .program(createConnectedComponent())
+              .submit()
+              .get();
+      fail("Expected ExecutionException!");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof TimeoutException);
+    }
+  }
+
+  @Test
+  public void testConfigureSeedsAndHops() throws Exception {
+    UUID[] objects = createObjects(3);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[1], objects[2]);
+
+    ComputerResult result = graph.compute()
+            .configure(ActGraphComputer.SEEDS, list(objects[0]))
+            .configure(ActGraphComputer.HOPS, 2)
+            .program(createConnectedComponent())
+            .submit()
+            .get();
+    assertEquals(set(objects), getVertexIds(result.graph()));
+  }
+
+  @Test
+  public void testConnectedComponents() throws Exception {
+    UUID[] objects = createObjects(5);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[1], objects[2]);
+    mockFact(objects[3], objects[4]);
+
+    Graph subgraph = compute(createConnectedComponent(), 2, objects[0], objects[3]).graph();
+    Object first = getValue(subgraph, objects[0], "component");
+    Object second = getValue(subgraph, objects[3], "component");
+    assertNotEquals(first, second);
+    assertEquals(first, getValue(subgraph, objects[1], "component"));
+    assertEquals(first, getValue(subgraph, objects[2], "component"));
+    assertEquals(second, getValue(subgraph, objects[4], "component"));
+  }
+
+  @Test
+  public void testPageRank() throws Exception {
+    UUID[] objects = createObjects(4);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[0], objects[2]);
+    mockFact(objects[0], objects[3]);
+
+    ComputerResult result = compute(PageRankVertexProgram.build().property("pageRank").create(), 1, objects[0]);
+    double center = getValue(result.graph(), objects[0], "pageRank");
+    for (int i = 1; i < objects.length; i++) {
+      assertTrue(center > this.<Double>getValue(result.graph(), objects[i], "pageRank"));
+    }
+    assertTrue(result.memory().getIteration() > 0);
+  }
+
+  @Test
+  public void testPersistNothing() throws Exception {
+    UUID[] objects = createObjects(2);
+    mockFact(objects[0], objects[1]);
+
+    Graph subgraph = graph.compute()
+            .seeds(list(objects[0]))
+            .program(createConnectedComponent())
+            .persist(GraphComputer.Persist.NOTHING)
+            .submit()
+            .get()
+            .graph();
+    assertFalse(subgraph.vertices(objects[0]).next().property("component").isPresent());
+  }
+
+  @Test
+  public void testTraverseResultGraph() throws Exception {
+    UUID[] objects = createObjects(4);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[1], objects[2]);
+    mockFact(objects[2], objects[3]);
+
+    // The traversal doesn't leave the subgraph and the computed values are available on all vertices.
+    Graph subgraph = compute(createConnectedComponent(), 1, objects[0]).graph();
+    assertEquals(1, subgraph.traversal().V(objects[0]).out().count().next().intValue());
+    assertEquals(0, subgraph.traversal().V(objects[0]).out().out().hasNot("component").count().next().intValue());
+    assertEquals(0, subgraph.traversal().V(objects[2]).count().next().intValue());
+
+    // Vertices of the subgraph wrap the vertices of the ActGraph.
+    Vertex vertex = subgraph.traversal().V(objects[1]).next();
+    assertTrue(vertex instanceof WrappedVertex);
+    assertTrue(((WrappedVertex<?>) vertex).getBaseVertex() instanceof ObjectVertex);
+  }
+
+  @Test
+  public void testComputeOnEmptySubgraph() throws Exception {
+    UUID objectID = UUID.randomUUID();
+
+    // Filtering out all vertices still executes the program, just without any vertices.
+    ComputerResult result = graph.compute()
+            .seeds(list(objectID))
+            .vertices(__.hasId(UUID.randomUUID()))
+            .program(createConnectedComponent())
+            .submit()
+            .get();
+    assertFalse(result.graph().vertices().hasNext());
+  }
+
+  private ComputerResult compute(VertexProgram<?> program, int hops, UUID... seeds) throws Exception {
+    return graph.compute()
+            .seeds(list(seeds))
+            .hops(hops)
+            .workers(1)
+            .program(program)
+            .submit()
+            .get();
+  }
+
+  private VertexProgram<?> createConnectedComponent() {
+    return ConnectedComponentVertexProgram.build().property("component").create();
+  }
+
+  private Set<Object> getVertexIds(Graph subgraph) {
+    Set<Object> result = new HashSet<>();
+    subgraph.vertices().forEachRemaining(vertex -> result.add(vertex.id()));
+    return result;
+  }
+
+  private <V> V getValue(Graph subgraph, UUID objectID, String key) {
+    return subgraph.vertices(objectID).next().value(key);
+  }
+
+  private UUID[] createObjects(int count) {
+    UUID[] objects = new UUID[count];
+    for (int i = 0; i < count; i++) {
+      objects[i] = UUID.randomUUID();
+    }
+    return objects;
+  }
+
+  private UUID mockFact(UUID source, UUID destination) {
+    FactEntity fact = new FactEntity()
+            .setId(UUID.randomUUID())
+            .setTypeID(FACT_TYPE_ID)
+            .addBinding(new FactEntity.FactObjectBinding().setObjectID(source).setDirection(Direction.BiDirectional))
+            .addBinding(new FactEntity.FactObjectBinding().setObjectID(destination).setDirection(Direction.BiDirectional));
+    facts.put(fact.getId(), fact);
+
+    for (FactEntity.FactObjectBinding binding : fact.getBindings()) {
+      bindings.computeIfAbsent(binding.getObjectID(), id -> new ArrayList<>()).add(new ObjectFactBindingEntity()
+              .setObjectID(binding.getObjectID())
+              .setFactID(fact.getId())
+              .setDirection(binding.getDirection()));
+    }
+
+    return fact.getId();
+  }
+}
@@ -0,0 +1,70 @@
+package no.mnemonic.act.platform.dao.tinkerpop.computer;
+
+import org.apache.tinkerpop.gremlin.process.computer.MemoryComputeKey;
+import org.apache.tinkerpop.gremlin.process.traversal.Operator;
+import org.junit.Before;
+import org.junit.Test;
+
+import static no.mnemonic.commons.utilities.collections.SetUtils.set;
+import static org.junit.Assert.*;
+
+public class ActMemoryTest {
+
+  private ActMemory memory;
+
+  @Before
+  public void setup() {
+    memory = new ActMemory(set(
+            MemoryComputeKey.of("sum", Operator.sum, false, false),
+            MemoryComputeKey.of("broadcast", Operator.sum, true, false),
+            MemoryComputeKey.of("transient", Operator.sum, false, true)
+    ));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetUnknownKey() {
+    memory.set("unknown", 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetDuringExecute() {
+    memory.completeSubRound();
+    memory.set("sum", 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddOutsideExecute() {
+    memory.add("sum", 1);
+  }
+
+  @Test
+  public void testAddedValuesBecomeVisibleAfterSubRound() {
+    memory.set("sum", 1);
+    memory.set("broadcast", 1);
+    memory.completeSubRound();
+
+    memory.add("sum", 2);
+    memory.add("sum", 3);
+    memory.add("broadcast", 2);
+    // Only broadcast keys are visible while executing, and only with the value of the previous round.
+    assertEquals(set("broadcast"), memory.keys());
+    assertEquals(1, memory.<Integer>get("broadcast").intValue());
+    assertFalse(memory.exists("sum"));
+
+    memory.completeSubRound();
+    assertEquals(6, memory.<Integer>get("sum").intValue());
+    assertEquals(3, memory.<Integer>get("broadcast").intValue());
+  }
+
+  @Test
+  public void testCompleteRemovesTransientValues() {
+    memory.set("sum", 1);
+    memory.set("transient", 1);
+    memory.incrIteration();
+    memory.incrIteration();
+    memory.complete();
+
+    assertEquals(set("sum"), memory.keys());
+    assertEquals(1, memory.getIteration());
+  }
+}
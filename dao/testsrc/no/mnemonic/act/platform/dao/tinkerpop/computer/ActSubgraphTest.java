@@ -0,0 +1,140 @@
+package no.mnemonic.act.platform.dao.tinkerpop.computer;
+
+import org.apache.tinkerpop.gremlin.process.computer.VertexComputeKey;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static no.mnemonic.commons.utilities.collections.SetUtils.set;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ActSubgraphTest {
+
+  private final List<Vertex> vertices = new ArrayList<>();
+  private final List<Edge> edges = new ArrayList<>();
+
+  @Before
+  public void setup() {
+    for (int i = 0; i < 4; i++) {
+      vertices.add(mockVertex());
+    }
+  }
+
+  @Test
+  public void testCreateSubgraph() {
+    mockEdge(0, 1, "a");
+    mockEdge(1, 2, "b");
+    ActSubgraph subgraph = createSubgraph();
+
+    assertEquals(4, subgraph.vertexCount());
+    assertEquals(2, subgraph.edgeCount());
+    assertEquals(2, subgraph.indexOfVertex(vertices.get(2).id()));
+    assertEquals(2, subgraph.indexOfVertex(vertices.get(2)));
+    assertEquals(-1, subgraph.indexOfVertex(UUID.randomUUID()));
+    assertEquals(-1, subgraph.indexOfLabel("unknown"));
+  }
+
+  @Test
+  public void testCreateSubgraphSkipsEdgesToOtherVertices() {
+    mockEdge(0, 1, "a");
+    Vertex other = mockVertex();
+    Edge outside = mock(Edge.class);
+    when(outside.id()).thenReturn(UUID.randomUUID());
+    when(outside.label()).thenReturn("a");
+    when(outside.outVertex()).thenReturn(vertices.get(0));
+    when(outside.inVertex()).thenReturn(other);
+    edges.add(outside);
+
+    assertEquals(1, createSubgraph().edgeCount());
+  }
+
+  @Test
+  public void testForEachAdjacent() {
+    mockEdge(0, 1, "a");
+    mockEdge(0, 2, "b");
+    mockEdge(3, 0, "a");
+    ActSubgraph subgraph = createSubgraph();
+
+    assertEquals(set(1, 2), getAdjacent(subgraph, 0, Direction.OUT));
+    assertEquals(set(3), getAdjacent(subgraph, 0, Direction.IN));
+    assertEquals(set(1, 2, 3), getAdjacent(subgraph, 0, Direction.BOTH));
+    assertEquals(set(1, 3), getAdjacent(subgraph, 0, Direction.BOTH, subgraph.indexOfLabel("a")));
+    assertEquals(set(), getAdjacent(subgraph, 0, Direction.BOTH, -1));
+    assertEquals(set(0), getAdjacent(subgraph, 1, Direction.IN));
+    assertEquals(set(), getAdjacent(subgraph, 1, Direction.OUT));
+  }
+
+  @Test
+  public void testTraverseSubgraph() {
+    mockEdge(0, 1, "a");
+    mockEdge(1, 2, "b");
+    ActSubgraph subgraph = createSubgraph();
+
+    assertEquals(4, subgraph.traversal().V().count().next().intValue());
+    assertEquals(2, subgraph.traversal().E().count().next().intValue());
+    assertEquals(vertices.get(2).id(), subgraph.traversal().V(vertices.get(0).id()).out().out().id().next());
+    assertEquals(0, subgraph.traversal().V(UUID.randomUUID()).count().next().intValue());
+  }
+
+  @Test
+  public void testComputedValues() {
+    ActSubgraph subgraph = createSubgraph();
+    subgraph.startComputation(set(VertexComputeKey.of("persistent", false), VertexComputeKey.of("transient", true)));
+    subgraph.setComputedValue("persistent", 1, 42);
+    subgraph.setComputedValue("transient", 1, 43);
+    assertEquals(42, subgraph.getComputedValue("persistent", 1));
+    assertNull(subgraph.getComputedValue("persistent", 0));
+
+    subgraph.completeComputation(set(VertexComputeKey.of("persistent", false), VertexComputeKey.of("transient", true)), true);
+    assertTrue(subgraph.isComputeKey("persistent"));
+    assertFalse(subgraph.isComputeKey("transient"));
+    assertEquals(42, subgraph.vertices(vertices.get(1).id()).next().<Integer>value("persistent").intValue());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testComputedValuesCannotBeSetAfterComputation() {
+    ActSubgraph subgraph = createSubgraph();
+    subgraph.startComputation(set(VertexComputeKey.of("key", false)));
+    subgraph.completeComputation(set(VertexComputeKey.of("key", false)), true);
+    subgraph.setComputedValue("key", 0, 42);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testComputedValuesCannotBeSetForOtherKeys() {
+    ActSubgraph subgraph = createSubgraph();
+    subgraph.startComputation(set(VertexComputeKey.of("key", false)));
+    subgraph.setComputedValue("other", 0, 42);
+  }
+
+  private ActSubgraph createSubgraph() {
+    return new ActSubgraph(mock(Graph.class), vertices, edges);
+  }
+
+  private Set<Integer> getAdjacent(ActSubgraph subgraph, int vertex, Direction direction, int... labels) {
+    Set<Integer> result = new HashSet<>();
+    subgraph.forEachAdjacent(vertex, direction, labels, (edge, neighbour) -> result.add(neighbour));
+    return result;
+  }
+
+  private Vertex mockVertex() {
+    Vertex vertex = mock(Vertex.class);
+    when(vertex.id()).thenReturn(UUID.randomUUID());
+    return vertex;
+  }
+
+  private void mockEdge(int outVertex, int inVertex, String label) {
+    Edge edge = mock(Edge.class);
+    when(edge.id()).thenReturn(UUID.randomUUID());
+    when(edge.label()).thenReturn(label);
+    when(edge.outVertex()).thenReturn(vertices.get(outVertex));
+    when(edge.inVertex()).thenReturn(vertices.get(inVertex));
+    edges.add(edge);
+  }
+}
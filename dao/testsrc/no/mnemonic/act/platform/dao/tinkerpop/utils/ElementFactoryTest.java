@@ -4,6 +4,8 @@ import no.mnemonic.act.platform.dao.cassandra.FactManager;
 import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
 import no.mnemonic.act.platform.dao.cassandra.entity.*;
 import no.mnemonic.act.platform.dao.tinkerpop.ActGraph;
+import no.mnemonic.act.platform.dao.tinkerpop.TraversalBudget;
+import no.mnemonic.act.platform.dao.tinkerpop.exceptions.TraversalBudgetExceededException;
 import no.mnemonic.commons.utilities.collections.ListUtils;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
@@ -11,10 +13,15 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.Assert.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 public class ElementFactoryTest {
@@ -29,6 +36,12 @@ public class ElementFactoryTest {
   @Before
   public void setup() {
     initMocks(this);
+    // Resolve Facts fetched in batches by the mocked single Fact lookups.
+    when(factManager.getFacts(any())).then(i -> i.<List<UUID>>getArgument(0)
+            .stream()
+            .map(factManager::getFact)
+            .filter(Objects::nonNull)
+            .iterator());
 
     ActGraph actGraph = ActGraph.builder()
             .setObjectManager(objectManager)
@@ -129,6 +142,78 @@ public class ElementFactoryTest {
     assertSame(first, second);
   }
 
+  @Test
+  public void testCreateEdgesAfterEviction() {
+    ObjectFactBindingEntity inBinding = createInBinding(Direction.BiDirectional);
+    FactEntity.FactObjectBinding[] outBindings = new FactEntity.FactObjectBinding[11000];
+    for (int i = 0; i < outBindings.length; i++) {
+      outBindings[i] = createOutBinding(Direction.BiDirectional);
+    }
+    mockFact(inBinding.getFactID(), outBindings);
+
+    // Creating more edges than the cache can hold evicts some of the edges.
+    Set<Edge> first = elementFactory.createEdges(inBinding);
+    assertEquals(outBindings.length, first.size());
+    assertTrue(first.stream().anyMatch(edge -> elementFactory.getEdge((UUID) edge.id()) == null));
+
+    // Evicted edges are created again and can be retrieved afterwards.
+    Set<Edge> second = elementFactory.createEdges(inBinding);
+    assertEquals(outBindings.length, second.size());
+    assertTrue(second.stream().anyMatch(edge -> !first.contains(edge)));
+    assertTrue(second.stream().anyMatch(edge -> elementFactory.getEdge((UUID) edge.id()) == edge));
+  }
+
+  @Test
+  public void testCreateEdgesWithoutBindings() {
+    assertTrue(elementFactory.createEdgesForBindings(null).isEmpty());
+    assertTrue(elementFactory.createEdgesForBindings(ListUtils.list()).isEmpty());
+    verifyNoInteractions(factManager);
+  }
+
+  @Test
+  public void testCreateEdgesForMultipleBindingsFetchesFactsInBatch() {
+    ObjectFactBindingEntity inBinding1 = createInBinding(Direction.BiDirectional);
+    ObjectFactBindingEntity inBinding2 = createInBinding(Direction.FactIsSource);
+    mockFact(inBinding1.getFactID(), createOutBinding(Direction.BiDirectional));
+    mockFact(inBinding2.getFactID(), createOutBinding(Direction.FactIsDestination));
+
+    Set<Edge> edges = elementFactory.createEdgesForBindings(ListUtils.list(inBinding1, inBinding2));
+    assertEquals(2, edges.size());
+    verify(factManager).getFacts(argThat(id -> id.size() == 2 && id.containsAll(ListUtils.list(inBinding1.getFactID(), inBinding2.getFactID()))));
+  }
+
+  @Test
+  public void testCreateEdgesForMultipleBindingsWithoutFactAccess() {
+    ObjectFactBindingEntity accessibleBinding = createInBinding(Direction.BiDirectional);
+    ObjectFactBindingEntity inaccessibleBinding = createInBinding(Direction.BiDirectional);
+    mockFact(accessibleBinding.getFactID(), createOutBinding(Direction.BiDirectional));
+    mockFact(inaccessibleBinding.getFactID(), createOutBinding(Direction.BiDirectional));
+
+    ActGraph graph = ActGraph.builder()
+            .setObjectManager(objectManager)
+            .setFactManager(factManager)
+            .setHasFactAccess(f -> Objects.equals(f.getId(), accessibleBinding.getFactID()))
+            .build();
+    ElementFactory factory = ElementFactory.builder().setOwner(graph).build();
+
+    Set<Edge> edges = factory.createEdgesForBindings(ListUtils.list(accessibleBinding, inaccessibleBinding));
+    assertEquals(1, edges.size());
+    assertEquals(accessibleBinding.getFactID().toString(), edges.iterator().next().value("factID"));
+  }
+
+  @Test
+  public void testCreateEdgesForMultipleBindingsSharingFact() {
+    ObjectFactBindingEntity inBinding = createInBinding(Direction.BiDirectional);
+    ObjectFactBindingEntity otherBinding = new ObjectFactBindingEntity()
+            .setObjectID(UUID.randomUUID())
+            .setFactID(inBinding.getFactID())
+            .setDirection(Direction.BiDirectional);
+    mockFact(inBinding.getFactID(), createOutBinding(Direction.BiDirectional));
+
+    assertEquals(2, elementFactory.createEdgesForBindings(ListUtils.list(inBinding, otherBinding)).size());
+    verify(factManager).getFacts(argThat(id -> id.size() == 1));
+  }
+
   @Test
   public void testGetEdgeWithNullId() {
     assertNull(elementFactory.getEdge(null));
@@ -160,6 +245,20 @@ public class ElementFactoryTest {
     assertNull(elementFactory.getVertex(UUID.randomUUID()));
   }
 
+  @Test(expected = TraversalBudgetExceededException.class)
+  public void testGetVertexExceedsBudget() {
+    ActGraph actGraph = ActGraph.builder()
+            .setObjectManager(objectManager)
+            .setFactManager(factManager)
+            .setHasFactAccess(f -> true)
+            .setBudget(TraversalBudget.builder().setMaximumVertices(1).build())
+            .build();
+    ElementFactory factory = ElementFactory.builder().setOwner(actGraph).build();
+
+    factory.getVertex(mockObject(UUID.randomUUID()));
+    factory.getVertex(mockObject(UUID.randomUUID()));
+  }
+
   @Test
   public void testGetVertexNotCached() {
     UUID objectID = mockObject(UUID.randomUUID());
@@ -206,7 +305,7 @@ public class ElementFactoryTest {
     when(objectManager.fetchObjectFactBindings(inBinding.getObjectID())).thenReturn(ListUtils.list(inBinding).iterator());
   }
 
-  private void mockFact(UUID factID, FactEntity.FactObjectBinding outBinding) {
+  private void mockFact(UUID factID, FactEntity.FactObjectBinding... outBinding) {
     UUID typeID = UUID.randomUUID();
 
     when(factManager.getFact(factID)).thenReturn(new FactEntity()
@@ -0,0 +1,100 @@
+package no.mnemonic.act.platform.dao.tinkerpop.utils;
+
+import no.mnemonic.act.platform.dao.api.result.ObjectStatisticsContainer;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static no.mnemonic.commons.utilities.collections.SetUtils.set;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class ObjectStatisticsCacheTest {
+
+  @Mock
+  private Function<Set<UUID>, ObjectStatisticsContainer> resolver;
+
+  private ObjectStatisticsCache cache;
+
+  @Before
+  public void setup() {
+    initMocks(this);
+    when(resolver.apply(any())).then(i -> {
+      ObjectStatisticsContainer.Builder builder = ObjectStatisticsContainer.builder();
+      for (UUID objectID : i.<Set<UUID>>getArgument(0)) {
+        builder.addStatistic(objectID, new ObjectStatisticsContainer.FactStatistic(UUID.randomUUID(), 1, 2, 3));
+      }
+      return builder.build();
+    });
+
+    cache = ObjectStatisticsCache.builder().setResolver(resolver).build();
+  }
+
+  @Test
+  public void testGetStatisticsWithoutResolver() {
+    ObjectStatisticsCache disabled = ObjectStatisticsCache.builder().build();
+    disabled.register(UUID.randomUUID());
+
+    assertFalse(disabled.isEnabled());
+    assertTrue(disabled.getStatistics(UUID.randomUUID()).isEmpty());
+  }
+
+  @Test
+  public void testGetStatisticsWithNullObjectID() {
+    assertTrue(cache.isEnabled());
+    assertTrue(cache.getStatistics(null).isEmpty());
+    verifyNoInteractions(resolver);
+  }
+
+  @Test
+  public void testGetStatisticsCachesResult() {
+    UUID objectID = UUID.randomUUID();
+    Collection<ObjectStatisticsContainer.FactStatistic> first = cache.getStatistics(objectID);
+    Collection<ObjectStatisticsContainer.FactStatistic> second = cache.getStatistics(objectID);
+
+    assertEquals(1, first.size());
+    assertSame(first, second);
+    verify(resolver).apply(set(objectID));
+  }
+
+  @Test
+  public void testGetStatisticsIncludesRegisteredObjects() {
+    UUID object1 = UUID.randomUUID();
+    UUID object2 = UUID.randomUUID();
+    UUID object3 = UUID.randomUUID();
+    cache.register(object1);
+    cache.register(object2);
+    cache.register(object3);
+
+    assertEquals(1, cache.getStatistics(object2).size());
+    assertEquals(1, cache.getStatistics(object1).size());
+    assertEquals(1, cache.getStatistics(object3).size());
+    verify(resolver).apply(set(object1, object2, object3));
+    verifyNoMoreInteractions(resolver);
+  }
+
+  @Test
+  public void testGetStatisticsLimitsBatchSize() {
+    for (int i = 0; i < 1500; i++) {
+      cache.register(UUID.randomUUID());
+    }
+
+    UUID objectID = UUID.randomUUID();
+    cache.getStatistics(objectID);
+    verify(resolver).apply(argThat(batch -> batch.size() == 1000 && batch.contains(objectID)));
+  }
+
+  @Test
+  public void testGetStatisticsWithResolverReturningNull() {
+    ObjectStatisticsCache nullCache = ObjectStatisticsCache.builder().setResolver(ids -> null).build();
+    assertTrue(nullCache.getStatistics(UUID.randomUUID()).isEmpty());
+  }
+}
@@ -0,0 +1,109 @@
+package no.mnemonic.act.platform.dao.tools;
+
+import no.mnemonic.act.platform.dao.cassandra.FactManager;
+import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
+import no.mnemonic.act.platform.dao.cassandra.entity.Direction;
+import no.mnemonic.act.platform.dao.cassandra.entity.FactEntity;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class ObjectFactTypeBindingBackfillTest {
+
+  @Mock
+  private ObjectManager objectManager;
+  @Mock
+  private FactManager factManager;
+
+  private ObjectFactTypeBindingBackfill backfill;
+
+  @Before
+  public void setUp() {
+    initMocks(this);
+    when(objectManager.saveObjectFactTypeBindingAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+    backfill = new ObjectFactTypeBindingBackfill(objectManager, factManager);
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testInitializeWithoutObjectManager() {
+    new ObjectFactTypeBindingBackfill(null, factManager);
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testInitializeWithoutFactManager() {
+    new ObjectFactTypeBindingBackfill(objectManager, null);
+  }
+
+  @Test
+  public void testRunWithoutBindings() {
+    when(objectManager.fetchAllObjectFactBindings()).thenReturn(Collections.emptyIterator());
+
+    assertEquals(0, backfill.run());
+    verifyNoInteractions(factManager);
+    verify(objectManager, never()).saveObjectFactTypeBindingAsync(any());
+  }
+
+  @Test
+  public void testRunSavesBindingWithFactType() {
+    FactEntity fact = new FactEntity().setId(UUID.randomUUID()).setTypeID(UUID.randomUUID());
+    ObjectFactBindingEntity binding = createBinding(fact.getId());
+    when(objectManager.fetchAllObjectFactBindings()).thenReturn(ListUtils.list(binding).iterator());
+    when(factManager.getFacts(ListUtils.list(fact.getId()))).then(i -> ListUtils.list(fact).iterator());
+
+    assertEquals(1, backfill.run());
+    verify(objectManager).saveObjectFactTypeBindingAsync(argThat(b -> {
+      assertEquals(binding.getObjectID(), b.getObjectID());
+      assertEquals(fact.getTypeID(), b.getFactTypeID());
+      assertEquals(binding.getDirection(), b.getDirection());
+      assertEquals(binding.getFactID(), b.getFactID());
+      return true;
+    }));
+  }
+
+  @Test
+  public void testRunSkipsBindingOfMissingFact() {
+    when(objectManager.fetchAllObjectFactBindings()).thenReturn(ListUtils.list(createBinding(UUID.randomUUID())).iterator());
+    when(factManager.getFacts(any())).thenReturn(Collections.emptyIterator());
+
+    assertEquals(0, backfill.run());
+    verify(objectManager, never()).saveObjectFactTypeBindingAsync(any());
+  }
+
+  @Test
+  public void testRunFetchesFactsInBatches() {
+    List<ObjectFactBindingEntity> bindings = new ArrayList<>();
+    for (int i = 0; i < 1500; i++) {
+      bindings.add(createBinding(UUID.randomUUID()));
+    }
+    when(objectManager.fetchAllObjectFactBindings()).thenReturn(bindings.iterator());
+    when(factManager.getFacts(any())).then(i -> {
+      List<UUID> id = i.getArgument(0);
+      return ListUtils.list(id, factID -> new FactEntity().setId(factID).setTypeID(UUID.randomUUID())).iterator();
+    });
+
+    assertEquals(1500, backfill.run());
+    verify(factManager, times(2)).getFacts(any());
+    verify(objectManager, times(1500)).saveObjectFactTypeBindingAsync(any());
+  }
+
+  private ObjectFactBindingEntity createBinding(UUID factID) {
+    return new ObjectFactBindingEntity()
+            .setObjectID(UUID.randomUUID())
+            .setFactID(factID)
+            .setDirection(Direction.FactIsSource);
+  }
+}
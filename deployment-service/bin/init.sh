@@ -15,6 +15,7 @@ RESOURCESDIR="resources"
 # Define parameters for executing the application.
 PROPERTIES="$CONFDIR/application.properties"
 MAINCLASS="no.mnemonic.commons.container.BootStrap"
+BACKFILLCLASS="no.mnemonic.act.platform.dao.tools.ObjectFactTypeBindingBackfill"
 ARGS="guice module=no.mnemonic.act.platform.service.modules.TiServiceModule module=no.mnemonic.act.platform.service.modules.TiServerModule"
 
 STDOUT_FILE="$LOGDIR/stdout.log"
@@ -26,6 +27,7 @@ usage() {
   echo "       $0 restart     - Restart application"
   echo "       $0 stop        - Stop application"
   echo "       $0 status      - Print application status"
+  echo "       $0 backfill    - Backfill bindings of Objects to Facts by FactType (application must be stopped)"
 }
 
 # Set up everything this script needs.
@@ -103,6 +105,24 @@ stop() {
   echo "Application stopped."
 }
 
+# Populate the lookup table of bindings of Objects to Facts by FactType (see MIGRATIONS.md).
+backfill() {
+  # Ensure that application isn't running.
+  if [ -f $PIDFILE ] && [ -d /proc/`cat $PIDFILE` ]; then
+    echo "Stop the application before executing the backfill."
+    exit 1
+  fi
+
+  # Construct classpath with all libraries and additional resources.
+  CLASSPATH="$RESOURCESDIR"
+  for jar in `ls $LIBDIR/*.jar`; do
+    CLASSPATH="$CLASSPATH:$jar"
+  done
+
+  # Execute backfill in the foreground.
+  java $JAVA_OPTS -cp $CLASSPATH $BACKFILLCLASS $PROPERTIES
+}
+
 # Check application status.
 status() {
   if [ -f $PIDFILE ]; then
@@ -138,6 +158,9 @@ case $1 in
   status)
     status
   ;;
+  backfill)
+    backfill
+  ;;
   *)
     usage
   ;;
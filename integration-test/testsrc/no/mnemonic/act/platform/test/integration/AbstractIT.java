@@ -16,6 +16,7 @@ import no.mnemonic.act.platform.dao.cassandra.OriginManager;
 import no.mnemonic.act.platform.dao.cassandra.entity.FactTypeEntity;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectTypeEntity;
 import no.mnemonic.act.platform.dao.elastic.FactSearchManager;
+import no.mnemonic.act.platform.dao.facade.FactIndexingWorker;
 import no.mnemonic.act.platform.rest.modules.TiClientModule;
 import no.mnemonic.act.platform.rest.modules.TiRestModule;
 import no.mnemonic.act.platform.service.modules.TiServerModule;
@@ -113,6 +114,10 @@ public abstract class AbstractIT {
     serviceBeanProvider.getBean(FactSearchManager.class)
             .orElseThrow(IllegalStateException::new)
             .setTestEnvironment(true);
+    // Configure FactIndexingWorker with test environment in order to index Facts synchronously.
+    serviceBeanProvider.getBean(FactIndexingWorker.class)
+            .orElseThrow(IllegalStateException::new)
+            .setTestEnvironment(true);
   }
 
   @After
@@ -302,6 +307,7 @@ public abstract class AbstractIT {
       bind(String.class).annotatedWith(Names.named("cassandra.data.center")).toInstance("datacenter1");
       bind(String.class).annotatedWith(Names.named("cassandra.contact.points")).toInstance(DockerTestUtils.getDockerHost());
       bind(String.class).annotatedWith(Names.named("cassandra.port")).toInstance(String.valueOf(cassandra.getExposedHostPort(9042)));
+      bind(String.class).annotatedWith(Names.named("cassandra.fact.type.binding.lookup.enabled")).toInstance("true");
       bind(String.class).annotatedWith(Names.named("elasticsearch.contact.points")).toInstance(DockerTestUtils.getDockerHost());
       bind(String.class).annotatedWith(Names.named("elasticsearch.port")).toInstance(String.valueOf(elastic.getExposedHostPort(9200)));
       bind(String.class).annotatedWith(Names.named("smb.queue.name")).toInstance("Service.ACT");
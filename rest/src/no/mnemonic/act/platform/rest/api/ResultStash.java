@@ -15,6 +15,7 @@ import javax.ws.rs.core.Response;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Supplier;
 
 @ApiModel(description = "Container for all responses from the API.")
 public class ResultStash<T> {
@@ -29,13 +30,16 @@ public class ResultStash<T> {
   private final List<ResultMessage> messages;
   @ApiModelProperty(value = "Returned results (might be an array or a single object)", required = true)
   private final T data;
+  // Evaluated after 'data' has been consumed because the cursor depends on the returned results.
+  private final Supplier<String> cursor;
 
-  private ResultStash(int responseCode, int limit, int count, List<ResultMessage> messages, T data) {
+  private ResultStash(int responseCode, int limit, int count, List<ResultMessage> messages, T data, Supplier<String> cursor) {
     this.responseCode = responseCode;
     this.limit = limit;
     this.count = count;
     this.messages = messages;
     this.data = data;
+    this.cursor = cursor;
   }
 
   public int getResponseCode() {
@@ -65,6 +69,11 @@ public class ResultStash<T> {
     return data;
   }
 
+  @ApiModelProperty(value = "Cursor to fetch the next page of a cursor-based search (only set if more results might be available)")
+  public String getCursor() {
+    return cursor != null ? cursor.get() : null;
+  }
+
   public static <T> Builder<T> builder() {
     return new Builder<>();
   }
@@ -75,6 +84,7 @@ public class ResultStash<T> {
     private int count;
     private List<ResultMessage> messages;
     private T data;
+    private Supplier<String> cursor;
 
     private Builder() {
     }
@@ -83,7 +93,7 @@ public class ResultStash<T> {
       return Response
               .status(status)
               .type(MediaType.APPLICATION_JSON_TYPE)
-              .entity(new ResultStash<>(status.getStatusCode(), limit, count, messages, data))
+              .entity(new ResultStash<>(status.getStatusCode(), limit, count, messages, data, cursor))
               .build();
     }
 
@@ -107,6 +117,11 @@ public class ResultStash<T> {
       return this;
     }
 
+    public Builder<T> setCursor(Supplier<String> cursor) {
+      this.cursor = cursor;
+      return this;
+    }
+
     public Builder<T> addActionError(String message, String messageTemplate) {
       ResultMessage error = ResultMessage.builder()
               .setType(ResultMessage.Type.ActionError)
@@ -173,6 +188,12 @@ public class ResultStash<T> {
       // Write 'size' field based on the number of fetched results.
       gen.writeNumberField("size", size);
 
+      // Write 'cursor' field only if available. It can only be calculated after all results have been fetched.
+      String cursor = value.getCursor();
+      if (cursor != null) {
+        gen.writeStringField("cursor", cursor);
+      }
+
       gen.writeEndObject();
     }
 
@@ -9,11 +9,13 @@ import no.mnemonic.act.platform.api.model.v1.AclEntry;
 import no.mnemonic.act.platform.api.model.v1.Fact;
 import no.mnemonic.act.platform.api.model.v1.FactComment;
 import no.mnemonic.act.platform.api.request.v1.*;
+import no.mnemonic.act.platform.api.service.v1.FactSearchCursor;
 import no.mnemonic.act.platform.api.service.v1.ThreatIntelligenceService;
 import no.mnemonic.act.platform.rest.api.AbstractEndpoint;
 import no.mnemonic.act.platform.rest.api.ResultStash;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.StringUtils;
+import no.mnemonic.services.common.api.ResultSet;
 
 import javax.inject.Inject;
 import javax.validation.Valid;
@@ -24,6 +26,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
+import java.util.Iterator;
 import java.util.UUID;
 
 @Path("/v1/fact")
@@ -88,6 +91,11 @@ public class FactEndpoint extends AbstractEndpoint {
                   "number of Facts matching the search parameters). It is allowed to request an unlimited search result " +
                   "(i.e. 'limit' parameter set to 0), however, the API will enforce a maximum upper limit in order to protect " +
                   "system resources. In this case the search should be narrowed down using additional search parameters.\n\n" +
+                  "In order to page through large search results use a cursor-based search. Start the search by setting " +
+                  "'cursor' to '*'. The Facts will be sorted by timestamp (newest first), and the response will contain a " +
+                  "'cursor' value if more results might be available. Repeat the same request with 'cursor' set to that " +
+                  "value in order to fetch the next page. A cursor-based search does not hold any resources on the server, " +
+                  "thus, a cursor never expires.\n\n" +
                   "[0] https://www.elastic.co/guide/en/elasticsearch/reference/current/query-dsl-simple-query-string-query.html",
           response = Fact.class,
           responseContainer = "list"
@@ -100,7 +108,17 @@ public class FactEndpoint extends AbstractEndpoint {
   public Response searchFacts(
           @ApiParam(value = "Request to search for Facts.") @NotNull @Valid SearchFactRequest request
   ) throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
-    return buildResponse(service.searchFacts(getHeader(), request));
+    ResultSet<Fact> result = service.searchFacts(getHeader(), request);
+    if (request.getCursor() == null) return buildResponse(result);
+
+    // Cursor-based search: Keep track of the returned Facts in order to calculate the cursor of the next page.
+    CursorTrackingIterator facts = new CursorTrackingIterator(result.iterator());
+    return ResultStash.builder()
+            .setLimit(result.getLimit())
+            .setCount(result.getCount())
+            .setData(facts)
+            .setCursor(() -> facts.nextCursor(result.getLimit()))
+            .buildResponse();
   }
 
   @POST
@@ -355,4 +373,39 @@ public class FactEndpoint extends AbstractEndpoint {
     }
   }
 
+
+  /**
+   * Iterator remembering the last returned Fact in order to calculate the cursor of the next page.
+   * <p>
+   * Facts are streamed out in the order of the search hits from ElasticSearch which are sorted by timestamp and id.
+   * Because of that, the timestamp and id of the last returned Fact are exactly the sort values of the last consumed
+   * search hit. Only the Facts themselves are transported from the service, thus, the cursor is derived from them.
+   */
+  private static class CursorTrackingIterator implements Iterator<Fact> {
+    private final Iterator<Fact> delegate;
+    private Fact last;
+    private int size;
+
+    private CursorTrackingIterator(Iterator<Fact> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return delegate.hasNext();
+    }
+
+    @Override
+    public Fact next() {
+      last = delegate.next();
+      size++;
+      return last;
+    }
+
+    private String nextCursor(int limit) {
+      // If fewer results than requested have been returned there's nothing more to fetch.
+      if (last == null || last.getTimestamp() == null || limit <= 0 || size < limit) return null;
+      return FactSearchCursor.after(last.getTimestamp(), last.getId()).encode();
+    }
+  }
 }
@@ -253,7 +253,11 @@ public class ObjectEndpoint extends AbstractEndpoint {
                   "see '/v1/object/search' and about graph traversal '/v1/object/{type}/{value}/traverse'. This operation " +
                   "accepts the same search parameters than '/v1/object/search' in addition to a Gremlin query for the " +
                   "graph traversal. Note that any limit provided in the request will only be applied to the Object search " +
-                  "and not to the graph traversal. A limit to the graph traversal must be provided as part of the Gremlin query.",
+                  "and not to the graph traversal. A limit to the graph traversal must be provided as part of the Gremlin query.\n\n" +
+                  "With 'parallel' set to true the traversal is executed independently on partitions of the starting Objects " +
+                  "in parallel, which speeds up traversals starting at many Objects. Objects and Facts are de-duplicated " +
+                  "across partitions, but steps operating on the whole traversal (e.g. count(), limit() or order()) are " +
+                  "evaluated per partition.",
           response = ResultStash.class
   )
   @ApiResponses({
@@ -268,4 +272,89 @@ public class ObjectEndpoint extends AbstractEndpoint {
     return buildResponse(service.traverseGraph(getHeader(), request));
   }
 
+  @POST
+  @Path("/traverse/bytecode")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  @ApiOperation(
+          value = "Traverse the Object/Fact graph starting at specific Objects using Gremlin bytecode.",
+          notes = "This operation traverses the graph of Objects and Facts starting at the Objects specified in the " +
+                  "request. In contrast to '/v1/object/{type}/{value}/traverse' the traversal is not provided as a Gremlin " +
+                  "query but as Gremlin bytecode serialized as GraphSON 3.0 [0], as produced by the Gremlin language " +
+                  "variants. The bytecode must not contain the starting point of the traversal (e.g. V()), it only contains " +
+                  "the steps which follow after the starting Objects. Because no script has to be compiled, this operation " +
+                  "is considerably faster for short traversals.\n\n" +
+                  "Only a subset of steps are allowed (e.g. navigation, filtering, projection and branching steps), and " +
+                  "lambdas and source instructions such as withStrategies() are rejected. The result is returned in the " +
+                  "same way as for traversals with a Gremlin query.\n\n" +
+                  "[0] GraphSON: https://tinkerpop.apache.org/docs/current/dev/io/#graphson-3d0",
+          response = ResultStash.class
+  )
+  @ApiResponses({
+          @ApiResponse(code = 401, message = "User could not be authenticated."),
+          @ApiResponse(code = 403, message = "User is not allowed to perform this operation."),
+          @ApiResponse(code = 408, message = "Execution of this operation timed out."),
+          @ApiResponse(code = 412, message = "Any parameter has an invalid format.")
+  })
+  public Response traverseObjectsByBytecode(
+          @ApiParam(value = "Request to traverse graph.") @NotNull @Valid TraverseByBytecodeRequest request
+  ) throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException, OperationTimeoutException {
+    return buildResponse(service.traverseGraph(getHeader(), request));
+  }
+
+  @POST
+  @Path("/uuid/{id}/neighbourhood")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  @ApiOperation(
+          value = "Retrieve the Facts within a number of hops around a specific Object.",
+          notes = "This operation returns the Facts reachable from a specific Object within 'depth' hops, i.e. the Facts " +
+                  "bound to the Object, the Facts bound to the Objects on the other side of those Facts, and so on. The " +
+                  "direction of Facts is ignored. Facts closer to the Object are returned first.\n\n" +
+                  "In contrast to a graph traversal no Gremlin query is executed. The neighbourhood is fetched hop by hop " +
+                  "directly from the stored Object/Fact bindings which is considerably cheaper. Only Facts the user has " +
+                  "access to are returned and followed, and at most 'limit' Facts are followed per hop. The request will " +
+                  "be rejected with a 403 if a user does not have access to any Facts linked to the requested Object.",
+          response = Fact.class,
+          responseContainer = "list"
+  )
+  @ApiResponses({
+          @ApiResponse(code = 401, message = "User could not be authenticated."),
+          @ApiResponse(code = 403, message = "User is not allowed to perform this operation."),
+          @ApiResponse(code = 412, message = "Any parameter has an invalid format.")
+  })
+  public Response getObjectNeighbourhood(
+          @PathParam("id") @ApiParam(value = "UUID of Object.") @NotNull @Valid UUID id,
+          @ApiParam(value = "Request to limit the followed Facts.") @NotNull @Valid GetObjectNeighbourhoodRequest request
+  ) throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    return buildResponse(service.getObjectNeighbourhood(getHeader(), request.setId(id)));
+  }
+
+  @POST
+  @Path("/path")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  @ApiOperation(
+          value = "Find the shortest path of Facts connecting two Objects.",
+          notes = "This operation searches for the shortest path between the 'source' and 'destination' Objects consisting " +
+                  "of at most 'depth' Facts. The direction of Facts is ignored. The Facts of the path are returned in order " +
+                  "from 'source' to 'destination', and the result is empty if no path was found.\n\n" +
+                  "The search is performed directly on the stored Object/Fact bindings (without executing a Gremlin query) " +
+                  "from both Objects simultaneously. Only Facts the user has access to are followed, and at most 'limit' " +
+                  "Facts are followed per hop. The request will be rejected with a 403 if a user does not have access to " +
+                  "any Facts linked to one of the two Objects.",
+          response = Fact.class,
+          responseContainer = "list"
+  )
+  @ApiResponses({
+          @ApiResponse(code = 401, message = "User could not be authenticated."),
+          @ApiResponse(code = 403, message = "User is not allowed to perform this operation."),
+          @ApiResponse(code = 412, message = "Any parameter has an invalid format.")
+  })
+  public Response findObjectPath(
+          @ApiParam(value = "Request to find path.") @NotNull @Valid FindObjectPathRequest request
+  ) throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    return buildResponse(service.findObjectPath(getHeader(), request));
+  }
+
 }
@@ -64,6 +64,11 @@ public abstract class AbstractEndpointTest {
     return (ArrayNode) mapper.readTree(response.readEntity(String.class)).get("messages");
   }
 
+  protected JsonNode getCursor(Response response) throws IOException {
+    // Return the "cursor" field of the returned ResultStash.
+    return mapper.readTree(response.readEntity(String.class)).get("cursor");
+  }
+
   private class TestRestModule extends AbstractModule {
 
     @Override
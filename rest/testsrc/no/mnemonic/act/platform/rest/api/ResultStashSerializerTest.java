@@ -12,8 +12,7 @@ import org.junit.Test;
 import javax.ws.rs.core.Response;
 import java.util.UUID;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class ResultStashSerializerTest {
 
@@ -123,4 +122,26 @@ public class ResultStashSerializerTest {
     assertEquals(1, result.get("data").size());
     assertEquals(1, result.get("size").asInt());
   }
+
+  @Test
+  public void testSerializationOfCursor() throws Exception {
+    String json = mapper.writeValueAsString(ResultStash.builder()
+            .setCursor(() -> "cursor")
+            .buildResponse()
+            .getEntity());
+    JsonNode result = mapper.readTree(json);
+
+    assertEquals("cursor", result.get("cursor").asText());
+  }
+
+  @Test
+  public void testSerializationWithoutCursor() throws Exception {
+    String json = mapper.writeValueAsString(ResultStash.builder()
+            .setCursor(() -> null)
+            .buildResponse()
+            .getEntity());
+    JsonNode result = mapper.readTree(json);
+
+    assertFalse(result.has("cursor"));
+  }
 }
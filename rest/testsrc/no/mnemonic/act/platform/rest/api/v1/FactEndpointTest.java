@@ -5,8 +5,10 @@ import no.mnemonic.act.platform.api.model.v1.AclEntry;
 import no.mnemonic.act.platform.api.model.v1.Fact;
 import no.mnemonic.act.platform.api.model.v1.FactComment;
 import no.mnemonic.act.platform.api.request.v1.*;
+import no.mnemonic.act.platform.api.service.v1.FactSearchCursor;
 import no.mnemonic.act.platform.api.service.v1.StreamingResultSet;
 import no.mnemonic.act.platform.rest.AbstractEndpointTest;
+import no.mnemonic.commons.utilities.collections.ListUtils;
 import org.junit.Test;
 
 import javax.ws.rs.client.Entity;
@@ -15,8 +17,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.UUID;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.*;
@@ -51,6 +52,36 @@ public class FactEndpointTest extends AbstractEndpointTest {
     verify(getTiService(), times(1)).searchFacts(any(), isA(SearchFactRequest.class));
   }
 
+  @Test
+  public void testSearchFactsWithCursor() throws Exception {
+    UUID id = UUID.randomUUID();
+    when(getTiService().searchFacts(any(), isA(SearchFactRequest.class))).then(i -> StreamingResultSet.<Fact>builder()
+            .setLimit(2)
+            .setValues(ListUtils.list(
+                    Fact.builder().setId(UUID.randomUUID()).setTimestamp(2L).build(),
+                    Fact.builder().setId(id).setTimestamp(1L).build()))
+            .build());
+
+    Response response = target("/v1/fact/search").request().post(Entity.json(new SearchFactRequest().setCursor("*").setLimit(2)));
+    assertEquals(200, response.getStatus());
+
+    FactSearchCursor cursor = FactSearchCursor.decode(getCursor(response).textValue());
+    assertEquals(1L, (long) cursor.getTimestamp());
+    assertEquals(id, cursor.getId());
+  }
+
+  @Test
+  public void testSearchFactsWithCursorOnLastPage() throws Exception {
+    when(getTiService().searchFacts(any(), isA(SearchFactRequest.class))).then(i -> StreamingResultSet.<Fact>builder()
+            .setLimit(25)
+            .setValues(ListUtils.list(Fact.builder().setId(UUID.randomUUID()).setTimestamp(1L).build()))
+            .build());
+
+    Response response = target("/v1/fact/search").request().post(Entity.json(new SearchFactRequest().setCursor("*")));
+    assertEquals(200, response.getStatus());
+    assertNull(getCursor(response));
+  }
+
   @Test
   public void testCreateFact() throws Exception {
     UUID id = UUID.randomUUID();
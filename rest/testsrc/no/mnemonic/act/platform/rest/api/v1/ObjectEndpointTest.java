@@ -12,6 +12,7 @@ import org.junit.Test;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.Response;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.UUID;
 
@@ -167,6 +168,63 @@ public class ObjectEndpointTest extends AbstractEndpointTest {
     verify(getTiService(), times(1)).traverseGraph(any(), isA(TraverseByObjectSearchRequest.class));
   }
 
+  @Test
+  public void testTraverseByBytecode() throws Exception {
+    UUID id = UUID.randomUUID();
+    when(getTiService().traverseGraph(any(), isA(TraverseByBytecodeRequest.class))).then(i -> {
+      TraverseByBytecodeRequest request = i.getArgument(1);
+      assertEquals(Collections.singleton(id), request.getObjectID());
+      assertEquals("{\"@type\":\"g:Bytecode\",\"@value\":{\"step\":[[\"outE\"]]}}", request.getBytecode());
+      return StreamingResultSet.<String>builder().setValues(ListUtils.list("something")).build();
+    });
+
+    String request = String.format("{\"objectID\":[\"%s\"],\"bytecode\":{\"@type\":\"g:Bytecode\",\"@value\":{\"step\":[[\"outE\"]]}}}", id);
+    Response response = target("/v1/object/traverse/bytecode").request().post(Entity.json(request));
+    JsonNode payload = getPayload(response);
+    assertEquals(200, response.getStatus());
+    assertTrue(payload.isArray());
+    assertEquals(1, payload.size());
+    assertEquals("something", payload.get(0).asText());
+
+    verify(getTiService(), times(1)).traverseGraph(any(), isA(TraverseByBytecodeRequest.class));
+  }
+
+  @Test
+  public void testGetObjectNeighbourhood() throws Exception {
+    UUID id = UUID.randomUUID();
+    when(getTiService().getObjectNeighbourhood(any(), isA(GetObjectNeighbourhoodRequest.class))).then(i -> {
+      assertEquals(id, i.<GetObjectNeighbourhoodRequest>getArgument(1).getId());
+      return StreamingResultSet.<Fact>builder().setValues(createFacts()).build();
+    });
+
+    GetObjectNeighbourhoodRequest request = new GetObjectNeighbourhoodRequest()
+            .setDepth(2);
+    Response response = target(String.format("/v1/object/uuid/%s/neighbourhood", id)).request().post(Entity.json(request));
+    JsonNode payload = getPayload(response);
+    assertEquals(200, response.getStatus());
+    assertTrue(payload.isArray());
+    assertEquals(3, payload.size());
+
+    verify(getTiService(), times(1)).getObjectNeighbourhood(any(), isA(GetObjectNeighbourhoodRequest.class));
+  }
+
+  @Test
+  public void testFindObjectPath() throws Exception {
+    when(getTiService().findObjectPath(any(), isA(FindObjectPathRequest.class)))
+            .then(i -> StreamingResultSet.<Fact>builder().setValues(createFacts()).build());
+
+    FindObjectPathRequest request = new FindObjectPathRequest()
+            .setSource(UUID.randomUUID())
+            .setDestination(UUID.randomUUID());
+    Response response = target("/v1/object/path").request().post(Entity.json(request));
+    JsonNode payload = getPayload(response);
+    assertEquals(200, response.getStatus());
+    assertTrue(payload.isArray());
+    assertEquals(3, payload.size());
+
+    verify(getTiService(), times(1)).findObjectPath(any(), isA(FindObjectPathRequest.class));
+  }
+
   private Collection<Fact> createFacts() {
     Collection<Fact> facts = new HashSet<>();
     for (int i = 0; i < 3; i++) {
@@ -7,6 +7,8 @@ import no.mnemonic.act.platform.auth.properties.module.PropertiesBasedAccessCont
 import no.mnemonic.act.platform.dao.DaoModule;
 import no.mnemonic.act.platform.service.aspects.*;
 import no.mnemonic.act.platform.service.ti.ThreatIntelligenceServiceImpl;
+import no.mnemonic.act.platform.service.ti.helpers.GraphComputerPool;
+import no.mnemonic.act.platform.service.ti.helpers.GremlinExecutorPool;
 import no.mnemonic.act.platform.service.validators.DefaultValidatorFactory;
 import no.mnemonic.act.platform.service.validators.ValidatorFactory;
 import no.mnemonic.services.triggers.api.service.v1.TriggerAdministrationService;
@@ -37,6 +39,8 @@ public class TiServiceModule extends AbstractModule {
     bind(TriggerAdministrationService.class).to(TriggerAdministrationServiceImpl.class).in(Scopes.SINGLETON);
 
     // Bind the concrete implementation classes of the ThreatIntelligenceService.
+    bind(GremlinExecutorPool.class);
+    bind(GraphComputerPool.class);
     bind(ValidatorFactory.class).to(DefaultValidatorFactory.class).in(Scopes.SINGLETON);
     bind(ThreatIntelligenceService.class).to(ThreatIntelligenceServiceImpl.class).in(Scopes.SINGLETON);
   }
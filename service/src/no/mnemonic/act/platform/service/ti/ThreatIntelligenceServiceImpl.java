@@ -231,6 +231,24 @@ public class ThreatIntelligenceServiceImpl implements Service, ThreatIntelligenc
     return delegateProvider.get(TraverseGraphDelegate.class).handle(request);
   }
 
+  @Override
+  public ResultSet<?> traverseGraph(RequestHeader rh, TraverseByBytecodeRequest request)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException, OperationTimeoutException {
+    return delegateProvider.get(TraverseGraphDelegate.class).handle(request);
+  }
+
+  @Override
+  public ResultSet<Fact> getObjectNeighbourhood(RequestHeader rh, GetObjectNeighbourhoodRequest request)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    return delegateProvider.get(ObjectGraphDelegate.class).handle(request);
+  }
+
+  @Override
+  public ResultSet<Fact> findObjectPath(RequestHeader rh, FindObjectPathRequest request)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    return delegateProvider.get(ObjectGraphDelegate.class).handle(request);
+  }
+
   @Override
   public Origin getOrigin(RequestHeader rh, GetOriginByIdRequest request)
           throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException, ObjectNotFoundException {
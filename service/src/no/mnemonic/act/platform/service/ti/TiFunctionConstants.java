@@ -17,7 +17,8 @@ public enum TiFunctionConstants implements NamedFunction {
   viewFactComments,
   grantFactAccess,
   viewFactAccess,
-  unlimitedSearch;
+  unlimitedSearch,
+  unlimitedTraversal;
 
   @Override
   public String getName() {
@@ -2,6 +2,7 @@ package no.mnemonic.act.platform.service.ti.converters;
 
 import no.mnemonic.act.platform.api.exceptions.InvalidArgumentException;
 import no.mnemonic.act.platform.api.request.v1.SearchFactRequest;
+import no.mnemonic.act.platform.api.service.v1.FactSearchCursor;
 import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
 import no.mnemonic.act.platform.service.contexts.SecurityContext;
 import no.mnemonic.act.platform.service.ti.resolvers.SearchByNameResolver;
@@ -25,7 +26,14 @@ public class SearchFactRequestConverter {
 
   public FactSearchCriteria apply(SearchFactRequest request) throws InvalidArgumentException {
     if (request == null) return null;
-    return FactSearchCriteria.builder()
+    FactSearchCriteria.Builder builder = FactSearchCriteria.builder();
+
+    if (request.getCursor() != null) {
+      FactSearchCursor cursor = decodeCursor(request.getCursor());
+      builder.setCursor(cursor.getTimestamp(), cursor.getId());
+    }
+
+    return builder
             .setKeywords(request.getKeywords())
             .setObjectID(request.getObjectID())
             .setFactID(request.getFactID())
@@ -48,4 +56,13 @@ public class SearchFactRequestConverter {
             .setAvailableOrganizationID(securityContext.getAvailableOrganizationID())
             .build();
   }
+
+  private FactSearchCursor decodeCursor(String cursor) throws InvalidArgumentException {
+    try {
+      return FactSearchCursor.decode(cursor);
+    } catch (IllegalArgumentException ignored) {
+      throw new InvalidArgumentException()
+              .addValidationError("Cursor is malformed.", "cursor.malformed", "cursor", cursor);
+    }
+  }
 }
@@ -17,6 +17,7 @@ import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.TiServiceEvent;
 import no.mnemonic.act.platform.service.ti.converters.FactConverter;
 import no.mnemonic.act.platform.service.ti.helpers.FactCreateHelper;
+import no.mnemonic.act.platform.service.ti.helpers.TraversalResultCache;
 import no.mnemonic.act.platform.service.ti.resolvers.FactTypeResolver;
 import no.mnemonic.act.platform.service.ti.resolvers.ObjectResolver;
 import no.mnemonic.commons.utilities.ObjectUtils;
@@ -35,6 +36,7 @@ public class FactCreateDelegate extends AbstractDelegate implements Delegate {
   private final ObjectResolver objectResolver;
   private final FactCreateHelper factCreateHelper;
   private final FactConverter factConverter;
+  private final TraversalResultCache traversalResultCache;
 
   private FactTypeEntity requestedFactType;
   private OriginEntity requestedOrigin;
@@ -47,7 +49,8 @@ public class FactCreateDelegate extends AbstractDelegate implements Delegate {
                             FactTypeResolver factTypeResolver,
                             ObjectResolver objectResolver,
                             FactCreateHelper factCreateHelper,
-                            FactConverter factConverter) {
+                            FactConverter factConverter,
+                            TraversalResultCache traversalResultCache) {
     this.securityContext = securityContext;
     this.triggerContext = triggerContext;
     this.objectFactDao = objectFactDao;
@@ -55,6 +58,7 @@ public class FactCreateDelegate extends AbstractDelegate implements Delegate {
     this.objectResolver = objectResolver;
     this.factCreateHelper = factCreateHelper;
     this.factConverter = factConverter;
+    this.traversalResultCache = traversalResultCache;
   }
 
   public Fact handle(CreateFactRequest request)
@@ -83,6 +87,9 @@ public class FactCreateDelegate extends AbstractDelegate implements Delegate {
       newFact = objectFactDao.storeFact(newFact);
     }
 
+    // Cached traversal results touching the bound Objects are outdated now.
+    traversalResultCache.invalidate(existingFact != null ? existingFact : newFact);
+
     // Register TriggerEvent before returning added Fact.
     Fact addedFact = factConverter.apply(existingFact != null ? existingFact : newFact);
     registerTriggerEvent(addedFact);
@@ -12,6 +12,7 @@ import no.mnemonic.act.platform.dao.api.record.FactRecord;
 import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.converters.AclEntryConverter;
+import no.mnemonic.act.platform.service.ti.helpers.TraversalResultCache;
 import no.mnemonic.act.platform.service.ti.resolvers.FactResolver;
 import no.mnemonic.commons.utilities.ObjectUtils;
 import no.mnemonic.commons.utilities.collections.ListUtils;
@@ -25,16 +26,19 @@ public class FactGrantAccessDelegate extends AbstractDelegate implements Delegat
   private final ObjectFactDao objectFactDao;
   private final FactResolver factResolver;
   private final AclEntryConverter aclEntryConverter;
+  private final TraversalResultCache traversalResultCache;
 
   @Inject
   public FactGrantAccessDelegate(TiSecurityContext securityContext,
                                  ObjectFactDao objectFactDao,
                                  FactResolver factResolver,
-                                 AclEntryConverter aclEntryConverter) {
+                                 AclEntryConverter aclEntryConverter,
+                                 TraversalResultCache traversalResultCache) {
     this.securityContext = securityContext;
     this.objectFactDao = objectFactDao;
     this.factResolver = factResolver;
     this.aclEntryConverter = aclEntryConverter;
+    this.traversalResultCache = traversalResultCache;
   }
 
   public AclEntry handle(GrantFactAccessRequest request)
@@ -72,6 +76,10 @@ public class FactGrantAccessDelegate extends AbstractDelegate implements Delegat
             .setSubjectID(subject)
             .setTimestamp(System.currentTimeMillis());
 
-    return objectFactDao.storeFactAclEntry(fact, entry);
+    entry = objectFactDao.storeFactAclEntry(fact, entry);
+    // The Subject might see the Fact now, thus, cached traversal results touching its bound Objects are outdated.
+    traversalResultCache.invalidate(fact);
+
+    return entry;
   }
 }
@@ -17,6 +17,7 @@ import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.TiServiceEvent;
 import no.mnemonic.act.platform.service.ti.converters.FactConverter;
 import no.mnemonic.act.platform.service.ti.helpers.FactCreateHelper;
+import no.mnemonic.act.platform.service.ti.helpers.TraversalResultCache;
 import no.mnemonic.act.platform.service.ti.resolvers.FactResolver;
 import no.mnemonic.act.platform.service.ti.resolvers.FactTypeResolver;
 import no.mnemonic.commons.utilities.ObjectUtils;
@@ -33,6 +34,7 @@ public class FactRetractDelegate extends AbstractDelegate implements Delegate {
   private final FactResolver factResolver;
   private final FactCreateHelper factCreateHelper;
   private final FactConverter factConverter;
+  private final TraversalResultCache traversalResultCache;
 
   private FactTypeEntity retractionFactType;
   private OriginEntity requestedOrigin;
@@ -45,7 +47,8 @@ public class FactRetractDelegate extends AbstractDelegate implements Delegate {
                              FactTypeResolver factTypeResolver,
                              FactResolver factResolver,
                              FactCreateHelper factCreateHelper,
-                             FactConverter factConverter) {
+                             FactConverter factConverter,
+                             TraversalResultCache traversalResultCache) {
     this.securityContext = securityContext;
     this.triggerContext = triggerContext;
     this.objectFactDao = objectFactDao;
@@ -53,6 +56,7 @@ public class FactRetractDelegate extends AbstractDelegate implements Delegate {
     this.factResolver = factResolver;
     this.factCreateHelper = factCreateHelper;
     this.factConverter = factConverter;
+    this.traversalResultCache = traversalResultCache;
   }
 
   public Fact handle(RetractFactRequest request)
@@ -73,6 +77,8 @@ public class FactRetractDelegate extends AbstractDelegate implements Delegate {
     // Save everything in database.
     FactRecord retractionFact = saveRetractionFact(request, factToRetract);
     factToRetract = objectFactDao.retractFact(factToRetract);
+    // Cached traversal results touching the Objects bound to the retracted Fact are outdated now.
+    traversalResultCache.invalidate(factToRetract);
 
     // Register TriggerEvent before returning Retraction Fact.
     Fact retractionFactParameter = factConverter.apply(retractionFact);
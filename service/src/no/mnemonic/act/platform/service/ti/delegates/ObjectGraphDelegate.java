@@ -0,0 +1,324 @@
+package no.mnemonic.act.platform.service.ti.delegates;
+
+import com.google.common.collect.Iterators;
+import no.mnemonic.act.platform.api.exceptions.AccessDeniedException;
+import no.mnemonic.act.platform.api.exceptions.AuthenticationFailedException;
+import no.mnemonic.act.platform.api.exceptions.InvalidArgumentException;
+import no.mnemonic.act.platform.api.model.v1.Fact;
+import no.mnemonic.act.platform.api.request.v1.FindObjectPathRequest;
+import no.mnemonic.act.platform.api.request.v1.GetObjectNeighbourhoodRequest;
+import no.mnemonic.act.platform.api.service.v1.StreamingResultSet;
+import no.mnemonic.act.platform.dao.api.ObjectFactDao;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
+import no.mnemonic.act.platform.dao.cassandra.entity.Direction;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
+import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
+import no.mnemonic.act.platform.service.ti.TiSecurityContext;
+import no.mnemonic.act.platform.service.ti.converters.FactConverter;
+import no.mnemonic.act.platform.service.ti.resolvers.SearchByNameResolver;
+import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+import no.mnemonic.services.common.api.ResultSet;
+
+import javax.inject.Inject;
+import java.util.*;
+
+/**
+ * Delegate implementing graph operations directly on top of the Object/Fact bindings, i.e. without executing a Gremlin
+ * query. The graph is explored breadth-first, one hop at a time. For each hop the bindings of all Objects of the
+ * current level are read and the bound Facts are fetched in batches. Only Facts the current user has access to are
+ * followed, and at most 'limit' Facts are followed per hop. The direction of Facts is ignored.
+ * <p>
+ * Unless the user has the 'unlimitedTraversal' permission the 'limit' is capped at the default limit (i.e. following
+ * all Facts isn't allowed), and an operation fails once it has fetched more than a maximum number of Facts in total.
+ */
+public class ObjectGraphDelegate extends AbstractDelegate implements Delegate {
+
+  private static final int DEFAULT_NEIGHBOURHOOD_DEPTH = 1;
+  private static final int DEFAULT_PATH_DEPTH = 4;
+  private static final int DEFAULT_LIMIT = 1000;
+  private static final int MAXIMUM_FETCHED_FACTS = 10_000;
+  private static final int FACT_BATCH_SIZE = 100;
+
+  private final TiSecurityContext securityContext;
+  private final ObjectFactDao objectFactDao;
+  private final ObjectManager objectManager;
+  private final SearchByNameResolver byNameResolver;
+  private final FactConverter factConverter;
+
+  private int defaultLimit = DEFAULT_LIMIT;
+  private int maximumFetchedFacts = MAXIMUM_FETCHED_FACTS;
+
+  @Inject
+  public ObjectGraphDelegate(TiSecurityContext securityContext,
+                             ObjectFactDao objectFactDao,
+                             ObjectManager objectManager,
+                             SearchByNameResolver byNameResolver,
+                             FactConverter factConverter) {
+    this.securityContext = securityContext;
+    this.objectFactDao = objectFactDao;
+    this.objectManager = objectManager;
+    this.byNameResolver = byNameResolver;
+    this.factConverter = factConverter;
+  }
+
+  public ResultSet<Fact> handle(GetObjectNeighbourhoodRequest request)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    securityContext.checkPermission(TiFunctionConstants.traverseFactObjects);
+    securityContext.checkReadPermission(objectFactDao.getObject(request.getId()));
+
+    Set<UUID> factTypeID = byNameResolver.resolveFactType(request.getFactType());
+    int depth = ObjectUtils.ifNull(request.getDepth(), DEFAULT_NEIGHBOURHOOD_DEPTH);
+    int limit = resolveLimit(request.getLimit());
+    FetchBudget budget = resolveFetchBudget(depth);
+
+    // Facts are returned level by level, i.e. Facts closer to the starting Object come first.
+    Map<UUID, FactRecord> facts = new LinkedHashMap<>();
+    Set<UUID> visitedObjects = SetUtils.set(request.getId());
+    Set<UUID> currentLevel = SetUtils.set(request.getId());
+    for (int hop = 0; hop < depth && !currentLevel.isEmpty(); hop++) {
+      Set<UUID> nextLevel = new LinkedHashSet<>();
+      // Exclude Facts returned from previous levels, e.g. a Fact binding Objects of two adjacent levels.
+      for (FactRecord fact : fetchBoundFacts(currentLevel, factTypeID, facts.keySet(), limit, budget)) {
+        facts.put(fact.getId(), fact);
+        for (UUID objectID : getBoundObjects(fact)) {
+          if (visitedObjects.add(objectID)) nextLevel.add(objectID);
+        }
+      }
+      currentLevel = nextLevel;
+    }
+
+    // All Facts have already been fetched, thus, only convert them while consuming.
+    return StreamingResultSet.<Fact>builder()
+            .setCount(facts.size())
+            .setValues(Iterators.transform(facts.values().iterator(), factConverter::apply))
+            .build();
+  }
+
+  public ResultSet<Fact> handle(FindObjectPathRequest request)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException {
+    securityContext.checkPermission(TiFunctionConstants.traverseFactObjects);
+    securityContext.checkReadPermission(objectFactDao.getObject(request.getSource()));
+    securityContext.checkReadPermission(objectFactDao.getObject(request.getDestination()));
+
+    Set<UUID> factTypeID = byNameResolver.resolveFactType(request.getFactType());
+    int depth = ObjectUtils.ifNull(request.getDepth(), DEFAULT_PATH_DEPTH);
+    int limit = resolveLimit(request.getLimit());
+
+    return createResultSet(findPath(request.getSource(), request.getDestination(), factTypeID, depth, limit, resolveFetchBudget(depth)));
+  }
+
+  /**
+   * Set the default number of Facts followed per hop. It's also the maximum for users without the
+   * 'unlimitedTraversal' permission.
+   * <p>
+   * Defaults to 1000.
+   *
+   * @param defaultLimit Default limit
+   * @return Class instance, i.e. 'this'
+   */
+  ObjectGraphDelegate setDefaultLimit(int defaultLimit) {
+    this.defaultLimit = defaultLimit;
+    return this;
+  }
+
+  /**
+   * Set the maximum number of Facts fetched by one operation of a user without the 'unlimitedTraversal' permission.
+   * <p>
+   * Defaults to 10.000.
+   *
+   * @param maximumFetchedFacts Maximum number of fetched Facts
+   * @return Class instance, i.e. 'this'
+   */
+  ObjectGraphDelegate setMaximumFetchedFacts(int maximumFetchedFacts) {
+    this.maximumFetchedFacts = maximumFetchedFacts;
+    return this;
+  }
+
+  private int resolveLimit(Integer limit) {
+    try {
+      securityContext.checkPermission(TiFunctionConstants.unlimitedTraversal);
+      return Math.max(ObjectUtils.ifNull(limit, defaultLimit), 0);
+    } catch (AccessDeniedException | AuthenticationFailedException ignored) {
+      // User isn't allowed to follow all Facts, thus, apply system-defined maximum limit.
+      return limit != null && limit > 0 && limit < defaultLimit ? limit : defaultLimit;
+    }
+  }
+
+  private FetchBudget resolveFetchBudget(int depth) {
+    try {
+      securityContext.checkPermission(TiFunctionConstants.unlimitedTraversal);
+      return new FetchBudget(0, depth);
+    } catch (AccessDeniedException | AuthenticationFailedException ignored) {
+      return new FetchBudget(maximumFetchedFacts, depth);
+    }
+  }
+
+  private List<UUID> findPath(UUID source, UUID destination, Set<UUID> factTypeID, int depth, int limit, FetchBudget budget)
+          throws InvalidArgumentException {
+    if (Objects.equals(source, destination)) return ListUtils.list();
+
+    // Search bidirectional, from the source and from the destination, always expanding the smaller level. Every hop
+    // extends the length of the found path by one, thus, the first Object reached from both sides yields a shortest
+    // path. For each reached Object the Fact and the Object one hop closer to the start of its search are remembered.
+    Map<UUID, PathStep> forward = new HashMap<>();
+    Map<UUID, PathStep> backward = new HashMap<>();
+    forward.put(source, null);
+    backward.put(destination, null);
+    Set<UUID> forwardLevel = SetUtils.set(source);
+    Set<UUID> backwardLevel = SetUtils.set(destination);
+    // Facts already followed by each side, they only lead back to Objects which have been reached already.
+    Set<UUID> forwardFacts = new HashSet<>();
+    Set<UUID> backwardFacts = new HashSet<>();
+
+    for (int hop = 0; hop < depth && !forwardLevel.isEmpty() && !backwardLevel.isEmpty(); hop++) {
+      boolean expandForward = forwardLevel.size() <= backwardLevel.size();
+      Set<UUID> currentLevel = expandForward ? forwardLevel : backwardLevel;
+      Map<UUID, PathStep> visited = expandForward ? forward : backward;
+      Map<UUID, PathStep> visitedByOtherSide = expandForward ? backward : forward;
+      Set<UUID> followedFacts = expandForward ? forwardFacts : backwardFacts;
+
+      Set<UUID> nextLevel = new LinkedHashSet<>();
+      for (FactRecord fact : fetchBoundFacts(currentLevel, factTypeID, followedFacts, limit, budget)) {
+        followedFacts.add(fact.getId());
+        List<UUID> boundObjects = getBoundObjects(fact);
+        for (UUID from : boundObjects) {
+          if (!currentLevel.contains(from)) continue;
+
+          for (UUID to : boundObjects) {
+            if (visited.containsKey(to)) continue;
+
+            visited.put(to, new PathStep(fact.getId(), from));
+            if (visitedByOtherSide.containsKey(to)) return reconstructPath(forward, backward, to);
+            nextLevel.add(to);
+          }
+        }
+      }
+
+      if (expandForward) {
+        forwardLevel = nextLevel;
+      } else {
+        backwardLevel = nextLevel;
+      }
+    }
+
+    // No path found within the given depth.
+    return ListUtils.list();
+  }
+
+  private List<UUID> reconstructPath(Map<UUID, PathStep> forward, Map<UUID, PathStep> backward, UUID meetingPoint) {
+    LinkedList<UUID> path = new LinkedList<>();
+    for (PathStep step = forward.get(meetingPoint); step != null; step = forward.get(step.object)) {
+      path.addFirst(step.fact);
+    }
+    for (PathStep step = backward.get(meetingPoint); step != null; step = backward.get(step.object)) {
+      path.addLast(step.fact);
+    }
+    return path;
+  }
+
+  private List<FactRecord> fetchBoundFacts(Set<UUID> objectID, Set<UUID> factTypeID, Set<UUID> excludedFactID, int limit, FetchBudget budget)
+          throws InvalidArgumentException {
+    List<FactRecord> result = new ArrayList<>();
+    Set<UUID> seenFacts = new HashSet<>();
+    List<UUID> batch = new ArrayList<>(FACT_BATCH_SIZE);
+
+    for (UUID id : objectID) {
+      Iterator<ObjectFactBindingEntity> bindings = fetchBindings(id, factTypeID);
+      while (bindings.hasNext()) {
+        UUID factID = bindings.next().getFactID();
+        // Skip Facts which have been followed before (they don't count towards the limit),
+        // and a Fact binding multiple Objects of the same level is only fetched once.
+        if (excludedFactID.contains(factID) || !seenFacts.add(factID)) continue;
+
+        batch.add(factID);
+        if (batch.size() >= FACT_BATCH_SIZE) {
+          budget.consume(batch.size());
+          addAccessibleFacts(batch, result, limit);
+          batch = new ArrayList<>(FACT_BATCH_SIZE);
+          if (isLimitReached(result, limit)) return result;
+        }
+      }
+    }
+    if (!batch.isEmpty()) {
+      budget.consume(batch.size());
+      addAccessibleFacts(batch, result, limit);
+    }
+
+    return result;
+  }
+
+  private Iterator<ObjectFactBindingEntity> fetchBindings(UUID objectID, Set<UUID> factTypeID) {
+    if (factTypeID.isEmpty()) return objectManager.fetchObjectFactBindings(objectID);
+    // Only read the bindings to Facts of the requested types.
+    return objectManager.fetchObjectFactBindings(objectID, factTypeID, EnumSet.allOf(Direction.class));
+  }
+
+  private void addAccessibleFacts(List<UUID> factID, List<FactRecord> result, int limit) {
+    Iterator<FactRecord> facts = objectFactDao.getFacts(factID);
+    while (facts.hasNext() && !isLimitReached(result, limit)) {
+      FactRecord fact = facts.next();
+      if (securityContext.hasReadPermission(fact)) {
+        result.add(fact);
+      }
+    }
+  }
+
+  private boolean isLimitReached(List<FactRecord> result, int limit) {
+    return limit > 0 && result.size() >= limit;
+  }
+
+  private List<UUID> getBoundObjects(FactRecord fact) {
+    // The direction of Facts is ignored, thus, a Fact leads from its source to its destination and vice versa.
+    List<UUID> objectID = new ArrayList<>(2);
+    if (fact.getSourceObject() != null) objectID.add(fact.getSourceObject().getId());
+    if (fact.getDestinationObject() != null) objectID.add(fact.getDestinationObject().getId());
+    return objectID;
+  }
+
+  private ResultSet<Fact> createResultSet(List<UUID> factID) {
+    // Access to the Facts has already been checked, thus, only fetch and convert them in batches while consuming.
+    Iterator<Fact> facts = Iterators.transform(
+            Iterators.concat(Iterators.transform(Iterators.partition(factID.iterator(), FACT_BATCH_SIZE), objectFactDao::getFacts)),
+            factConverter::apply);
+    return StreamingResultSet.<Fact>builder()
+            .setCount(factID.size())
+            .setValues(facts)
+            .build();
+  }
+
+  /**
+   * Counts the Facts fetched by one operation and fails the operation when it exceeds the maximum (0 means unlimited).
+   */
+  private static class FetchBudget {
+    private final int maximum;
+    private final int depth;
+    private int fetched;
+
+    private FetchBudget(int maximum, int depth) {
+      this.maximum = maximum;
+      this.depth = depth;
+    }
+
+    private void consume(int facts) throws InvalidArgumentException {
+      fetched += facts;
+      if (maximum > 0 && fetched > maximum) {
+        throw new InvalidArgumentException()
+                .addValidationError(String.format("The operation exceeded the maximum of %d fetched Facts. Reduce 'depth' or 'limit' or restrict 'factType'.", maximum),
+                        "object.graph.maximum.facts.exceeded", "depth", String.valueOf(depth));
+      }
+    }
+  }
+
+  private static class PathStep {
+    private final UUID fact;
+    private final UUID object;
+
+    private PathStep(UUID fact, UUID object) {
+      this.fact = fact;
+      this.object = object;
+    }
+  }
+}
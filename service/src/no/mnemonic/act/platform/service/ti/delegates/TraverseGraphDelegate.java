@@ -1,49 +1,105 @@
 package no.mnemonic.act.platform.service.ti.delegates;
 
+import com.google.common.collect.Lists;
 import no.mnemonic.act.platform.api.exceptions.AccessDeniedException;
 import no.mnemonic.act.platform.api.exceptions.AuthenticationFailedException;
 import no.mnemonic.act.platform.api.exceptions.InvalidArgumentException;
 import no.mnemonic.act.platform.api.exceptions.OperationTimeoutException;
 import no.mnemonic.act.platform.api.model.v1.Object;
+import no.mnemonic.act.platform.api.request.v1.GraphProgram;
+import no.mnemonic.act.platform.api.request.v1.TraverseByBytecodeRequest;
 import no.mnemonic.act.platform.api.request.v1.TraverseByObjectIdRequest;
 import no.mnemonic.act.platform.api.request.v1.TraverseByObjectSearchRequest;
 import no.mnemonic.act.platform.api.request.v1.TraverseByObjectTypeValueRequest;
 import no.mnemonic.act.platform.api.service.v1.StreamingResultSet;
 import no.mnemonic.act.platform.dao.api.ObjectFactDao;
+import no.mnemonic.act.platform.dao.api.criteria.ObjectStatisticsCriteria;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
 import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import no.mnemonic.act.platform.dao.api.result.ObjectStatisticsContainer;
 import no.mnemonic.act.platform.dao.cassandra.FactManager;
 import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
 import no.mnemonic.act.platform.dao.tinkerpop.ActGraph;
 import no.mnemonic.act.platform.dao.tinkerpop.FactEdge;
 import no.mnemonic.act.platform.dao.tinkerpop.ObjectVertex;
+import no.mnemonic.act.platform.dao.tinkerpop.TraversalBudget;
+import no.mnemonic.act.platform.dao.tinkerpop.TraversalStatistics;
+import no.mnemonic.act.platform.dao.tinkerpop.computer.ActGraphComputer;
+import no.mnemonic.act.platform.dao.tinkerpop.exceptions.TraversalBudgetExceededException;
 import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
 import no.mnemonic.act.platform.service.ti.TiSecurityContext;
 import no.mnemonic.act.platform.service.ti.converters.FactConverter;
 import no.mnemonic.act.platform.service.ti.converters.ObjectConverter;
-import no.mnemonic.act.platform.service.ti.helpers.GremlinSandboxExtension;
+import no.mnemonic.act.platform.service.ti.helpers.GremlinBytecodeSandbox;
+import no.mnemonic.act.platform.service.ti.helpers.GraphComputerPool;
+import no.mnemonic.act.platform.service.ti.helpers.GremlinExecutorPool;
+import no.mnemonic.act.platform.service.ti.helpers.TraversalResultCache;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
 import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.ListUtils;
 import no.mnemonic.commons.utilities.collections.MapUtils;
 import no.mnemonic.commons.utilities.collections.SetUtils;
+import no.mnemonic.commons.utilities.lambda.LambdaUtils;
 import no.mnemonic.services.common.api.ResultSet;
-import org.apache.tinkerpop.gremlin.groovy.engine.GremlinExecutor;
-import org.apache.tinkerpop.gremlin.groovy.jsr223.GroovyCompilerGremlinPlugin;
+import org.apache.tinkerpop.gremlin.process.computer.VertexProgram;
+import org.apache.tinkerpop.gremlin.process.computer.clustering.connected.ConnectedComponentVertexProgram;
+import org.apache.tinkerpop.gremlin.process.computer.clustering.peerpressure.PeerPressureVertexProgram;
+import org.apache.tinkerpop.gremlin.process.computer.ranking.pagerank.PageRankVertexProgram;
+import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.wrapped.WrappedEdge;
+import org.apache.tinkerpop.gremlin.structure.util.wrapped.WrappedVertex;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import javax.inject.Inject;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static no.mnemonic.commons.utilities.collections.MapUtils.Pair.T;
 
+/**
+ * Delegate executing graph traversals. The traversal result is streamed, i.e. the traversal is executed in the
+ * background (see {@link GremlinExecutorPool}) while the returned {@link ResultSet} is consumed. Results are converted
+ * in batches and handed over to the consumer through a bounded buffer, thus, a traversal can only get a limited number
+ * of batches ahead of the consumer. Note that the 'count' of the returned ResultSet is unknown and therefore not set.
+ * <p>
+ * A traversal is either provided as a Gremlin query (a Groovy script) or as Gremlin bytecode. Bytecode is validated
+ * by the {@link GremlinBytecodeSandbox} and executed without compiling a script.
+ * <p>
+ * A traversal starting at the result of an Object search can execute a {@link GraphProgram} first. The program is
+ * executed by the {@link ActGraphComputer} on the subgraph around the found Objects, and the query is then executed on
+ * the computed subgraph starting at all of its Objects. All computations share the threads of the
+ * {@link GraphComputerPool} and are stopped after the script execution timeout of the {@link GremlinExecutorPool}.
+ * <p>
+ * Every traversal (all partitions together in parallel mode) is limited by a {@link TraversalBudget} unless the user
+ * has the 'unlimitedTraversal' permission, and by the script execution timeout of the {@link GremlinExecutorPool}.
+ * A traversal exceeding its budget or timeout is aborted. With 'profile' set in the request the
+ * traversal returns its profile instead of its result.
+ * <p>
+ * With 'cache' set in the request the result might be served from the {@link TraversalResultCache} if the same user
+ * executed the same traversal from the same starting Objects recently. Otherwise, the result is recorded while it's
+ * streamed and cached once the traversal completed successfully.
+ */
 public class TraverseGraphDelegate extends AbstractDelegate implements Delegate {
 
-  private static final String SCRIPT_ENGINE = "gremlin-groovy";
-  private static final long SCRIPT_EXECUTION_TIMEOUT = 120_000;
+  private static final Logger LOGGER = Logging.getLogger(TraverseGraphDelegate.class);
+  private static final int RESULT_BATCH_SIZE = 100;
+  private static final int RESULT_BUFFER_SIZE = 10;
+  private static final int PARALLELISM = 4;
+  private static final int HOPS = 1;
+  private static final int MAXIMUM_SUBGRAPH_SIZE = 10000;
+  private static final TraversalBudget TRAVERSAL_BUDGET = TraversalBudget.builder()
+          .setMaximumVertices(100_000)
+          .setMaximumEdges(1_000_000)
+          .setMaximumReads(1_000_000)
+          .build();
 
   private final TiSecurityContext securityContext;
   private final ObjectFactDao objectFactDao;
@@ -52,10 +108,15 @@ public class TraverseGraphDelegate extends AbstractDelegate implements Delegate
   private final ObjectSearchDelegate objectSearch;
   private final ObjectConverter objectConverter;
   private final FactConverter factConverter;
+  private final GremlinExecutorPool executorPool;
+  private final GraphComputerPool computerPool;
+  private final TraversalResultCache resultCache;
 
-  private final Collection<java.lang.Object> traversalResult = new ArrayList<>();
-
-  private long scriptExecutionTimeout = SCRIPT_EXECUTION_TIMEOUT;
+  private int resultBatchSize = RESULT_BATCH_SIZE;
+  private int maximumResultSize;
+  private int parallelism = PARALLELISM;
+  private int maximumSubgraphSize = MAXIMUM_SUBGRAPH_SIZE;
+  private TraversalBudget traversalBudget = TRAVERSAL_BUDGET;
 
   @Inject
   public TraverseGraphDelegate(TiSecurityContext securityContext,
@@ -64,7 +125,10 @@ public class TraverseGraphDelegate extends AbstractDelegate implements Delegate
                                FactManager factManager,
                                ObjectSearchDelegate objectSearch,
                                ObjectConverter objectConverter,
-                               FactConverter factConverter) {
+                               FactConverter factConverter,
+                               GremlinExecutorPool executorPool,
+                               GraphComputerPool computerPool,
+                               TraversalResultCache resultCache) {
     this.securityContext = securityContext;
     this.objectFactDao = objectFactDao;
     this.objectManager = objectManager;
@@ -72,13 +136,16 @@ public class TraverseGraphDelegate extends AbstractDelegate implements Delegate
     this.objectSearch = objectSearch;
     this.objectConverter = objectConverter;
     this.factConverter = factConverter;
+    this.executorPool = executorPool;
+    this.computerPool = computerPool;
+    this.resultCache = resultCache;
   }
 
   public ResultSet<?> handle(TraverseByObjectIdRequest request)
           throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException, OperationTimeoutException {
     securityContext.checkPermission(TiFunctionConstants.traverseFactObjects);
 
-    return handle(objectFactDao.getObject(request.getId()), request.getQuery());
+    return handle(objectFactDao.getObject(request.getId()), request.getQuery(), request.getProfile(), request.getCache());
   }
 
   public ResultSet<?> handle(TraverseByObjectTypeValueRequest request)
@@ -86,7 +153,7 @@ public class TraverseGraphDelegate extends AbstractDelegate implements Delegate
     securityContext.checkPermission(TiFunctionConstants.traverseFactObjects);
     assertObjectTypeExists(request.getType(), "type");
 
-    return handle(objectFactDao.getObject(request.getType(), request.getValue()), request.getQuery());
+    return handle(objectFactDao.getObject(request.getType(), request.getValue()), request.getQuery(), request.getProfile(), request.getCache());
   }
 
   public ResultSet<?> handle(TraverseByObjectSearchRequest request)
@@ -102,111 +169,562 @@ public class TraverseGraphDelegate extends AbstractDelegate implements Delegate
       return StreamingResultSet.builder().build();
     }
 
-    // Execute traversal and process results.
-    executeTraversal(startingObjects, request.getQuery());
+    int hops = ObjectUtils.ifNull(request.getHops(), HOPS);
+    boolean parallel = ObjectUtils.ifNull(request.getParallel(), false);
+    TraversalResultCache.Key cacheKey = createCacheKey(request.getCache(), request.getProfile(), request.getQuery(), startingObjects,
+            request.getProgram(), request.getProgram() != null ? hops : null, parallel);
+
+    if (request.getProgram() != null) {
+      // The program is executed once on the subgraph around all starting Objects, thus, no partitioning here.
+      TraversalExecution execution = createComputerExecution(request.getProgram(), hops,
+              createScriptExecution(request.getQuery(), request.getProfile()));
+      return StreamingResultSet.builder()
+              .setLimit(maximumResultSize)
+              .setValues(executeTraversal(Collections.singleton(ListUtils.list(startingObjects)), "query", request.getQuery(), execution, cacheKey))
+              .build();
+    }
+
+    // Execute traversal and stream results. In parallel mode the traversal is executed independently on partitions
+    // of the starting Objects, otherwise one traversal is executed starting at all Objects.
+    Collection<List<UUID>> partitions = parallel
+            ? partition(startingObjects)
+            : Collections.singleton(ListUtils.list(startingObjects));
+    return StreamingResultSet.builder()
+            .setLimit(maximumResultSize)
+            .setValues(executeTraversal(partitions, "query", request.getQuery(), createScriptExecution(request.getQuery(), request.getProfile()), cacheKey))
+            .build();
+  }
+
+  public ResultSet<?> handle(TraverseByBytecodeRequest request)
+          throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException, OperationTimeoutException {
+    securityContext.checkPermission(TiFunctionConstants.traverseFactObjects);
+
+    // Validate the bytecode before accessing any Objects. In contrast to a query no script needs to be compiled.
+    Bytecode bytecode;
+    try {
+      bytecode = GremlinBytecodeSandbox.parse(request.getBytecode());
+    } catch (IllegalArgumentException ex) {
+      throw new InvalidArgumentException()
+              .addValidationError(ex.getMessage(), "graph.traversal.bytecode.invalid", "bytecode", request.getBytecode());
+    }
+
+    // Verify that user has access to all starting points of the graph traversal.
+    for (UUID id : request.getObjectID()) {
+      securityContext.checkReadPermission(objectFactDao.getObject(id));
+    }
 
+    boolean parallel = ObjectUtils.ifNull(request.getParallel(), false);
+    Collection<List<UUID>> partitions = parallel
+            ? partition(request.getObjectID())
+            : Collections.singleton(ListUtils.list(request.getObjectID()));
+    // Bytecode is identified by its serialized form, it's normalized like a query.
+    TraversalResultCache.Key cacheKey = createCacheKey(request.getCache(), request.getProfile(), request.getBytecode(),
+            request.getObjectID(), "bytecode", parallel);
     return StreamingResultSet.builder()
-            .setCount(traversalResult.size())
-            .setValues(traversalResult)
+            .setLimit(maximumResultSize)
+            .setValues(executeTraversal(partitions, "bytecode", request.getBytecode(), createBytecodeExecution(bytecode, request.getProfile()), cacheKey))
             .build();
   }
 
-  TraverseGraphDelegate setScriptExecutionTimeout(long scriptExecutionTimeout) {
-    this.scriptExecutionTimeout = scriptExecutionTimeout;
+  /**
+   * Set the number of traversal results which are converted together, i.e. Objects and Facts of one batch are
+   * fetched with one multi-fetch each.
+   * <p>
+   * Defaults to 100.
+   *
+   * @param resultBatchSize Batch size
+   * @return Class instance, i.e. 'this'
+   */
+  TraverseGraphDelegate setResultBatchSize(int resultBatchSize) {
+    this.resultBatchSize = resultBatchSize;
+    return this;
+  }
+
+  /**
+   * Set the maximum number of results returned from a traversal. The traversal is stopped when the limit is reached.
+   * <p>
+   * Defaults to 0, i.e. unlimited.
+   *
+   * @param maximumResultSize Maximum number of results
+   * @return Class instance, i.e. 'this'
+   */
+  TraverseGraphDelegate setMaximumResultSize(int maximumResultSize) {
+    this.maximumResultSize = maximumResultSize;
+    return this;
+  }
+
+  /**
+   * Set the maximum number of partitions a traversal in parallel mode is split into, i.e. the maximum number of
+   * threads of the {@link GremlinExecutorPool} occupied by one traversal.
+   * <p>
+   * Defaults to 4.
+   *
+   * @param parallelism Maximum number of partitions
+   * @return Class instance, i.e. 'this'
+   */
+  TraverseGraphDelegate setParallelism(int parallelism) {
+    this.parallelism = parallelism;
     return this;
   }
 
-  private ResultSet<?> handle(ObjectRecord startingObject, String query)
+  /**
+   * Set the maximum number of Objects in the subgraph a {@link GraphProgram} is executed on. The execution fails if
+   * the subgraph around the starting Objects is larger.
+   * <p>
+   * Defaults to 10000.
+   *
+   * @param maximumSubgraphSize Maximum number of Objects
+   * @return Class instance, i.e. 'this'
+   */
+  TraverseGraphDelegate setMaximumSubgraphSize(int maximumSubgraphSize) {
+    this.maximumSubgraphSize = maximumSubgraphSize;
+    return this;
+  }
+
+  /**
+   * Set the budget of a traversal executed by a user without the 'unlimitedTraversal' permission. In parallel mode
+   * the budget applies to all partitions together.
+   * <p>
+   * Defaults to 100.000 vertices, 1.000.000 edges and 1.000.000 reads.
+   *
+   * @param traversalBudget Traversal budget
+   * @return Class instance, i.e. 'this'
+   */
+  TraverseGraphDelegate setTraversalBudget(TraversalBudget traversalBudget) {
+    this.traversalBudget = traversalBudget;
+    return this;
+  }
+
+  private ResultSet<?> handle(ObjectRecord startingObject, String query, Boolean profile, Boolean cache)
           throws AccessDeniedException, AuthenticationFailedException, InvalidArgumentException, OperationTimeoutException {
     // Verify that user has access to starting point of graph traversal.
     securityContext.checkReadPermission(startingObject);
-    // Execute traversal and process results.
-    executeTraversal(Collections.singleton(startingObject.getId()), query);
 
+    // Execute traversal and stream results.
+    List<UUID> startingObjects = ListUtils.list(startingObject.getId());
     return StreamingResultSet.builder()
-            .setCount(traversalResult.size())
-            .setValues(traversalResult)
+            .setLimit(maximumResultSize)
+            .setValues(executeTraversal(Collections.singleton(startingObjects), "query", query, createScriptExecution(query, profile),
+                    createCacheKey(cache, profile, query, startingObjects)))
             .build();
   }
 
-  private void executeTraversal(Collection<UUID> startingObjects, String query)
-          throws InvalidArgumentException, OperationTimeoutException {
-    try (Graph graph = createGraph(); GremlinExecutor executor = createExecutor()) {
+  private TraversalResultCache.Key createCacheKey(Boolean cache, Boolean profile, String query, Collection<UUID> startingObjects,
+                                                  java.lang.Object... parameters) {
+    // A profile describes one particular execution, thus, it's never served from the cache.
+    if (!ObjectUtils.ifNull(cache, false) || ObjectUtils.ifNull(profile, false)) return null;
+
+    // The result depends on the Facts accessible to the user, thus, the user's access scope is part of the key.
+    TraversalResultCache.Key.Builder builder = TraversalResultCache.Key.builder()
+            .setQuery(query)
+            .setStartingObjects(startingObjects)
+            .setCurrentUserID(securityContext.getCurrentUserID())
+            .setAvailableOrganizationID(securityContext.getAvailableOrganizationID());
+    for (java.lang.Object parameter : parameters) {
+      builder.addParameter(parameter);
+    }
+
+    return builder.build();
+  }
+
+  private Collection<List<UUID>> partition(Collection<UUID> startingObjects) {
+    // Split the starting Objects into at most 'parallelism' partitions of (almost) equal size.
+    int partitionSize = (startingObjects.size() + parallelism - 1) / Math.max(parallelism, 1);
+    return Lists.partition(ListUtils.list(startingObjects), Math.max(partitionSize, 1));
+  }
+
+  private TraversalExecution createScriptExecution(String query, Boolean profile) {
+    return (graph, startingObjects, withResult) -> {
       // Create the first step of the graph traversal, i.e. starting the traversal at the Object(s) specified in the request.
       // This is injected into the script execution as variable 'g'. Every query has to start from 'g'.
       GraphTraversal<Vertex, Vertex> startingPoint = graph.traversal().V(startingObjects.toArray());
       Map<String, java.lang.Object> bindings = MapUtils.map(T("g", startingPoint));
-      // Start script execution and wait until result arrived or execution is aborted.
-      // Use 'withResult' callback here because the graph will then be iterated inside the 'eval' thread, thus, every
-      // exception caused by the traversal will be handled inside that thread as well which will result in an ExecutionException.
-      executor.eval(query, SCRIPT_ENGINE, bindings, this::produceTraversalResult).get();
+      // The script is compiled once per query text and cached by the shared executor pool.
+      return executorPool.eval(query, bindings, result -> withResult.accept(profile(result, profile)));
+    };
+  }
+
+  private TraversalExecution createBytecodeExecution(Bytecode bytecode, Boolean profile) {
+    // The bytecode is translated directly into a traversal starting at the Object(s) specified in the request.
+    return (graph, startingObjects, withResult) -> executorPool.submit(
+            () -> GremlinBytecodeSandbox.createTraversal(graph.traversal(), startingObjects.toArray(), bytecode),
+            result -> withResult.accept(profile(result, profile)));
+  }
+
+  private java.lang.Object profile(java.lang.Object result, Boolean profile) {
+    if (!ObjectUtils.ifNull(profile, false)) return result;
+    // Append profile() to the returned traversal. This is only possible as long as the traversal hasn't been iterated.
+    if (!(result instanceof GraphTraversal) || ((GraphTraversal<?, ?>) result).asAdmin().isLocked()) {
+      throw new IllegalArgumentException("Only queries returning a traversal which hasn't been iterated can be profiled.");
+    }
+    return ((GraphTraversal<?, ?>) result).profile();
+  }
+
+  private TraversalExecution createComputerExecution(GraphProgram program, int hops, TraversalExecution traversal) {
+    return (graph, startingObjects, withResult) -> graph.compute(ActGraphComputer.class)
+            .seeds(startingObjects)
+            .hops(hops)
+            .maximumVertices(maximumSubgraphSize)
+            .timeout(executorPool.getScriptExecutionTimeout())
+            .program(createVertexProgram(program))
+            .submit()
+            // Start the traversal at all Objects of the computed subgraph. Its vertices expose the computed values as properties.
+            .thenCompose(result -> traversal.start(result.graph(), ListUtils.list(result.graph().vertices(), vertex -> (UUID) vertex.id()), withResult));
+  }
+
+  private VertexProgram<?> createVertexProgram(GraphProgram program) {
+    switch (program) {
+      case pageRank:
+        return PageRankVertexProgram.build().property("pageRank").create();
+      case connectedComponent:
+        return ConnectedComponentVertexProgram.build().property("component").create();
+      case peerPressure:
+        return PeerPressureVertexProgram.build().property("cluster").create();
+      default:
+        throw new IllegalArgumentException("Unsupported graph program: " + program);
+    }
+  }
+
+  private Iterator<java.lang.Object> executeTraversal(Collection<List<UUID>> partitions, String parameter, String query,
+                                                      TraversalExecution execution, TraversalResultCache.Key cacheKey)
+          throws InvalidArgumentException, OperationTimeoutException {
+    List<java.lang.Object> cachedResult = resultCache.get(cacheKey);
+    if (cachedResult != null) return cachedResult.iterator();
+
+    // Results from multiple partitions are de-duplicated, e.g. an Object reachable from multiple partitions.
+    StreamingTraversalResult traversalResult = new StreamingTraversalResult(partitions.size() > 1,
+            ObjectUtils.ifNotNull(cacheKey, resultCache::record));
+    List<CompletableFuture<java.lang.Object>> evaluations = new ArrayList<>();
+    // All partitions record their consumed resources together, i.e. the budget applies to the whole traversal.
+    TraversalStatistics statistics = new TraversalStatistics(resolveTraversalBudget());
+
+    try {
+      for (List<UUID> startingObjects : partitions) {
+        evaluations.add(executeTraversal(startingObjects, statistics, execution, traversalResult));
+      }
+      // The result is complete when all partitions have been traversed. Partitions might wait in the queue of the
+      // executor pool, thus, one timeout is enforced on the whole traversal in addition to the timeout of each
+      // evaluation. When it expires all partitions are aborted before their next read from the graph.
+      executorPool.withTimeout(CompletableFuture.allOf(evaluations.toArray(new CompletableFuture[0])), () -> {
+        statistics.abort();
+        traversalResult.abort();
+      }).whenComplete((result, ex) -> traversalResult.complete(ex));
+      // Wait until the first results arrived or the execution is aborted. Failures which happen before any results
+      // are available (e.g. invalid syntax or a timeout) are reported directly to the user.
+      traversalResult.awaitFirstBatch();
+      return traversalResult;
+    } catch (RejectedExecutionException ex) {
+      // Stop partitions which have already been started.
+      statistics.abort();
+      traversalResult.abort();
+      // The pool is exhausted, i.e. too many traversals are executed concurrently. Signal this as a timeout to the user.
+      throw new OperationTimeoutException("Too many graph traversals are executed concurrently. Try again later.", "graph.traversal.rejected");
     } catch (ExecutionException ex) {
       // Exceptions causing the script execution to fail are wrapped inside an ExecutionException. Need to unwrap them.
       Throwable cause = ObjectUtils.ifNull(ex.getCause(), ex);
-      // A TimeoutException will be thrown when either the GremlinExecutor or the Groovy sandbox abort the script execution.
-      // In both cases throw an own OperationTimeoutException in order to signal the timeout to the user.
+      // A traversal started after executing a graph program is submitted asynchronously and might be rejected as well.
+      if (cause instanceof RejectedExecutionException) {
+        throw new OperationTimeoutException("Too many graph traversals are executed concurrently. Try again later.", "graph.traversal.rejected");
+      }
+      // The traversal was aborted because it consumed too many resources. The query needs to be more selective.
+      if (cause instanceof TraversalBudgetExceededException) {
+        throw new InvalidArgumentException()
+                .addValidationError(cause.getMessage(), "graph.traversal.budget.exceeded", parameter, query);
+      }
+      // A TimeoutException will be thrown when either the GremlinExecutor, the Groovy sandbox or the timeout of the whole
+      // traversal abort the execution. In all cases throw an own OperationTimeoutException in order to signal the timeout.
       if (cause instanceof TimeoutException) {
         throw new OperationTimeoutException("The performed graph traversal query timed out.", "graph.traversal.timeout");
       }
       // In all other cases throw an InvalidArgumentException because the failure is most likely caused by a wrong query,
       // e.g. invalid syntax, an unsupported operation such as 'addE()', or an operation not allowed by the sandbox.
       throw new InvalidArgumentException()
-              .addValidationError(cause.getMessage(), "graph.traversal.failure", "query", query);
+              .addValidationError(cause.getMessage(), "graph.traversal.failure", parameter, query);
     } catch (Exception ex) {
       // Something bad happened, abort method.
       throw new IllegalStateException("Could not perform graph traversal.", ex);
     }
   }
 
-  private void produceTraversalResult(java.lang.Object result) {
-    // The result of the graph traversal will be an iterator, thus, convert result to an iterator here.
-    Iterator<?> resultIterator = IteratorUtils.asIterator(result);
-    // Iterate result and convert values if necessary. This will perform the actual graph traversal.
-    resultIterator.forEachRemaining(value -> {
+  private CompletableFuture<java.lang.Object> executeTraversal(List<UUID> startingObjects, TraversalStatistics statistics,
+                                                              TraversalExecution execution, StreamingTraversalResult traversalResult) {
+    // Record all Objects touched by the traversal when its result will be cached.
+    Graph graph = createGraph(statistics, ObjectUtils.ifNotNull(traversalResult.recorder, recorder -> recorder::addTouchedObject));
+    // Start execution in the background. Use 'withResult' callback here because the graph will then be iterated
+    // inside the evaluation thread, thus, every exception caused by the traversal will be handled inside that thread
+    // as well which will result in a failed evaluation.
+    try {
+      return execution.start(graph, startingObjects, traversalResult::produce)
+              .whenComplete((result, ex) -> {
+                LambdaUtils.tryTo(graph::close);
+                // Stop the other partitions as soon as one partition fails.
+                if (ex != null) traversalResult.abort();
+              });
+    } catch (RejectedExecutionException ex) {
+      LambdaUtils.tryTo(graph::close);
+      throw ex;
+    }
+  }
+
+  private List<java.lang.Object> convertTraversalResult(List<?> values) {
+    // Fetch all Objects and Facts of one batch at once.
+    Map<UUID, ObjectRecord> objects = new HashMap<>();
+    Map<UUID, FactRecord> facts = new HashMap<>();
+    List<UUID> objectID = values.stream()
+            .filter(ObjectVertex.class::isInstance)
+            .map(value -> (UUID) ObjectVertex.class.cast(value).id())
+            .distinct()
+            .collect(Collectors.toList());
+    List<UUID> factID = values.stream()
+            .filter(FactEdge.class::isInstance)
+            .map(value -> FactEdge.class.cast(value).getFact().getId())
+            .distinct()
+            .collect(Collectors.toList());
+    if (!objectID.isEmpty()) objectFactDao.getObjects(objectID).forEachRemaining(object -> objects.put(object.getId(), object));
+    if (!factID.isEmpty()) objectFactDao.getFacts(factID).forEachRemaining(fact -> facts.put(fact.getId(), fact));
+
+    // Convert values if necessary, keeping the order of the traversal result.
+    List<java.lang.Object> result = new ArrayList<>(values.size());
+    for (java.lang.Object value : values) {
       if (value instanceof ObjectVertex) {
-        // Fetch ObjectRecord and convert to Object model before adding to result. Avoid explicitly checking access to
+        // Convert ObjectRecord to Object model before adding to result. Avoid explicitly checking access to
         // Object and rely on access control implemented in graph traversal only. Checking this would be too expensive
         // because it requires fetching Facts for each Object. In addition, accidentally returning non-accessible
         // Objects will only leak the information that the Object exists and will not give further access to any Facts.
-        ObjectRecord object = objectFactDao.getObject(ObjectVertex.class.cast(value).getObject().getId());
-        traversalResult.add(objectConverter.apply(object));
+        ObjectRecord object = objects.get((UUID) ObjectVertex.class.cast(value).id());
+        if (object != null) {
+          result.add(objectConverter.apply(object));
+        }
       } else if (value instanceof FactEdge) {
-        // Fetch FactRecord and convert to Fact model before adding to result.
-        FactRecord fact = objectFactDao.getFact(FactEdge.class.cast(value).getFact().getId());
+        // Convert FactRecord to Fact model before adding to result.
+        FactRecord fact = facts.get(FactEdge.class.cast(value).getFact().getId());
         // But only add it if user has access to the Fact. Skip Fact otherwise.
-        if (securityContext.hasReadPermission(fact)) {
-          traversalResult.add(factConverter.apply(fact));
+        if (fact != null && securityContext.hasReadPermission(fact)) {
+          result.add(factConverter.apply(fact));
         }
       } else {
         // Don't know what this is, just add its string representation to result.
         // For example, it could be a query returning a list of properties.
         // This mimics the behaviour of gremlin-console and avoids returning arbitrary JSON objects.
-        traversalResult.add(value.toString());
+        result.add(value.toString());
       }
-    });
+    }
+
+    return result;
   }
 
-  private Graph createGraph() {
+  private Graph createGraph(TraversalStatistics statistics, Consumer<UUID> vertexListener) {
     return ActGraph.builder()
             .setObjectManager(objectManager)
             .setFactManager(factManager)
             .setHasFactAccess(securityContext::hasReadPermission)
+            .setStatistics(statistics)
+            .setObjectStatisticsResolver(createObjectStatisticsResolver())
+            .setVertexListener(vertexListener)
+            .setComputerPool(computerPool.getPool())
             .build();
   }
 
-  private GremlinExecutor createExecutor() {
-    Map<String, java.lang.Object> groovyCompilerConfig = MapUtils.map(
-            // Protect against scripts going haywire (endless loops, etc.).
-            T("timedInterrupt", scriptExecutionTimeout),
-            // Statically compile scripts before execution (needed for sandbox).
-            T("compilation", GroovyCompilerGremlinPlugin.Compilation.COMPILE_STATIC),
-            // Execute scripts inside a sandbox (i.e. only allow whitelisted methods).
-            T("extensions", GremlinSandboxExtension.class.getName())
-    );
-
-    return GremlinExecutor.build()
-            .scriptEvaluationTimeout(scriptExecutionTimeout)
-            .addPlugins(SCRIPT_ENGINE, MapUtils.map(T(GroovyCompilerGremlinPlugin.class.getName(), groovyCompilerConfig)))
-            .create();
+  private Function<Set<UUID>, ObjectStatisticsContainer> createObjectStatisticsResolver() {
+    // Resolve the user's access scope up front because the statistics are calculated from the traversal thread.
+    UUID currentUserID = securityContext.getCurrentUserID();
+    Set<UUID> availableOrganizationID = securityContext.getAvailableOrganizationID();
+    // The statistics are calculated by ElasticSearch which applies access control, i.e. only Facts accessible to
+    // the current user are included. The graph takes care of batching and caching the statistics per traversal.
+    return objectID -> objectFactDao.calculateObjectStatistics(ObjectStatisticsCriteria.builder()
+            .setObjectID(objectID)
+            .setCurrentUserID(currentUserID)
+            .setAvailableOrganizationID(availableOrganizationID)
+            .build());
+  }
+
+  private TraversalBudget resolveTraversalBudget() {
+    try {
+      securityContext.checkPermission(TiFunctionConstants.unlimitedTraversal);
+      return TraversalBudget.builder().build();
+    } catch (AccessDeniedException | AuthenticationFailedException ignored) {
+      // User isn't allowed to execute unlimited traversals, thus, apply system-defined budget.
+      return traversalBudget;
+    }
+  }
+
+  /**
+   * Iterator over the result of a graph traversal which is executed in the background. The traversal thread iterates
+   * the traversal, converts the results in batches and puts the converted batches into a buffer. The buffer holds at
+   * most {@link #RESULT_BUFFER_SIZE} batches, afterwards, the traversal thread blocks until the consumer has taken a
+   * batch. A consumer which stops consuming the result will stall the traversal until it's aborted by the timeout.
+   * <p>
+   * In parallel mode multiple traversal threads produce results concurrently, and Objects and Facts are only
+   * returned once even if multiple partitions produced them.
+   * <p>
+   * If a recorder is given all results handed over to the consumer are recorded, and the recording is completed
+   * when the traversal finished successfully.
+   */
+  private class StreamingTraversalResult implements Iterator<java.lang.Object> {
+
+    // Unbounded queue in order to always be able to add the terminal batch. The buffer is bounded by the semaphore.
+    private final BlockingQueue<ResultBatch> queue = new LinkedBlockingQueue<>();
+    private final Semaphore bufferedBatches = new Semaphore(RESULT_BUFFER_SIZE);
+    private final AtomicInteger producedResults = new AtomicInteger();
+    private final Set<UUID> seenObjects = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> seenFacts = ConcurrentHashMap.newKeySet();
+    private final boolean deduplicate;
+    private final TraversalResultCache.Recorder recorder;
+    private volatile boolean aborted;
+    // Only accessed from the consuming thread.
+    private Iterator<java.lang.Object> currentBatch = Collections.emptyIterator();
+    private ResultBatch terminalBatch;
+
+    private StreamingTraversalResult(boolean deduplicate, TraversalResultCache.Recorder recorder) {
+      this.deduplicate = deduplicate;
+      this.recorder = recorder;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!currentBatch.hasNext() && terminalBatch == null) {
+        nextBatch();
+      }
+
+      if (currentBatch.hasNext()) return true;
+      if (terminalBatch.error != null) {
+        // The traversal failed after results have already been returned, e.g. because of a timeout.
+        throw new IllegalStateException("Could not complete graph traversal.", terminalBatch.error);
+      }
+
+      return false;
+    }
+
+    @Override
+    public java.lang.Object next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      return currentBatch.next();
+    }
+
+    private void awaitFirstBatch() throws ExecutionException {
+      // Fetch the first batch but don't consume it, it will be returned from the iterator.
+      nextBatch();
+      if (terminalBatch != null && terminalBatch.error != null) {
+        Throwable error = terminalBatch.error;
+        // Don't report the error again when iterating.
+        terminalBatch = new ResultBatch(Collections.emptyList(), null, true);
+        throw new ExecutionException(error);
+      }
+    }
+
+    private void nextBatch() {
+      try {
+        ResultBatch batch = queue.take();
+        if (batch.terminal) {
+          terminalBatch = batch;
+        } else {
+          bufferedBatches.release();
+          currentBatch = batch.values.iterator();
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for graph traversal result.", ex);
+      }
+    }
+
+    private void produce(java.lang.Object result) {
+      // The result of the graph traversal will be an iterator, thus, convert result to an iterator here.
+      Iterator<?> resultIterator = IteratorUtils.asIterator(result);
+      List<java.lang.Object> values = new ArrayList<>(resultBatchSize);
+      // Iterate result and convert values batch-wise. This will perform the actual graph traversal.
+      // Stop the traversal as soon as the maximum number of results has been produced.
+      while (resultIterator.hasNext() && !isLimitReached() && !aborted) {
+        java.lang.Object value = unwrap(resultIterator.next());
+        if (deduplicate && !isFirstOccurrence(value)) continue;
+
+        values.add(value);
+        if (values.size() >= resultBatchSize) {
+          publish(values);
+          values = new ArrayList<>(resultBatchSize);
+        }
+      }
+      if (!values.isEmpty()) {
+        publish(values);
+      }
+    }
+
+    private java.lang.Object unwrap(java.lang.Object value) {
+      // Vertices and edges of a computed subgraph wrap the ObjectVertices and FactEdges of the ActGraph.
+      if (value instanceof WrappedVertex) return ((WrappedVertex<?>) value).getBaseVertex();
+      if (value instanceof WrappedEdge) return ((WrappedEdge<?>) value).getBaseEdge();
+      return value;
+    }
+
+    private boolean isFirstOccurrence(java.lang.Object value) {
+      // Only Objects and Facts are de-duplicated, any other values are returned as they are.
+      if (value instanceof ObjectVertex) return seenObjects.add((UUID) ObjectVertex.class.cast(value).id());
+      if (value instanceof FactEdge) return seenFacts.add(FactEdge.class.cast(value).getFact().getId());
+      return true;
+    }
+
+    private boolean isLimitReached() {
+      return maximumResultSize > 0 && producedResults.get() >= maximumResultSize;
+    }
+
+    private void publish(List<java.lang.Object> values) {
+      List<java.lang.Object> converted = convertTraversalResult(values);
+      if (maximumResultSize > 0) {
+        // Inaccessible Facts are skipped during conversion, thus, the limit can only be applied after converting.
+        // Reserve the results atomically because multiple partitions might publish results concurrently.
+        int offset = producedResults.getAndAdd(converted.size());
+        if (offset >= maximumResultSize) return;
+        if (offset + converted.size() > maximumResultSize) {
+          converted = converted.subList(0, maximumResultSize - offset);
+        }
+      }
+
+      try {
+        // Block until the consumer has caught up. Interrupted when the execution is aborted, e.g. by the timeout.
+        bufferedBatches.acquire();
+        // Drop results produced after the traversal has been aborted.
+        if (aborted) return;
+        queue.add(new ResultBatch(converted, null, false));
+        if (recorder != null) recorder.addResult(converted);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while producing graph traversal result.", ex);
+      }
+    }
+
+    private void abort() {
+      aborted = true;
+      // Wake up all traversal threads waiting for the consumer. They'll stop producing results afterwards.
+      bufferedBatches.release(Math.max(parallelism, 1));
+    }
+
+    private void complete(Throwable error) {
+      if (error != null && !(error instanceof CancellationException)) {
+        LOGGER.debug(error, "Graph traversal failed.");
+      }
+      // Unwrap exceptions wrapped by the CompletableFuture.
+      Throwable cause = error instanceof CompletionException ? ObjectUtils.ifNull(error.getCause(), error) : error;
+      // Only cache the result if all results have been produced.
+      if (cause == null && !aborted && recorder != null) recorder.complete();
+      queue.add(new ResultBatch(Collections.emptyList(), cause, true));
+    }
+  }
+
+  /**
+   * Starts the traversal of one partition on the {@link GremlinExecutorPool}, e.g. by evaluating a script.
+   */
+  private interface TraversalExecution {
+    CompletableFuture<java.lang.Object> start(Graph graph, List<UUID> startingObjects, Consumer<java.lang.Object> withResult);
+  }
+
+  private static class ResultBatch {
+    private final List<java.lang.Object> values;
+    private final Throwable error;
+    private final boolean terminal;
+
+    private ResultBatch(List<java.lang.Object> values, Throwable error, boolean terminal) {
+      this.values = values;
+      this.error = error;
+      this.terminal = terminal;
+    }
   }
 }
@@ -0,0 +1,76 @@
+package no.mnemonic.act.platform.service.ti.helpers;
+
+import no.mnemonic.act.platform.dao.tinkerpop.computer.ActGraphComputer;
+import no.mnemonic.commons.component.LifecycleAspect;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Long-lived {@link ForkJoinPool} shared by all graph computations (see {@link ActGraphComputer}).
+ * <p>
+ * Graph computations load and execute their subgraph in parallel. Running them on one shared pool bounds the number of
+ * threads used by all concurrent computations to the configured parallelism, instead of creating new threads for
+ * every computation. A computation which is cancelled or exceeds its timeout stops itself, thus, the pool is only
+ * shut down when the component is stopped.
+ * <p>
+ * The pool is created lazily on first usage. All configuration must be applied before that.
+ */
+@Singleton
+public class GraphComputerPool implements LifecycleAspect {
+
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+
+  private ForkJoinPool pool;
+
+  @Inject
+  public GraphComputerPool() {
+  }
+
+  @Override
+  public void startComponent() {
+    // NOOP, pool is created lazily.
+  }
+
+  @Override
+  public synchronized void stopComponent() {
+    if (pool == null) return;
+
+    pool.shutdownNow();
+    pool = null;
+  }
+
+  /**
+   * Returns the shared pool, creating it on first usage.
+   *
+   * @return Pool executing graph computations
+   */
+  public synchronized ForkJoinPool getPool() {
+    if (pool == null) {
+      pool = new ForkJoinPool(parallelism, this::createThread, null, false);
+    }
+    return pool;
+  }
+
+  /**
+   * Set the maximum number of threads executing graph computations concurrently.
+   * <p>
+   * Defaults to the number of available processors.
+   *
+   * @param parallelism Parallelism of the pool
+   * @return Class instance, i.e. 'this'
+   */
+  public GraphComputerPool setParallelism(int parallelism) {
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  private ForkJoinWorkerThread createThread(ForkJoinPool owner) {
+    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(owner);
+    thread.setName("GraphComputerPool-" + thread.getPoolIndex());
+    thread.setDaemon(true);
+    return thread;
+  }
+}
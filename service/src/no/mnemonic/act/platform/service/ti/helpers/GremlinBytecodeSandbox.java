@@ -0,0 +1,128 @@
+package no.mnemonic.act.platform.service.ti.helpers;
+
+import no.mnemonic.commons.utilities.collections.SetUtils;
+import org.apache.tinkerpop.gremlin.jsr223.JavaTranslator;
+import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONMapper;
+import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONVersion;
+import org.apache.tinkerpop.shaded.jackson.databind.ObjectMapper;
+
+import java.util.*;
+
+/**
+ * This class provides the equivalent of the {@link GremlinSandboxExtension} for traversals submitted as Gremlin bytecode.
+ * <p>
+ * Bytecode is executed by invoking the corresponding methods of {@link GraphTraversal} directly, thus, no script has
+ * to be compiled. Only steps included in 'stepWhiteList' are allowed, source instructions (e.g. withStrategies()) are
+ * not allowed at all. Arguments are restricted to plain values, predicates, TinkerPop's enums (e.g. Order or T) and
+ * nested anonymous traversals (which are validated recursively). In particular, lambdas are rejected because they
+ * would be evaluated by a script engine outside of the sandbox.
+ */
+public class GremlinBytecodeSandbox {
+
+  private static final Set<String> stepWhiteList = SetUtils.set(
+          // Navigation
+          "out", "in", "both", "outE", "inE", "bothE", "outV", "inV", "bothV", "otherV",
+          // Filters
+          "has", "hasLabel", "hasId", "hasKey", "hasValue", "hasNot", "is", "not", "where", "and", "or", "filter",
+          "dedup", "limit", "range", "skip", "tail", "sample", "coin", "simplePath", "cyclicPath", "timeLimit",
+          // Maps and reductions
+          "values", "valueMap", "elementMap", "properties", "propertyMap", "id", "label", "key", "value", "path",
+          "select", "project", "by", "as", "fold", "unfold", "count", "sum", "min", "max", "mean", "group",
+          "groupCount", "order", "constant", "identity", "local", "map", "flatMap", "math", "aggregate", "store",
+          "cap", "barrier",
+          // Branches
+          "repeat", "times", "until", "emit", "union", "coalesce", "optional", "choose", "option"
+  );
+
+  private static final ObjectMapper mapper = GraphSONMapper.build()
+          .version(GraphSONVersion.V3_0)
+          .create()
+          .createMapper();
+
+  private GremlinBytecodeSandbox() {
+  }
+
+  /**
+   * Parse Gremlin bytecode serialized as GraphSON 3.0 and validate it against the sandbox.
+   *
+   * @param graphson Serialized bytecode
+   * @return Parsed bytecode
+   * @throws IllegalArgumentException If the bytecode cannot be parsed or is not allowed by the sandbox
+   */
+  public static Bytecode parse(String graphson) {
+    Object bytecode;
+    try {
+      bytecode = mapper.readValue(graphson, Object.class);
+    } catch (Exception ex) {
+      throw new IllegalArgumentException("Could not parse Gremlin bytecode.", ex);
+    }
+
+    if (!(bytecode instanceof Bytecode)) {
+      throw new IllegalArgumentException("Provided value is not Gremlin bytecode.");
+    }
+
+    validate((Bytecode) bytecode);
+    return (Bytecode) bytecode;
+  }
+
+  /**
+   * Create a traversal which starts at the given vertices and then continues with the steps of the given bytecode.
+   *
+   * @param g                Traversal source of the graph to traverse
+   * @param startingVertices IDs of the vertices where the traversal starts
+   * @param bytecode         Validated bytecode, see {@link #parse(String)}
+   * @return Traversal which is not iterated yet
+   */
+  public static Traversal.Admin<?, ?> createTraversal(GraphTraversalSource g, Object[] startingVertices, Bytecode bytecode) {
+    // Prepend the starting point and translate the whole bytecode into method invocations on the traversal.
+    Bytecode traversal = g.V(startingVertices).asAdmin().getBytecode().clone();
+    for (Bytecode.Instruction instruction : bytecode.getStepInstructions()) {
+      traversal.addStep(instruction.getOperator(), instruction.getArguments());
+    }
+    return JavaTranslator.of(g).translate(traversal);
+  }
+
+  private static void validate(Bytecode bytecode) {
+    if (!bytecode.getSourceInstructions().isEmpty()) {
+      throw new IllegalArgumentException("Source instructions are not allowed in Gremlin bytecode.");
+    }
+
+    for (Bytecode.Instruction instruction : bytecode.getStepInstructions()) {
+      if (!stepWhiteList.contains(instruction.getOperator())) {
+        throw new IllegalArgumentException(String.format("Step '%s' is not allowed.", instruction.getOperator()));
+      }
+
+      for (Object argument : instruction.getArguments()) {
+        validateArgument(instruction.getOperator(), argument);
+      }
+    }
+  }
+
+  private static void validateArgument(String operator, Object argument) {
+    if (argument == null || argument instanceof String || argument instanceof Number || argument instanceof Boolean
+            || argument instanceof UUID || argument instanceof Enum || argument instanceof P) {
+      return;
+    }
+
+    if (argument instanceof Bytecode) {
+      // Anonymous traversal, e.g. the argument of where() or repeat().
+      validate((Bytecode) argument);
+      return;
+    }
+
+    if (argument instanceof Collection) {
+      for (Object element : (Collection<?>) argument) {
+        validateArgument(operator, element);
+      }
+      return;
+    }
+
+    throw new IllegalArgumentException(String.format("Argument of type '%s' is not allowed for step '%s'.",
+            argument.getClass().getSimpleName(), operator));
+  }
+}
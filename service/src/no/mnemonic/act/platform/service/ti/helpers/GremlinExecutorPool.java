@@ -0,0 +1,282 @@
+package no.mnemonic.act.platform.service.ti.helpers;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import no.mnemonic.commons.component.LifecycleAspect;
+import no.mnemonic.commons.logging.Logger;
+import no.mnemonic.commons.logging.Logging;
+import no.mnemonic.commons.utilities.collections.MapUtils;
+import org.apache.tinkerpop.gremlin.groovy.engine.GremlinExecutor;
+import org.apache.tinkerpop.gremlin.groovy.jsr223.GremlinGroovyScriptEngine;
+import org.apache.tinkerpop.gremlin.groovy.jsr223.GroovyCompilerGremlinPlugin;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static no.mnemonic.commons.utilities.collections.MapUtils.Pair.T;
+
+/**
+ * Long-lived {@link GremlinExecutor} shared by all graph traversals.
+ * <p>
+ * Creating a GremlinExecutor boots a new Groovy script engine, and every script evaluated by a new engine has to be
+ * statically compiled from scratch. The shared script engine instead caches the compiled script classes by query text,
+ * thus, repeated queries skip compilation. The cache is bounded by {@link #setScriptCacheSize(long)} and evicts the
+ * least recently used scripts (Caffeine's size-based eviction). Evaluations are executed on a bounded thread pool,
+ * evaluations exceeding the pool size and queue size are rejected. Traversals which don't need a script (e.g. created
+ * from Gremlin bytecode) are executed on the same thread pool, see {@link #submit(Supplier, Consumer)}.
+ * <p>
+ * Every evaluation is still executed inside the {@link GremlinSandboxExtension} and aborted after the configured
+ * script execution timeout. Both are compiled into every script class, thus, they also apply to cached scripts.
+ * <p>
+ * The executor is created lazily on the first evaluation. All configuration must be applied before that.
+ */
+@Singleton
+public class GremlinExecutorPool implements LifecycleAspect {
+
+  private static final Logger LOGGER = Logging.getLogger(GremlinExecutorPool.class);
+  private static final String SCRIPT_ENGINE = "gremlin-groovy";
+
+  private long scriptExecutionTimeout = 120_000;
+  private long scriptCacheSize = 1000;
+  private int poolSize = 8;
+  private int queueSize = 64;
+
+  private GremlinExecutor executor;
+  private ExecutorService evaluationExecutor;
+  private ScheduledExecutorService timeoutExecutor;
+
+  @Inject
+  public GremlinExecutorPool() {
+  }
+
+  @Override
+  public void startComponent() {
+    // NOOP, executor is created lazily.
+  }
+
+  @Override
+  public synchronized void stopComponent() {
+    if (executor == null) return;
+
+    LOGGER.info("Stopping GremlinExecutorPool (script cache: %d hits, %d misses, %d evictions).",
+            getScriptCacheHitCount(), getScriptCacheMissCount(), getScriptCacheEvictionCount());
+    try {
+      executor.close();
+    } catch (Exception ex) {
+      LOGGER.warning(ex, "Failed to cleanly shutdown GremlinExecutor.");
+    }
+    evaluationExecutor.shutdownNow();
+    timeoutExecutor.shutdownNow();
+    executor = null;
+  }
+
+  /**
+   * Evaluate a Gremlin query. The query is compiled (or fetched from the script cache) and executed on the thread pool.
+   * The returned future completes after 'withResult' has consumed the result of the query, i.e. the script execution
+   * timeout applies to both the evaluation of the query and the consumption of the result.
+   *
+   * @param query      Gremlin query
+   * @param bindings   Variables bound during execution of the query
+   * @param withResult Callback consuming the result of the query (executed inside the evaluation thread)
+   * @return Future completed when the evaluation has finished
+   * @throws RejectedExecutionException If too many evaluations are executed concurrently
+   */
+  public CompletableFuture<Object> eval(String query, Map<String, Object> bindings, Consumer<Object> withResult) {
+    return getExecutor().eval(query, SCRIPT_ENGINE, bindings, withResult);
+  }
+
+  /**
+   * Execute a traversal which does not require a script, e.g. created from Gremlin bytecode. The traversal is created
+   * and consumed on the same thread pool as scripts and is subject to the same script execution timeout. When the
+   * timeout expires the executing thread is interrupted which aborts the traversal.
+   *
+   * @param traversal  Creates the traversal (executed inside the evaluation thread)
+   * @param withResult Callback consuming the traversal (executed inside the evaluation thread)
+   * @return Future completed when the traversal has been consumed
+   * @throws RejectedExecutionException If too many evaluations are executed concurrently
+   */
+  public CompletableFuture<Object> submit(Supplier<Object> traversal, Consumer<Object> withResult) {
+    // Make sure that the thread pools have been created.
+    getExecutor();
+
+    CompletableFuture<Object> evaluation = new CompletableFuture<>();
+    Future<?> task = evaluationExecutor.submit(() -> {
+      try {
+        Object result = traversal.get();
+        withResult.accept(result);
+        evaluation.complete(result);
+      } catch (Throwable ex) {
+        evaluation.completeExceptionally(ex);
+      }
+    });
+
+    // When the timeout expires the executing thread is interrupted which aborts the traversal.
+    return withTimeout(evaluation, () -> task.cancel(true));
+  }
+
+  /**
+   * Enforce the script execution timeout on a whole request, e.g. a traversal consisting of multiple evaluations which
+   * might be queued before being executed. The timeout starts when this method is called. When it expires the returned
+   * future fails with a {@link TimeoutException} and 'onTimeout' is called in order to abort the request.
+   *
+   * @param request   Future completed when the request has finished
+   * @param onTimeout Callback aborting the request
+   * @param <T>       Type of the request's result
+   * @return Future completed with the result of the request or failed when the timeout expired
+   */
+  public <T> CompletableFuture<T> withTimeout(CompletableFuture<T> request, Runnable onTimeout) {
+    // Make sure that the thread pools have been created.
+    getExecutor();
+
+    CompletableFuture<T> deadline = new CompletableFuture<>();
+    request.whenComplete((result, ex) -> {
+      if (ex != null) {
+        deadline.completeExceptionally(ex);
+      } else {
+        deadline.complete(result);
+      }
+    });
+    ScheduledFuture<?> timeout = timeoutExecutor.schedule(() -> {
+      if (deadline.completeExceptionally(new TimeoutException(String.format("Traversal exceeded the timeout of %d ms.", scriptExecutionTimeout)))) {
+        onTimeout.run();
+      }
+    }, scriptExecutionTimeout, TimeUnit.MILLISECONDS);
+    deadline.whenComplete((result, ex) -> timeout.cancel(false));
+
+    return deadline;
+  }
+
+  /**
+   * Number of evaluations which used an already compiled script.
+   *
+   * @return Number of script cache hits
+   */
+  public long getScriptCacheHitCount() {
+    return executor != null ? getScriptEngine().getClassCacheHitCount() : 0;
+  }
+
+  /**
+   * Number of evaluations which needed to compile the script.
+   *
+   * @return Number of script cache misses
+   */
+  public long getScriptCacheMissCount() {
+    return executor != null ? getScriptEngine().getClassCacheMissCount() : 0;
+  }
+
+  /**
+   * Number of compiled scripts evicted from the script cache.
+   *
+   * @return Number of script cache evictions
+   */
+  public long getScriptCacheEvictionCount() {
+    return executor != null ? getScriptEngine().getClassCacheEvictionCount() : 0;
+  }
+
+  /**
+   * Timeout after which the execution of a script or a whole request is aborted (in ms).
+   *
+   * @return Script execution timeout
+   */
+  public long getScriptExecutionTimeout() {
+    return scriptExecutionTimeout;
+  }
+
+  /**
+   * Set the timeout after which the execution of a script is aborted (in ms).
+   * <p>
+   * Defaults to 120000.
+   *
+   * @param scriptExecutionTimeout Script execution timeout
+   * @return Class instance, i.e. 'this'
+   */
+  public GremlinExecutorPool setScriptExecutionTimeout(long scriptExecutionTimeout) {
+    this.scriptExecutionTimeout = scriptExecutionTimeout;
+    return this;
+  }
+
+  /**
+   * Set the maximum number of compiled scripts kept in the script cache.
+   * <p>
+   * Defaults to 1000.
+   *
+   * @param scriptCacheSize Script cache size
+   * @return Class instance, i.e. 'this'
+   */
+  public GremlinExecutorPool setScriptCacheSize(long scriptCacheSize) {
+    this.scriptCacheSize = scriptCacheSize;
+    return this;
+  }
+
+  /**
+   * Set the number of threads executing scripts concurrently.
+   * <p>
+   * Defaults to 8.
+   *
+   * @param poolSize Thread pool size
+   * @return Class instance, i.e. 'this'
+   */
+  public GremlinExecutorPool setPoolSize(int poolSize) {
+    this.poolSize = poolSize;
+    return this;
+  }
+
+  /**
+   * Set the number of evaluations waiting for a free thread before evaluations are rejected.
+   * <p>
+   * Defaults to 64.
+   *
+   * @param queueSize Queue size
+   * @return Class instance, i.e. 'this'
+   */
+  public GremlinExecutorPool setQueueSize(int queueSize) {
+    this.queueSize = queueSize;
+    return this;
+  }
+
+  private synchronized GremlinExecutor getExecutor() {
+    if (executor == null) {
+      executor = createExecutor();
+    }
+    return executor;
+  }
+
+  private GremlinGroovyScriptEngine getScriptEngine() {
+    // The GremlinExecutor caches its script engines, thus, this returns the engine used for all evaluations.
+    return (GremlinGroovyScriptEngine) getExecutor().getScriptEngineManager().getEngineByName(SCRIPT_ENGINE);
+  }
+
+  private GremlinExecutor createExecutor() {
+    Map<String, Object> groovyCompilerConfig = MapUtils.map(
+            // Protect against scripts going haywire (endless loops, etc.).
+            T("timedInterrupt", scriptExecutionTimeout),
+            // Statically compile scripts before execution (needed for sandbox).
+            T("compilation", GroovyCompilerGremlinPlugin.Compilation.COMPILE_STATIC),
+            // Execute scripts inside a sandbox (i.e. only allow whitelisted methods).
+            T("extensions", GremlinSandboxExtension.class.getName()),
+            // Keep compiled scripts by query text, evicting the least recently used scripts.
+            T("classMapCacheSpecification", String.format("maximumSize=%d", scriptCacheSize))
+    );
+
+    evaluationExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(queueSize), createThreadFactory("GremlinExecutorPool-eval-%d"));
+    timeoutExecutor = Executors.newSingleThreadScheduledExecutor(createThreadFactory("GremlinExecutorPool-timeout-%d"));
+
+    return GremlinExecutor.build()
+            .evaluationTimeout(scriptExecutionTimeout)
+            .executorService(evaluationExecutor)
+            .scheduledExecutorService(timeoutExecutor)
+            .addPlugins(SCRIPT_ENGINE, MapUtils.map(T(GroovyCompilerGremlinPlugin.class.getName(), groovyCompilerConfig)))
+            .create();
+  }
+
+  private ThreadFactory createThreadFactory(String nameFormat) {
+    return new ThreadFactoryBuilder()
+            .setNameFormat(nameFormat)
+            .setDaemon(true)
+            .build();
+  }
+}
@@ -0,0 +1,417 @@
+package no.mnemonic.act.platform.service.ti.helpers;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import no.mnemonic.commons.utilities.ObjectUtils;
+import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache of converted graph traversal results shared by all traversals.
+ * <p>
+ * A result is identified by a {@link Key} consisting of the normalized query, the starting Objects and the access
+ * scope of the user (user ID and available Organizations), thus, a cached result is only returned to users who would
+ * see exactly the same result. While a traversal is executed its results and all Objects touched by the traversal are
+ * recorded by a {@link Recorder}. Only results of traversals which completed successfully are cached.
+ * <p>
+ * Cached results expire after a short time. In addition, all results of traversals which touched an Object are
+ * dropped when Facts bound to that Object are added or retracted or access to them is granted, see
+ * {@link #invalidate(FactRecord)}. The cache is
+ * held in memory, thus, changes performed on other instances are only reflected after the cached results expired.
+ * <p>
+ * The cache is created lazily on first use. All configuration must be applied before that.
+ */
+@Singleton
+public class TraversalResultCache {
+
+  private long expiration = 60_000;
+  private long maximumSize = 1000;
+  private int maximumResultSize = 10_000;
+  private int maximumTouchedObjects = 10_000;
+
+  // Index of the cached results which touched an Object. Cleaned up when cached results are removed.
+  private final Map<UUID, Set<Key>> keysByObject = new ConcurrentHashMap<>();
+  // Incremented on every invalidation. Used to detect invalidations happening while a traversal is recorded.
+  private final AtomicLong invalidationCounter = new AtomicLong();
+  private Cache<Key, Entry> cache;
+  private Cache<UUID, Long> invalidatedObjects;
+
+  @Inject
+  public TraversalResultCache() {
+  }
+
+  /**
+   * Fetch a cached traversal result.
+   *
+   * @param key Identifies the traversal
+   * @return Cached result or NULL if the result isn't cached
+   */
+  public List<Object> get(Key key) {
+    if (key == null) return null;
+    return ObjectUtils.ifNotNull(getCache().getIfPresent(key), entry -> entry.result);
+  }
+
+  /**
+   * Start recording the result of a traversal. The result is cached when the recording is completed.
+   *
+   * @param key Identifies the traversal
+   * @return Recorder of the traversal result
+   */
+  public Recorder record(Key key) {
+    return new Recorder(ObjectUtils.notNull(key, "'key' is null!"));
+  }
+
+  /**
+   * Drop all cached results of traversals which touched any of the Objects bound to a Fact. Must be called whenever
+   * a Fact is added to or changed on the Objects, e.g. when a Fact is created or retracted or access to it is granted.
+   *
+   * @param fact Added or changed Fact
+   */
+  public void invalidate(FactRecord fact) {
+    if (fact == null) return;
+    invalidate(SetUtils.set(
+            ObjectUtils.ifNotNull(fact.getSourceObject(), ObjectRecord::getId),
+            ObjectUtils.ifNotNull(fact.getDestinationObject(), ObjectRecord::getId)
+    ));
+  }
+
+  /**
+   * Drop all cached results of traversals which touched any of the given Objects.
+   *
+   * @param objectID UUIDs of Objects
+   */
+  public synchronized void invalidate(Set<UUID> objectID) {
+    long invalidation = invalidationCounter.incrementAndGet();
+    for (UUID id : SetUtils.set(objectID)) {
+      if (id == null) continue;
+      // Remember the invalidation for traversals which are recorded right now, see Recorder.complete().
+      getInvalidatedObjects().put(id, invalidation);
+      Set<Key> keys = keysByObject.remove(id);
+      if (keys != null) getCache().invalidateAll(keys);
+    }
+  }
+
+  /**
+   * Number of cached traversal results.
+   *
+   * @return Cache size
+   */
+  public long size() {
+    return getCache().size();
+  }
+
+  /**
+   * Set the time after which a cached result expires (in ms).
+   * <p>
+   * Defaults to 60000.
+   *
+   * @param expiration Expiration time
+   * @return Class instance, i.e. 'this'
+   */
+  public TraversalResultCache setExpiration(long expiration) {
+    this.expiration = expiration;
+    return this;
+  }
+
+  /**
+   * Set the maximum number of cached results. The least recently used results are evicted first.
+   * <p>
+   * Defaults to 1000.
+   *
+   * @param maximumSize Maximum number of cached results
+   * @return Class instance, i.e. 'this'
+   */
+  public TraversalResultCache setMaximumSize(long maximumSize) {
+    this.maximumSize = maximumSize;
+    return this;
+  }
+
+  /**
+   * Set the maximum number of values in a cached result. Larger results are not cached.
+   * <p>
+   * Defaults to 10000.
+   *
+   * @param maximumResultSize Maximum number of values
+   * @return Class instance, i.e. 'this'
+   */
+  public TraversalResultCache setMaximumResultSize(int maximumResultSize) {
+    this.maximumResultSize = maximumResultSize;
+    return this;
+  }
+
+  /**
+   * Set the maximum number of Objects a traversal may touch in order to cache its result. Results of larger
+   * traversals are not cached because they would be invalidated by almost every added Fact.
+   * <p>
+   * Defaults to 10000.
+   *
+   * @param maximumTouchedObjects Maximum number of touched Objects
+   * @return Class instance, i.e. 'this'
+   */
+  public TraversalResultCache setMaximumTouchedObjects(int maximumTouchedObjects) {
+    this.maximumTouchedObjects = maximumTouchedObjects;
+    return this;
+  }
+
+  /**
+   * Normalize a query by removing indentation and trailing whitespace of every line outside of string literals, such
+   * that queries only differing in indentation share the same cached result. Line breaks and whitespace inside a line
+   * are kept because they are significant in Groovy, e.g. a line comment ends at the line break.
+   *
+   * @param query Query to normalize
+   * @return Normalized query
+   */
+  public static String normalize(String query) {
+    if (query == null) return null;
+
+    StringBuilder result = new StringBuilder(query.length());
+    StringBuilder whitespace = new StringBuilder();
+    char quote = 0;
+    boolean lineStart = true;
+    for (int i = 0; i < query.length(); i++) {
+      char c = query.charAt(i);
+      if (quote == 0 && c == '\n') {
+        // Drop trailing whitespace of the line but keep the line break.
+        whitespace.setLength(0);
+        result.append(c);
+        lineStart = true;
+        continue;
+      }
+
+      if (quote == 0 && Character.isWhitespace(c)) {
+        // Drop indentation, whitespace inside the line is only added once followed by another character.
+        if (!lineStart) whitespace.append(c);
+        continue;
+      }
+
+      result.append(whitespace);
+      whitespace.setLength(0);
+      lineStart = false;
+      result.append(c);
+
+      if (quote != 0 && c == '\\' && i + 1 < query.length()) {
+        // Keep escaped characters inside string literals, e.g. an escaped quote.
+        result.append(query.charAt(++i));
+      } else if (quote == 0 && (c == '\'' || c == '"')) {
+        quote = c;
+      } else if (quote == c) {
+        quote = 0;
+      }
+    }
+
+    return result.toString();
+  }
+
+  private synchronized Cache<Key, Entry> getCache() {
+    if (cache == null) {
+      cache = CacheBuilder.newBuilder()
+              .expireAfterWrite(expiration, TimeUnit.MILLISECONDS)
+              .maximumSize(maximumSize)
+              .removalListener(this::cleanUpIndex)
+              .build();
+    }
+
+    return cache;
+  }
+
+  private synchronized Cache<UUID, Long> getInvalidatedObjects() {
+    if (invalidatedObjects == null) {
+      // Results recorded for longer than the expiration time are never cached, thus, older invalidations are irrelevant.
+      invalidatedObjects = CacheBuilder.newBuilder()
+              .expireAfterWrite(expiration, TimeUnit.MILLISECONDS)
+              .build();
+    }
+
+    return invalidatedObjects;
+  }
+
+  private void put(Key key, List<Object> result, Set<UUID> touchedObjects) {
+    for (UUID id : touchedObjects) {
+      keysByObject.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+    getCache().put(key, new Entry(result, touchedObjects));
+  }
+
+  private void cleanUpIndex(RemovalNotification<Key, Entry> notification) {
+    // Need to clean up 'keysByObject' when a result is removed, e.g. evicted or replaced.
+    Entry entry = notification.getValue();
+    if (entry == null || notification.getCause() == RemovalCause.REPLACED) return;
+    for (UUID id : entry.touchedObjects) {
+      keysByObject.computeIfPresent(id, (k, keys) -> {
+        keys.remove(notification.getKey());
+        return keys.isEmpty() ? null : keys;
+      });
+    }
+  }
+
+  /**
+   * Records the result of one traversal. Results might be added concurrently, e.g. by multiple partitions.
+   */
+  public class Recorder {
+
+    private final Key key;
+    private final long startInvalidation = invalidationCounter.get();
+    private final long startTimestamp = System.currentTimeMillis();
+    private final List<Object> result = new ArrayList<>();
+    private final Set<UUID> touchedObjects = new HashSet<>();
+    private boolean exceeded;
+
+    private Recorder(Key key) {
+      this.key = key;
+    }
+
+    /**
+     * Add values to the recorded result in the order they are returned to the user.
+     *
+     * @param values Converted traversal result values
+     */
+    public synchronized void addResult(Collection<?> values) {
+      if (exceeded) return;
+      result.addAll(values);
+      exceedIf(result.size() > maximumResultSize);
+    }
+
+    /**
+     * Record that the traversal touched an Object, i.e. the result might change when Facts are bound to the Object.
+     *
+     * @param objectID UUID of touched Object
+     */
+    public synchronized void addTouchedObject(UUID objectID) {
+      if (exceeded || objectID == null) return;
+      touchedObjects.add(objectID);
+      exceedIf(touchedObjects.size() > maximumTouchedObjects);
+    }
+
+    /**
+     * Complete the recording after the traversal finished successfully. The recorded result is cached unless it's
+     * too large or any touched Object has been invalidated while recording.
+     */
+    public synchronized void complete() {
+      if (exceeded || System.currentTimeMillis() - startTimestamp > expiration) return;
+
+      // Synchronized with invalidate(), thus, an invalidation either happens before (and is detected here) or after
+      // the result has been cached (and drops it again).
+      synchronized (TraversalResultCache.this) {
+        if (invalidationCounter.get() != startInvalidation) {
+          for (UUID id : touchedObjects) {
+            Long invalidation = getInvalidatedObjects().getIfPresent(id);
+            if (invalidation != null && invalidation > startInvalidation) return;
+          }
+        }
+
+        put(key, Collections.unmodifiableList(new ArrayList<>(result)), Collections.unmodifiableSet(new HashSet<>(touchedObjects)));
+      }
+    }
+
+    private void exceedIf(boolean condition) {
+      if (!condition) return;
+      // Stop recording and release the recorded data early, the result won't be cached anyway.
+      exceeded = true;
+      result.clear();
+      touchedObjects.clear();
+    }
+  }
+
+  /**
+   * Identifies a traversal result. Two traversals share their result if the (normalized) query, the starting Objects,
+   * all other parameters influencing the result, and the access scope of the user are equal.
+   */
+  public static class Key {
+
+    private final String query;
+    private final Set<UUID> startingObjects;
+    private final List<Object> parameters;
+    private final UUID currentUserID;
+    private final Set<UUID> availableOrganizationID;
+
+    private Key(String query, Set<UUID> startingObjects, List<Object> parameters, UUID currentUserID, Set<UUID> availableOrganizationID) {
+      this.query = ObjectUtils.notNull(query, "'query' is null!");
+      this.startingObjects = ObjectUtils.notNull(startingObjects, "'startingObjects' is null!");
+      this.parameters = parameters;
+      this.currentUserID = ObjectUtils.notNull(currentUserID, "'currentUserID' is null!");
+      this.availableOrganizationID = ObjectUtils.notNull(availableOrganizationID, "'availableOrganizationID' is null!");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key that = (Key) o;
+      return Objects.equals(query, that.query) &&
+              Objects.equals(startingObjects, that.startingObjects) &&
+              Objects.equals(parameters, that.parameters) &&
+              Objects.equals(currentUserID, that.currentUserID) &&
+              Objects.equals(availableOrganizationID, that.availableOrganizationID);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(query, startingObjects, parameters, currentUserID, availableOrganizationID);
+    }
+
+    public static Builder builder() {
+      return new Builder();
+    }
+
+    public static class Builder {
+      private String query;
+      private Set<UUID> startingObjects;
+      private final List<Object> parameters = new ArrayList<>();
+      private UUID currentUserID;
+      private Set<UUID> availableOrganizationID;
+
+      private Builder() {
+      }
+
+      public Key build() {
+        return new Key(normalize(query), SetUtils.set(startingObjects), ListUtils.list(parameters), currentUserID, SetUtils.set(availableOrganizationID));
+      }
+
+      public Builder setQuery(String query) {
+        this.query = query;
+        return this;
+      }
+
+      public Builder setStartingObjects(Collection<UUID> startingObjects) {
+        this.startingObjects = SetUtils.set(startingObjects);
+        return this;
+      }
+
+      public Builder addParameter(Object parameter) {
+        this.parameters.add(parameter);
+        return this;
+      }
+
+      public Builder setCurrentUserID(UUID currentUserID) {
+        this.currentUserID = currentUserID;
+        return this;
+      }
+
+      public Builder setAvailableOrganizationID(Set<UUID> availableOrganizationID) {
+        this.availableOrganizationID = availableOrganizationID;
+        return this;
+      }
+    }
+  }
+
+  private static class Entry {
+    private final List<Object> result;
+    private final Set<UUID> touchedObjects;
+
+    private Entry(List<Object> result, Set<UUID> touchedObjects) {
+      this.result = result;
+      this.touchedObjects = touchedObjects;
+    }
+  }
+}
@@ -5,6 +5,7 @@ import no.mnemonic.act.platform.dao.api.ObjectFactDao;
 import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
 import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectTypeEntity;
+import no.mnemonic.act.platform.dao.cassandra.exceptions.ImmutableViolationException;
 import no.mnemonic.act.platform.service.validators.Validator;
 import no.mnemonic.act.platform.service.validators.ValidatorFactory;
 import no.mnemonic.commons.utilities.StringUtils;
@@ -100,7 +101,12 @@ public class ObjectResolver {
             .setTypeID(type.getId())
             .setValue(value);
 
-    return objectFactDao.storeObject(objectRecord);
+    try {
+      return objectFactDao.storeObject(objectRecord);
+    } catch (ImmutableViolationException ignored) {
+      // The Object has been created concurrently in the meantime, just return the existing Object.
+      return objectFactDao.getObject(type.getName(), value);
+    }
   }
 
 }
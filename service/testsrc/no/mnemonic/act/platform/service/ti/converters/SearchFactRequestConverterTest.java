@@ -1,7 +1,9 @@
 package no.mnemonic.act.platform.service.ti.converters;
 
+import no.mnemonic.act.platform.api.exceptions.InvalidArgumentException;
 import no.mnemonic.act.platform.api.request.v1.Dimension;
 import no.mnemonic.act.platform.api.request.v1.SearchFactRequest;
+import no.mnemonic.act.platform.api.service.v1.FactSearchCursor;
 import no.mnemonic.act.platform.dao.api.criteria.FactSearchCriteria;
 import no.mnemonic.act.platform.service.contexts.SecurityContext;
 import no.mnemonic.act.platform.service.ti.resolvers.SearchByNameResolver;
@@ -175,4 +177,33 @@ public class SearchFactRequestConverterTest {
     FactSearchCriteria criteria = converter.apply(new SearchFactRequest().setLimit(123));
     assertEquals(123, criteria.getLimit());
   }
+
+  @Test
+  public void testConvertRequestWithoutCursor() throws Exception {
+    FactSearchCriteria criteria = converter.apply(new SearchFactRequest());
+    assertFalse(criteria.isCursorBased());
+  }
+
+  @Test
+  public void testConvertRequestWithStartCursor() throws Exception {
+    FactSearchCriteria criteria = converter.apply(new SearchFactRequest().setCursor(FactSearchCursor.START));
+    assertTrue(criteria.isCursorBased());
+    assertNull(criteria.getCursorTimestamp());
+    assertNull(criteria.getCursorID());
+  }
+
+  @Test
+  public void testConvertRequestWithCursor() throws Exception {
+    UUID id = UUID.randomUUID();
+    FactSearchCriteria criteria = converter.apply(new SearchFactRequest()
+            .setCursor(FactSearchCursor.after(123456789L, id).encode()));
+    assertTrue(criteria.isCursorBased());
+    assertEquals(123456789L, (long) criteria.getCursorTimestamp());
+    assertEquals(id, criteria.getCursorID());
+  }
+
+  @Test(expected = InvalidArgumentException.class)
+  public void testConvertRequestWithMalformedCursor() throws Exception {
+    converter.apply(new SearchFactRequest().setCursor("malformed"));
+  }
 }
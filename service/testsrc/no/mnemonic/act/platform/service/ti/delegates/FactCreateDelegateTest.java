@@ -16,6 +16,7 @@ import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
 import no.mnemonic.act.platform.service.ti.TiServiceEvent;
 import no.mnemonic.act.platform.service.ti.converters.FactConverter;
 import no.mnemonic.act.platform.service.ti.helpers.FactCreateHelper;
+import no.mnemonic.act.platform.service.ti.helpers.TraversalResultCache;
 import no.mnemonic.act.platform.service.ti.resolvers.FactTypeResolver;
 import no.mnemonic.act.platform.service.ti.resolvers.ObjectResolver;
 import no.mnemonic.act.platform.service.validators.Validator;
@@ -43,6 +44,8 @@ public class FactCreateDelegateTest extends AbstractDelegateTest {
   private FactCreateHelper factCreateHelper;
   @Mock
   private FactConverter factConverter;
+  @Mock
+  private TraversalResultCache traversalResultCache;
 
   private FactCreateDelegate delegate;
 
@@ -95,7 +98,8 @@ public class FactCreateDelegateTest extends AbstractDelegateTest {
             factTypeResolver,
             objectResolver,
             factCreateHelper,
-            factConverter
+            factConverter,
+            traversalResultCache
     );
   }
 
@@ -303,6 +307,16 @@ public class FactCreateDelegateTest extends AbstractDelegateTest {
     }));
   }
 
+  @Test
+  public void testCreateFactInvalidatesTraversalResultCache() throws Exception {
+    CreateFactRequest request = createRequest();
+    mockCreateNewFact();
+
+    delegate.handle(request);
+
+    verify(traversalResultCache).invalidate(matchFactRecord(request));
+  }
+
   @Test
   public void testRefreshExistingFact() throws Exception {
     CreateFactRequest request = createRequest();
@@ -327,6 +341,7 @@ public class FactCreateDelegateTest extends AbstractDelegateTest {
     verify(objectFactDao).refreshFact(existingFact);
     verify(objectFactDao, never()).storeFact(any());
     verify(factConverter).apply(same(existingFact));
+    verify(traversalResultCache).invalidate(same(existingFact));
   }
 
   private void mockCreateNewFact() throws Exception {
@@ -8,6 +8,7 @@ import no.mnemonic.act.platform.dao.api.record.FactAclEntryRecord;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
 import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
 import no.mnemonic.act.platform.service.ti.converters.AclEntryConverter;
+import no.mnemonic.act.platform.service.ti.helpers.TraversalResultCache;
 import no.mnemonic.act.platform.service.ti.resolvers.FactResolver;
 import org.junit.Before;
 import org.junit.Test;
@@ -28,13 +29,15 @@ public class FactGrantAccessDelegateTest extends AbstractDelegateTest {
   private FactResolver factResolver;
   @Mock
   private AclEntryConverter aclEntryConverter;
+  @Mock
+  private TraversalResultCache traversalResultCache;
 
   private FactGrantAccessDelegate delegate;
 
   @Before
   public void setup() {
     // initMocks() will be called by base class.
-    delegate = new FactGrantAccessDelegate(getSecurityContext(), objectFactDao, factResolver, aclEntryConverter);
+    delegate = new FactGrantAccessDelegate(getSecurityContext(), objectFactDao, factResolver, aclEntryConverter, traversalResultCache);
   }
 
   @Test(expected = AccessDeniedException.class)
@@ -72,6 +75,7 @@ public class FactGrantAccessDelegateTest extends AbstractDelegateTest {
     delegate.handle(request);
 
     verify(objectFactDao, never()).storeFactAclEntry(any(), any());
+    verify(traversalResultCache, never()).invalidate(isA(FactRecord.class));
     verify(aclEntryConverter).apply(matchFactAclEntryRecord(request, existingEntry.getOriginID()));
   }
 
@@ -90,6 +94,18 @@ public class FactGrantAccessDelegateTest extends AbstractDelegateTest {
     verify(aclEntryConverter).apply(matchFactAclEntryRecord(request, currentUser));
   }
 
+  @Test
+  public void testGrantFactAccessInvalidatesTraversalResultCache() throws Exception {
+    GrantFactAccessRequest request = createGrantAccessRequest();
+    FactRecord fact = createFactRecord(request);
+    when(factResolver.resolveFact(request.getFact())).thenReturn(fact);
+    when(objectFactDao.storeFactAclEntry(notNull(), notNull())).then(i -> i.getArgument(1));
+
+    delegate.handle(request);
+
+    verify(traversalResultCache).invalidate(same(fact));
+  }
+
   private GrantFactAccessRequest createGrantAccessRequest() {
     return new GrantFactAccessRequest()
             .setFact(UUID.randomUUID())
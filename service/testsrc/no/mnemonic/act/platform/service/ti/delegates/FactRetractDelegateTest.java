@@ -13,6 +13,7 @@ import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
 import no.mnemonic.act.platform.service.ti.TiServiceEvent;
 import no.mnemonic.act.platform.service.ti.converters.FactConverter;
 import no.mnemonic.act.platform.service.ti.helpers.FactCreateHelper;
+import no.mnemonic.act.platform.service.ti.helpers.TraversalResultCache;
 import no.mnemonic.act.platform.service.ti.resolvers.FactResolver;
 import no.mnemonic.act.platform.service.ti.resolvers.FactTypeResolver;
 import no.mnemonic.commons.utilities.collections.ListUtils;
@@ -39,6 +40,8 @@ public class FactRetractDelegateTest extends AbstractDelegateTest {
   private FactCreateHelper factCreateHelper;
   @Mock
   private FactConverter factConverter;
+  @Mock
+  private TraversalResultCache traversalResultCache;
 
   private FactRetractDelegate delegate;
 
@@ -52,7 +55,8 @@ public class FactRetractDelegateTest extends AbstractDelegateTest {
             factTypeResolver,
             factResolver,
             factCreateHelper,
-            factConverter
+            factConverter,
+            traversalResultCache
     );
   }
 
@@ -152,6 +156,15 @@ public class FactRetractDelegateTest extends AbstractDelegateTest {
     verify(factCreateHelper).withAcl(matchFactRecord(request), eq(request.getAcl()));
   }
 
+  @Test
+  public void testRetractFactInvalidatesTraversalResultCache() throws Exception {
+    RetractFactRequest request = mockRetractingFact();
+
+    delegate.handle(request);
+
+    verify(traversalResultCache).invalidate(argThat((FactRecord fact) -> Objects.equals(request.getFact(), fact.getId())));
+  }
+
   @Test
   public void testRetractFactRegistersTriggerEvent() throws Exception {
     RetractFactRequest request = mockRetractingFact();
@@ -0,0 +1,297 @@
+package no.mnemonic.act.platform.service.ti.delegates;
+
+import no.mnemonic.act.platform.api.exceptions.AccessDeniedException;
+import no.mnemonic.act.platform.api.exceptions.InvalidArgumentException;
+import no.mnemonic.act.platform.api.model.v1.Fact;
+import no.mnemonic.act.platform.api.request.v1.FindObjectPathRequest;
+import no.mnemonic.act.platform.api.request.v1.GetObjectNeighbourhoodRequest;
+import no.mnemonic.act.platform.dao.api.ObjectFactDao;
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import no.mnemonic.act.platform.dao.cassandra.entity.Direction;
+import no.mnemonic.act.platform.dao.cassandra.entity.ObjectFactBindingEntity;
+import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
+import no.mnemonic.act.platform.service.ti.converters.FactConverter;
+import no.mnemonic.act.platform.service.ti.resolvers.SearchByNameResolver;
+import no.mnemonic.services.common.api.ResultSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.*;
+
+import static no.mnemonic.commons.utilities.collections.ListUtils.list;
+import static no.mnemonic.commons.utilities.collections.SetUtils.set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ObjectGraphDelegateTest extends AbstractDelegateTest {
+
+  @Mock
+  private ObjectFactDao objectFactDao;
+  @Mock
+  private SearchByNameResolver byNameResolver;
+  @Mock
+  private FactConverter factConverter;
+
+  private final Map<UUID, FactRecord> facts = new HashMap<>();
+  private final Map<UUID, List<ObjectFactBindingEntity>> bindings = new HashMap<>();
+
+  private ObjectGraphDelegate delegate;
+
+  @Before
+  public void setup() throws Exception {
+    // initMocks() will be called by base class.
+    when(byNameResolver.resolveFactType(any())).thenReturn(Collections.emptySet());
+    when(objectFactDao.getObject(isA(UUID.class))).then(i -> new ObjectRecord().setId(i.getArgument(0)));
+    when(objectFactDao.getFacts(anyList())).then(i -> i.<List<UUID>>getArgument(0).stream()
+            .map(id -> facts.getOrDefault(id, new FactRecord().setId(id)))
+            .iterator());
+    when(factConverter.apply(any())).then(i -> Fact.builder().setId(i.<FactRecord>getArgument(0).getId()).build());
+    when(getObjectManager().fetchObjectFactBindings(isA(UUID.class)))
+            .then(i -> bindings.getOrDefault(i.<UUID>getArgument(0), list()).iterator());
+    when(getSecurityContext().hasReadPermission(isA(FactRecord.class))).thenReturn(true);
+
+    delegate = new ObjectGraphDelegate(getSecurityContext(), objectFactDao, getObjectManager(), byNameResolver, factConverter);
+  }
+
+  @Test(expected = AccessDeniedException.class)
+  public void testNeighbourhoodWithoutTraversePermission() throws Exception {
+    doThrow(AccessDeniedException.class).when(getSecurityContext()).checkPermission(TiFunctionConstants.traverseFactObjects);
+    delegate.handle(new GetObjectNeighbourhoodRequest().setId(UUID.randomUUID()));
+  }
+
+  @Test(expected = AccessDeniedException.class)
+  public void testNeighbourhoodWithoutAccessToObject() throws Exception {
+    doThrow(AccessDeniedException.class).when(getSecurityContext()).checkReadPermission(isA(ObjectRecord.class));
+    delegate.handle(new GetObjectNeighbourhoodRequest().setId(UUID.randomUUID()));
+  }
+
+  @Test
+  public void testNeighbourhoodFollowsFactsLevelByLevel() throws Exception {
+    UUID[] objects = createObjects(4);
+    UUID first = mockFact(objects[0], objects[1]);
+    UUID second = mockFact(objects[1], objects[2]);
+    UUID third = mockFact(objects[2], objects[3]);
+
+    assertEquals(list(first), handleNeighbourhood(objects[0], 1, null));
+    assertEquals(list(first, second), handleNeighbourhood(objects[0], 2, null));
+    assertEquals(list(first, second, third), handleNeighbourhood(objects[0], 5, null));
+    assertEquals(set(first, second), set(handleNeighbourhood(objects[1], 1, null)));
+  }
+
+  @Test
+  public void testNeighbourhoodReturnsCount() throws Exception {
+    UUID[] objects = createObjects(3);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[1], objects[2]);
+
+    ResultSet<Fact> result = delegate.handle(new GetObjectNeighbourhoodRequest().setId(objects[0]).setDepth(2));
+    assertEquals(2, result.getCount());
+  }
+
+  @Test
+  public void testNeighbourhoodSkipsFactsWithoutAccess() throws Exception {
+    UUID[] objects = createObjects(3);
+    UUID first = mockFact(objects[0], objects[1]);
+    UUID second = mockFact(objects[1], objects[2]);
+    when(getSecurityContext().hasReadPermission(facts.get(second))).thenReturn(false);
+
+    assertEquals(list(first), handleNeighbourhood(objects[0], 2, null));
+  }
+
+  @Test
+  public void testNeighbourhoodAppliesLimitPerHop() throws Exception {
+    UUID[] objects = createObjects(4);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[0], objects[2]);
+    mockFact(objects[1], objects[3]);
+    mockFact(objects[2], objects[3]);
+
+    assertEquals(1, handleNeighbourhood(objects[0], 1, 1).size());
+    assertEquals(2, handleNeighbourhood(objects[0], 2, 1).size());
+    assertEquals(4, handleNeighbourhood(objects[0], 2, 0).size());
+  }
+
+  @Test
+  public void testNeighbourhoodWithoutUnlimitedPermissionCapsLimit() throws Exception {
+    doThrow(AccessDeniedException.class).when(getSecurityContext()).checkPermission(TiFunctionConstants.unlimitedTraversal);
+    delegate.setDefaultLimit(2);
+    UUID[] objects = createObjects(4);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[0], objects[2]);
+    mockFact(objects[0], objects[3]);
+
+    assertEquals(2, handleNeighbourhood(objects[0], 1, null).size());
+    assertEquals(2, handleNeighbourhood(objects[0], 1, 0).size());
+    assertEquals(2, handleNeighbourhood(objects[0], 1, 3).size());
+    assertEquals(1, handleNeighbourhood(objects[0], 1, 1).size());
+  }
+
+  @Test
+  public void testNeighbourhoodExceedsMaximumFetchedFacts() throws Exception {
+    doThrow(AccessDeniedException.class).when(getSecurityContext()).checkPermission(TiFunctionConstants.unlimitedTraversal);
+    delegate.setMaximumFetchedFacts(2);
+    UUID[] objects = createObjects(4);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[1], objects[2]);
+    mockFact(objects[2], objects[3]);
+
+    assertEquals(2, handleNeighbourhood(objects[0], 2, null).size());
+    try {
+      handleNeighbourhood(objects[0], 3, null);
+      fail("Expected InvalidArgumentException!");
+    } catch (InvalidArgumentException ex) {
+      assertEquals("object.graph.maximum.facts.exceeded", ex.getValidationErrors().iterator().next().getMessageTemplate());
+    }
+  }
+
+  @Test
+  public void testNeighbourhoodWithUnlimitedPermissionIgnoresMaximumFetchedFacts() throws Exception {
+    delegate.setMaximumFetchedFacts(2);
+    UUID[] objects = createObjects(4);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[1], objects[2]);
+    mockFact(objects[2], objects[3]);
+
+    assertEquals(3, handleNeighbourhood(objects[0], 3, 0).size());
+  }
+
+  @Test
+  public void testNeighbourhoodOnlyReadsBindingsOfFactType() throws Exception {
+    UUID objectID = UUID.randomUUID();
+    UUID factTypeID = UUID.randomUUID();
+    when(byNameResolver.resolveFactType(set("type"))).thenReturn(set(factTypeID));
+    when(getObjectManager().fetchObjectFactBindings(any(), any(), any())).thenReturn(Collections.emptyIterator());
+
+    delegate.handle(new GetObjectNeighbourhoodRequest().setId(objectID).addFactType("type"));
+
+    verify(getObjectManager()).fetchObjectFactBindings(objectID, set(factTypeID), EnumSet.allOf(Direction.class));
+    verify(getObjectManager(), never()).fetchObjectFactBindings(objectID);
+  }
+
+  @Test(expected = AccessDeniedException.class)
+  public void testPathWithoutTraversePermission() throws Exception {
+    doThrow(AccessDeniedException.class).when(getSecurityContext()).checkPermission(TiFunctionConstants.traverseFactObjects);
+    delegate.handle(new FindObjectPathRequest().setSource(UUID.randomUUID()).setDestination(UUID.randomUUID()));
+  }
+
+  @Test(expected = AccessDeniedException.class)
+  public void testPathWithoutAccessToDestination() throws Exception {
+    UUID destination = UUID.randomUUID();
+    ObjectRecord record = new ObjectRecord().setId(destination);
+    when(objectFactDao.getObject(destination)).thenReturn(record);
+    doThrow(AccessDeniedException.class).when(getSecurityContext()).checkReadPermission(record);
+
+    delegate.handle(new FindObjectPathRequest().setSource(UUID.randomUUID()).setDestination(destination));
+  }
+
+  @Test
+  public void testPathReturnsFactsFromSourceToDestination() throws Exception {
+    UUID[] objects = createObjects(5);
+    UUID first = mockFact(objects[0], objects[1]);
+    UUID second = mockFact(objects[1], objects[2]);
+    UUID third = mockFact(objects[2], objects[3]);
+    UUID fourth = mockFact(objects[3], objects[4]);
+
+    assertEquals(list(first, second, third, fourth), handlePath(objects[0], objects[4], null));
+    assertEquals(list(fourth, third, second, first), handlePath(objects[4], objects[0], null));
+    assertEquals(list(second), handlePath(objects[1], objects[2], null));
+  }
+
+  @Test
+  public void testPathReturnsShortestPath() throws Exception {
+    UUID[] objects = createObjects(4);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[1], objects[2]);
+    mockFact(objects[2], objects[3]);
+    UUID shortcut = mockFact(objects[0], objects[3]);
+
+    assertEquals(list(shortcut), handlePath(objects[0], objects[3], null));
+  }
+
+  @Test
+  public void testPathRespectsDepth() throws Exception {
+    UUID[] objects = createObjects(4);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[1], objects[2]);
+    mockFact(objects[2], objects[3]);
+
+    assertEquals(list(), handlePath(objects[0], objects[3], 2));
+    assertEquals(3, handlePath(objects[0], objects[3], 3).size());
+  }
+
+  @Test
+  public void testPathSkipsFactsWithoutAccess() throws Exception {
+    UUID[] objects = createObjects(3);
+    mockFact(objects[0], objects[1]);
+    UUID second = mockFact(objects[1], objects[2]);
+    when(getSecurityContext().hasReadPermission(facts.get(second))).thenReturn(false);
+
+    assertEquals(list(), handlePath(objects[0], objects[2], null));
+  }
+
+  @Test(expected = InvalidArgumentException.class)
+  public void testPathExceedsMaximumFetchedFacts() throws Exception {
+    doThrow(AccessDeniedException.class).when(getSecurityContext()).checkPermission(TiFunctionConstants.unlimitedTraversal);
+    delegate.setMaximumFetchedFacts(2);
+    UUID[] objects = createObjects(5);
+    mockFact(objects[0], objects[1]);
+    mockFact(objects[1], objects[2]);
+    mockFact(objects[2], objects[3]);
+    mockFact(objects[3], objects[4]);
+
+    handlePath(objects[0], objects[4], null);
+  }
+
+  @Test
+  public void testPathWithSameSourceAndDestination() throws Exception {
+    UUID objectID = UUID.randomUUID();
+    assertEquals(list(), handlePath(objectID, objectID, null));
+    verify(getObjectManager(), never()).fetchObjectFactBindings(any());
+  }
+
+  private List<UUID> handleNeighbourhood(UUID objectID, Integer depth, Integer limit) throws Exception {
+    return toFactID(delegate.handle(new GetObjectNeighbourhoodRequest().setId(objectID).setDepth(depth).setLimit(limit)));
+  }
+
+  private List<UUID> handlePath(UUID source, UUID destination, Integer depth) throws Exception {
+    return toFactID(delegate.handle(new FindObjectPathRequest().setSource(source).setDestination(destination).setDepth(depth)));
+  }
+
+  private List<UUID> toFactID(ResultSet<Fact> result) {
+    List<UUID> factID = new ArrayList<>();
+    result.iterator().forEachRemaining(fact -> factID.add(fact.getId()));
+    return factID;
+  }
+
+  private UUID[] createObjects(int count) {
+    UUID[] objects = new UUID[count];
+    for (int i = 0; i < count; i++) {
+      objects[i] = UUID.randomUUID();
+    }
+    return objects;
+  }
+
+  private UUID mockFact(UUID source, UUID destination) {
+    FactRecord fact = new FactRecord()
+            .setId(UUID.randomUUID())
+            .setSourceObject(new ObjectRecord().setId(source))
+            .setDestinationObject(new ObjectRecord().setId(destination));
+    facts.put(fact.getId(), fact);
+
+    mockBinding(source, fact.getId(), Direction.FactIsDestination);
+    mockBinding(destination, fact.getId(), Direction.FactIsSource);
+
+    return fact.getId();
+  }
+
+  private void mockBinding(UUID objectID, UUID factID, Direction direction) {
+    bindings.computeIfAbsent(objectID, id -> new ArrayList<>()).add(new ObjectFactBindingEntity()
+            .setObjectID(objectID)
+            .setFactID(factID)
+            .setDirection(direction));
+  }
+}
@@ -5,19 +5,35 @@ import no.mnemonic.act.platform.api.exceptions.InvalidArgumentException;
 import no.mnemonic.act.platform.api.exceptions.OperationTimeoutException;
 import no.mnemonic.act.platform.api.model.v1.Fact;
 import no.mnemonic.act.platform.api.model.v1.Object;
+import no.mnemonic.act.platform.api.request.v1.GraphProgram;
+import no.mnemonic.act.platform.api.request.v1.TraverseByBytecodeRequest;
 import no.mnemonic.act.platform.api.request.v1.TraverseByObjectIdRequest;
 import no.mnemonic.act.platform.api.request.v1.TraverseByObjectSearchRequest;
 import no.mnemonic.act.platform.api.request.v1.TraverseByObjectTypeValueRequest;
 import no.mnemonic.act.platform.api.service.v1.StreamingResultSet;
 import no.mnemonic.act.platform.dao.api.ObjectFactDao;
+import no.mnemonic.act.platform.dao.api.criteria.ObjectStatisticsCriteria;
 import no.mnemonic.act.platform.dao.api.record.FactRecord;
 import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import no.mnemonic.act.platform.dao.api.result.ObjectStatisticsContainer;
 import no.mnemonic.act.platform.dao.cassandra.entity.*;
+import no.mnemonic.act.platform.dao.tinkerpop.TraversalBudget;
+import no.mnemonic.act.platform.dao.tinkerpop.exceptions.TraversalBudgetExceededException;
 import no.mnemonic.act.platform.service.ti.TiFunctionConstants;
 import no.mnemonic.act.platform.service.ti.converters.FactConverter;
 import no.mnemonic.act.platform.service.ti.converters.ObjectConverter;
+import no.mnemonic.act.platform.service.ti.helpers.GraphComputerPool;
+import no.mnemonic.act.platform.service.ti.helpers.GremlinExecutorPool;
+import no.mnemonic.act.platform.service.ti.helpers.TraversalResultCache;
 import no.mnemonic.commons.utilities.collections.ListUtils;
+import no.mnemonic.commons.utilities.collections.SetUtils;
 import no.mnemonic.services.common.api.ResultSet;
+import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONMapper;
+import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONVersion;
+import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -41,6 +57,11 @@ public class TraverseGraphDelegateTest extends AbstractDelegateTest {
   @Mock
   private FactConverter factConverter;
 
+  // Share the pool between tests, as it is shared between requests, such that compiled scripts are reused.
+  private static final GremlinExecutorPool executorPool = new GremlinExecutorPool().setScriptExecutionTimeout(5000);
+  private static final GraphComputerPool computerPool = new GraphComputerPool().setParallelism(2);
+
+  private TraversalResultCache resultCache;
   private TraverseGraphDelegate delegate;
 
   private final TestMethod byIdHandle = (object, query) -> {
@@ -72,9 +93,16 @@ public class TraverseGraphDelegateTest extends AbstractDelegateTest {
     return delegate.handle(request);
   };
 
+  @AfterClass
+  public static void tearDown() {
+    executorPool.stopComponent();
+    computerPool.stopComponent();
+  }
+
   @Before
   public void setup() {
     // initMocks() will be called by base class.
+    resultCache = new TraversalResultCache();
     delegate = new TraverseGraphDelegate(
             getSecurityContext(),
             objectFactDao,
@@ -82,8 +110,11 @@ public class TraverseGraphDelegateTest extends AbstractDelegateTest {
             getFactManager(),
             objectSearch,
             objectConverter,
-            factConverter
-    ).setScriptExecutionTimeout(2000);
+            factConverter,
+            executorPool,
+            computerPool,
+            resultCache
+    );
   }
 
   @Test(expected = AccessDeniedException.class)
@@ -135,6 +166,33 @@ public class TraverseGraphDelegateTest extends AbstractDelegateTest {
     testTraverseGraphTimeout(byIdHandle);
   }
 
+  @Test
+  public void testTraverseGraphConvertsResultInBatches() throws Exception {
+    ObjectRecord startObject = mockFullTraversal();
+    delegate.setResultBatchSize(1);
+
+    List<?> result = ListUtils.list(byIdHandle.execute(startObject, "g.values('value').inject('a', 'b')").iterator());
+    assertEquals(ListUtils.list("a", "b", startObject.getValue()), result);
+  }
+
+  @Test
+  public void testTraverseGraphWithMaximumResultSize() throws Exception {
+    ObjectRecord startObject = mockFullTraversal();
+    delegate.setResultBatchSize(1).setMaximumResultSize(2);
+
+    ResultSet<?> result = byIdHandle.execute(startObject, "g.values('value').inject('a', 'b')");
+    assertEquals(2, result.getLimit());
+    assertEquals(ListUtils.list("a", "b"), ListUtils.list(result.iterator()));
+  }
+
+  @Test
+  public void testTraverseGraphSkipsFactWithoutAccess() throws Exception {
+    ObjectRecord startObject = mockFullTraversal();
+    when(getSecurityContext().hasReadPermission(isA(FactRecord.class))).thenReturn(false);
+
+    assertFalse(byIdHandle.execute(startObject, "g.outE()").iterator().hasNext());
+  }
+
   @Test(expected = AccessDeniedException.class)
   public void testTraverseGraphByObjectTypeValueWithoutPermission() throws Exception {
     doThrow(AccessDeniedException.class).when(getSecurityContext()).checkPermission(TiFunctionConstants.traverseFactObjects);
@@ -243,6 +301,357 @@ public class TraverseGraphDelegateTest extends AbstractDelegateTest {
     testTraverseGraphTimeout(byObjectSearchHandle);
   }
 
+  @Test
+  public void testTraverseGraphByObjectSearchParallelDeduplicatesResult() throws Exception {
+    TraverseByObjectSearchRequest request = mockParallelTraversal("g.outE()", true);
+
+    List<?> result = ListUtils.list(delegate.handle(request).iterator());
+    assertEquals(1, result.size());
+    assertTrue(result.get(0) instanceof Fact);
+  }
+
+  @Test
+  public void testTraverseGraphByObjectSearchParallelReturnValues() throws Exception {
+    TraverseByObjectSearchRequest request = mockParallelTraversal("g.values('value')", true);
+
+    List<?> result = ListUtils.list(delegate.handle(request).iterator());
+    assertEquals(ListUtils.list("objectValue", "objectValue"), result);
+  }
+
+  @Test
+  public void testTraverseGraphByObjectSearchNotParallel() throws Exception {
+    TraverseByObjectSearchRequest request = mockParallelTraversal("g.outE()", false);
+
+    // Without parallel mode the traversal returns the Fact once for every starting Object.
+    assertEquals(2, ListUtils.list(delegate.handle(request).iterator()).size());
+  }
+
+  @Test
+  public void testTraverseGraphByObjectSearchParallelSharesBudget() throws Exception {
+    TraverseByObjectSearchRequest request = mockParallelTraversal("g.values('value')", true);
+    doThrow(AccessDeniedException.class).when(getSecurityContext()).checkPermission(TiFunctionConstants.unlimitedTraversal);
+    // Each partition loads one vertex, thus, only the partitions together exceed the budget.
+    delegate.setTraversalBudget(TraversalBudget.builder().setMaximumVertices(1).build());
+
+    try {
+      ListUtils.list(delegate.handle(request).iterator());
+      fail();
+    } catch (InvalidArgumentException ex) {
+      assertEquals("graph.traversal.budget.exceeded", ex.getValidationErrors().iterator().next().getMessageTemplate());
+    } catch (IllegalStateException ex) {
+      // One partition might have returned its result before the other partition exceeded the budget.
+      assertTrue(ex.getCause() instanceof TraversalBudgetExceededException);
+    }
+  }
+
+  @Test(expected = InvalidArgumentException.class)
+  public void testTraverseGraphByObjectSearchParallelReturnError() throws Exception {
+    delegate.handle(mockParallelTraversal("g.addE('notAllowed')", true));
+  }
+
+  @Test
+  public void testTraverseGraphByObjectSearchWithProgramStartsAtSubgraph() throws Exception {
+    TraverseByObjectSearchRequest request = mockParallelTraversal("g", false)
+            .setProgram(GraphProgram.pageRank);
+    delegate.setResultBatchSize(1);
+
+    // The subgraph contains both starting Objects and the Object reached via the Fact.
+    List<?> result = ListUtils.list(delegate.handle(request).iterator());
+    assertEquals(3, result.size());
+    assertTrue(result.stream().allMatch(Object.class::isInstance));
+  }
+
+  @Test
+  public void testTraverseGraphByObjectSearchWithProgramReturnComputedValues() throws Exception {
+    TraverseByObjectSearchRequest request = mockParallelTraversal("g.values('component').dedup()", false)
+            .setProgram(GraphProgram.connectedComponent);
+
+    // All Objects are connected, thus, they belong to the same component.
+    assertEquals(1, ListUtils.list(delegate.handle(request).iterator()).size());
+  }
+
+  @Test
+  public void testTraverseGraphByObjectSearchWithProgramAndZeroHops() throws Exception {
+    TraverseByObjectSearchRequest request = mockParallelTraversal("g.has('pageRank')", false)
+            .setProgram(GraphProgram.pageRank)
+            .setHops(0);
+    delegate.setResultBatchSize(1);
+
+    assertEquals(2, ListUtils.list(delegate.handle(request).iterator()).size());
+  }
+
+  @Test(expected = InvalidArgumentException.class)
+  public void testTraverseGraphByObjectSearchWithProgramExceedsMaximumSubgraphSize() throws Exception {
+    TraverseByObjectSearchRequest request = mockParallelTraversal("g", false)
+            .setProgram(GraphProgram.pageRank);
+    delegate.setMaximumSubgraphSize(2);
+
+    delegate.handle(request);
+  }
+
+  @Test(expected = AccessDeniedException.class)
+  public void testTraverseGraphByBytecodeWithoutPermission() throws Exception {
+    doThrow(AccessDeniedException.class).when(getSecurityContext()).checkPermission(TiFunctionConstants.traverseFactObjects);
+    delegate.handle(new TraverseByBytecodeRequest());
+  }
+
+  @Test(expected = AccessDeniedException.class)
+  public void testTraverseGraphByBytecodeWithoutObject() throws Exception {
+    doThrow(AccessDeniedException.class).when(getSecurityContext()).checkReadPermission((ObjectRecord) isNull());
+    delegate.handle(new TraverseByBytecodeRequest()
+            .addObjectID(UUID.randomUUID())
+            .setBytecode(serialize(__.outE())));
+  }
+
+  @Test
+  public void testTraverseGraphByBytecodeReturnEdges() throws Exception {
+    ObjectRecord startObject = mockFullTraversal();
+    List<?> result = ListUtils.list(executeBytecode(startObject, __.outE()).iterator());
+    assertEquals(1, result.size());
+    assertTrue(result.get(0) instanceof Fact);
+  }
+
+  @Test
+  public void testTraverseGraphByBytecodeReturnVertices() throws Exception {
+    ObjectRecord startObject = mockFullTraversal();
+    List<?> result = ListUtils.list(executeBytecode(startObject, __.out()).iterator());
+    assertEquals(1, result.size());
+    assertTrue(result.get(0) instanceof Object);
+  }
+
+  @Test
+  public void testTraverseGraphByBytecodeReturnValue() throws Exception {
+    ObjectRecord startObject = mockFullTraversal();
+    List<?> result = ListUtils.list(executeBytecode(startObject, __.values("value")).iterator());
+    assertEquals(ListUtils.list(startObject.getValue()), result);
+  }
+
+  @Test
+  public void testTraverseGraphByBytecodeNotAllowed() throws Exception {
+    TraverseByBytecodeRequest request = new TraverseByBytecodeRequest()
+            .addObjectID(UUID.randomUUID())
+            .setBytecode(serialize(__.addE("notAllowed")));
+
+    try {
+      delegate.handle(request);
+      fail();
+    } catch (InvalidArgumentException ignored) {
+      // The bytecode is rejected before the starting Objects are fetched.
+      verifyZeroInteractions(objectFactDao);
+    }
+  }
+
+  @Test(expected = InvalidArgumentException.class)
+  public void testTraverseGraphByBytecodeInvalid() throws Exception {
+    delegate.handle(new TraverseByBytecodeRequest()
+            .addObjectID(UUID.randomUUID())
+            .setBytecode("{ 'invalid' }"));
+  }
+
+  @Test(expected = InvalidArgumentException.class)
+  public void testTraverseGraphByBytecodeReturnError() throws Exception {
+    ObjectRecord startObject = mockFullTraversal();
+    // Allowed step but invalid arguments, fails when creating the traversal.
+    Bytecode bytecode = new Bytecode();
+    bytecode.addStep("limit", "notANumber");
+    executeBytecode(startObject, bytecode);
+  }
+
+  @Test
+  public void testTraverseGraphByObjectIdProfile() throws Exception {
+    ObjectRecord startObject = mockFullTraversal();
+    List<?> result = ListUtils.list(delegate.handle(new TraverseByObjectIdRequest()
+            .setId(startObject.getId())
+            .setQuery("g.outE()")
+            .setProfile(true)
+    ).iterator());
+
+    // The profile is returned instead of the traversal result, including the Cassandra reads per step.
+    assertEquals(1, result.size());
+    assertTrue(String.valueOf(result.get(0)).contains("cassandraReads"));
+    assertTrue(String.valueOf(result.get(0)).contains("accessChecks"));
+  }
+
+  @Test(expected = InvalidArgumentException.class)
+  public void testTraverseGraphByObjectIdProfileIteratedTraversal() throws Exception {
+    ObjectRecord startObject = mockFullTraversal();
+    delegate.handle(new TraverseByObjectIdRequest()
+            .setId(startObject.getId())
+            .setQuery("g.outE().toList()")
+            .setProfile(true));
+  }
+
+  @Test
+  public void testTraverseGraphByBytecodeProfile() throws Exception {
+    ObjectRecord startObject = mockFullTraversal();
+    List<?> result = ListUtils.list(delegate.handle(new TraverseByBytecodeRequest()
+            .addObjectID(startObject.getId())
+            .setBytecode(serialize(__.outE()))
+            .setProfile(true)
+    ).iterator());
+
+    assertEquals(1, result.size());
+    assertTrue(String.valueOf(result.get(0)).contains("cassandraReads"));
+  }
+
+  @Test
+  public void testTraverseGraphExceedsBudget() throws Exception {
+    ObjectRecord startObject = mockFullTraversal();
+    doThrow(AccessDeniedException.class).when(getSecurityContext()).checkPermission(TiFunctionConstants.unlimitedTraversal);
+    delegate.setTraversalBudget(TraversalBudget.builder().setMaximumReads(1).build());
+
+    try {
+      byIdHandle.execute(startObject, "g.outE()");
+      fail();
+    } catch (InvalidArgumentException ex) {
+      assertEquals("graph.traversal.budget.exceeded", ex.getValidationErrors().iterator().next().getMessageTemplate());
+    }
+  }
+
+  @Test
+  public void testTraverseGraphWithUnlimitedTraversalIgnoresBudget() throws Exception {
+    delegate.setTraversalBudget(TraversalBudget.builder().setMaximumReads(1).build());
+    testTraverseGraphReturnEdges(byIdHandle);
+    verify(getSecurityContext()).checkPermission(TiFunctionConstants.unlimitedTraversal);
+  }
+
+  @Test
+  public void testTraverseGraphFilterByObjectStatistics() throws Exception {
+    UUID currentUserID = UUID.randomUUID();
+    Set<UUID> availableOrganizationID = SetUtils.set(UUID.randomUUID());
+    when(getSecurityContext().getCurrentUserID()).thenReturn(currentUserID);
+    when(getSecurityContext().getAvailableOrganizationID()).thenReturn(availableOrganizationID);
+    when(objectFactDao.calculateObjectStatistics(any())).then(i -> {
+      ObjectStatisticsContainer.Builder builder = ObjectStatisticsContainer.builder();
+      for (UUID objectID : i.<ObjectStatisticsCriteria>getArgument(0).getObjectID()) {
+        builder.addStatistic(objectID, new ObjectStatisticsContainer.FactStatistic(UUID.randomUUID(), 1, 0, 0));
+      }
+      return builder.build();
+    });
+
+    ObjectRecord startObject = mockFullTraversal();
+    List<?> result = ListUtils.list(byIdHandle.execute(startObject, "g.out().has('factCount', 1L).union(identity(), both().has('factCount', gt(1L)))").iterator());
+    assertEquals(1, result.size());
+
+    // Statistics are calculated within the access scope of the current user.
+    verify(objectFactDao, atLeastOnce()).calculateObjectStatistics(argThat(criteria ->
+            currentUserID.equals(criteria.getCurrentUserID()) && availableOrganizationID.equals(criteria.getAvailableOrganizationID())));
+  }
+
+  @Test
+  public void testTraverseGraphWithCacheReturnsCachedResult() throws Exception {
+    ObjectRecord startObject = mockCachedTraversal();
+    TraverseByObjectIdRequest request = new TraverseByObjectIdRequest()
+            .setId(startObject.getId())
+            .setQuery("g.out()")
+            .setCache(true);
+
+    List<?> first = ListUtils.list(delegate.handle(request).iterator());
+    // Differently indented queries share the cached result.
+    List<?> second = ListUtils.list(delegate.handle(request.setQuery("  g.out()  ")).iterator());
+
+    assertEquals(1, first.size());
+    assertEquals(first, second);
+    assertEquals(1, resultCache.size());
+    verify(getObjectManager()).fetchObjectFactBindings(startObject.getId());
+    // The starting Object is still checked for every request.
+    verify(getSecurityContext(), times(2)).checkReadPermission(startObject);
+  }
+
+  @Test
+  public void testTraverseGraphWithCacheSeparatesUsers() throws Exception {
+    ObjectRecord startObject = mockCachedTraversal();
+    TraverseByObjectIdRequest request = new TraverseByObjectIdRequest()
+            .setId(startObject.getId())
+            .setQuery("g.out()")
+            .setCache(true);
+
+    ListUtils.list(delegate.handle(request).iterator());
+    when(getSecurityContext().getCurrentUserID()).thenReturn(UUID.randomUUID());
+    ListUtils.list(delegate.handle(request).iterator());
+
+    assertEquals(2, resultCache.size());
+    verify(getObjectManager(), times(2)).fetchObjectFactBindings(startObject.getId());
+  }
+
+  @Test
+  public void testTraverseGraphWithCacheInvalidatedByTouchedObject() throws Exception {
+    ObjectRecord startObject = mockCachedTraversal();
+    TraverseByBytecodeRequest request = new TraverseByBytecodeRequest()
+            .addObjectID(startObject.getId())
+            .setBytecode(serialize(__.out()))
+            .setCache(true);
+
+    List<?> first = ListUtils.list(delegate.handle(request).iterator());
+    // A Fact bound to the Object reached by the traversal changes the result.
+    resultCache.invalidate(SetUtils.set(((Object) first.get(0)).getId()));
+    ListUtils.list(delegate.handle(request).iterator());
+
+    verify(getObjectManager(), times(2)).fetchObjectFactBindings(startObject.getId());
+  }
+
+  @Test
+  public void testTraverseGraphWithoutCacheNotCached() throws Exception {
+    ObjectRecord startObject = mockCachedTraversal();
+    ListUtils.list(delegate.handle(new TraverseByObjectIdRequest().setId(startObject.getId()).setQuery("g.out()")).iterator());
+    ListUtils.list(delegate.handle(new TraverseByObjectIdRequest().setId(startObject.getId()).setQuery("g.out()").setCache(true).setProfile(true)).iterator());
+
+    assertEquals(0, resultCache.size());
+    verify(getObjectManager(), times(2)).fetchObjectFactBindings(startObject.getId());
+  }
+
+  private ObjectRecord mockCachedTraversal() {
+    when(getSecurityContext().getCurrentUserID()).thenReturn(UUID.randomUUID());
+    when(getSecurityContext().getAvailableOrganizationID()).thenReturn(SetUtils.set(UUID.randomUUID()));
+    return mockFullTraversal();
+  }
+
+  private ResultSet<?> executeBytecode(ObjectRecord startObject, Traversal<?, ?> traversal) throws Exception {
+    return executeBytecode(startObject, traversal.asAdmin().getBytecode());
+  }
+
+  private ResultSet<?> executeBytecode(ObjectRecord startObject, Bytecode bytecode) throws Exception {
+    ResultSet<?> result = delegate.handle(new TraverseByBytecodeRequest()
+            .addObjectID(startObject.getId())
+            .setBytecode(serialize(bytecode)));
+    verify(getSecurityContext()).checkReadPermission(startObject);
+    return result;
+  }
+
+  private String serialize(Traversal<?, ?> traversal) throws Exception {
+    return serialize(traversal.asAdmin().getBytecode());
+  }
+
+  private String serialize(Bytecode bytecode) throws Exception {
+    return GraphSONMapper.build()
+            .version(GraphSONVersion.V3_0)
+            .create()
+            .createMapper()
+            .writeValueAsString(bytecode);
+  }
+
+  private TraverseByObjectSearchRequest mockParallelTraversal(String query, boolean parallel) throws Exception {
+    when(getSecurityContext().hasReadPermission(isA(FactEntity.class))).thenReturn(true);
+    when(getSecurityContext().hasReadPermission(isA(FactRecord.class))).thenReturn(true);
+
+    // Two starting Objects bound to the same Fact which are traversed in two partitions.
+    FactEntity fact = mockFetchFact(mockFetchObject());
+    ObjectRecord first = mockFetchObject(fact);
+    ObjectRecord second = mockFetchObject(fact);
+    delegate.setParallelism(2);
+
+    TraverseByObjectSearchRequest request = new TraverseByObjectSearchRequest()
+            .setQuery(query)
+            .setParallel(parallel);
+    List<Object> searchResult = ListUtils.list(
+            Object.builder().setId(first.getId()).build(),
+            Object.builder().setId(second.getId()).build()
+    );
+    when(objectSearch.handle(request)).thenReturn(StreamingResultSet.<Object>builder().setValues(searchResult).build());
+
+    return request;
+  }
+
   private void testTraverseGraphReturnEdges(TestMethod method) throws Exception {
     ObjectRecord startObject = mockFullTraversal();
     List<?> result = ListUtils.list(method.execute(startObject, "g.outE()").iterator());
@@ -308,6 +717,7 @@ public class TraverseGraphDelegateTest extends AbstractDelegateTest {
     when(getObjectManager().getObject(objectType.getName(), entity.getValue())).thenReturn(entity);
     when(objectFactDao.getObject(entity.getId())).thenReturn(record);
     when(objectFactDao.getObject(objectType.getName(), entity.getValue())).thenReturn(record);
+    when(objectFactDao.getObjects(ListUtils.list(entity.getId()))).then(i -> ListUtils.list(record).iterator());
     when(objectConverter.apply(record)).thenReturn(Object.builder().setId(entity.getId()).build());
 
     return record;
@@ -316,7 +726,7 @@ public class TraverseGraphDelegateTest extends AbstractDelegateTest {
   private ObjectRecord mockFetchObject(FactEntity fact) {
     ObjectRecord object = mockFetchObject();
 
-    when(getObjectManager().fetchObjectFactBindings(object.getId())).thenReturn(ListUtils.list(
+    when(getObjectManager().fetchObjectFactBindings(object.getId())).then(i -> ListUtils.list(
             new ObjectFactBindingEntity()
                     .setObjectID(object.getId())
                     .setFactID(fact.getId())
@@ -338,7 +748,9 @@ public class TraverseGraphDelegateTest extends AbstractDelegateTest {
             .setValue("factValue");
     FactRecord record = toRecord(entity);
     when(getFactManager().getFact(entity.getId())).thenReturn(entity);
+    when(getFactManager().getFacts(ListUtils.list(entity.getId()))).then(i -> ListUtils.list(entity).iterator());
     when(objectFactDao.getFact(entity.getId())).thenReturn(record);
+    when(objectFactDao.getFacts(ListUtils.list(entity.getId()))).then(i -> ListUtils.list(record).iterator());
     when(factConverter.apply(record)).thenReturn(Fact.builder().setId(entity.getId()).build());
 
     return entity;
@@ -0,0 +1,38 @@
+package no.mnemonic.act.platform.service.ti.helpers;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class GraphComputerPoolTest {
+
+  private GraphComputerPool pool = new GraphComputerPool().setParallelism(2);
+
+  @After
+  public void tearDown() {
+    pool.stopComponent();
+  }
+
+  @Test
+  public void testGetPoolReturnsSharedPool() {
+    ForkJoinPool shared = pool.getPool();
+    assertSame(shared, pool.getPool());
+    assertEquals(2, shared.getParallelism());
+  }
+
+  @Test
+  public void testStopComponentShutsDownPool() {
+    ForkJoinPool shared = pool.getPool();
+    pool.stopComponent();
+    assertTrue(shared.isShutdown());
+  }
+
+  @Test
+  public void testStopComponentWithoutPool() {
+    // Nothing to stop if the pool was never used.
+    pool.stopComponent();
+  }
+}
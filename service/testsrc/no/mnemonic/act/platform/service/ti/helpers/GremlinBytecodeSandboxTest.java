@@ -0,0 +1,97 @@
+package no.mnemonic.act.platform.service.ti.helpers;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONMapper;
+import org.apache.tinkerpop.gremlin.structure.io.graphson.GraphSONVersion;
+import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
+import org.apache.tinkerpop.gremlin.util.function.Lambda;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class GremlinBytecodeSandboxTest {
+
+  @Test
+  public void testParseAllowedBytecode() throws Exception {
+    Traversal<?, ?> traversal = __.repeat(__.both()).times(2)
+            .outE().hasLabel("type").has("trust", P.gt(0.5f))
+            .where(__.inV().has(T.id, UUID.randomUUID()))
+            .order().by("value", Order.desc)
+            .limit(10);
+
+    assertEquals(traversal.asAdmin().getBytecode(), GremlinBytecodeSandbox.parse(serialize(traversal)));
+  }
+
+  @Test
+  public void testParseInvalidJson() {
+    assertNotAllowed("{ 'invalid' }");
+  }
+
+  @Test
+  public void testParseOtherValue() throws Exception {
+    assertNotAllowed(serialize(UUID.randomUUID()));
+  }
+
+  @Test
+  public void testParseStepNotAllowed() throws Exception {
+    assertNotAllowed(serialize(__.addE("type")));
+    assertNotAllowed(serialize(__.V()));
+    assertNotAllowed(serialize(__.out().drop()));
+  }
+
+  @Test
+  public void testParseStepNotAllowedInAnonymousTraversal() throws Exception {
+    assertNotAllowed(serialize(__.where(__.addE("type"))));
+    assertNotAllowed(serialize(__.repeat(__.out().sideEffect(__.drop())).times(2)));
+  }
+
+  @Test
+  public void testParseLambdaNotAllowed() throws Exception {
+    assertNotAllowed(serialize(__.map(Lambda.function("it.get()"))));
+  }
+
+  @Test
+  public void testParseSourceInstructionNotAllowed() throws Exception {
+    GraphTraversalSource g = EmptyGraph.instance().traversal();
+    assertNotAllowed(serialize(g.withSideEffect("a", 1).V().asAdmin().getBytecode()));
+  }
+
+  @Test
+  public void testCreateTraversalStartsAtVertices() throws Exception {
+    UUID id = UUID.randomUUID();
+    Bytecode bytecode = GremlinBytecodeSandbox.parse(serialize(__.outE().limit(1)));
+
+    Traversal.Admin<?, ?> traversal = GremlinBytecodeSandbox.createTraversal(EmptyGraph.instance().traversal(), new Object[]{id}, bytecode);
+    assertEquals(EmptyGraph.instance().traversal().V(id).outE().limit(1).asAdmin().getBytecode(), traversal.getBytecode());
+    assertFalse(traversal.hasNext());
+  }
+
+  private void assertNotAllowed(String graphson) {
+    try {
+      GremlinBytecodeSandbox.parse(graphson);
+      fail("Expected IllegalArgumentException!");
+    } catch (IllegalArgumentException ignored) {
+      // Expected.
+    }
+  }
+
+  private String serialize(Traversal<?, ?> traversal) throws Exception {
+    return serialize(traversal.asAdmin().getBytecode());
+  }
+
+  private String serialize(java.lang.Object value) throws Exception {
+    return GraphSONMapper.build()
+            .version(GraphSONVersion.V3_0)
+            .create()
+            .createMapper()
+            .writeValueAsString(value);
+  }
+}
@@ -0,0 +1,177 @@
+package no.mnemonic.act.platform.service.ti.helpers;
+
+import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static no.mnemonic.commons.utilities.collections.MapUtils.Pair.T;
+import static no.mnemonic.commons.utilities.collections.MapUtils.map;
+import static org.junit.Assert.*;
+
+public class GremlinExecutorPoolTest {
+
+  private GremlinExecutorPool pool = new GremlinExecutorPool().setScriptExecutionTimeout(60_000);
+
+  @After
+  public void tearDown() {
+    pool.stopComponent();
+  }
+
+  @Test
+  public void testEvalProducesResult() throws Exception {
+    List<Object> result = new CopyOnWriteArrayList<>();
+    pool.eval("g.count()", createBindings(), value -> IteratorUtils.asIterator(value).forEachRemaining(result::add)).get();
+    assertEquals(1, result.size());
+    assertEquals(0L, result.get(0));
+  }
+
+  @Test
+  public void testEvalCachesCompiledScript() throws Exception {
+    assertEquals(0, pool.getScriptCacheHitCount());
+    assertEquals(0, pool.getScriptCacheMissCount());
+
+    pool.eval("g.count()", createBindings(), value -> {}).get();
+    pool.eval("g.count()", createBindings(), value -> {}).get();
+    pool.eval("g.limit(1)", createBindings(), value -> {}).get();
+
+    assertEquals(1, pool.getScriptCacheHitCount());
+    assertEquals(2, pool.getScriptCacheMissCount());
+  }
+
+  @Test
+  public void testEvalEnforcesSandboxForCachedScript() throws Exception {
+    for (int i = 0; i < 2; i++) {
+      try {
+        pool.eval("System.exit(0)", createBindings(), value -> {}).get();
+        fail("Expected ExecutionException!");
+      } catch (ExecutionException ignored) {
+        // Expected, both when compiling and when using the cache.
+      }
+    }
+  }
+
+  @Test
+  public void testEvalEnforcesTimeout() throws Exception {
+    pool.setScriptExecutionTimeout(100);
+
+    try {
+      pool.eval("g.count()", createBindings(), value -> sleep(1000)).get();
+      fail("Expected ExecutionException!");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof TimeoutException);
+    }
+  }
+
+  @Test
+  public void testEvalRejectedWhenPoolExhausted() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    pool.setPoolSize(1).setQueueSize(1);
+
+    CompletableFuture<Object> running = pool.eval("g.count()", createBindings(), value -> await(latch));
+    CompletableFuture<Object> queued = pool.eval("g.count()", createBindings(), value -> {});
+    try {
+      pool.eval("g.count()", createBindings(), value -> {});
+      fail("Expected RejectedExecutionException!");
+    } catch (RejectedExecutionException ignored) {
+      // Expected.
+    } finally {
+      latch.countDown();
+    }
+
+    running.get();
+    queued.get();
+  }
+
+  @Test
+  public void testSubmitProducesResult() throws Exception {
+    List<Object> result = new CopyOnWriteArrayList<>();
+    pool.submit(() -> EmptyGraph.instance().traversal().inject(1L, 2L), value -> IteratorUtils.asIterator(value).forEachRemaining(result::add)).get();
+    assertEquals(2, result.size());
+    assertEquals(1L, result.get(0));
+  }
+
+  @Test
+  public void testSubmitReportsFailure() throws Exception {
+    try {
+      pool.submit(() -> {
+        throw new IllegalStateException("failure");
+      }, value -> {}).get();
+      fail("Expected ExecutionException!");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  public void testSubmitEnforcesTimeout() throws Exception {
+    pool.setScriptExecutionTimeout(100);
+    AtomicBoolean interrupted = new AtomicBoolean();
+    CountDownLatch finished = new CountDownLatch(1);
+
+    try {
+      pool.submit(() -> 0L, value -> {
+        try {
+          Thread.sleep(10_000);
+        } catch (InterruptedException ignored) {
+          interrupted.set(true);
+        }
+        finished.countDown();
+      }).get();
+      fail("Expected ExecutionException!");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof TimeoutException);
+    }
+
+    // The executing thread is interrupted when the timeout expires.
+    assertTrue(finished.await(10, TimeUnit.SECONDS));
+    assertTrue(interrupted.get());
+  }
+
+  private Map<String, Object> createBindings() {
+    return map(T("g", EmptyGraph.instance().traversal().V()));
+  }
+
+  private void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException ignored) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException ignored) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  public void testWithTimeoutPassesResult() throws Exception {
+    AtomicBoolean aborted = new AtomicBoolean();
+    assertEquals(42, (int) pool.withTimeout(CompletableFuture.completedFuture(42), () -> aborted.set(true)).get());
+    assertFalse(aborted.get());
+  }
+
+  @Test
+  public void testWithTimeoutAbortsRequest() throws Exception {
+    pool.setScriptExecutionTimeout(100);
+    CountDownLatch aborted = new CountDownLatch(1);
+
+    try {
+      pool.withTimeout(new CompletableFuture<>(), aborted::countDown).get();
+      fail("Expected ExecutionException!");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof TimeoutException);
+    }
+
+    assertTrue(aborted.await(10, TimeUnit.SECONDS));
+  }
+}
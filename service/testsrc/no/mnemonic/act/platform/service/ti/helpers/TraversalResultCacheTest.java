@@ -0,0 +1,156 @@
+package no.mnemonic.act.platform.service.ti.helpers;
+
+import no.mnemonic.act.platform.dao.api.record.FactRecord;
+import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static no.mnemonic.commons.utilities.collections.ListUtils.list;
+import static no.mnemonic.commons.utilities.collections.SetUtils.set;
+import static org.junit.Assert.*;
+
+public class TraversalResultCacheTest {
+
+  private final TraversalResultCache cache = new TraversalResultCache();
+  private final UUID currentUserID = UUID.randomUUID();
+
+  @Test
+  public void testNormalizeQuery() {
+    assertEquals("g.out( )\n.has('value',   'a  b')", TraversalResultCache.normalize("  g.out( )  \n  .has('value',   'a  b')  "));
+    assertEquals("g.V()\n\n.out()", TraversalResultCache.normalize("g.V()\r\n \t\r\n\t.out()"));
+    assertEquals("g.has(\"value\",  \"a \\\"  \n  b\")", TraversalResultCache.normalize("g.has(\"value\",  \"a \\\"  \n  b\")  "));
+    assertNull(TraversalResultCache.normalize(null));
+  }
+
+  @Test
+  public void testNormalizeQueryKeepsLineBreaks() {
+    // A line comment ends at the line break, thus, joining the lines would comment out the rest of the query.
+    assertEquals("g.out() // c\n.out()", TraversalResultCache.normalize("g.out() // c\n  .out()"));
+    assertNotEquals(TraversalResultCache.normalize("g.out() // c\n.out()"), TraversalResultCache.normalize("g.out() // c .out()"));
+  }
+
+  @Test
+  public void testKeyEquality() {
+    UUID objectID = UUID.randomUUID();
+    assertEquals(createKey("g.out()", objectID), createKey(" g.out() ", objectID));
+    assertNotEquals(createKey("g.out()", objectID), createKey("g.in()", objectID));
+    assertNotEquals(createKey("g.out()", objectID), createKey("g.out()", UUID.randomUUID()));
+    assertNotEquals(createKey("g.out()", objectID), TraversalResultCache.Key.builder()
+            .setQuery("g.out()")
+            .setStartingObjects(set(objectID))
+            .setCurrentUserID(currentUserID)
+            .setAvailableOrganizationID(set(UUID.randomUUID()))
+            .build());
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testKeyWithoutCurrentUser() {
+    TraversalResultCache.Key.builder().setQuery("g.out()").build();
+  }
+
+  @Test
+  public void testRecordAndGetResult() {
+    TraversalResultCache.Key key = createKey("g.out()", UUID.randomUUID());
+    assertNull(cache.get(key));
+
+    TraversalResultCache.Recorder recorder = cache.record(key);
+    recorder.addResult(list("a", "b"));
+    recorder.addResult(list("c"));
+    recorder.addTouchedObject(UUID.randomUUID());
+    // Nothing is cached before the recording is completed.
+    assertNull(cache.get(key));
+
+    recorder.complete();
+    assertEquals(list("a", "b", "c"), cache.get(key));
+  }
+
+  @Test
+  public void testResultNotCachedWhenTooLarge() {
+    cache.setMaximumResultSize(2);
+    TraversalResultCache.Key key = createKey("g.out()", UUID.randomUUID());
+
+    TraversalResultCache.Recorder recorder = cache.record(key);
+    recorder.addResult(list("a", "b", "c"));
+    recorder.complete();
+
+    assertNull(cache.get(key));
+  }
+
+  @Test
+  public void testResultNotCachedWhenTouchingTooManyObjects() {
+    cache.setMaximumTouchedObjects(1);
+    TraversalResultCache.Key key = createKey("g.out()", UUID.randomUUID());
+
+    TraversalResultCache.Recorder recorder = cache.record(key);
+    recorder.addTouchedObject(UUID.randomUUID());
+    recorder.addTouchedObject(UUID.randomUUID());
+    recorder.complete();
+
+    assertNull(cache.get(key));
+  }
+
+  @Test
+  public void testInvalidateByTouchedObject() {
+    UUID touched = UUID.randomUUID();
+    TraversalResultCache.Key key1 = record(createKey("g.out()", UUID.randomUUID()), touched);
+    TraversalResultCache.Key key2 = record(createKey("g.in()", UUID.randomUUID()), UUID.randomUUID());
+
+    cache.invalidate(new FactRecord().setSourceObject(new ObjectRecord().setId(touched)));
+
+    assertNull(cache.get(key1));
+    assertNotNull(cache.get(key2));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testInvalidateDuringRecording() {
+    UUID touched = UUID.randomUUID();
+    TraversalResultCache.Key key = createKey("g.out()", UUID.randomUUID());
+
+    TraversalResultCache.Recorder recorder = cache.record(key);
+    recorder.addTouchedObject(touched);
+    cache.invalidate(set(touched));
+    recorder.complete();
+
+    assertNull(cache.get(key));
+  }
+
+  @Test
+  public void testInvalidateOtherObjectDuringRecording() {
+    TraversalResultCache.Key key = createKey("g.out()", UUID.randomUUID());
+
+    TraversalResultCache.Recorder recorder = cache.record(key);
+    recorder.addTouchedObject(UUID.randomUUID());
+    cache.invalidate(set(UUID.randomUUID()));
+    recorder.complete();
+
+    assertNotNull(cache.get(key));
+  }
+
+  @Test
+  public void testResultExpires() throws Exception {
+    cache.setExpiration(10);
+    TraversalResultCache.Key key = record(createKey("g.out()", UUID.randomUUID()), UUID.randomUUID());
+
+    Thread.sleep(20);
+    assertNull(cache.get(key));
+  }
+
+  private TraversalResultCache.Key record(TraversalResultCache.Key key, UUID touched) {
+    TraversalResultCache.Recorder recorder = cache.record(key);
+    recorder.addResult(list("result"));
+    recorder.addTouchedObject(touched);
+    recorder.complete();
+    return key;
+  }
+
+  private TraversalResultCache.Key createKey(String query, UUID startingObject) {
+    return TraversalResultCache.Key.builder()
+            .setQuery(query)
+            .setStartingObjects(set(startingObject))
+            .setCurrentUserID(currentUserID)
+            .setAvailableOrganizationID(set())
+            .build();
+  }
+}
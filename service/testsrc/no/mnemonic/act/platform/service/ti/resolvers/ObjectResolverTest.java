@@ -5,6 +5,7 @@ import no.mnemonic.act.platform.dao.api.ObjectFactDao;
 import no.mnemonic.act.platform.dao.api.record.ObjectRecord;
 import no.mnemonic.act.platform.dao.cassandra.ObjectManager;
 import no.mnemonic.act.platform.dao.cassandra.entity.ObjectTypeEntity;
+import no.mnemonic.act.platform.dao.cassandra.exceptions.ImmutableViolationException;
 import no.mnemonic.act.platform.service.validators.Validator;
 import no.mnemonic.act.platform.service.validators.ValidatorFactory;
 import org.junit.Before;
@@ -84,6 +85,20 @@ public class ObjectResolverTest {
     verify(objectFactDao).storeObject(argThat(record -> assertObjectRecord(record, type.getId(), value)));
   }
 
+  @Test
+  public void testCreateMissingObjectReturnsConcurrentlyCreatedObject() throws Exception {
+    ObjectTypeEntity type = mockFetchObjectType();
+    String value = "value";
+    ObjectRecord existing = new ObjectRecord().setId(UUID.randomUUID()).setTypeID(type.getId()).setValue(value);
+    mockValidator(true);
+
+    when(objectFactDao.storeObject(any())).thenThrow(new ImmutableViolationException("Object already exists."));
+    when(objectFactDao.getObject(type.getName(), value)).thenReturn(null, existing);
+
+    assertSame(existing, resolver.resolveObject(String.format("%s/%s", type.getName(), value)));
+    verify(objectFactDao, times(2)).getObject(type.getName(), value);
+  }
+
   @Test
   public void testCreateMissingObjectFailsOnMissingObjectType() {
     try {